@@ -0,0 +1,48 @@
+package com.liuyang.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口
+ * <p>
+ *     运行基准测试并将结果以 JSON 格式写入文件，用于版本之间的性能回归比较。
+ *     默认启用 GC 分析器，结果中的 <code>gc.alloc.rate.norm</code> 为每次操作分配的字节数。
+ * </p>
+ * <pre>
+ *     mvn -pl benchmarks -am package
+ *     java -jar benchmarks/target/benchmarks.jar [include regex] [result file]
+ * </pre>
+ * <ul>
+ *     <li>2019/3/28  ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class BenchmarkRunner {
+
+    /** 默认的结果文件 */
+    private final static String DEFAULT_RESULT = "jmh-result.json";
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackage().getName() + ".*";
+        String result  = args.length > 1 ? args[1] : DEFAULT_RESULT;
+        Options options = new OptionsBuilder()
+                .include(include)
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result)
+                .build();
+        new Runner(options).run();
+    }
+
+    private BenchmarkRunner() {
+    }
+}
@@ -0,0 +1,52 @@
+package com.liuyang.benchmark;
+
+import com.liuyang.ds.Schema;
+import com.liuyang.ds.Type;
+import com.liuyang.ds.attr.Column;
+
+/**
+ * 基准测试数据
+ * <p>
+ *     各基准测试共用的表头与样本数据，字段覆盖常用的数值、文本、布尔及日期时间类型。
+ * </p>
+ * <ul>
+ *     <li>2019/3/28  ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+final class Fixtures {
+
+    /** 样本数据的字段分隔符 */
+    final static String DELIMITER = "|";
+
+    /** 样本数据的表头 */
+    final static Schema[] HEADER = {
+            new Column("id",       Type.LONG),
+            new Column("city",     Type.INT),
+            new Column("name",     Type.STRING),
+            new Column("score",    Type.DOUBLE),
+            new Column("rate",     Type.FLOAT),
+            new Column("level",    Type.SHORT),
+            new Column("enabled",  Type.BOOLEAN),
+            new Column("birthday", Type.DATE),
+            new Column("created",  Type.TIMESTAMP),
+            new Column("remark",   Type.VARCHAR)
+    };
+
+    /** 样本数据，与表头一致 */
+    final static String LINE =
+            "10000000001|571|liuyang|98.625|0.75|3|true|1990-05-17|2019-03-28 10:15:30.123|data quality sample";
+
+    /** 样本数据按字段拆分后的文本 */
+    final static String[] FIELDS = LINE.split("\\" + DELIMITER);
+
+    /** 样本数据按字段解析后的值 */
+    final static Object[] VALUES = {
+            10000000001L, 571, "liuyang", 98.625D, 0.75F, (short) 3, true, 7441, 1553739330123000L,
+            "data quality sample"
+    };
+
+    private Fixtures() {
+    }
+}
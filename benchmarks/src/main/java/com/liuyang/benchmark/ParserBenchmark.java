@@ -0,0 +1,88 @@
+package com.liuyang.benchmark;
+
+import com.liuyang.ds.Parser;
+import com.liuyang.ds.Type;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数据解析基准测试
+ * <p>
+ *     按类型测试 <code>Parser.parse*</code>，分别从文本与二进制编码（<code>Parser.parseBinary</code>）解析。
+ * </p>
+ * <ul>
+ *     <li>2019/3/28  ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ParserBenchmark {
+
+    @Param({"INT", "LONG", "SHORT", "DOUBLE", "FLOAT", "BOOLEAN", "DATE", "TIMESTAMP", "STRING"})
+    public Type type;
+
+    private String text;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < Fixtures.HEADER.length; i++) {
+            if (Fixtures.HEADER[i].getType() == type) {
+                text = Fixtures.FIELDS[i];
+                break;
+            }
+        }
+        if (text == null)
+            text = Fixtures.FIELDS[2];
+        bytes = Parser.parseBinary(Parser.parse(type, text));
+    }
+
+    @Benchmark
+    public Object parse() {
+        return Parser.parse(type, text);
+    }
+
+    @Benchmark
+    public Object parseValue() {
+        return Parser.parseValue(type, text);
+    }
+
+    @Benchmark
+    public Object parseValueFromBytes() {
+        return Parser.parseValue(type, bytes);
+    }
+
+    @Benchmark
+    public int parseInt() {
+        return Parser.parseInt(Fixtures.FIELDS[1]);
+    }
+
+    @Benchmark
+    public long parseLong() {
+        return Parser.parseLong(Fixtures.FIELDS[0]);
+    }
+
+    @Benchmark
+    public double parseDouble() {
+        return Parser.parseDouble(Fixtures.FIELDS[3]);
+    }
+
+    @Benchmark
+    public boolean parseBoolean() {
+        return Parser.parseBoolean(Fixtures.FIELDS[6]);
+    }
+
+    @Benchmark
+    public int parseDate() {
+        return Parser.parseDate(Fixtures.FIELDS[7]);
+    }
+
+    @Benchmark
+    public long parseTimestamp() {
+        return Parser.parseTimestamp(Fixtures.FIELDS[8]);
+    }
+}
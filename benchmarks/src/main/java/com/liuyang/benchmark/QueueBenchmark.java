@@ -0,0 +1,150 @@
+package com.liuyang.benchmark;
+
+import com.liuyang.util.LockFreeQueue;
+import com.liuyang.util.MpscArrayQueue;
+import com.liuyang.util.SpscArrayQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 并发队列基准测试
+ * <p>
+ *     比较 <code>LockFreeQueue</code>、<code>MpscArrayQueue</code>、<code>SpscArrayQueue</code>
+ *     与 JDK 的 <code>ConcurrentLinkedQueue</code>、<code>ArrayBlockingQueue</code> 的吞吐量：
+ *     <code>spsc</code> 组为一个生产者、一个消费者，<code>mpsc</code> 组为三个生产者、一个消费者。
+ * </p>
+ * <p>
+ *     为了让无界队列与有界队列可以比较，生产者在队列中的元素超过 {@link #CAPACITY} 时暂停写入，
+ *     暂停期间与有界队列写满时一样，计为一次失败的 <code>offer</code>。
+ * </p>
+ * <ul>
+ *     <li>2019/4/4  ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueueBenchmark {
+
+    final static int     CAPACITY = 1 << 14;
+    final static int     BATCH    = 1 << 10;
+    final static Integer ELEMENT  = 1;
+
+    static Queue<Integer> create(String type) {
+        switch (type) {
+            case "LockFreeQueue":         return new LockFreeQueue<>();
+            case "MpscArrayQueue":        return new MpscArrayQueue<>(CAPACITY);
+            case "SpscArrayQueue":        return new SpscArrayQueue<>(CAPACITY);
+            case "ConcurrentLinkedQueue": return new ConcurrentLinkedQueue<>();
+            case "ArrayBlockingQueue":    return new ArrayBlockingQueue<>(CAPACITY);
+            default: throw new IllegalArgumentException("Illegal parameter [type = " + type + "]");
+        }
+    }
+
+    /**
+     * 队列与流量控制，由同组的生产者与消费者共享
+     */
+    public static abstract class Channel {
+        Queue<Integer>   queue;
+        /** 生产者按批次累加的写入数量 */
+        final AtomicLong sent = new AtomicLong();
+        /** 消费者按批次发布的读取数量 */
+        volatile long    received;
+
+        abstract String type();
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            queue = create(type());
+            sent.set(0);
+            received = 0;
+        }
+
+        boolean offer(Producer producer) {
+            if (producer.paused) {
+                if (sent.get() - received > CAPACITY)
+                    return false;
+                producer.paused = false;
+            }
+            if (!queue.offer(ELEMENT))
+                return false;
+            if (++producer.count % BATCH == 0 && sent.addAndGet(BATCH) - received > CAPACITY)
+                producer.paused = true;
+            return true;
+        }
+
+        Integer poll(Consumer consumer) {
+            Integer e = queue.poll();
+            if (e != null && ++consumer.count % BATCH == 0)
+                received = consumer.count;
+            return e;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+        long    count;
+        boolean paused;
+    }
+
+    @State(Scope.Thread)
+    public static class Consumer {
+        long count;
+    }
+
+    @State(Scope.Group)
+    public static class Spsc extends Channel {
+        @Param({"SpscArrayQueue", "MpscArrayQueue", "LockFreeQueue", "ConcurrentLinkedQueue", "ArrayBlockingQueue"})
+        public String type;
+
+        @Override
+        String type() {
+            return type;
+        }
+    }
+
+    @State(Scope.Group)
+    public static class Mpsc extends Channel {
+        @Param({"MpscArrayQueue", "LockFreeQueue", "ConcurrentLinkedQueue", "ArrayBlockingQueue"})
+        public String type;
+
+        @Override
+        String type() {
+            return type;
+        }
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public boolean spscOffer(Spsc channel, Producer producer) {
+        return channel.offer(producer);
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public Integer spscPoll(Spsc channel, Consumer consumer) {
+        return channel.poll(consumer);
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(3)
+    public boolean mpscOffer(Mpsc channel, Producer producer) {
+        return channel.offer(producer);
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(1)
+    public Integer mpscPoll(Mpsc channel, Consumer consumer) {
+        return channel.poll(consumer);
+    }
+}
@@ -0,0 +1,145 @@
+package com.liuyang.benchmark;
+
+import com.liuyang.ds.Row;
+import com.liuyang.ds.sets.DataRow;
+import com.liuyang.ds.sets.SliceRow;
+import com.liuyang.ds.sets.TextRow;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数据行基准测试
+ * <p>
+ *     测试 <code>TextRow</code>、<code>DataRow</code> 及 <code>SliceRow</code> 的创建、按下标与按名称读取字段，
+ *     以及 <code>Row.toJSON</code>。
+ * </p>
+ * <ul>
+ *     <li>2019/3/28  ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class RowBenchmark {
+
+    private TextRow  text;
+    private DataRow  data;
+    private SliceRow slice;
+    private TextRow  reusedText;
+    private SliceRow reusedSlice;
+    private byte[]   line;
+
+    @Setup
+    public void setup() {
+        line        = Fixtures.LINE.getBytes(StandardCharsets.UTF_8);
+        text        = new TextRow(Fixtures.HEADER, Fixtures.FIELDS.clone());
+        data        = new DataRow(Fixtures.HEADER, Fixtures.VALUES.clone());
+        slice       = new SliceRow(Fixtures.HEADER).parse(line, 0, line.length, (byte) '|');
+        reusedText  = new TextRow(Fixtures.HEADER);
+        reusedSlice = new SliceRow(Fixtures.HEADER);
+    }
+
+    // 创建
+
+    @Benchmark
+    public Row createTextRow() {
+        return new TextRow(Fixtures.HEADER, Fixtures.FIELDS.clone());
+    }
+
+    @Benchmark
+    public Row createDataRow() {
+        return new DataRow(Fixtures.HEADER, Fixtures.VALUES.clone());
+    }
+
+    @Benchmark
+    public Row parseTextRow() {
+        return reusedText.parse(Fixtures.LINE, "\\" + Fixtures.DELIMITER);
+    }
+
+    @Benchmark
+    public Row parseSliceRow() {
+        return reusedSlice.parse(line, 0, line.length, (byte) '|');
+    }
+
+    // 按下标读取
+
+    @Benchmark
+    public void textRowGetByIndex(Blackhole bh) {
+        readByIndex(text, bh);
+    }
+
+    @Benchmark
+    public void dataRowGetByIndex(Blackhole bh) {
+        readByIndex(data, bh);
+    }
+
+    @Benchmark
+    public void sliceRowGetByIndex(Blackhole bh) {
+        readByIndex(slice, bh);
+    }
+
+    // 按名称读取
+
+    @Benchmark
+    public void textRowGetByName(Blackhole bh) {
+        readByName(text, bh);
+    }
+
+    @Benchmark
+    public void dataRowGetByName(Blackhole bh) {
+        readByName(data, bh);
+    }
+
+    @Benchmark
+    public void sliceRowGetByName(Blackhole bh) {
+        readByName(slice, bh);
+    }
+
+    // 输出
+
+    @Benchmark
+    public String textRowToJSON() {
+        return text.toJSON();
+    }
+
+    @Benchmark
+    public String dataRowToJSON() {
+        return data.toJSON();
+    }
+
+    @Benchmark
+    public String sliceRowToJSON() {
+        return slice.toJSON();
+    }
+
+    private static void readByIndex(Row row, Blackhole bh) {
+        bh.consume(row.getLong(0));
+        bh.consume(row.getInteger(1));
+        bh.consume(row.getString(2));
+        bh.consume(row.getDouble(3));
+        bh.consume(row.getFloat(4));
+        bh.consume(row.getShort(5));
+        bh.consume(row.getBoolean(6));
+        bh.consume(row.getDate(7));
+        bh.consume(row.getTimestamp(8));
+        bh.consume(row.getString(9));
+    }
+
+    private static void readByName(Row row, Blackhole bh) {
+        bh.consume(row.getLong("id"));
+        bh.consume(row.getInteger("city"));
+        bh.consume(row.getString("name"));
+        bh.consume(row.getDouble("score"));
+        bh.consume(row.getFloat("rate"));
+        bh.consume(row.getShort("level"));
+        bh.consume(row.getBoolean("enabled"));
+        bh.consume(row.getDate("birthday"));
+        bh.consume(row.getTimestamp("created"));
+        bh.consume(row.getString("remark"));
+    }
+}
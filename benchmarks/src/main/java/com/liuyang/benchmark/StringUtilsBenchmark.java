@@ -0,0 +1,93 @@
+package com.liuyang.benchmark;
+
+import com.liuyang.tools.CharSlice;
+import com.liuyang.tools.StringUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 字符串拆分基准测试
+ * <p>
+ *     比较 <code>StringUtils.split</code> 的各个重载与 <code>String.split</code>。
+ * </p>
+ * <ul>
+ *     <li>2019/3/28  ver 1.0.0 创建。</li>
+ *     <li>2019/4/3  ver 1.0.1 增加写入位置数组、视图的拆分与写入缓冲区的连接。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class StringUtilsBenchmark {
+
+    private String[]      buffer;
+    private int[]         offsets;
+    private CharSlice[]   views;
+    private long[]        numbers;
+    private StringBuilder sink;
+
+    @Setup
+    public void setup() {
+        buffer  = new String[Fixtures.HEADER.length];
+        offsets = new int[Fixtures.HEADER.length << 1];
+        views   = new CharSlice[Fixtures.HEADER.length];
+        numbers = new long[Fixtures.HEADER.length];
+        for (int i = 0; i < numbers.length; i++)
+            numbers[i] = 1553990400000L + i * 7919L;
+        sink    = new StringBuilder(256);
+    }
+
+    @Benchmark
+    public String[] splitByChar() {
+        return StringUtils.split(Fixtures.LINE, '|');
+    }
+
+    @Benchmark
+    public String[] splitByCharWithLimit() {
+        return StringUtils.split(Fixtures.LINE, '|', Fixtures.HEADER.length);
+    }
+
+    @Benchmark
+    public String[] splitByString() {
+        return StringUtils.split(Fixtures.LINE, Fixtures.DELIMITER);
+    }
+
+    @Benchmark
+    public String[] splitByStringWithLimit() {
+        return StringUtils.split(Fixtures.LINE, Fixtures.DELIMITER, Fixtures.HEADER.length);
+    }
+
+    @Benchmark
+    public String[] splitIntoBuffer() {
+        return StringUtils.split(Fixtures.LINE, Fixtures.DELIMITER, buffer);
+    }
+
+    @Benchmark
+    public String[] stringSplit() {
+        return Fixtures.LINE.split("\\|");
+    }
+
+    @Benchmark
+    public int splitIntoOffsets() {
+        return StringUtils.split(Fixtures.LINE, 0, Fixtures.LINE.length(), '|', offsets);
+    }
+
+    @Benchmark
+    public int splitIntoViews() {
+        return StringUtils.split(Fixtures.LINE, '|', views);
+    }
+
+    @Benchmark
+    public int joinIntoSink() {
+        sink.setLength(0);
+        return StringUtils.join(sink, '|', numbers).length();
+    }
+
+    @Benchmark
+    public String join() {
+        return StringUtils.join("|", numbers);
+    }
+}
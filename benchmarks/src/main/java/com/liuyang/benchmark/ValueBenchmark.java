@@ -0,0 +1,73 @@
+package com.liuyang.benchmark;
+
+import com.liuyang.ds.Type;
+import com.liuyang.ds.Value;
+import com.liuyang.ds.types.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 字段值基准测试
+ * <p>
+ *     测试各类 <code>Value</code> 的创建以及从文本创建，并与零复制的 <code>SliceValue</code> 比较。
+ * </p>
+ * <ul>
+ *     <li>2019/3/28  ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ValueBenchmark {
+
+    private byte[] line;
+
+    @Setup
+    public void setup() {
+        line = Fixtures.LINE.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Value createInt() {
+        return IntValue.create(571);
+    }
+
+    @Benchmark
+    public Value createLong() {
+        return LongValue.create(10000000001L);
+    }
+
+    @Benchmark
+    public Value createDouble() {
+        return DoubleValue.create(98.625D);
+    }
+
+    @Benchmark
+    public Value createText() {
+        return TextValue.create("liuyang");
+    }
+
+    @Benchmark
+    public Value parseInt() {
+        return IntValue.parse(Fixtures.FIELDS[1]);
+    }
+
+    @Benchmark
+    public Value parseLong() {
+        return LongValue.parse(Fixtures.FIELDS[0]);
+    }
+
+    @Benchmark
+    public long sliceLong() {
+        return SliceValue.wrap(Type.LONG, line, 0, 11).getLong();
+    }
+
+    @Benchmark
+    public Value sliceText() {
+        return SliceValue.wrap(Type.STRING, line, 16, 7);
+    }
+}
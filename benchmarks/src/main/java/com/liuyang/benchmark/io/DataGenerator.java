@@ -0,0 +1,184 @@
+package com.liuyang.benchmark.io;
+
+import com.liuyang.ds.Schema;
+import com.liuyang.ds.Type;
+import com.liuyang.ds.attr.Column;
+import com.liuyang.ds.sets.DataRow;
+import com.liuyang.tools.TimeUtils;
+import com.sun.istack.internal.NotNull;
+
+import java.util.SplittableRandom;
+
+/**
+ * 模拟数据生成器
+ * <p>
+ *     按表头生成随机数据，相同的表头与种子总是生成相同的数据，便于在不同版本、不同机器之间重复测试。
+ *     文本字段只包含字母与数字，不会与 CSV 分隔符冲突。
+ * </p>
+ * <ul>
+ *     <li>2019/3/29  ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class DataGenerator {
+
+    /** 默认种子 */
+    public final static long DEFAULT_SEED = 20190329L;
+
+    private final static char[] ALPHABET =
+            "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
+
+    /** 时间戳范围：2000-01-01 至 2030-01-01 */
+    private final static long MIN_MICROS = TimeUtils.epochDayToMicros(TimeUtils.toEpochDay(2000, 1, 1));
+    private final static long MAX_MICROS = TimeUtils.epochDayToMicros(TimeUtils.toEpochDay(2030, 1, 1));
+
+    /**
+     * 窄表表头，10 个字段，覆盖常用类型
+     * @return 返回表头。
+     */
+    public static Schema[] narrow() {
+        return new Schema[] {
+                new Column("id",       Type.LONG),
+                new Column("city",     Type.INT),
+                new Column("name",     Type.STRING),
+                new Column("score",    Type.DOUBLE),
+                new Column("rate",     Type.FLOAT),
+                new Column("level",    Type.SHORT),
+                new Column("enabled",  Type.BOOLEAN),
+                new Column("birthday", Type.DATE),
+                new Column("created",  Type.TIMESTAMP),
+                new Column("remark",   Type.STRING)
+        };
+    }
+
+    /**
+     * 宽表表头，按 <code>LONG, INT, STRING, DOUBLE, DATE, TIMESTAMP</code> 循环生成字段
+     * @param columns 字段数量
+     * @return 返回表头。
+     */
+    public static Schema[] wide(int columns) {
+        if (columns <= 0)
+            throw new IllegalArgumentException("Illegal parameter [columns = " + columns + "], must be positive.");
+        Type[] types = {Type.LONG, Type.INT, Type.STRING, Type.DOUBLE, Type.DATE, Type.TIMESTAMP};
+        Schema[] header = new Schema[columns];
+        for (int i = 0; i < columns; i++)
+            header[i] = new Column("c" + i, types[i % types.length]);
+        return header;
+    }
+
+    private final Schema[]         header;
+    private final SplittableRandom random;
+    private final StringBuilder    text = new StringBuilder(32);
+
+    private double nullRatio = 0;
+    private int    minLength = 4;
+    private int    maxLength = 24;
+
+    public DataGenerator(@NotNull Schema[] header) {
+        this(header, DEFAULT_SEED);
+    }
+
+    public DataGenerator(@NotNull Schema[] header, long seed) {
+        this.header = header;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * 设置可空字段生成空值的比例
+     * @param nullRatio 比例，0 至 1 之间
+     * @return 返回实例指向
+     */
+    public DataGenerator setNullRatio(double nullRatio) {
+        if (nullRatio < 0 || nullRatio > 1)
+            throw new IllegalArgumentException("Illegal parameter [nullRatio = " + nullRatio + "], must be in [0, 1].");
+        this.nullRatio = nullRatio;
+        return this;
+    }
+
+    /**
+     * 设置文本字段的长度范围
+     * @param minLength 最小长度（包含）
+     * @param maxLength 最大长度（包含）
+     * @return 返回实例指向
+     */
+    public DataGenerator setTextLength(int minLength, int maxLength) {
+        if (minLength < 0 || maxLength < minLength)
+            throw new IllegalArgumentException("Illegal parameter [minLength = " + minLength
+                    + ", maxLength = " + maxLength + "].");
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        return this;
+    }
+
+    public Schema[] header() {
+        return header;
+    }
+
+    /**
+     * 生成下一个字段值
+     * @param index 字段下标
+     * @return 返回字段值，空值时返回 null。
+     */
+    public Object next(int index) {
+        Schema field = header[index];
+        if (nullRatio > 0 && field.isNullable() && random.nextDouble() < nullRatio)
+            return null;
+        switch (field.getType()) {
+            case BOOL:
+            case BOOLEAN:   return random.nextBoolean();
+            case BYTE:
+            case TINYINT:
+            case SMALLINT:
+            case SHORT:     return (short) random.nextInt(Short.MAX_VALUE);
+            case INT:
+            case INTEGER:   return random.nextInt(1000000);
+            case BIGINT:
+            case LONG:      return random.nextLong(1000000000000L);
+            case FLOAT:     return (float) (random.nextInt(100000) / 100D);
+            case DECIMAL:
+            case DOUBLE:    return random.nextInt(100000000) / 1000D;
+            case DATE:      return (int) (random.nextLong(MIN_MICROS, MAX_MICROS) / TimeUtils.DAY_MICROS);
+            case DATETIME:
+            case TIMESTAMP: return random.nextLong(MIN_MICROS, MAX_MICROS) / 1000 * 1000;
+            default:        return nextText();
+        }
+    }
+
+    private String nextText() {
+        text.setLength(0);
+        for (int i = 0, length = minLength + random.nextInt(maxLength - minLength + 1); i < length; i++)
+            text.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        return text.toString();
+    }
+
+    /**
+     * 生成下一行数据
+     * @param values 数据数组，长度不能小于表头长度
+     * @return 返回数据数组。
+     */
+    public Object[] next(@NotNull Object[] values) {
+        for (int i = 0; i < header.length; i++)
+            values[i] = next(i);
+        return values;
+    }
+
+    /**
+     * 生成下一行数据
+     * @param row 数据行，表头需与生成器一致
+     * @return 返回数据行。
+     */
+    public DataRow next(@NotNull DataRow row) {
+        for (int i = 0; i < header.length; i++)
+            row.setValue(i, next(i));
+        return row;
+    }
+
+    /**
+     * 生成新的数据行
+     * @return 返回数据行。
+     */
+    public DataRow next() {
+        return next(new DataRow(header));
+    }
+}
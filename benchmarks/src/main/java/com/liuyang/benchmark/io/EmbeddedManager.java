@@ -0,0 +1,111 @@
+package com.liuyang.benchmark.io;
+
+import com.liuyang.common.ManagerException;
+import com.liuyang.ds.Schema;
+import com.liuyang.jdbc.AbstractJDBCConfig;
+import com.liuyang.jdbc.AbstractManager;
+import com.sun.istack.internal.NotNull;
+
+/**
+ * 嵌入式数据库管理器
+ * <p>
+ *     使用 H2 内存数据库（MySQL 兼容模式）运行 <code>AbstractManager</code> 的批量写入，
+ *     测量的是本项目拼装 SQL 与 JDBC 调用的开销，不受网络与数据库服务器影响。
+ * </p>
+ * <ul>
+ *     <li>2019/3/29  ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class EmbeddedManager extends AbstractManager {
+
+    /** 默认数据库 URL */
+    public final static String DEFAULT_URL = "jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    /** 嵌入式数据库配置，URL 原样传给驱动 */
+    static final class EmbeddedConfig extends AbstractJDBCConfig {
+
+        private final String url;
+
+        EmbeddedConfig(String url, String user, String pass) {
+            super("jdbc:h2");
+            this.url      = url;
+            this.user     = user;
+            this.pass     = pass;
+            this.database = "PUBLIC";
+        }
+
+        @Override
+        public EmbeddedManager getConnection() throws ManagerException {
+            EmbeddedManager manager = new EmbeddedManager();
+            manager.connect(url, user, pass);
+            return manager;
+        }
+
+        @Override
+        public String getDriverName() {
+            return "org.h2.Driver";
+        }
+
+        @Override
+        public String toString() {
+            return url;
+        }
+    }
+
+    /**
+     * 按表头生成建表语句
+     * @param tableName 表名
+     * @param header 表头
+     * @return 返回建表语句。
+     */
+    public static String createTable(@NotNull String tableName, @NotNull Schema[] header) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("create table ").append(tableName).append(" (");
+        for (int i = 0; i < header.length; i++) {
+            if (i > 0)
+                builder.append(", ");
+            builder.append('`').append(header[i].getName()).append("` ").append(sqlType(header[i]));
+        }
+        return builder.append(')').toString();
+    }
+
+    private static String sqlType(Schema field) {
+        switch (field.getType()) {
+            case BOOL:
+            case BOOLEAN:   return "boolean";
+            case BYTE:
+            case TINYINT:
+            case SMALLINT:
+            case SHORT:     return "smallint";
+            case INT:
+            case INTEGER:   return "int";
+            case BIGINT:
+            case LONG:      return "bigint";
+            case FLOAT:     return "real";
+            case DECIMAL:
+            case DOUBLE:    return "double";
+            case DATE:      return "date";
+            case DATETIME:
+            case TIMESTAMP: return "timestamp";
+            case BINARY:
+            case BYTEARRAY: return "varbinary(255)";
+            default:        return "varchar(255)";
+        }
+    }
+
+    public EmbeddedManager() {
+    }
+
+    @Override
+    public synchronized boolean connect(String url, String user, String pass) throws ManagerException {
+        return super.connect(new EmbeddedConfig(url, user, pass));
+    }
+
+    @Override
+    public synchronized boolean connect(String host, int port,
+                                        String user, String pass, String db) throws ManagerException {
+        return connect("jdbc:h2:tcp://" + host + ":" + port + "/" + db + ";MODE=MySQL", user, pass);
+    }
+}
@@ -0,0 +1,47 @@
+package com.liuyang.benchmark.io;
+
+import com.liuyang.ds.Schema;
+
+import java.io.File;
+
+/**
+ * 文件格式场景
+ * <p>
+ *     依赖较重的文件格式（如 ORC 依赖 Hadoop）在单独的构建配置中实现该接口，
+ *     由 {@link IOBenchmark} 在运行时加载，没有相应依赖时跳过。
+ * </p>
+ * <ul>
+ *     <li>2019/3/29  ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public interface FileScenarios {
+
+    /**
+     * 格式名称，用作场景名称的前缀
+     * @return 返回格式名称。
+     */
+    String format();
+
+    /**
+     * 写入测试
+     * @param name 场景名称
+     * @param generator 数据生成器
+     * @param file 目标文件
+     * @param rows 写入行数
+     * @return 返回测量结果，字节数为写入的文件大小。
+     * @throws Exception 写入失败时抛出异常。
+     */
+    Measurement write(String name, DataGenerator generator, File file, long rows) throws Exception;
+
+    /**
+     * 读取测试，读取全部字段
+     * @param name 场景名称
+     * @param header 表头
+     * @param file 源文件
+     * @return 返回测量结果，字节数为文件大小。
+     * @throws Exception 读取失败时抛出异常。
+     */
+    Measurement read(String name, Schema[] header, File file) throws Exception;
+}
@@ -0,0 +1,313 @@
+package com.liuyang.benchmark.io;
+
+import com.liuyang.common.ManagerException;
+import com.liuyang.csv.CSVReader;
+import com.liuyang.csv.CSVWriter;
+import com.liuyang.ds.Row;
+import com.liuyang.ds.Schema;
+import com.liuyang.ds.Type;
+import com.liuyang.ds.sets.DataRow;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * 端到端 IO 基准测试
+ * <p>
+ *     按场景测量完整读写路径的吞吐量，输出 rows/s、MB/s、GC 时间与峰值内存，用于评估集群规模：
+ * </p>
+ * <ul>
+ *     <li><b>csv-write</b> ：<code>CSVWriter</code> 导出模拟数据，直到文件达到指定大小；</li>
+ *     <li><b>csv-count</b> ：<code>CSVReader.count</code> ；</li>
+ *     <li><b>csv-foreach</b> ：<code>CSVReader.forEach</code> 并按类型读取全部字段；</li>
+ *     <li><b>jdbc-insert</b> ：<code>AbstractManager.batchInsert</code> 写入嵌入式数据库（H2）；</li>
+ *     <li><b>orc-write/orc-read</b> ：本地文件系统上的 <code>ORCWriter</code>/<code>ORCReader</code>，
+ *     需要使用 <code>-P orc</code> 构建，行数与同规模的 CSV 一致。</li>
+ * </ul>
+ * <pre>
+ *     java -cp benchmarks/target/benchmarks.jar com.liuyang.benchmark.io.IOBenchmark \
+ *          --dir=/data/bench --sizes=1g,10g --shapes=narrow,wide --scenarios=csv,jdbc,orc
+ * </pre>
+ * <p>
+ *     参数（均可省略）：
+ *     <code>--dir</code> 数据目录；<code>--sizes</code> CSV 文件大小，支持 k/m/g 后缀；
+ *     <code>--shapes</code> 表结构，narrow（10 字段）或 wide（100 字段）；<code>--scenarios</code> csv、jdbc、orc；
+ *     <code>--jdbc-rows</code> 写入数据库的行数；<code>--batch</code> 每批写入行数；<code>--jdbc-url</code> 数据库 URL；
+ *     <code>--seed</code> 随机种子；<code>--result</code> JSON 结果文件；<code>--keep</code> 保留生成的文件。
+ * </p>
+ * <ul>
+ *     <li>2019/3/29  ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class IOBenchmark {
+
+    /** 宽表字段数量 */
+    private final static int WIDE_COLUMNS = 100;
+
+    /** ORC 场景的实现类，只在 orc 构建配置中存在 */
+    private final static String ORC_SCENARIOS = "com.liuyang.benchmark.io.ORCScenarios";
+
+    // 写入时检查文件大小的间隔行数
+    private final static int CHECK_INTERVAL = 4096;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        File dir = new File(options.getOrDefault("dir",
+                new File(System.getProperty("java.io.tmpdir"), "io-benchmark").getPath()));
+        if (!dir.isDirectory() && !dir.mkdirs())
+            throw new IllegalArgumentException("Illegal parameter [dir = " + dir + "], can not create directory.");
+        long   seed      = Long.parseLong(options.getOrDefault("seed", String.valueOf(DataGenerator.DEFAULT_SEED)));
+        long   jdbcRows  = Long.parseLong(options.getOrDefault("jdbc-rows", "1000000"));
+        int    batch     = Integer.parseInt(options.getOrDefault("batch", "1000"));
+        String jdbcUrl   = options.getOrDefault("jdbc-url", EmbeddedManager.DEFAULT_URL);
+        boolean keep     = options.containsKey("keep");
+        Set<String> scenarios = new LinkedHashSet<>(Arrays.asList(
+                options.getOrDefault("scenarios", "csv,jdbc,orc").split(",")));
+        FileScenarios orc = scenarios.contains("orc") ? loadScenarios(ORC_SCENARIOS) : null;
+
+        List<Measurement> results = new ArrayList<>();
+        System.out.println(Measurement.title());
+        for (String shape : options.getOrDefault("shapes", "narrow,wide").split(",")) {
+            Schema[] header = "wide".equals(shape) ? DataGenerator.wide(WIDE_COLUMNS) : DataGenerator.narrow();
+            for (String size : options.getOrDefault("sizes", "1g,10g").split(",")) {
+                if (!scenarios.contains("csv") && orc == null)
+                    break;
+                String suffix = "-" + shape + "-" + size;
+                File csv = new File(dir, "data" + suffix + ".csv");
+                Measurement written = csvWrite("csv-write" + suffix, new DataGenerator(header, seed), csv,
+                        parseSize(size));
+                report(results, written);
+                if (scenarios.contains("csv")) {
+                    report(results, csvCount("csv-count" + suffix, header, csv));
+                    report(results, csvForEach("csv-foreach" + suffix, header, csv));
+                }
+                if (orc != null) {
+                    File file = new File(dir, "data" + suffix + "." + orc.format());
+                    report(results, orc.write(orc.format() + "-write" + suffix, new DataGenerator(header, seed),
+                            file, written.getRows()));
+                    report(results, orc.read(orc.format() + "-read" + suffix, header, file));
+                    if (!keep) delete(file);
+                }
+                if (!keep) delete(csv);
+            }
+            if (scenarios.contains("jdbc")) {
+                try {
+                    report(results, jdbcInsert("jdbc-insert-" + shape, new DataGenerator(header, seed),
+                            jdbcUrl, jdbcRows, batch));
+                } catch (ManagerException e) {
+                    System.err.println("Skip scenarios: jdbc-insert-" + shape + ", " + e.getMessage());
+                }
+            }
+        }
+        writeResult(new File(options.getOrDefault("result", "io-result.json")), results);
+    }
+
+    private static void report(List<Measurement> results, Measurement measurement) {
+        results.add(measurement);
+        System.out.println(measurement);
+    }
+
+    /**
+     * CSV 导出
+     * @param name 场景名称
+     * @param generator 数据生成器
+     * @param file 目标文件
+     * @param bytes 文件大小
+     * @return 返回测量结果。
+     * @throws Exception 写入失败时抛出异常。
+     */
+    static Measurement csvWrite(String name, DataGenerator generator, File file, long bytes) throws Exception {
+        delete(file);
+        return Measurement.measure(name, counter -> {
+            long rows = 0;
+            CSVWriter writer = CSVWriter.create(file, false, generator.header());
+            try {
+                DataRow row = new DataRow(generator.header());
+                do {
+                    for (int i = 0; i < CHECK_INTERVAL; i++, rows++)
+                        writer.write(generator.next(row));
+                } while (file.length() < bytes);
+            } finally {
+                writer.close();
+            }
+            counter[0] = file.length();
+            return rows;
+        });
+    }
+
+    /**
+     * CSV 计数
+     * @param name 场景名称
+     * @param header 表头
+     * @param file 源文件
+     * @return 返回测量结果。
+     * @throws Exception 读取失败时抛出异常。
+     */
+    static Measurement csvCount(String name, Schema[] header, File file) throws Exception {
+        return Measurement.measure(name, counter -> {
+            counter[0] = file.length();
+            try (CSVReader reader = CSVReader.open(file, header)) {
+                return reader.count();
+            }
+        });
+    }
+
+    /**
+     * CSV 遍历，按类型读取全部字段
+     * @param name 场景名称
+     * @param header 表头
+     * @param file 源文件
+     * @return 返回测量结果。
+     * @throws Exception 读取失败时抛出异常。
+     */
+    static Measurement csvForEach(String name, Schema[] header, File file) throws Exception {
+        return Measurement.measure(name, counter -> {
+            counter[0] = file.length();
+            long[] state = new long[2];
+            try (CSVReader reader = CSVReader.open(file, header)) {
+                reader.forEach(record -> {
+                    state[0]++;
+                    state[1] += consume(record.getRow(), header);
+                });
+            }
+            // 防止读取被优化掉
+            if (state[1] == Long.MIN_VALUE)
+                System.out.println(state[1]);
+            return state[0];
+        });
+    }
+
+    /**
+     * 批量写入嵌入式数据库
+     * @param name 场景名称
+     * @param generator 数据生成器
+     * @param url 数据库 URL
+     * @param rows 写入行数
+     * @param batch 每批写入行数
+     * @return 返回测量结果，字节数为同样数据的 CSV 文本大小。
+     * @throws Exception 写入失败时抛出异常。
+     */
+    static Measurement jdbcInsert(String name, DataGenerator generator, String url,
+                                  long rows, int batch) throws Exception {
+        Schema[] header = generator.header();
+        String table = "bench_" + name.replace('-', '_');
+        String[] fieldNames = Arrays.stream(header).map(Schema::getName).toArray(String[]::new);
+        try (EmbeddedManager manager = new EmbeddedManager()) {
+            manager.connect(url, "sa", "");
+            manager.execute("drop table if exists " + table);
+            manager.execute(EmbeddedManager.createTable(table, header));
+            Object[][] values = new Object[batch][header.length];
+            DataRow row = new DataRow(header);
+            Measurement measurement = Measurement.measure(name, counter -> {
+                long written = 0;
+                while (written < rows) {
+                    int size = (int) Math.min(batch, rows - written);
+                    for (int i = 0; i < size; i++) {
+                        generator.next(row);
+                        for (int j = 0; j < header.length; j++) {
+                            // 日期时间以文本写入，由数据库转换
+                            values[i][j] = row.isNull(j) ? null
+                                    : Type.isTemporal(header[j].getType()) ? row.getString(j) : row.get(j);
+                            counter[0] += row.isNull(j) ? 1 : row.getString(j).length() + 1;
+                        }
+                    }
+                    Object[][] parameters = size == batch ? values : Arrays.copyOf(values, size);
+                    manager.batchInsert(table, batch, false, fieldNames, parameters);
+                    written += size;
+                }
+                return written;
+            });
+            manager.execute("drop table " + table);
+            return measurement;
+        }
+    }
+
+    // 按类型读取全部字段，返回校验值
+    private static long consume(Row row, Schema[] header) {
+        long sum = 0;
+        for (int i = 0; i < header.length; i++) {
+            if (row.isNull(i))
+                continue;
+            switch (header[i].getType()) {
+                case BOOLEAN:   sum += row.getBoolean(i) ? 1 : 0; break;
+                case SHORT:     sum += row.getShort(i); break;
+                case INT:       sum += row.getInteger(i); break;
+                case LONG:      sum += row.getLong(i); break;
+                case FLOAT:     sum += (long) row.getFloat(i); break;
+                case DOUBLE:    sum += (long) row.getDouble(i); break;
+                case DATE:      sum += row.getDate(i); break;
+                case TIMESTAMP: sum += row.getTimestamp(i); break;
+                default:        sum += row.getString(i).length(); break;
+            }
+        }
+        return sum;
+    }
+
+    private static FileScenarios loadScenarios(String className) {
+        try {
+            return (FileScenarios) Class.forName(className).newInstance();
+        } catch (ClassNotFoundException e) {
+            System.err.println("Skip scenarios: " + className + " not found, build with the orc profile.");
+        } catch (ReflectiveOperationException | LinkageError e) {
+            System.err.println("Skip scenarios: " + className + " can not be loaded, " + e);
+        }
+        return null;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--"))
+                throw new IllegalArgumentException("Illegal parameter [" + arg + "], expect --name=value.");
+            int pos = arg.indexOf('=');
+            if (pos > 0) {
+                options.put(arg.substring(2, pos), arg.substring(pos + 1));
+            } else {
+                options.put(arg.substring(2), "");
+            }
+        }
+        return options;
+    }
+
+    /**
+     * 解析文件大小
+     * @param size 大小，支持 k/m/g 后缀（1024 进制）
+     * @return 返回字节数。
+     */
+    static long parseSize(String size) {
+        String value = size.trim().toLowerCase();
+        if (value.isEmpty())
+            throw new IllegalArgumentException("Illegal parameter [size = " + size + "].");
+        int shift;
+        switch (value.charAt(value.length() - 1)) {
+            case 'k': shift = 10; break;
+            case 'm': shift = 20; break;
+            case 'g': shift = 30; break;
+            default:  return Long.parseLong(value);
+        }
+        return Long.parseLong(value.substring(0, value.length() - 1)) << shift;
+    }
+
+    private static void delete(File file) {
+        if (file.exists() && !file.delete())
+            System.err.println("Can not delete " + file);
+    }
+
+    private static void writeResult(File file, List<Measurement> results) throws IOException {
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write('[');
+            for (int i = 0; i < results.size(); i++) {
+                writer.write(i == 0 ? "\n  " : ",\n  ");
+                writer.write(results.get(i).toJSON());
+            }
+            writer.write("\n]\n");
+        }
+    }
+
+    private IOBenchmark() {
+    }
+}
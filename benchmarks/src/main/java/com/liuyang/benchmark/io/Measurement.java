@@ -0,0 +1,204 @@
+package com.liuyang.benchmark.io;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+
+/**
+ * 场景测量结果
+ * <p>
+ *     记录一个场景处理的行数、字节数、耗时、GC 次数与时间以及峰值内存，并换算为 rows/s 与 MB/s。
+ * </p>
+ * <p>
+ *     峰值内存在 Linux 上取 <code>/proc/self/status</code> 的 <code>VmHWM</code>（峰值 RSS），
+ *     每个场景开始前通过 <code>/proc/self/clear_refs</code> 重置；其他系统或没有权限时，
+ *     取各内存池峰值之和（不含本地内存）。
+ * </p>
+ * <ul>
+ *     <li>2019/3/29  ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class Measurement {
+
+    /** 场景任务 */
+    @FunctionalInterface
+    public interface Task {
+        /**
+         * 执行场景
+         * @param counter 字节计数，场景需要将处理的字节数累加到 <code>counter[0]</code>
+         * @return 返回处理的行数。
+         * @throws Exception 执行失败时抛出异常。
+         */
+        long run(long[] counter) throws Exception;
+    }
+
+    private final static String STATUS     = "/proc/self/status";
+    private final static String CLEAR_REFS = "/proc/self/clear_refs";
+
+    /**
+     * 执行并测量场景
+     * @param name 场景名称
+     * @param task 场景任务
+     * @return 返回测量结果。
+     * @throws Exception 场景执行失败时抛出异常。
+     */
+    public static Measurement measure(String name, Task task) throws Exception {
+        System.gc();
+        boolean rss = resetPeak();
+        long gcCount  = gcCount();
+        long gcMillis = gcMillis();
+        long[] counter = new long[1];
+        long start = System.nanoTime();
+        long rows  = task.run(counter);
+        long elapsed = System.nanoTime() - start;
+        return new Measurement(name, rows, counter[0], elapsed,
+                gcCount() - gcCount, gcMillis() - gcMillis, rss ? peakRss() : peakPools(), rss);
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans())
+            count += Math.max(0, bean.getCollectionCount());
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans())
+            millis += Math.max(0, bean.getCollectionTime());
+        return millis;
+    }
+
+    // 重置峰值，返回 true 表示可以使用 RSS
+    private static boolean resetPeak() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            pool.resetPeakUsage();
+        try (FileWriter writer = new FileWriter(CLEAR_REFS)) {
+            writer.write("5");
+        } catch (IOException | SecurityException e) {
+            return false;
+        }
+        return peakRss() > 0;
+    }
+
+    private static long peakRss() {
+        try (BufferedReader reader = new BufferedReader(new FileReader(STATUS))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("VmHWM:")) {
+                    String value = line.substring(6).trim();
+                    return Long.parseLong(value.substring(0, value.indexOf(' '))) * 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // 不支持
+        }
+        return -1;
+    }
+
+    private static long peakPools() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            peak += pool.getPeakUsage() == null ? 0 : pool.getPeakUsage().getUsed();
+        return peak;
+    }
+
+    private final String  name;
+    private final long    rows;
+    private final long    bytes;
+    private final long    elapsedNanos;
+    private final long    gcCount;
+    private final long    gcMillis;
+    private final long    peakMemory;
+    private final boolean rss;
+
+    private Measurement(String name, long rows, long bytes, long elapsedNanos,
+                        long gcCount, long gcMillis, long peakMemory, boolean rss) {
+        this.name         = name;
+        this.rows         = rows;
+        this.bytes        = bytes;
+        this.elapsedNanos = elapsedNanos;
+        this.gcCount      = gcCount;
+        this.gcMillis     = gcMillis;
+        this.peakMemory   = peakMemory;
+        this.rss          = rss;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    public long getGcMillis() {
+        return gcMillis;
+    }
+
+    /**
+     * 获取峰值内存
+     * @return 返回峰值 RSS（字节）；不支持 RSS 时返回各内存池峰值之和。
+     */
+    public long getPeakMemory() {
+        return peakMemory;
+    }
+
+    public boolean isRss() {
+        return rss;
+    }
+
+    public double rowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+    }
+
+    public double megabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytes * 1e9 / elapsedNanos / (1024 * 1024);
+    }
+
+    /**
+     * 报表标题，与 <code>toString</code> 的列对应
+     * @return 返回标题行。
+     */
+    public static String title() {
+        return String.format("%-28s %14s %12s %10s %14s %10s %8s %12s",
+                "scenario", "rows", "MB", "seconds", "rows/s", "MB/s", "gc(ms)", "peak(MB)");
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-28s %14d %12.1f %10.2f %14.0f %10.1f %8d %12.1f%s",
+                name, rows, bytes / 1048576D, elapsedNanos / 1e9, rowsPerSecond(), megabytesPerSecond(),
+                gcMillis, peakMemory / 1048576D, rss ? "" : " (heap)");
+    }
+
+    /**
+     * 输出为 JSON
+     * @return 返回 JSON 文本。
+     */
+    public String toJSON() {
+        return "{\"scenario\":\"" + name + "\", \"rows\":" + rows + ", \"bytes\":" + bytes
+                + ", \"elapsedNanos\":" + elapsedNanos + ", \"rowsPerSecond\":" + rowsPerSecond()
+                + ", \"mbPerSecond\":" + megabytesPerSecond() + ", \"gcCount\":" + gcCount
+                + ", \"gcMillis\":" + gcMillis + ", \"peakMemory\":" + peakMemory
+                + ", \"peakMemoryType\":\"" + (rss ? "rss" : "heap") + "\"}";
+    }
+}
@@ -0,0 +1,77 @@
+package com.liuyang.benchmark.io;
+
+import com.liuyang.ds.Row;
+import com.liuyang.ds.Schema;
+import com.liuyang.hadoop.data.ORCReader;
+import com.liuyang.hadoop.data.ORCWriter;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.stream.Stream;
+
+/**
+ * ORC 场景
+ * <p>
+ *     在本地文件系统上测试 <code>ORCWriter</code> 与 <code>ORCReader</code>，只在 <code>orc</code> 构建配置中编译。
+ *     使用原始本地文件系统，不生成 <code>.crc</code> 校验文件。
+ * </p>
+ * <ul>
+ *     <li>2019/3/29  ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class ORCScenarios implements FileScenarios {
+
+    private final FileSystem fs;
+
+    public ORCScenarios() throws IOException {
+        LocalFileSystem local = FileSystem.getLocal(new Configuration());
+        this.fs = local.getRawFileSystem();
+    }
+
+    @Override
+    public String format() {
+        return "orc";
+    }
+
+    @Override
+    public Measurement write(String name, DataGenerator generator, File file, long rows) throws Exception {
+        Path path = new Path(file.getAbsolutePath());
+        fs.delete(path, false);
+        return Measurement.measure(name, counter -> {
+            ORCWriter writer = ORCWriter.create(fs, path, false);
+            try {
+                writer.write(Stream.generate(generator::next).limit(rows));
+            } finally {
+                writer.close();
+            }
+            counter[0] = file.length();
+            return rows;
+        });
+    }
+
+    @Override
+    public Measurement read(String name, Schema[] header, File file) throws Exception {
+        Path path = new Path(file.getAbsolutePath());
+        return Measurement.measure(name, counter -> {
+            counter[0] = file.length();
+            long[] state = new long[2];
+            try (ORCReader reader = ORCReader.read(fs, path); Stream<Row> stream = reader.stream()) {
+                stream.forEach(row -> {
+                    state[0]++;
+                    for (int i = 0; i < header.length; i++)
+                        state[1] += row.isNull(i) ? 0 : row.getString(i).length();
+                });
+            }
+            // 防止读取被优化掉
+            if (state[1] == Long.MIN_VALUE)
+                System.out.println(state[1]);
+            return state[0];
+        });
+    }
+}
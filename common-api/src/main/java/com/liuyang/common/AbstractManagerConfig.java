@@ -7,6 +7,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
+import java.util.Objects;
 import java.util.function.Function;
 
 public abstract class AbstractManagerConfig implements ManagerConfig {
@@ -60,6 +61,12 @@ public abstract class AbstractManagerConfig implements ManagerConfig {
         return false;
     }
 
+    // 与 equals 一致，用作连接池等哈希表的键
+    @Override
+    public int hashCode() {
+        return Objects.hash(host, port, user, pass, path);
+    }
+
     public String getEncoding() {
         return charset;
     }
@@ -1,33 +1,112 @@
 package com.liuyang.common;
 
 import com.liuyang.log.Logger;
+import com.liuyang.util.HashedWheelTimer;
+import com.sun.istack.internal.NotNull;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-// 客户端监控线程。主要是为了防止某些操作长时间阻塞导致程序不能正运行。
-// 检查周期为 1 秒， 即每一秒会检测一次是否超时。
+/**
+ * 客户端监控
+ * <p>
+ *     主要是为了防止某些操作长时间阻塞导致程序不能正运行。客户端空闲（距最后连接时间）超过指定时长时执行超时操作，
+ *     默认关闭客户端。
+ * </p>
+ * <p>
+ *     所有监控共用一个时间轮定时器线程（刻度 100 毫秒），注册与取消都是 O(1)。每次检查时按客户端的最后连接时间
+ *     计算下一次到期时间并重新注册，不再按固定周期轮询。定时器线程只做到期判定，超时操作（包括关闭断开的客户端）
+ *     交给操作线程池执行，单个客户端关闭缓慢不会推迟其他监控的到期检查。{@link #stop()} 在调用线程中同步关闭客户端。
+ * </p>
+ * <ul>
+ *     <li>2019/4/1 ver 1.1.0 每个监控一个 Timer 线程改为共用时间轮定时器；增加可指定的超时操作与 cancel。</li>
+ *     <li>2019/4/10 ver 1.1.1 超时操作移出定时器线程，在操作线程池中执行；stop 仍同步关闭客户端。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.1.1
+ */
 public final class ManagerClientMonitor {
     public final static Logger logger = Logger.getLogger(ManagerClientMonitor.class);
 
+    /**
+     * 超时操作
+     */
+    @FunctionalInterface
+    public interface TimeoutAction {
+        /**
+         * 客户端空闲超时后在操作线程池中执行
+         * @param client 客户端
+         * @param idleMillis 空闲时长（毫秒）
+         */
+        void onTimeout(ManagerClient client, long idleMillis);
+    }
+
+    /** 默认超时操作：关闭客户端 */
+    public final static TimeoutAction CLOSE = (client, idleMillis) -> client.close();
+
+    private final static HashedWheelTimer TIMER =
+            new HashedWheelTimer("ManagerClientMonitorTimer", 100, TimeUnit.MILLISECONDS, 512);
+
+    /** 执行超时操作的线程池：按需创建守护线程，空闲 60 秒后回收 */
+    private final static Executor ACTIONS;
+
+    static {
+        AtomicInteger sequence = new AtomicInteger();
+        ACTIONS = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), task -> {
+            Thread thread = new Thread(task, "ManagerClientMonitorAction-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 开始监控，超时后关闭客户端
+     * @param client 客户端
+     * @param millis 空闲超时时长（毫秒）
+     * @return 返回监控。
+     */
     public static ManagerClientMonitor monitoring(ManagerClient client, long millis) {
-        ManagerClientMonitor monitor =  new ManagerClientMonitor(client, millis);
+        return monitoring(client, millis, CLOSE);
+    }
+
+    /**
+     * 开始监控
+     * @param client 客户端
+     * @param millis 空闲超时时长（毫秒）
+     * @param action 超时操作
+     * @return 返回监控。
+     */
+    public static ManagerClientMonitor monitoring(@NotNull ManagerClient client, long millis,
+                                                  @NotNull TimeoutAction action) {
+        ManagerClientMonitor monitor = new ManagerClientMonitor(client, millis, action);
         monitor.start();
         return monitor;
     }
 
-    private Timer                  timer;
+    /**
+     * 获取正在监控的客户端数量
+     * @return 返回数量。
+     */
+    public static long monitoringCount() {
+        return TIMER.pendingTimeouts();
+    }
+
     /** 记录超时时制 */
-    private long                   timeout;
-    private String                 name;
-    private volatile ManagerClient client;
-    private volatile boolean       running = false;
+    private final long                       timeout;
+    private final TimeoutAction              action;
+    private volatile String                  name;
+    private volatile ManagerClient           client;
+    private volatile HashedWheelTimer.Timeout handle;
+    private volatile boolean                 running = false;
 
-    private ManagerClientMonitor(ManagerClient client, long millis) {
+    private ManagerClientMonitor(ManagerClient client, long millis, TimeoutAction action) {
         this.client  = client;
         this.timeout = millis;
+        this.action  = action;
         this.name    = client.getConf().toString();
-        this.timer = new Timer("ManagerClientMonitorTimer - " + name);
     }
 
     private long getClientTime() {
@@ -38,7 +117,7 @@ public final class ManagerClientMonitor {
         }
     }
 
-    private void closeClient() {
+    private static void closeClient(ManagerClient client) {
         try {
             if (client != null) client.close();
         } catch (Exception e) {
@@ -46,49 +125,86 @@ public final class ManagerClientMonitor {
         }
     }
 
+    // 在定时器线程中停止监控，关闭交给操作线程池
+    private void stopLater(ManagerClient current) {
+        cancel();
+        ACTIONS.execute(() -> closeClient(current));
+    }
+
     private void start() {
         running = true;
-        timer.scheduleAtFixedRate(new TimerTask() {
-            public void run() {
-                try {
-                    // 如果 monitor 提前关闭, running 为 false，则不会执行超时判定。
-                    // 此外还需要判断 client 是否为空。
-                    if (running && client != null) {
-                        long curr = scheduledExecutionTime();
-                        long last = getClientTime();
-                        long diff = curr - last;
-                        logger.debug("Client(%s):%d, current: %d, diff: %d.", name, last, curr, diff);
-                        if (diff >= timeout) {
-                            logger.debug("Time out (" + diff + "), client(" + name + ") will be close.");
-                            stop();
-                        } else{
-                            if (client == null) {
-                                stop();
-                            } else if (!client.isConnected()) {
-                                logger.debug("Client(" + name + ") disconnect, monitor stop.");
-                                stop();
-                            }
-                        }
-                    } else {
-                        // 如果没有运行，则停止计时器
-                        stop();
+        schedule(timeout - (System.currentTimeMillis() - getClientTime()));
+    }
+
+    private void schedule(long delayMillis) {
+        HashedWheelTimer.Timeout next = TIMER.newTimeout(this::check, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+        handle = next;
+        // 与 cancel 并发时，撤销刚注册的检查
+        if (!running)
+            next.cancel();
+    }
+
+    private void check(HashedWheelTimer.Timeout t) {
+        // 如果 monitor 提前关闭, running 为 false，则不会执行超时判定。
+        // 此外还需要判断 client 是否为空。
+        ManagerClient current = client;
+        if (!running || current == null)
+            return;
+        String name = this.name;
+        try {
+            long curr = System.currentTimeMillis();
+            long last = getClientTime();
+            long diff = curr - last;
+            if (logger.isDebugEnabled())
+                logger.debug("Client(%s):%d, current: %d, diff: %d.", name, last, curr, diff);
+            if (diff >= timeout) {
+                if (logger.isDebugEnabled())
+                    logger.debug("Time out (%d), client(%s) will be handled.", diff, name);
+                cancel();
+                ACTIONS.execute(() -> {
+                    try {
+                        action.onTimeout(current, diff);
+                    } catch (Exception e) {
+                        logger.error("Timeout action of client(" + name + ") failed: " + e.getMessage());
                     }
-                } catch (Exception e) {
-                    //e.printStackTrace();
-                    logger.error("Monitor(" + name + ") is halted unexpectedly.");
-                    stop();
-                }
+                });
+            } else if (!current.isConnected()) {
+                if (logger.isDebugEnabled())
+                    logger.debug("Client(%s) disconnect, monitor stop.", name);
+                stopLater(current);
+            } else if (running) {
+                // 按最后连接时间计算下一次到期时间
+                schedule(timeout - diff);
             }
-        }, 0, 1000);
+        } catch (Exception e) {
+            //e.printStackTrace();
+            logger.error("Monitor(" + name + ") is halted unexpectedly.");
+            stopLater(current);
+        }
     }
 
-    public final void stop() {
-        closeClient();
-        if (timer != null)
-            timer.cancel();
+    public final boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 停止监控，不关闭客户端
+     */
+    public final void cancel() {
         running = false;
-        timer   = null;
-        name    = null;
-        client  = null;
+        HashedWheelTimer.Timeout current = handle;
+        if (current != null)
+            current.cancel();
+        handle = null;
+        name   = null;
+        client = null;
+    }
+
+    /**
+     * 关闭客户端并停止监控，在调用线程中同步关闭；操作正常完成时请使用 {@link #cancel()}
+     */
+    public final void stop() {
+        closeClient(client);
+        cancel();
     }
 }
@@ -0,0 +1,378 @@
+package com.liuyang.common;
+
+import com.liuyang.log.Logger;
+import com.liuyang.metrics.Metrics;
+import com.liuyang.util.HashedWheelTimer;
+import com.sun.istack.internal.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 客户端连接池
+ * <p>
+ *     按 {@link ManagerConfig} 复用已连接的客户端，省去每次作业的 TCP 建连、TLS 握手与登录。
+ *     <ul>
+ *         <li>最小、最大客户端数量，超过最大数量时借用方按先后顺序（公平锁）等待，超时抛出异常；</li>
+ *         <li>借用时校验：客户端已断开或空闲超过 <code>maxIdleMillis</code> 时丢弃并重新获取；</li>
+ *         <li>后台按周期淘汰空闲超时的客户端，并补足最小数量；</li>
+ *         <li>最近归还的客户端优先借出，空闲较久的客户端优先淘汰。</li>
+ *     </ul>
+ *     借出、归还与淘汰由 {@link ObjectPool} 实现，建连、校验与关闭都在锁外进行，不会阻塞其他借用方；
+ *     后台淘汰与补足在淘汰线程池中执行，不占用定时器线程。
+ * </p>
+ * <p>
+ *     客户端由 {@link ClientFactory} 创建，每次必须返回新的实例。注意各配置的 <code>getConnection()</code>
+ *     缓存并重连同一个客户端，不能用作工厂。
+ * </p>
+ * <pre>
+ *     ManagerClientPool&lt;MySQLManager&gt; pool = ManagerClientPool.of(config, c -&gt; new MySQLManager((MySQLConfig) c));
+ *     try (ManagerClientPool.Lease&lt;MySQLManager&gt; lease = pool.lease()) {
+ *         lease.get().query("select 1");
+ *     }
+ * </pre>
+ * <ul>
+ *     <li>2019/4/2 ver 1.0.0 创建。</li>
+ *     <li>2019/4/10 ver 1.0.1 必须指定客户端工厂；已有连接池的参数不一致时抛出异常；淘汰与补足移出定时器线程。</li>
+ *     <li>2019/4/10 ver 1.0.2 改为继承 ObjectPool，与 JDBC 连接池共用借出与归还的实现。</li>
+ * </ul>
+ * @param <C> 客户端类型
+ * @author liuyang
+ * @version 1.0.2
+ */
+public final class ManagerClientPool<C extends ManagerClient> extends ObjectPool<C> {
+    private final static Logger logger = Logger.getLogger(ManagerClientPool.class);
+
+    private final static HashedWheelTimer EVICTOR =
+            new HashedWheelTimer("ManagerClientPoolEvictor", 1, TimeUnit.SECONDS, 64);
+
+    /** 执行后台淘汰与补足（可能建连）的线程池：按需创建守护线程，空闲 60 秒后回收 */
+    private final static Executor EVICTIONS;
+
+    static {
+        AtomicInteger sequence = new AtomicInteger();
+        EVICTIONS = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), task -> {
+            Thread thread = new Thread(task, "ManagerClientPoolEviction-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private final static ConcurrentMap<List<Object>, ManagerClientPool<?>> POOLS = new ConcurrentHashMap<>();
+
+    /**
+     * 客户端工厂
+     * @param <C> 客户端类型
+     */
+    @FunctionalInterface
+    public interface ClientFactory<C extends ManagerClient> {
+        /**
+         * 创建新的客户端，每次调用都必须返回新的实例
+         * @param config 配置
+         * @return 返回客户端，未连接时由连接池调用 <code>connect()</code>。
+         * @throws ManagerException 无法创建时抛出异常。
+         */
+        C create(ManagerConfig config) throws ManagerException;
+    }
+
+    /**
+     * 连接池参数
+     */
+    public static final class Options {
+        private int  minSize            = 0;
+        private int  maxSize            = 8;
+        private long maxWaitMillis      = 30000;
+        private long idleTimeoutMillis  = 300000;
+        private long maxIdleMillis      = 0;
+        private long evictionMillis     = 30000;
+
+        /**
+         * 最小客户端数量，默认 0
+         * @param minSize 数量
+         * @return 返回参数。
+         */
+        public Options setMinSize(int minSize) {
+            this.minSize = minSize;
+            return this;
+        }
+
+        /**
+         * 最大客户端数量（包括借出的），默认 8
+         * @param maxSize 数量
+         * @return 返回参数。
+         */
+        public Options setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * 借用的最长等待时间，默认 30 秒
+         * @param maxWaitMillis 毫秒
+         * @return 返回参数。
+         */
+        public Options setMaxWaitMillis(long maxWaitMillis) {
+            this.maxWaitMillis = maxWaitMillis;
+            return this;
+        }
+
+        /**
+         * 空闲多久后被后台淘汰（保留最小数量），默认 5 分钟，小于等于 0 表示不淘汰
+         * @param idleTimeoutMillis 毫秒
+         * @return 返回参数。
+         */
+        public Options setIdleTimeoutMillis(long idleTimeoutMillis) {
+            this.idleTimeoutMillis = idleTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * 借用时，距客户端最后连接时间超过该值则丢弃（如服务器会主动断开空闲连接），默认 0 表示不检查
+         * @param maxIdleMillis 毫秒
+         * @return 返回参数。
+         */
+        public Options setMaxIdleMillis(long maxIdleMillis) {
+            this.maxIdleMillis = maxIdleMillis;
+            return this;
+        }
+
+        /**
+         * 后台淘汰周期，默认 30 秒
+         * @param evictionMillis 毫秒
+         * @return 返回参数。
+         */
+        public Options setEvictionMillis(long evictionMillis) {
+            this.evictionMillis = evictionMillis;
+            return this;
+        }
+
+        private Options check() {
+            if (maxSize <= 0)
+                throw new IllegalArgumentException("Illegal parameter [maxSize = " + maxSize + "], must be positive.");
+            if (minSize < 0 || minSize > maxSize)
+                throw new IllegalArgumentException("Illegal parameter [minSize = " + minSize + "], must be in [0, maxSize].");
+            if (evictionMillis <= 0)
+                throw new IllegalArgumentException("Illegal parameter [evictionMillis = " + evictionMillis + "], must be positive.");
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Options))
+                return false;
+            Options other = (Options) o;
+            return minSize == other.minSize && maxSize == other.maxSize && maxWaitMillis == other.maxWaitMillis
+                    && idleTimeoutMillis == other.idleTimeoutMillis && maxIdleMillis == other.maxIdleMillis
+                    && evictionMillis == other.evictionMillis;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(minSize, maxSize, maxWaitMillis, idleTimeoutMillis, maxIdleMillis, evictionMillis);
+        }
+    }
+
+    /**
+     * 借用凭证，关闭时归还客户端
+     * @param <C> 客户端类型
+     */
+    public static final class Lease<C extends ManagerClient> implements AutoCloseable {
+        private final ManagerClientPool<C> pool;
+        private C client;
+
+        private Lease(ManagerClientPool<C> pool, C client) {
+            this.pool   = pool;
+            this.client = client;
+        }
+
+        public C get() {
+            if (client == null)
+                throw new IllegalStateException("Lease has been closed.");
+            return client;
+        }
+
+        /**
+         * 标记客户端不可用，关闭时销毁而不是归还
+         */
+        public void invalidate() {
+            if (client != null) {
+                pool.invalidate(client);
+                client = null;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (client != null) {
+                pool.release(client);
+                client = null;
+            }
+        }
+    }
+
+    /**
+     * 获取配置对应的连接池，首次创建时使用默认参数
+     * @param config 配置，用作连接池的键，放入后不要再修改
+     * @param factory 客户端工厂，每次创建新的客户端；只在首次创建连接池时使用，之后返回已有的连接池
+     * @param <C> 客户端类型
+     * @return 返回连接池，同一配置只创建一次。
+     */
+    @SuppressWarnings("unchecked")
+    public static <C extends ManagerClient> ManagerClientPool<C> of(@NotNull ManagerConfig config,
+                                                                    @NotNull ClientFactory<C> factory) {
+        List<Object> key = Arrays.asList(config.getClass(), config);
+        return (ManagerClientPool<C>) POOLS.computeIfAbsent(key, k -> new ManagerClientPool<>(config, factory, new Options()));
+    }
+
+    /**
+     * 获取配置对应的连接池
+     * @param config 配置，用作连接池的键，放入后不要再修改
+     * @param factory 客户端工厂，每次创建新的客户端；只在首次创建连接池时使用，之后返回已有的连接池
+     * @param options 连接池参数
+     * @param <C> 客户端类型
+     * @return 返回连接池，同一配置只创建一次。
+     * @exception IllegalStateException 如果该配置已有连接池，且其参数与 <code>options</code> 不一致。
+     */
+    @SuppressWarnings("unchecked")
+    public static <C extends ManagerClient> ManagerClientPool<C> of(@NotNull ManagerConfig config,
+                                                                    @NotNull ClientFactory<C> factory,
+                                                                    @NotNull Options options) {
+        List<Object> key = Arrays.asList(config.getClass(), config);
+        ManagerClientPool<C> pool = (ManagerClientPool<C>) POOLS.computeIfAbsent(key,
+                k -> new ManagerClientPool<>(config, factory, options));
+        if (pool.options != options && !pool.options.equals(options))
+            throw new IllegalStateException("Pool(" + pool.getName() + ") already exists with different options.");
+        return pool;
+    }
+
+    /**
+     * 关闭全部连接池
+     */
+    public static void closeAll() {
+        for (ManagerClientPool<?> pool : POOLS.values())
+            pool.close();
+    }
+
+    private final ManagerConfig    config;
+    private final ClientFactory<C> factory;
+    private final Options          options;
+
+    /**
+     * 创建连接池
+     * @param config 配置
+     * @param factory 客户端工厂
+     * @param options 连接池参数
+     */
+    public ManagerClientPool(@NotNull ManagerConfig config, @NotNull ClientFactory<C> factory,
+                             @NotNull Options options) {
+        super(config.getSchema() + "." + config.getHost() + "." + config.getPort(), "client", "pool",
+                options.check().maxSize, options.maxWaitMillis);
+        this.config  = config;
+        this.factory = factory;
+        this.options = options;
+        Metrics.gauge("pool." + getName() + ".active", this::getActiveCount);
+        Metrics.gauge("pool." + getName() + ".idle", this::getIdleCount);
+        scheduleEviction();
+    }
+
+    public ManagerConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 借用客户端，关闭凭证时归还
+     * @return 返回借用凭证。
+     * @throws ManagerException 连接池已关闭、等待超时或无法创建客户端时抛出异常。
+     */
+    public Lease<C> lease() throws ManagerException {
+        return new Lease<>(this, borrow());
+    }
+
+    // 工厂返回已在池中的客户端时原样交给 ObjectPool 拒绝，不能连接或关闭它
+    @Override
+    protected C create() throws ManagerException {
+        C client = factory.create(config);
+        if (contains(client))
+            return client;
+        try {
+            if (!client.isConnected() && !client.connect())
+                throw new ManagerException("Can not connect to " + getName() + ".");
+            return client;
+        } catch (RuntimeException e) {
+            destroy(client);
+            throw e;
+        }
+    }
+
+    @Override
+    protected void destroy(C client) {
+        try {
+            client.close();
+        } catch (RuntimeException e) {
+            // do nothing
+        }
+    }
+
+    @Override
+    protected boolean validate(C client) {
+        if (!client.isConnected())
+            return false;
+        if (options.maxIdleMillis > 0) {
+            long last = client.getLastConnectionTime();
+            return System.currentTimeMillis() - last < options.maxIdleMillis;
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean reset(C client) {
+        return client.isConnected();
+    }
+
+    // 定时器线程只负责到期，淘汰与补足在淘汰线程池中执行
+    private void scheduleEviction() {
+        if (!isClosed())
+            EVICTOR.newTimeout(t -> EVICTIONS.execute(this::evictAndReschedule),
+                    options.evictionMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void evictAndReschedule() {
+        try {
+            evict();
+        } catch (RuntimeException e) {
+            logger.warn("Pool(%s) eviction failed: %s", getName(), e.getMessage());
+        } finally {
+            scheduleEviction();
+        }
+    }
+
+    /**
+     * 淘汰空闲超时的客户端，并补足最小数量。由后台周期执行，也可手动调用（在调用线程中建连）。
+     */
+    public void evict() {
+        try {
+            evict(options.idleTimeoutMillis, options.minSize);
+        } catch (ManagerException e) {
+            logger.warn("Pool(%s) can not create client: %s", getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * 关闭连接池：销毁空闲客户端，借出的客户端在归还时销毁，等待中的借用方抛出异常
+     */
+    @Override
+    public void close() {
+        super.close();
+        POOLS.values().remove(this);
+        Metrics.getRegistry().remove("pool." + getName() + ".active");
+        Metrics.getRegistry().remove("pool." + getName() + ".idle");
+    }
+}
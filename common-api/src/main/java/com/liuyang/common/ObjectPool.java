@@ -0,0 +1,415 @@
+package com.liuyang.common;
+
+import com.liuyang.metrics.Counter;
+import com.liuyang.metrics.Histogram;
+import com.liuyang.metrics.Metrics;
+import com.sun.istack.internal.NotNull;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 对象池
+ * <p>
+ *     {@link ManagerClientPool} 与 JDBC 连接池共用的借出、归还与淘汰逻辑：
+ *     <ul>
+ *         <li>超过最大数量时借用方按先后顺序（公平锁）等待，超时抛出异常；</li>
+ *         <li>最近归还的对象优先借出，空闲较久的对象优先淘汰；</li>
+ *         <li>创建、校验、重置与销毁都在锁外进行，不会阻塞其他借用方。</li>
+ *     </ul>
+ *     子类实现 {@link #create()} 与 {@link #destroy(Object)}，按需覆盖借出时的 {@link #validate(Object)}
+ *     与归还时的 {@link #reset(Object)}。
+ * </p>
+ * <ul>
+ *     <li>2019/4/10 ver 1.0.0 创建，由 ManagerClientPool 与 ConnectionPool 中提取。</li>
+ * </ul>
+ * @param <T> 对象类型
+ * @author liuyang
+ * @version 1.0.0
+ */
+public abstract class ObjectPool<T> implements AutoCloseable {
+
+    // 空闲对象
+    private final static class Entry<T> {
+        private final T    object;
+        private final long idleSince;
+
+        private Entry(T object, long idleSince) {
+            this.object    = object;
+            this.idleSince = idleSince;
+        }
+    }
+
+    private final String          name;
+    private final String          kind;
+    private final int             maxSize;
+    private final long            maxWaitMillis;
+    private final Counter         created;
+    private final Counter         destroyed;
+    private final Counter         timeouts;
+    private final Histogram       wait;
+    private final ReentrantLock   lock      = new ReentrantLock(true);
+    private final Condition       available = lock.newCondition();
+    /** 头部为最近归还的对象 */
+    private final Deque<Entry<T>> idle      = new ArrayDeque<>();
+    private final Set<T>          leased    = Collections.newSetFromMap(new IdentityHashMap<>());
+    /** 已创建（包括正在创建）的对象数量 */
+    private int                   total;
+    private volatile boolean      closed;
+
+    /**
+     * 创建对象池
+     * @param name          名称，用于异常信息
+     * @param kind          对象的称呼，用于异常信息，如 client、connection
+     * @param metrics       度量名称的前缀，如 pool，同前缀的对象池共用计数
+     * @param maxSize       最大数量（包括借出的）
+     * @param maxWaitMillis 借用的最长等待时间
+     */
+    protected ObjectPool(@NotNull String name, @NotNull String kind, @NotNull String metrics,
+                         int maxSize, long maxWaitMillis) {
+        if (maxSize <= 0)
+            throw new IllegalArgumentException("Illegal parameter [maxSize = " + maxSize + "], must be positive.");
+        this.name          = name;
+        this.kind          = kind;
+        this.maxSize       = maxSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.created       = Metrics.counter(metrics + ".created");
+        this.destroyed     = Metrics.counter(metrics + ".destroyed");
+        this.timeouts      = Metrics.counter(metrics + ".borrow.timeouts");
+        this.wait          = Metrics.histogram(metrics + ".borrow.nanos");
+    }
+
+    /**
+     * 创建新的对象，在锁外调用。抛出异常前应自行释放已创建的部分。
+     * @return 返回可用的对象。
+     * @throws ManagerException 无法创建时抛出异常。
+     */
+    protected abstract T create() throws ManagerException;
+
+    /**
+     * 销毁对象，在锁外调用，抛出的异常会被忽略
+     * @param object 对象
+     */
+    protected abstract void destroy(T object);
+
+    /**
+     * 借出空闲对象前校验，在锁外调用
+     * @param object 对象
+     * @return 返回 false 时销毁并重新获取。
+     */
+    protected boolean validate(T object) {
+        return true;
+    }
+
+    /**
+     * 归还前恢复对象状态，在锁外调用
+     * @param object 对象
+     * @return 返回 false 时销毁而不是放回。
+     */
+    protected boolean reset(T object) {
+        return true;
+    }
+
+    public final String getName() {
+        return name;
+    }
+
+    public final boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 借用对象，使用后必须调用 {@link #release(Object)} 或 {@link #invalidate(Object)}
+     * @return 返回对象。
+     * @throws ManagerException 对象池已关闭、等待超时或无法创建对象时抛出异常。
+     */
+    public final T borrow() throws ManagerException {
+        long start    = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        while (true) {
+            Entry<T> entry = null;
+            boolean  reserved = false;
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed)
+                        throw new ManagerException("Pool(" + name + ") has been closed.");
+                    if ((entry = idle.pollFirst()) != null)
+                        break;
+                    if (total < maxSize) {
+                        total++;
+                        reserved = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        if (Metrics.ENABLED)
+                            timeouts.increment();
+                        throw new ManagerException("Timeout waiting for " + kind + " of pool(" + name + ") after "
+                                + maxWaitMillis + " ms, active: " + leased.size() + ".");
+                    }
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ManagerException("Interrupted while waiting for " + kind + " of pool(" + name + ").", e);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            T object = reserved ? newObject() : entry.object;
+            if (!reserved && !isValid(object)) {
+                discard(object);
+                continue;
+            }
+            lock.lock();
+            try {
+                leased.add(object);
+            } finally {
+                lock.unlock();
+            }
+            if (Metrics.ENABLED)
+                wait.recordSince(start);
+            return object;
+        }
+    }
+
+    /**
+     * 归还对象。{@link #reset(Object)} 失败或对象池已关闭时销毁。
+     * @param object 借用的对象
+     */
+    public final void release(@NotNull T object) {
+        unlease(object);
+        if (!closed && isReset(object)) {
+            lock.lock();
+            try {
+                if (!closed) {
+                    idle.addFirst(new Entry<>(object, System.currentTimeMillis()));
+                    available.signal();
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        discard(object);
+    }
+
+    /**
+     * 销毁借用的对象，如操作出错、状态未知的对象
+     * @param object 借用的对象
+     */
+    public final void invalidate(@NotNull T object) {
+        unlease(object);
+        discard(object);
+    }
+
+    private void unlease(T object) {
+        lock.lock();
+        try {
+            if (!leased.remove(object))
+                throw new IllegalArgumentException("Illegal parameter [" + kind + "], not borrowed from pool(" + name + ").");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 在锁外创建，调用前已占用名额，失败时归还名额
+    private T newObject() throws ManagerException {
+        T object;
+        try {
+            object = create();
+        } catch (RuntimeException e) {
+            giveBack();
+            throw e;
+        }
+        if (contains(object)) {
+            giveBack();
+            throw new ManagerException("Factory of pool(" + name + ") must create a new " + kind + " each time.");
+        }
+        if (Metrics.ENABLED)
+            created.increment();
+        return object;
+    }
+
+    private void giveBack() {
+        lock.lock();
+        try {
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 对象是否已在池中（借出或空闲）
+     * @param object 对象
+     * @return 返回是否在池中。
+     */
+    protected final boolean contains(T object) {
+        lock.lock();
+        try {
+            if (leased.contains(object))
+                return true;
+            for (Entry<T> entry : idle) {
+                if (entry.object == object)
+                    return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isValid(T object) {
+        try {
+            return validate(object);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private boolean isReset(T object) {
+        try {
+            return reset(object);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    // 销毁对象并归还名额
+    private void discard(T object) {
+        giveBack();
+        try {
+            destroy(object);
+        } catch (RuntimeException e) {
+            // do nothing
+        }
+        if (Metrics.ENABLED)
+            destroyed.increment();
+    }
+
+    /**
+     * 淘汰空闲超时的对象（保留最小数量），并补足最小数量。在调用线程中创建对象。
+     * @param idleTimeoutMillis 空闲超时，小于等于 0 表示不淘汰
+     * @param minSize           最小数量
+     * @throws ManagerException 无法创建对象时抛出异常，已补足的对象保留。
+     */
+    protected final void evict(long idleTimeoutMillis, int minSize) throws ManagerException {
+        List<T> expired = new ArrayList<>();
+        int missing;
+        lock.lock();
+        try {
+            if (idleTimeoutMillis > 0) {
+                long limit = System.currentTimeMillis() - idleTimeoutMillis;
+                while (total - expired.size() > minSize && !idle.isEmpty()
+                        && idle.peekLast().idleSince < limit) {
+                    expired.add(idle.pollLast().object);
+                }
+            }
+            missing = closed ? 0 : minSize - (total - expired.size());
+        } finally {
+            lock.unlock();
+        }
+        for (T object : expired)
+            discard(object);
+        for (int i = 0; i < missing; i++) {
+            lock.lock();
+            try {
+                if (closed || total >= minSize)
+                    break;
+                total++;
+            } finally {
+                lock.unlock();
+            }
+            T object = newObject();
+            lock.lock();
+            try {
+                idle.addLast(new Entry<>(object, System.currentTimeMillis()));
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 获取对象总数（包括借出与正在创建的）
+     * @return 返回数量。
+     */
+    public final int getTotalCount() {
+        lock.lock();
+        try {
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public final int getActiveCount() {
+        lock.lock();
+        try {
+            return leased.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public final int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取可立即借出的对象数（空闲的与尚可新建的），仅为调用时的快照
+     * @return 返回数量。
+     */
+    public final int getAvailableCount() {
+        lock.lock();
+        try {
+            return idle.size() + maxSize - total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 关闭对象池：销毁空闲对象，借出的对象在归还时销毁，等待中的借用方抛出异常。重复关闭时不做任何事。
+     */
+    @Override
+    public void close() {
+        List<T> objects = new ArrayList<>();
+        lock.lock();
+        try {
+            if (closed)
+                return;
+            closed = true;
+            while (!idle.isEmpty())
+                objects.add(idle.pollFirst().object);
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (T object : objects)
+            discard(object);
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return getClass().getSimpleName() + "(" + name + ")[total=" + total + ", active=" + leased.size()
+                    + ", idle=" + idle.size() + "]";
+        } finally {
+            lock.unlock();
+        }
+    }
+}
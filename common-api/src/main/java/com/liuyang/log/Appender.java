@@ -0,0 +1,41 @@
+package com.liuyang.log;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 日志输出器
+ * <p>
+ *     只由日志后台线程调用，实现类不需要考虑线程安全。<code>append</code> 可以只写入缓冲区，
+ *     后台线程在每批日志写完后调用 <code>flush</code>。
+ * </p>
+ * <ul>
+ *     <li>2019/3/30 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public interface Appender extends Closeable {
+
+    /**
+     * 写入一行日志（不含换行符）
+     * @param level 日志级别
+     * @param line 日志内容，调用返回后即被复用，需要保留时请复制
+     * @throws IOException 写入出错时抛出异常。
+     */
+    void append(Level level, CharSequence line) throws IOException;
+
+    /**
+     * 输出缓冲区中的日志
+     * @throws IOException 写入出错时抛出异常。
+     */
+    void flush() throws IOException;
+
+    /**
+     * 是否为控制台输出器。<code>Logger.enableWriter(false)</code> 的日志只写入控制台输出器。
+     * @return 返回 true 表示控制台输出器。
+     */
+    default boolean isConsole() {
+        return false;
+    }
+}
@@ -0,0 +1,53 @@
+package com.liuyang.log;
+
+import java.io.PrintStream;
+
+/**
+ * 控制台日志输出器
+ * <p>
+ *     <code>DEBUG</code>、<code>INFO</code> 写入 <code>System.out</code>，<code>WARN</code>、<code>ERROR</code>
+ *     写入 <code>System.err</code>。每批日志合并后一次输出。
+ * </p>
+ * <ul>
+ *     <li>2019/3/30 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class ConsoleAppender implements Appender {
+
+    private final StringBuilder out = new StringBuilder(4096);
+    private final StringBuilder err = new StringBuilder(1024);
+
+    @Override
+    public void append(Level level, CharSequence line) {
+        (level.ordinal() >= Level.WARN.ordinal() ? err : out).append(line).append(System.lineSeparator());
+    }
+
+    @Override
+    public void flush() {
+        flush(out, System.out);
+        flush(err, System.err);
+    }
+
+    private static void flush(StringBuilder buffer, PrintStream stream) {
+        if (buffer.length() == 0)
+            return;
+        stream.print(buffer);
+        stream.flush();
+        buffer.setLength(0);
+        // 偶尔出现的超长日志不长期占用内存
+        if (buffer.capacity() > 1 << 20)
+            buffer.trimToSize();
+    }
+
+    @Override
+    public boolean isConsole() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+}
@@ -0,0 +1,27 @@
+package com.liuyang.log;
+
+/**
+ * 日志级别
+ * <ul>
+ *     <li>2019/3/30 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public enum Level {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    /** 关闭日志，只用作级别阈值 */
+    OFF;
+
+    /**
+     * 是否达到指定的级别阈值
+     * @param threshold 级别阈值
+     * @return 返回 true 表示需要输出。
+     */
+    public final boolean isEnabled(Level threshold) {
+        return this != OFF && ordinal() >= threshold.ordinal();
+    }
+}
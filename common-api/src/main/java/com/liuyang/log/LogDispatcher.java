@@ -0,0 +1,258 @@
+package com.liuyang.log;
+
+import com.liuyang.tools.TimeUtils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Formatter;
+import java.util.IllegalFormatException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 日志后台线程
+ * <p>
+ *     业务线程只把日志事件发布到 {@link LogRingBuffer}，由后台线程按批次格式化并写入各输出器，
+ *     每批写完后统一 <code>flush</code>。时间戳的日期与时分秒部分按秒缓存，消息格式化直接写入复用的缓冲区。
+ * </p>
+ * <ul>
+ *     <li>2019/3/30 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+final class LogDispatcher implements Runnable {
+
+    /** 缓冲区容量，可通过系统属性 <code>com.liuyang.log.bufferSize</code> 设置，向上取 2 的幂 */
+    private final static int  BUFFER_SIZE = Integer.highestOneBit(
+            Math.max(2, Integer.getInteger("com.liuyang.log.bufferSize", 8192) - 1) << 1);
+    /** 每批最多处理的日志数量 */
+    private final static int  BATCH_SIZE  = 1024;
+    /** 空闲时的等待时间 */
+    private final static long IDLE_NANOS  = 1000000L;
+    /** 缓冲区已满时生产者的等待时间 */
+    private final static long FULL_NANOS  = 50000L;
+
+    final static LogDispatcher INSTANCE = new LogDispatcher(BUFFER_SIZE);
+
+    private final LogRingBuffer ring;
+    private final StringBuilder line      = new StringBuilder(256);
+    private final Formatter     formatter = new Formatter(line);
+    private final StringBuilder stamp     = new StringBuilder(19);
+    private long                second    = Long.MIN_VALUE;
+
+    private volatile Appender[]      appenders = { new ConsoleAppender() };
+    /** 被移除的输出器，由后台线程在写完当前批次后关闭 */
+    private final Queue<Appender>    retired   = new ConcurrentLinkedQueue<>();
+    /** 已写出并 flush 的序号 */
+    private volatile long            flushed;
+    private volatile Thread          thread;
+    private volatile boolean         running;
+    private volatile boolean         closed;
+
+    private LogDispatcher(int capacity) {
+        this.ring = new LogRingBuffer(capacity);
+    }
+
+    private synchronized void start() {
+        if (thread != null || closed)
+            return;
+        running = true;
+        Thread t = new Thread(this, "Logger-Dispatcher");
+        t.setDaemon(true);
+        t.start();
+        thread = t;
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "Logger-Shutdown"));
+    }
+
+    /**
+     * 发布日志事件，缓冲区已满时等待后台线程释放槽位
+     */
+    void publish(Level level, String name, String format, Object message, Object[] parameters, boolean writer) {
+        if (thread == null)
+            start();
+        LogEvent event;
+        while ((event = ring.claim()) == null) {
+            if (closed) {
+                writeDirectly(level, name, format, message, parameters, writer);
+                return;
+            }
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(FULL_NANOS);
+        }
+        event.millis     = System.currentTimeMillis();
+        event.level      = level;
+        event.name       = name;
+        event.format     = format;
+        event.message    = message;
+        event.parameters = parameters;
+        event.writer     = writer;
+        ring.publish(event);
+        if (closed)
+            drain();
+    }
+
+    // 关闭后的日志，直接写出
+    private synchronized void writeDirectly(Level level, String name, String format, Object message,
+                                            Object[] parameters, boolean writer) {
+        LogEvent event = new LogEvent();
+        event.millis     = System.currentTimeMillis();
+        event.level      = level;
+        event.name       = name;
+        event.format     = format;
+        event.message    = message;
+        event.parameters = parameters;
+        event.writer     = writer;
+        write(event, appenders);
+        flushAppenders(appenders);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            if (drain() == 0)
+                LockSupport.parkNanos(this, IDLE_NANOS);
+        }
+        drain();
+    }
+
+    // 处理已发布的日志，返回处理的数量
+    private synchronized int drain() {
+        int count = 0;
+        Appender[] current = appenders;
+        LogEvent event;
+        while (count < BATCH_SIZE && (event = ring.peek()) != null) {
+            write(event, current);
+            ring.release(event);
+            count++;
+        }
+        if (count > 0)
+            flushAppenders(current);
+        flushed = ring.head();
+        Appender appender;
+        while ((appender = retired.poll()) != null)
+            close(appender);
+        return count;
+    }
+
+    private void write(LogEvent event, Appender[] current) {
+        format(event);
+        for (Appender appender : current) {
+            if (!event.writer && !appender.isConsole())
+                continue;
+            try {
+                appender.append(event.level, line);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Logger: append failure, " + e);
+            }
+        }
+    }
+
+    // 格式化为 "[yyyy-MM-dd HH:mm:ss.SSS] LEVEL name message"
+    private void format(LogEvent event) {
+        line.setLength(0);
+        long s = Math.floorDiv(event.millis, TimeUtils.SECOND_MILLIS);
+        if (s != second) {
+            second = s;
+            stamp.setLength(0);
+            TimeUtils.appendEpochMicros(stamp, s * TimeUtils.SECOND_MICROS, ' ', false);
+        }
+        int millis = (int) Math.floorMod(event.millis, TimeUtils.SECOND_MILLIS);
+        line.append('[').append(stamp).append('.')
+                .append((char) ('0' + millis / 100))
+                .append((char) ('0' + millis / 10 % 10))
+                .append((char) ('0' + millis % 10))
+                .append("] ").append(event.level.name()).append(' ').append(event.name).append(' ');
+        if (event.format == null) {
+            line.append(event.message);
+            return;
+        }
+        int start = line.length();
+        try {
+            formatter.format(event.format, event.parameters);
+        } catch (IllegalFormatException e) {
+            line.setLength(start);
+            line.append(event.format).append(' ').append(Arrays.toString(event.parameters));
+        }
+    }
+
+    private static void flushAppenders(Appender[] current) {
+        for (Appender appender : current) {
+            try {
+                appender.flush();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Logger: flush failure, " + e);
+            }
+        }
+    }
+
+    private static void close(Appender appender) {
+        try {
+            appender.close();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Logger: close failure, " + e);
+        }
+    }
+
+    Appender[] getAppenders() {
+        return appenders.clone();
+    }
+
+    /**
+     * 替换输出器，被替换的输出器在写完已发布的日志后关闭
+     * @param newAppenders 新的输出器
+     */
+    synchronized void setAppenders(Appender[] newAppenders) {
+        Appender[] old = appenders;
+        appenders = newAppenders.clone();
+        for (Appender appender : old) {
+            if (!Arrays.asList(newAppenders).contains(appender))
+                retired.add(appender);
+        }
+    }
+
+    /**
+     * 等待调用前发布的日志全部写出
+     * @param timeoutMillis 最长等待时间
+     * @return 返回 true 表示已全部写出。
+     */
+    boolean flush(long timeoutMillis) {
+        long target   = ring.tail();
+        long deadline = System.nanoTime() + timeoutMillis * 1000000L;
+        while (flushed < target) {
+            Thread t = thread;
+            if (t == null || !t.isAlive()) {
+                drain();
+                return flushed >= target;
+            }
+            if (System.nanoTime() > deadline)
+                return false;
+            LockSupport.unpark(t);
+            LockSupport.parkNanos(FULL_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * 写出全部日志后停止后台线程并关闭输出器。之后的日志直接写出。
+     */
+    void shutdown() {
+        Thread t = thread;
+        running = false;
+        if (t != null) {
+            LockSupport.unpark(t);
+            try {
+                t.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            closed = true;
+            drain();
+            for (Appender appender : appenders)
+                close(appender);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.liuyang.log;
+
+/**
+ * 日志事件
+ * <p>
+ *     环形缓冲区中预先分配的槽位，发布日志时只填写字段，不创建对象；消息由后台线程格式化。
+ * </p>
+ * <ul>
+ *     <li>2019/3/30 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+final class LogEvent {
+    /** 槽位在缓冲区中的序号，由缓冲区维护 */
+    long     position;
+    long     millis;
+    Level    level;
+    String   name;
+    /** 为 null 时直接输出 message */
+    String   format;
+    Object   message;
+    Object[] parameters;
+    /** 是否写入非控制台输出器 */
+    boolean  writer;
+
+    void clear() {
+        level      = null;
+        name       = null;
+        format     = null;
+        message    = null;
+        parameters = null;
+    }
+}
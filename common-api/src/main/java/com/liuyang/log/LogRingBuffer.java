@@ -0,0 +1,112 @@
+package com.liuyang.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 日志环形缓冲区
+ * <p>
+ *     无锁的多生产者、单消费者有界队列。每个槽位带有序号：生产者通过 CAS 领取序号后填写槽位再发布，
+ *     消费者按序号顺序读取，处理完后释放槽位给下一圈的生产者。槽位预先分配，发布日志不创建对象。
+ * </p>
+ * <ul>
+ *     <li>2019/3/30 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+final class LogRingBuffer {
+
+    private final LogEvent[]      slots;
+    /** 槽位状态：等于 position 表示可写，等于 position + 1 表示已发布 */
+    private final AtomicLongArray sequences;
+    private final int             mask;
+    /** 下一个待领取的序号 */
+    private final AtomicLong      tail = new AtomicLong();
+    /** 下一个待消费的序号，只由消费者修改 */
+    private volatile long         head;
+
+    LogRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("Illegal parameter [capacity = " + capacity
+                    + "], must be a power of 2.");
+        this.slots     = new LogEvent[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask      = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new LogEvent();
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * 领取槽位（生产者）
+     * @return 返回槽位，缓冲区已满时返回 null。
+     */
+    LogEvent claim() {
+        for (;;) {
+            long position = tail.get();
+            int  index    = (int) position & mask;
+            long diff     = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    LogEvent event = slots[index];
+                    event.position = position;
+                    return event;
+                }
+            } else if (diff < 0) {
+                return null;
+            }
+            // diff > 0：其他生产者已领取，重试
+        }
+    }
+
+    /**
+     * 发布已填写的槽位（生产者）
+     * @param event 槽位
+     */
+    void publish(LogEvent event) {
+        sequences.lazySet((int) event.position & mask, event.position + 1);
+    }
+
+    /**
+     * 获取下一个已发布的槽位（消费者）
+     * @return 返回槽位，没有已发布的槽位时返回 null。
+     */
+    LogEvent peek() {
+        long position = head;
+        int  index    = (int) position & mask;
+        return sequences.get(index) == position + 1 ? slots[index] : null;
+    }
+
+    /**
+     * 释放 <code>peek</code> 返回的槽位（消费者）
+     * @param event 槽位
+     */
+    void release(LogEvent event) {
+        event.clear();
+        long position = head;
+        sequences.lazySet((int) position & mask, position + slots.length);
+        head = position + 1;
+    }
+
+    /**
+     * 已领取的序号，用于等待之前发布的日志全部写出
+     * @return 返回下一个待领取的序号。
+     */
+    long tail() {
+        return tail.get();
+    }
+
+    /**
+     * 已消费的序号
+     * @return 返回下一个待消费的序号。
+     */
+    long head() {
+        return head;
+    }
+}
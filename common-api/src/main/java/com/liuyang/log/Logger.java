@@ -1,15 +1,27 @@
 package com.liuyang.log;
 
-import java.io.IOException;
-import java.io.Writer;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import com.sun.istack.internal.NotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Logger Class
- * <li>2018/06/28 created by liuyang.</li>
+ * <p>
+ *     异步日志。先判断级别，再把消息模板与参数发布到无锁环形缓冲区，由后台线程格式化并按批次写入输出器，
+ *     调用线程不加锁、不格式化、不直接写控制台。默认输出到控制台，可通过 {@link #addAppender(Appender)}
+ *     增加滚动文件等输出器。
+ * </p>
+ * <p>
+ *     <i>消息与参数在后台线程中才转换为文本，发布后不要再修改作为参数传入的可变对象。</i>
+ * </p>
+ * <ul>
+ *     <li>2018/06/28 ver 1.0.0 created by liuyang.</li>
+ *     <li>2019/03/30 ver 1.1.0 改为异步日志：环形缓冲区、后台批量写入、时间戳缓存、级别判断后再格式化。</li>
+ * </ul>
  * @author liuyang
- * @version 1.0.0
+ * @version 1.1.0
  *
  */
 public class Logger {
@@ -20,116 +32,151 @@ public class Logger {
     public static boolean ENABLE_ERROR = true;
     public static boolean ENABLE_WARN = true;
 
-    public synchronized static Logger getLogger(Class<?> clazz) {
-        return new Logger(clazz, null);
+    /** 全局级别阈值 */
+    private static volatile Level threshold = Level.DEBUG;
+
+    private final static ConcurrentMap<Class<?>, Logger> LOGGERS = new ConcurrentHashMap<>();
+
+    public static Logger getLogger(Class<?> clazz) {
+        return LOGGERS.computeIfAbsent(clazz, Logger::new);
+    }
+
+    /**
+     * 设置全局级别阈值，低于该级别的日志直接丢弃
+     * @param level 级别阈值
+     */
+    public static void setLevel(@NotNull Level level) {
+        threshold = level;
+    }
+
+    public static Level getLevel() {
+        return threshold;
+    }
+
+    /**
+     * 增加输出器
+     * @param appender 输出器
+     */
+    public static synchronized void addAppender(@NotNull Appender appender) {
+        Appender[] current = LogDispatcher.INSTANCE.getAppenders();
+        Appender[] appenders = Arrays.copyOf(current, current.length + 1);
+        appenders[current.length] = appender;
+        LogDispatcher.INSTANCE.setAppenders(appenders);
+    }
+
+    /**
+     * 替换全部输出器，被替换的输出器在写完已发布的日志后关闭
+     * @param appenders 输出器
+     */
+    public static synchronized void setAppenders(@NotNull Appender... appenders) {
+        LogDispatcher.INSTANCE.setAppenders(appenders);
+    }
+
+    /**
+     * 等待已发布的日志全部写出
+     * @param timeoutMillis 最长等待时间（毫秒）
+     * @return 返回 true 表示已全部写出。
+     */
+    public static boolean flush(long timeoutMillis) {
+        return LogDispatcher.INSTANCE.flush(timeoutMillis);
     }
 
     /**
-     * Get time of now with a formatter.
-     * @return formatted by "yyyy-MM-dd HH:mm:ss.ms"
+     * 写出全部日志并关闭输出器。JVM 退出时会自动执行。
      */
-    private static String now() {
-        Date date = new Date();
-        SimpleDateFormat formatter = new SimpleDateFormat ("yyyy-MM-dd HH:mm:ss");
-        return String.format("%s.%03d", formatter.format(date), date.getTime() % 1000);
+    public static void shutdown() {
+        LogDispatcher.INSTANCE.shutdown();
     }
 
-    private Class<?> clazz;
-    private String className;
-    private Writer writer;
-    private boolean enableWriter = ENABLE_WRITER;
-    private boolean enableLogger = ENABLE_LOGGER;
+    private final String className;
+    private volatile boolean enableWriter = ENABLE_WRITER;
+    private volatile boolean enableLogger = ENABLE_LOGGER;
 
     /**
      * Loger
      * @param clazz 指定类
-     * @param writer write the log to the specified writer.
      */
-    private Logger(Class<?> clazz, Writer writer) {
-        this.clazz = clazz;
-        this.writer = writer;
-        this.className = this.clazz.getSimpleName();
-    }
-
-    @Override
-    protected void finalize() {
-        clazz = null;
-        writer = null;
-        className = null;
-        enableWriter = false;
-        enableLogger = false;
-    }
-
-    private synchronized String createMessage(String level, Object m) {
-        String message = String.format("[%s] %s %s %s", now(), level, className,  m);
-        if (enableLogger && enableWriter && writer != null) {
-            try {
-                writer.write(message + "\n");
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
-        return message;
-    }
-
-    private synchronized String createMessage(String level, String format, Object... m) {
-        String message = String.format("[%s] %s %s %s", now(), level, className, String.format(format, m));
-        if (enableLogger && enableWriter && writer != null) {
-            try {
-                writer.write(message + "\n");
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
-        return message;
-    }
-
-    public synchronized final void enableLogger(boolean flag) {
+    private Logger(Class<?> clazz) {
+        this.className = clazz.getSimpleName();
+    }
+
+    private boolean isEnabled(Level level, boolean flag) {
+        return ENABLE_LOGGER && flag && enableLogger && level.isEnabled(threshold);
+    }
+
+    public final boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG, ENABLE_DEBUG);
+    }
+
+    public final boolean isInfoEnabled() {
+        return isEnabled(Level.INFO, ENABLE_INFO);
+    }
+
+    public final boolean isWarnEnabled() {
+        return isEnabled(Level.WARN, ENABLE_WARN);
+    }
+
+    public final boolean isErrorEnabled() {
+        return isEnabled(Level.ERROR, ENABLE_ERROR);
+    }
+
+    private void log(Level level, Object m) {
+        LogDispatcher.INSTANCE.publish(level, className, null, m, null, ENABLE_WRITER && enableWriter);
+    }
+
+    private void log(Level level, String format, Object... m) {
+        LogDispatcher.INSTANCE.publish(level, className, format, null, m, ENABLE_WRITER && enableWriter);
+    }
+
+    public final void enableLogger(boolean flag) {
         enableLogger = flag;
     }
 
-    public synchronized final void enableWriter(boolean flag) {
+    /**
+     * 是否写入文件等非控制台输出器
+     * @param flag 为 false 时只输出到控制台
+     */
+    public final void enableWriter(boolean flag) {
         enableWriter = flag;
     }
 
-    public synchronized final void debug(Object m) {
-        if (ENABLE_LOGGER && ENABLE_DEBUG && enableLogger)
-            System.out.println(createMessage("DEBUG", m));
+    public final void debug(Object m) {
+        if (isDebugEnabled())
+            log(Level.DEBUG, m);
     }
 
-    public synchronized final void debug(String format, Object... m) {
-        if (ENABLE_LOGGER && ENABLE_DEBUG && enableLogger)
-            System.out.println(createMessage("DEBUG", format, m));
+    public final void debug(String format, Object... m) {
+        if (isDebugEnabled())
+            log(Level.DEBUG, format, m);
     }
 
-    public synchronized final void error(Object m) {
-        if (ENABLE_LOGGER && ENABLE_ERROR && enableLogger)
-            System.err.println(createMessage("ERROR", m));
+    public final void error(Object m) {
+        if (isErrorEnabled())
+            log(Level.ERROR, m);
     }
 
-
-    public synchronized final void error(String format, Object... m) {
-        if (ENABLE_LOGGER && ENABLE_ERROR && enableLogger)
-            System.err.println(createMessage("ERROR", format, m));
+    public final void error(String format, Object... m) {
+        if (isErrorEnabled())
+            log(Level.ERROR, format, m);
     }
 
-    public synchronized final void info(Object m) {
-        if (ENABLE_LOGGER && ENABLE_INFO && enableLogger)
-            System.out.println(createMessage("INFO", m));
+    public final void info(Object m) {
+        if (isInfoEnabled())
+            log(Level.INFO, m);
     }
 
     public final void info(String format, Object... m) {
-        if (ENABLE_LOGGER && ENABLE_INFO && enableLogger)
-            System.out.println(createMessage("INFO", format, m));
+        if (isInfoEnabled())
+            log(Level.INFO, format, m);
     }
 
-    public synchronized final void warn(Object m) {
-        if (ENABLE_LOGGER && ENABLE_WARN && enableLogger)
-            System.err.println(createMessage("WARN", m));
+    public final void warn(Object m) {
+        if (isWarnEnabled())
+            log(Level.WARN, m);
     }
 
-    public synchronized final void warn(String format, Object... m) {
-        if (ENABLE_LOGGER && ENABLE_WARN && enableLogger)
-            System.err.println(createMessage("WARN", format, m));
+    public final void warn(String format, Object... m) {
+        if (isWarnEnabled())
+            log(Level.WARN, format, m);
     }
 }
@@ -0,0 +1,156 @@
+package com.liuyang.log;
+
+import com.liuyang.tools.TimeUtils;
+import com.sun.istack.internal.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 滚动文件日志输出器
+ * <p>
+ *     日志先写入缓冲区，由后台线程按批次写入文件。文件大小超过上限，或跨过滚动周期（按本地时间对齐，
+ *     如每天 0 点）时，当前文件被重命名为 <code>name.yyyyMMddHHmmss[.n]</code>，再重新创建日志文件。
+ *     可以限制保留的历史文件数量。
+ * </p>
+ * <ul>
+ *     <li>2019/3/30 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class RollingFileAppender implements Appender {
+
+    /** 缓冲区大小 */
+    private final static int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 创建按天滚动的日志输出器
+     * @param file 日志文件
+     * @param maxBytes 文件大小上限，不大于 0 表示不限制
+     * @return 返回日志输出器。
+     */
+    public static RollingFileAppender daily(@NotNull File file, long maxBytes) {
+        return new RollingFileAppender(file, maxBytes, TimeUtils.DAY_MILLIS, 0);
+    }
+
+    private final File file;
+    private final long maxBytes;
+    private final long rollingMillis;
+    private final int  maxBackups;
+
+    private Writer writer;
+    private long   size;
+    /** 当前周期的开始时间 */
+    private long   periodStart;
+    /** 下一次按时间滚动的时间 */
+    private long   nextRolling;
+
+    /**
+     * 创建滚动文件日志输出器
+     * @param file 日志文件
+     * @param maxBytes 文件大小上限，不大于 0 表示不按大小滚动
+     * @param rollingMillis 滚动周期（毫秒），不大于 0 表示不按时间滚动
+     * @param maxBackups 保留的历史文件数量，不大于 0 表示全部保留
+     */
+    public RollingFileAppender(@NotNull File file, long maxBytes, long rollingMillis, int maxBackups) {
+        this.file          = file.getAbsoluteFile();
+        this.maxBytes      = maxBytes;
+        this.rollingMillis = rollingMillis;
+        this.maxBackups    = maxBackups;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    private void open(long now) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs())
+            throw new IOException("Can not create directory " + dir + ".");
+        writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file, true), StandardCharsets.UTF_8), BUFFER_SIZE);
+        size = file.length();
+        if (rollingMillis > 0) {
+            // 按本地时间对齐周期
+            long local  = now + TimeUtils.TIMEZONE_OFFSET_MILLIS;
+            periodStart = local - Math.floorMod(local, rollingMillis) - TimeUtils.TIMEZONE_OFFSET_MILLIS;
+            nextRolling = periodStart + rollingMillis;
+        } else {
+            periodStart = now;
+            nextRolling = Long.MAX_VALUE;
+        }
+    }
+
+    @Override
+    public void append(Level level, CharSequence line) throws IOException {
+        long now = System.currentTimeMillis();
+        if (writer == null)
+            open(now);
+        int bytes = utf8Length(line) + 1;
+        if (now >= nextRolling || (maxBytes > 0 && size > 0 && size + bytes > maxBytes)) {
+            roll(now);
+        }
+        writer.append(line).append('\n');
+        size += bytes;
+    }
+
+    // 计算 UTF-8 编码长度，不需要编码
+    private static int utf8Length(CharSequence line) {
+        int length = line.length();
+        for (int i = 0, n = line.length(); i < n; i++) {
+            char c = line.charAt(i);
+            if (c >= 0x800) {
+                length += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                length += 1;
+            }
+        }
+        return length;
+    }
+
+    private void roll(long now) throws IOException {
+        writer.close();
+        writer = null;
+        String stamp = TimeUtils.appendEpochMicros(new StringBuilder(), periodStart * 1000, '\0', false).toString();
+        // 同一周期内按大小滚动多次时追加序号
+        File target = new File(file.getPath() + '.' + stamp);
+        for (int n = 1; target.exists(); n++)
+            target = new File(file.getPath() + '.' + stamp + '.' + n);
+        if (!file.renameTo(target))
+            throw new IOException("Can not rename " + file + " to " + target + ".");
+        if (maxBackups > 0)
+            deleteBackups();
+        open(now);
+    }
+
+    // 删除多余的历史文件，按文件名（时间顺序）保留最新的部分
+    private void deleteBackups() {
+        String prefix = file.getName() + '.';
+        File dir = file.getParentFile();
+        File[] backups = dir == null ? null : dir.listFiles((d, name) -> name.startsWith(prefix));
+        if (backups == null || backups.length <= maxBackups)
+            return;
+        Arrays.sort(backups, (a, b) -> a.lastModified() != b.lastModified()
+                ? Long.compare(a.lastModified(), b.lastModified()) : a.getName().compareTo(b.getName()));
+        for (int i = 0, n = backups.length - maxBackups; i < n; i++) {
+            if (!backups[i].delete())
+                System.err.println("Can not delete log file " + backups[i] + ".");
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (writer != null)
+            writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
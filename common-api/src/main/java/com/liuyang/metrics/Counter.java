@@ -0,0 +1,47 @@
+package com.liuyang.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 计数器
+ * <p>
+ *     基于 <code>LongAdder</code>，多线程并发累加时按线程分段计数，不会在同一个变量上竞争。
+ * </p>
+ * <ul>
+ *     <li>2019/3/31 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class Counter {
+
+    private final LongAdder adder = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() {
+        adder.increment();
+    }
+
+    public void add(long value) {
+        adder.add(value);
+    }
+
+    /**
+     * 获取累计值
+     * @return 返回累计值，并发累加时为近似值。
+     */
+    public long getCount() {
+        return adder.sum();
+    }
+
+    public void reset() {
+        adder.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(adder.sum());
+    }
+}
@@ -0,0 +1,84 @@
+package com.liuyang.metrics;
+
+import com.liuyang.tools.TimeUtils;
+import com.sun.istack.internal.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文件导出器
+ * <p>
+ *     按周期把全部度量以文本格式追加到本地文件，每次输出以 <code># yyyy-MM-dd HH:mm:ss</code> 开头。
+ * </p>
+ * <ul>
+ *     <li>2019/3/31 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class FileExporter implements MetricsExporter {
+
+    private final File file;
+    private final long periodMillis;
+
+    private volatile ScheduledExecutorService scheduler;
+    private volatile MetricsRegistry          registry;
+
+    /**
+     * 创建文件导出器
+     * @param file 输出文件
+     * @param periodMillis 输出周期（毫秒）
+     */
+    public FileExporter(@NotNull File file, long periodMillis) {
+        if (periodMillis <= 0)
+            throw new IllegalArgumentException("Illegal parameter [periodMillis = " + periodMillis + "], must be positive.");
+        this.file         = file;
+        this.periodMillis = periodMillis;
+    }
+
+    @Override
+    public synchronized void start(@NotNull MetricsRegistry registry) throws IOException {
+        if (scheduler != null)
+            return;
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs())
+            throw new IOException("Can not create directory " + dir + ".");
+        this.registry  = registry;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Metrics-FileExporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::write, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 立即输出一次
+     */
+    public synchronized void write() {
+        if (registry == null)
+            return;
+        StringBuilder text = new StringBuilder(4096);
+        text.append("# ").append(TimeUtils.format(System.currentTimeMillis())).append('\n');
+        registry.writeText(text);
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)) {
+            writer.write(text.toString());
+        } catch (IOException e) {
+            System.err.println("Metrics: can not write " + file + ", " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler == null)
+            return;
+        scheduler.shutdown();
+        scheduler = null;
+        write();
+        registry = null;
+    }
+}
@@ -0,0 +1,22 @@
+package com.liuyang.metrics;
+
+/**
+ * 度量值
+ * <p>
+ *     在导出时才读取的瞬时值，如队列长度、连接数、缓存大小等。
+ * </p>
+ * <ul>
+ *     <li>2019/3/31 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+@FunctionalInterface
+public interface Gauge {
+
+    /**
+     * 获取当前值
+     * @return 返回当前值。
+     */
+    long getValue();
+}
@@ -0,0 +1,90 @@
+package com.liuyang.metrics;
+
+import com.sun.istack.internal.NotNull;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HTTP 导出器
+ * <p>
+ *     使用 JDK 自带的 HTTP 服务，在 <code>GET /metrics</code> 上以文本格式返回全部度量，
+ *     可直接被 Prometheus 采集。只在请求时生成文本，没有请求时没有开销。
+ * </p>
+ * <ul>
+ *     <li>2019/3/31 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class HttpExporter implements MetricsExporter {
+
+    /** 访问路径 */
+    public final static String PATH = "/metrics";
+
+    private final InetSocketAddress address;
+
+    private volatile HttpServer      server;
+    private volatile MetricsRegistry registry;
+
+    /**
+     * 创建 HTTP 导出器，监听全部地址
+     * @param port 端口，0 表示随机端口
+     */
+    public HttpExporter(int port) {
+        this(new InetSocketAddress(port));
+    }
+
+    public HttpExporter(@NotNull InetSocketAddress address) {
+        this.address = address;
+    }
+
+    @Override
+    public synchronized void start(@NotNull MetricsRegistry registry) throws IOException {
+        if (server != null)
+            return;
+        this.registry = registry;
+        server = HttpServer.create(address, 0);
+        server.createContext(PATH, this::handle);
+        // 使用默认执行器：在服务线程中处理请求
+        server.start();
+    }
+
+    /**
+     * 获取实际监听的端口
+     * @return 返回端口，未启动时返回 -1。
+     */
+    public int getPort() {
+        HttpServer current = server;
+        return current == null ? -1 : current.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = registry.writeText(new StringBuilder(4096)).toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.liuyang.metrics;
+
+import com.sun.istack.internal.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 度量入口
+ * <p>
+ *     全局注册表与导出器管理。各管理器在类加载时取得度量对象并保存在静态字段中，
+ *     记录处使用 <code>if (Metrics.ENABLED)</code> 判断，关闭后 JIT 会直接消除记录代码，没有开销。
+ * </p>
+ * <p>
+ *     系统属性：
+ *     <ul>
+ *         <li><code>com.liuyang.metrics.enabled</code> 是否启用，默认 true，须在启动时指定；</li>
+ *         <li><code>com.liuyang.metrics.file</code> 定期输出到该文件；</li>
+ *         <li><code>com.liuyang.metrics.file.period</code> 文件输出周期（毫秒），默认 60000；</li>
+ *         <li><code>com.liuyang.metrics.http.port</code> 在该端口的 <code>/metrics</code> 上提供文本输出。</li>
+ *     </ul>
+ * </p>
+ * <pre>
+ *     private final static Histogram QUERY = Metrics.histogram("jdbc.query.nanos");
+ *
+ *     long start = Metrics.ENABLED ? System.nanoTime() : 0;
+ *     ...
+ *     if (Metrics.ENABLED) QUERY.recordSince(start);
+ * </pre>
+ * <ul>
+ *     <li>2019/3/31 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class Metrics {
+
+    /** 是否启用度量 */
+    public final static boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("com.liuyang.metrics.enabled"));
+
+    private final static MetricsRegistry       REGISTRY  = new MetricsRegistry();
+    private final static List<MetricsExporter> EXPORTERS = new CopyOnWriteArrayList<>();
+
+    static {
+        if (ENABLED) {
+            String file = System.getProperty("com.liuyang.metrics.file");
+            String port = System.getProperty("com.liuyang.metrics.http.port");
+            try {
+                if (file != null && !file.isEmpty())
+                    export(new FileExporter(new File(file),
+                            Long.getLong("com.liuyang.metrics.file.period", 60000L)));
+                if (port != null && !port.isEmpty())
+                    export(new HttpExporter(Integer.parseInt(port.trim())));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Metrics: can not start exporter, " + e.getMessage());
+            }
+        }
+    }
+
+    private Metrics() {
+    }
+
+    public static MetricsRegistry getRegistry() {
+        return REGISTRY;
+    }
+
+    public static Counter counter(@NotNull String name) {
+        return REGISTRY.counter(name);
+    }
+
+    public static Histogram histogram(@NotNull String name) {
+        return REGISTRY.histogram(name);
+    }
+
+    public static void gauge(@NotNull String name, @NotNull Gauge gauge) {
+        if (ENABLED)
+            REGISTRY.gauge(name, gauge);
+    }
+
+    /**
+     * 启动导出器，关闭度量时不启动
+     * @param exporter 导出器
+     * @throws IOException 无法启动时抛出异常。
+     */
+    public static synchronized void export(@NotNull MetricsExporter exporter) throws IOException {
+        if (!ENABLED)
+            return;
+        if (EXPORTERS.isEmpty())
+            Runtime.getRuntime().addShutdownHook(new Thread(Metrics::closeExporters, "Metrics-Shutdown"));
+        exporter.start(REGISTRY);
+        EXPORTERS.add(exporter);
+    }
+
+    /**
+     * 关闭全部导出器
+     */
+    public static synchronized void closeExporters() {
+        for (MetricsExporter exporter : EXPORTERS) {
+            try {
+                exporter.close();
+            } catch (IOException e) {
+                System.err.println("Metrics: can not close exporter, " + e.getMessage());
+            }
+        }
+        EXPORTERS.clear();
+    }
+
+    /**
+     * 输出全部度量的文本
+     * @return 返回文本。
+     */
+    public static String dump() {
+        return REGISTRY.toString();
+    }
+}
@@ -0,0 +1,23 @@
+package com.liuyang.metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 度量导出器
+ * <ul>
+ *     <li>2019/3/31 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ * @see Metrics#export(MetricsExporter)
+ */
+public interface MetricsExporter extends Closeable {
+
+    /**
+     * 开始导出
+     * @param registry 度量注册表
+     * @throws IOException 无法打开文件或端口时抛出异常。
+     */
+    void start(MetricsRegistry registry) throws IOException;
+}
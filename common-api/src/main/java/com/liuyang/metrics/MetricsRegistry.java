@@ -0,0 +1,138 @@
+package com.liuyang.metrics;
+
+import com.sun.istack.internal.NotNull;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 度量注册表
+ * <p>
+ *     按名称保存计数器、直方图与度量值，同名只创建一次。名称使用点分隔，如 <code>jdbc.query</code>。
+ *     文本输出兼容 Prometheus 文本格式（名称中的点替换为下划线）。
+ * </p>
+ * <ul>
+ *     <li>2019/3/31 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class MetricsRegistry {
+
+    /** 导出的百分位 */
+    private final static double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final ConcurrentMap<String, Object> metrics = new ConcurrentHashMap<>();
+
+    private <T> T getOrCreate(String name, Class<T> type, Supplier<T> creator) {
+        Object metric = metrics.computeIfAbsent(name, k -> creator.get());
+        if (!type.isInstance(metric))
+            throw new IllegalArgumentException("Illegal parameter [" + name + "], already registered as "
+                    + metric.getClass().getSimpleName() + ".");
+        return type.cast(metric);
+    }
+
+    public Counter counter(@NotNull String name) {
+        return getOrCreate(name, Counter.class, Counter::new);
+    }
+
+    public Histogram histogram(@NotNull String name) {
+        return getOrCreate(name, Histogram.class, Histogram::new);
+    }
+
+    /**
+     * 注册度量值，同名时替换
+     * @param name 名称
+     * @param gauge 度量值
+     */
+    public void gauge(@NotNull String name, @NotNull Gauge gauge) {
+        Object old = metrics.put(name, gauge);
+        if (old != null && !(old instanceof Gauge)) {
+            metrics.put(name, old);
+            throw new IllegalArgumentException("Illegal parameter [" + name + "], already registered as "
+                    + old.getClass().getSimpleName() + ".");
+        }
+    }
+
+    public void remove(@NotNull String name) {
+        metrics.remove(name);
+    }
+
+    /**
+     * 获取全部度量（按名称排序）
+     * @return 返回名称与度量的映射。
+     */
+    public Map<String, Object> getMetrics() {
+        return new TreeMap<>(metrics);
+    }
+
+    /**
+     * 输出为文本
+     * <pre>
+     *     jdbc_query_total 12
+     *     jdbc_query_seconds{quantile="0.99"} 0.0042
+     *     jdbc_query_seconds_sum 0.031
+     *     jdbc_query_seconds_count 12
+     * </pre>
+     * <p>
+     *     名称以 <code>.nanos</code> 结尾的直方图按秒输出，其他直方图输出原值。
+     * </p>
+     * @param out 输出缓冲区
+     * @return 返回输出缓冲区。
+     */
+    public StringBuilder writeText(StringBuilder out) {
+        for (Map.Entry<String, Object> entry : getMetrics().entrySet()) {
+            String name   = entry.getKey();
+            Object metric = entry.getValue();
+            if (metric instanceof Counter) {
+                String id = sanitize(name) + "_total";
+                out.append("# TYPE ").append(id).append(" counter\n");
+                out.append(id).append(' ').append(((Counter) metric).getCount()).append('\n');
+            } else if (metric instanceof Gauge) {
+                String id = sanitize(name);
+                long value;
+                try {
+                    value = ((Gauge) metric).getValue();
+                } catch (RuntimeException e) {
+                    continue;
+                }
+                out.append("# TYPE ").append(id).append(" gauge\n");
+                out.append(id).append(' ').append(value).append('\n');
+            } else if (metric instanceof Histogram) {
+                boolean nanos = name.endsWith(".nanos");
+                String id = nanos ? sanitize(name.substring(0, name.length() - 6)) + "_seconds" : sanitize(name);
+                Histogram.Snapshot snapshot = ((Histogram) metric).snapshot();
+                out.append("# TYPE ").append(id).append(" summary\n");
+                for (double q : QUANTILES) {
+                    out.append(id).append("{quantile=\"").append(q).append("\"} ");
+                    appendValue(out, snapshot.getPercentile(q), nanos).append('\n');
+                }
+                appendValue(out.append(id).append("_max "), snapshot.getMax(), nanos).append('\n');
+                appendValue(out.append(id).append("_sum "), snapshot.getSum(), nanos).append('\n');
+                out.append(id).append("_count ").append(snapshot.getCount()).append('\n');
+            }
+        }
+        return out;
+    }
+
+    private static StringBuilder appendValue(StringBuilder out, long value, boolean nanos) {
+        return nanos ? out.append(value / 1e9) : out.append(value);
+    }
+
+    private static String sanitize(String name) {
+        StringBuilder builder = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            builder.append(Character.isLetterOrDigit(c) || c == '_' ? c : '_');
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return writeText(new StringBuilder()).toString();
+    }
+}
@@ -0,0 +1,159 @@
+package com.liuyang.tools;
+
+import com.sun.istack.internal.NotNull;
+
+/**
+ * 字符视图
+ * <p>
+ *     指向另一个字符序列中的一段，不复制字符，可通过 {@link #wrap(CharSequence, int, int)} 反复指向不同的位置。
+ *     与 {@link StringUtils#split(CharSequence, char, CharSlice[])} 配合，按行复用一组视图即可在解析时不产生子字符串。
+ *     只有调用 {@link #toString()} 时才会复制。
+ * </p>
+ * <ul>
+ *     <li>2019/4/3 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class CharSlice implements CharSequence, Comparable<CharSequence> {
+
+    private CharSequence source = "";
+    private int          start;
+    private int          end;
+
+    public CharSlice() {
+    }
+
+    public CharSlice(@NotNull CharSequence source, int start, int end) {
+        wrap(source, start, end);
+    }
+
+    /**
+     * 指向新的位置
+     * @param source 字符序列
+     * @param start 起始位置（包含）
+     * @param end 结束位置（不包含）
+     * @return 返回本视图。
+     */
+    public CharSlice wrap(@NotNull CharSequence source, int start, int end) {
+        if (start < 0 || end > source.length() || start > end)
+            throw new IndexOutOfBoundsException("index out of range [start = " + start + ", end = " + end
+                    + ", length: " + source.length() + "]");
+        this.source = source;
+        this.start  = start;
+        this.end    = end;
+        return this;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    public boolean isEmpty() {
+        return end == start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= end - start)
+            throw new IndexOutOfBoundsException("index out of range [index = " + index + ", size: " + (end - start) + "]");
+        return source.charAt(start + index);
+    }
+
+    @Override
+    public CharSlice subSequence(int start, int end) {
+        if (start < 0 || end > length() || start > end)
+            throw new IndexOutOfBoundsException("index out of range [start = " + start + ", end = " + end
+                    + ", size: " + length() + "]");
+        return new CharSlice(source, this.start + start, this.start + end);
+    }
+
+    /**
+     * 解析为整数，不产生字符串
+     * @return 返回整数。
+     * @throws NumberFormatException 不是整数或超出范围时抛出异常。
+     */
+    public long parseLong() {
+        int length = end - start;
+        if (length == 0)
+            throw new NumberFormatException("For input string: \"\"");
+        int  i        = start;
+        char first    = source.charAt(i);
+        boolean negative = first == '-';
+        if (negative || first == '+') {
+            if (length == 1)
+                throw new NumberFormatException("For input string: \"" + this + "\"");
+            i++;
+        }
+        // 以负数累加，可以表示 Long.MIN_VALUE
+        long limit  = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long result = 0;
+        for (; i < end; i++) {
+            int digit = source.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < limit / 10)
+                throw new NumberFormatException("For input string: \"" + this + "\"");
+            result *= 10;
+            if (result < limit + digit)
+                throw new NumberFormatException("For input string: \"" + this + "\"");
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * 判断内容是否相同
+     * @param other 字符序列
+     * @return 返回 true 表示内容相同。
+     */
+    public boolean contentEquals(CharSequence other) {
+        if (other == null || other.length() != length())
+            return false;
+        for (int i = 0, length = length(); i < length; i++) {
+            if (source.charAt(start + i) != other.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int compareTo(@NotNull CharSequence other) {
+        int length = Math.min(length(), other.length());
+        for (int i = 0; i < length; i++) {
+            char a = source.charAt(start + i);
+            char b = other.charAt(i);
+            if (a != b)
+                return a - b;
+        }
+        return length() - other.length();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        return o instanceof CharSlice && contentEquals((CharSlice) o);
+    }
+
+    // 与 String.hashCode 一致
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = start; i < end; i++)
+            hash = 31 * hash + source.charAt(i);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return source.subSequence(start, end).toString();
+    }
+}
@@ -0,0 +1,148 @@
+package com.liuyang.tools;
+
+/**
+ * Hash Utility Tool
+ * <p>
+ *     64 位哈希算法（xxHash64），分布均匀、速度快，适用于去重、关联、分组以及分区等大数据量哈希表场景。
+ * </p>
+ * <ul>
+ *     <li>2019/3/25 ver1.0.0 LiuYang created.</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class HashUtils {
+
+    private final static long PRIME64_1 = 0x9E3779B185EBCA87L;
+    private final static long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+    private final static long PRIME64_3 = 0x165667B19E3779F9L;
+    private final static long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+    private final static long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+    /** 默认种子 */
+    public final static long DEFAULT_SEED = 0L;
+
+    private HashUtils() {
+
+    }
+
+    // 读取小端序 long
+    private static long readLong(byte[] data, int i) {
+        return ((long) data[i] & 0xFF)
+                | (((long) data[i + 1] & 0xFF) << 8)
+                | (((long) data[i + 2] & 0xFF) << 16)
+                | (((long) data[i + 3] & 0xFF) << 24)
+                | (((long) data[i + 4] & 0xFF) << 32)
+                | (((long) data[i + 5] & 0xFF) << 40)
+                | (((long) data[i + 6] & 0xFF) << 48)
+                | (((long) data[i + 7] & 0xFF) << 56);
+    }
+
+    // 读取小端序 int（无符号）
+    private static long readInt(byte[] data, int i) {
+        return ((long) data[i] & 0xFF)
+                | (((long) data[i + 1] & 0xFF) << 8)
+                | (((long) data[i + 2] & 0xFF) << 16)
+                | (((long) data[i + 3] & 0xFF) << 24);
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * PRIME64_2;
+        acc  = Long.rotateLeft(acc, 31);
+        return acc * PRIME64_1;
+    }
+
+    private static long merge(long acc, long value) {
+        acc ^= round(0, value);
+        return acc * PRIME64_1 + PRIME64_4;
+    }
+
+    private static long avalanche(long h) {
+        h ^= h >>> 33;
+        h *= PRIME64_2;
+        h ^= h >>> 29;
+        h *= PRIME64_3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    /**
+     * 计算 xxHash64
+     * @param data   数据
+     * @param offset 起始位置
+     * @param length 数据长度
+     * @param seed   种子
+     * @return 返回 64 位哈希值。
+     */
+    public static long xxHash64(byte[] data, int offset, int length, long seed) {
+        if (offset < 0 || length < 0 || offset + length > data.length)
+            throw new IndexOutOfBoundsException("index out of range [offset = " + offset + ", length = " + length
+                    + ", size: " + data.length + "]");
+        int  end = offset + length;
+        int  i   = offset;
+        long h;
+        if (length >= 32) {
+            long v1 = seed + PRIME64_1 + PRIME64_2;
+            long v2 = seed + PRIME64_2;
+            long v3 = seed;
+            long v4 = seed - PRIME64_1;
+            int limit = end - 32;
+            do {
+                v1 = round(v1, readLong(data, i));
+                v2 = round(v2, readLong(data, i + 8));
+                v3 = round(v3, readLong(data, i + 16));
+                v4 = round(v4, readLong(data, i + 24));
+                i += 32;
+            } while (i <= limit);
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = merge(h, v1);
+            h = merge(h, v2);
+            h = merge(h, v3);
+            h = merge(h, v4);
+        } else {
+            h = seed + PRIME64_5;
+        }
+        h += length;
+        while (i + 8 <= end) {
+            h ^= round(0, readLong(data, i));
+            h  = Long.rotateLeft(h, 27) * PRIME64_1 + PRIME64_4;
+            i += 8;
+        }
+        if (i + 4 <= end) {
+            h ^= readInt(data, i) * PRIME64_1;
+            h  = Long.rotateLeft(h, 23) * PRIME64_2 + PRIME64_3;
+            i += 4;
+        }
+        while (i < end) {
+            h ^= ((long) data[i] & 0xFF) * PRIME64_5;
+            h  = Long.rotateLeft(h, 11) * PRIME64_1;
+            i++;
+        }
+        return avalanche(h);
+    }
+
+    public static long xxHash64(byte[] data, int offset, int length) {
+        return xxHash64(data, offset, length, DEFAULT_SEED);
+    }
+
+    public static long xxHash64(byte[] data) {
+        return xxHash64(data, 0, data.length, DEFAULT_SEED);
+    }
+
+    /**
+     * 计算单个 long 的 xxHash64（等同于对其 8 字节小端序数据计算），不需要创建数组。
+     * @param value 数据
+     * @param seed  种子
+     * @return 返回 64 位哈希值。
+     */
+    public static long xxHash64(long value, long seed) {
+        long h = seed + PRIME64_5 + 8;
+        h ^= round(0, value);
+        h  = Long.rotateLeft(h, 27) * PRIME64_1 + PRIME64_4;
+        return avalanche(h);
+    }
+
+    public static long xxHash64(long value) {
+        return xxHash64(value, DEFAULT_SEED);
+    }
+}
@@ -1,11 +1,202 @@
 package com.liuyang.tools;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import com.liuyang.util.LockFreeQueue;
+import com.sun.istack.internal.NotNull;
 
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * IO 工具
+ * <p>
+ *     复制数据时按两端的类型选择最快的方式：
+ * </p>
+ * <ul>
+ *     <li>输入端为 <code>FileChannel</code> 时使用 <code>transferTo</code>；</li>
+ *     <li>输出端为 <code>FileChannel</code> 且输入端也是通道时使用 <code>transferFrom</code>；</li>
+ *     <li>两端都是文件流（<code>FileInputStream</code> 与 <code>FileOutputStream</code>）时转为上述文件通道复制；</li>
+ *     <li>其他通道使用池化的直接缓冲区，其他流（包括只有一端是文件流的情况）使用池化的字节数组。</li>
+ * </ul>
+ * <p>
+ *     默认缓冲区大小为 64 KB，可以通过系统属性 <code>com.liuyang.io.buffer.size</code> 修改，只有默认大小的缓冲区会被复用。
+ *     通过 {@link CopyOptions} 可以指定长度限制、限速与进度回调。
+ * </p>
+ * <ul>
+ *     <li>2019/4/6 ver 1.1.0 增加基于通道的复制（transferTo/transferFrom、直接缓冲区池）、限速与进度回调；
+ *     修正限制长度时缓冲区按限制长度分配、写入长度计算错误的问题。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.1.0
+ */
 public final class IOUtils {
 
+    /** 默认缓冲区大小 */
+    public final static int DEFAULT_BUFFER_SIZE = Math.max(1024,
+            Integer.getInteger("com.liuyang.io.buffer.size", 64 * 1024));
+
+    /** 不限速、不限长度时每次 transferTo/transferFrom 的最大长度 */
+    private final static long TRANSFER_CHUNK = 8L * 1024 * 1024;
+    /** 每个池最多保留的缓冲区数量 */
+    private final static int  POOL_SIZE      = 32;
+
+    /**
+     * 复制进度
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * 每复制一块数据后在复制线程中调用
+         * @param transferred 已复制的字节数
+         */
+        void onProgress(long transferred);
+    }
+
+    /**
+     * 复制参数
+     */
+    public static final class CopyOptions {
+        private int              bufferSize     = DEFAULT_BUFFER_SIZE;
+        private long             limit          = 0;
+        private long             bytesPerSecond = 0;
+        private ProgressListener listener;
+
+        /**
+         * 缓冲区大小，默认 {@link #DEFAULT_BUFFER_SIZE}
+         * @param bufferSize 字节数，小于等于 0 表示使用默认值
+         * @return 返回参数。
+         */
+        public CopyOptions setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize <= 0 ? DEFAULT_BUFFER_SIZE : bufferSize;
+            return this;
+        }
+
+        /**
+         * 复制长度限制，默认 0
+         * @param limit 字节数，小于等于 0 表示复制所有数据
+         * @return 返回参数。
+         */
+        public CopyOptions setLimit(long limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        /**
+         * 限速，默认 0
+         * @param bytesPerSecond 每秒字节数，小于等于 0 表示不限速
+         * @return 返回参数。
+         */
+        public CopyOptions setBytesPerSecond(long bytesPerSecond) {
+            this.bytesPerSecond = bytesPerSecond;
+            return this;
+        }
+
+        /**
+         * 进度回调，默认无
+         * @param listener 回调
+         * @return 返回参数。
+         */
+        public CopyOptions setProgressListener(ProgressListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        // 单次传输的最大长度：限速或需要回报进度时按缓冲区大小分块
+        private long chunk() {
+            return bytesPerSecond > 0 || listener != null ? bufferSize : Math.max(bufferSize, TRANSFER_CHUNK);
+        }
+    }
+
+    // 缓冲区池，只复用默认大小的缓冲区
+    private final static class Pool<B> {
+        private final LockFreeQueue<B> queue = new LockFreeQueue<>();
+        private final AtomicInteger    size  = new AtomicInteger();
+
+        B poll() {
+            B buffer = queue.poll();
+            if (buffer != null)
+                size.decrementAndGet();
+            return buffer;
+        }
+
+        void offer(B buffer) {
+            if (size.incrementAndGet() <= POOL_SIZE)
+                queue.offer(buffer);
+            else
+                size.decrementAndGet();
+        }
+    }
+
+    private final static Pool<ByteBuffer> DIRECT_BUFFERS = new Pool<>();
+    private final static Pool<byte[]>     HEAP_BUFFERS   = new Pool<>();
+
+    private static ByteBuffer acquireDirect(int size) {
+        ByteBuffer buffer = size == DEFAULT_BUFFER_SIZE ? DIRECT_BUFFERS.poll() : null;
+        if (buffer == null)
+            buffer = ByteBuffer.allocateDirect(size);
+        buffer.clear();
+        return buffer;
+    }
+
+    private static void releaseDirect(ByteBuffer buffer) {
+        if (buffer.capacity() == DEFAULT_BUFFER_SIZE)
+            DIRECT_BUFFERS.offer(buffer);
+    }
+
+    private static byte[] acquireHeap(int size) {
+        byte[] buffer = size == DEFAULT_BUFFER_SIZE ? HEAP_BUFFERS.poll() : null;
+        return buffer == null ? new byte[size] : buffer;
+    }
+
+    private static void releaseHeap(byte[] buffer) {
+        if (buffer.length == DEFAULT_BUFFER_SIZE)
+            HEAP_BUFFERS.offer(buffer);
+    }
+
+    /**
+     * 复制过程中的计数、限速与进度回报
+     */
+    private final static class Transfer {
+        private final CopyOptions options;
+        private final long        startTime = System.nanoTime();
+        private long              total;
+
+        Transfer(CopyOptions options) {
+            this.options = options;
+        }
+
+        /** 本次最多可以复制的长度 */
+        long next(long chunk) {
+            return options.limit > 0 ? Math.min(chunk, options.limit - total) : chunk;
+        }
+
+        boolean done() {
+            return options.limit > 0 && total >= options.limit;
+        }
+
+        void advance(long n) throws InterruptedIOException {
+            total += n;
+            if (options.listener != null)
+                options.listener.onProgress(total);
+            if (options.bytesPerSecond > 0) {
+                long expected = (long) (total * 1e9 / options.bytesPerSecond);
+                long wait     = expected - (System.nanoTime() - startTime);
+                if (wait > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Copy interrupted after " + total + " bytes.");
+                    }
+                }
+            }
+        }
+    }
+
     private static void closeInputStream(InputStream in) {
         if (in != null)
             try {
@@ -32,27 +223,16 @@ public final class IOUtils {
      * </p>
      * @param in         输入流
      * @param out        输出流
-     * @param bufferSize 缓冲区长度，建议取值：1024。
+     * @param bufferSize 缓冲区长度，小于等于 0 表示使用默认值 {@link #DEFAULT_BUFFER_SIZE}。
      * @param limitSize  复制长度限制。取值：小于或等于 0 表示复制所有数据，否则复制指定长度的数据。
      * @param closeable  可否关闭。取值：true 表示复制完成后关闭输入流和输出流, false 表示复制完成后不关闭。
-     * @return 返回寮际复制数据的长度。如果返回 -1 则表示复制失败。
+     * @return 返回实际复制数据的长度。
+     * @throws IOException 读写出错时抛出异常。
      */
     public static long copy(InputStream in, OutputStream out,
                             int bufferSize, long limitSize, boolean closeable) throws IOException {
-        long total = 0, limit = limitSize;
-        int  len, size;
-        size = bufferSize <= 0 ? 4096 : bufferSize;
-        size = size >= limit ? size : ((int) limit);
-        byte[] buff = new byte[size];
         try {
-            while((len = in.read(buff, 0, size)) != -1) {
-                limit -= len; //
-                int written = (limitSize > 0) ? (len - (int) Math.abs(limit)) : len;
-                out.write(buff, 0, written);
-                total += written;
-                if (limitSize > 0 && limit <= 0) break;
-            }
-            return total;
+            return copy(in, out, new CopyOptions().setBufferSize(bufferSize).setLimit(limitSize));
         } finally {
             if (closeable) {
                 closeInputStream(in);
@@ -60,4 +240,145 @@ public final class IOUtils {
             }
         }
     }
+
+    /**
+     * 流复制，复制所有数据，不关闭流
+     * @param in  输入流
+     * @param out 输出流
+     * @return 返回实际复制数据的长度。
+     * @throws IOException 读写出错时抛出异常。
+     */
+    public static long copy(@NotNull InputStream in, @NotNull OutputStream out) throws IOException {
+        return copy(in, out, new CopyOptions());
+    }
+
+    /**
+     * 流复制，不关闭流
+     * <p>
+     *     两端都是文件流时转为通道复制；其他情况使用字节数组复制。
+     * </p>
+     * @param in      输入流
+     * @param out     输出流
+     * @param options 复制参数
+     * @return 返回实际复制数据的长度。
+     * @throws IOException 读写出错时抛出异常。
+     */
+    public static long copy(@NotNull InputStream in, @NotNull OutputStream out,
+                            @NotNull CopyOptions options) throws IOException {
+        if (in instanceof FileInputStream && out instanceof FileOutputStream) {
+            out.flush();
+            return copy(((FileInputStream) in).getChannel(), ((FileOutputStream) out).getChannel(), options);
+        }
+        Transfer transfer = new Transfer(options);
+        byte[]   buffer   = acquireHeap(options.bufferSize);
+        try {
+            while (!transfer.done()) {
+                int len = in.read(buffer, 0, (int) transfer.next(buffer.length));
+                if (len == -1)
+                    break;
+                out.write(buffer, 0, len);
+                transfer.advance(len);
+            }
+            return transfer.total;
+        } finally {
+            releaseHeap(buffer);
+        }
+    }
+
+    /**
+     * 通道复制，不关闭通道
+     * <p>
+     *     输入端为文件通道时使用 <code>transferTo</code>，输出端为文件通道时使用 <code>transferFrom</code>，
+     *     由操作系统直接复制（如 sendfile），不经过用户态缓冲区；其他情况使用池化的直接缓冲区。
+     *     文件通道的位置在复制后相应前移。
+     * </p>
+     * @param in      输入通道
+     * @param out     输出通道
+     * @param options 复制参数
+     * @return 返回实际复制数据的长度。
+     * @throws IOException 读写出错时抛出异常。
+     */
+    public static long copy(@NotNull ReadableByteChannel in, @NotNull WritableByteChannel out,
+                            @NotNull CopyOptions options) throws IOException {
+        Transfer transfer = new Transfer(options);
+        if (in instanceof FileChannel)
+            transferTo((FileChannel) in, out, transfer);
+        else if (out instanceof FileChannel)
+            transferFrom(in, (FileChannel) out, transfer);
+        else
+            copyBuffered(in, out, transfer);
+        return transfer.total;
+    }
+
+    private static void transferTo(FileChannel in, WritableByteChannel out, Transfer transfer) throws IOException {
+        long position = in.position();
+        long end      = in.size();
+        long chunk    = transfer.options.chunk();
+        try {
+            while (position < end && !transfer.done()) {
+                long n = in.transferTo(position, transfer.next(Math.min(chunk, end - position)), out);
+                // 文件被截断或输出通道为非阻塞且已满
+                if (n <= 0)
+                    break;
+                position += n;
+                transfer.advance(n);
+            }
+        } finally {
+            in.position(position);
+        }
+    }
+
+    private static void transferFrom(ReadableByteChannel in, FileChannel out, Transfer transfer) throws IOException {
+        long position = out.position();
+        long chunk    = transfer.options.chunk();
+        try {
+            while (!transfer.done()) {
+                long n = out.transferFrom(in, position, transfer.next(chunk));
+                // 阻塞的输入通道返回 0 表示已读完
+                if (n <= 0)
+                    break;
+                position += n;
+                transfer.advance(n);
+            }
+        } finally {
+            out.position(position);
+        }
+    }
+
+    private static void copyBuffered(ReadableByteChannel in, WritableByteChannel out,
+                                     Transfer transfer) throws IOException {
+        ByteBuffer buffer = acquireDirect(transfer.options.bufferSize);
+        try {
+            while (!transfer.done()) {
+                buffer.clear();
+                buffer.limit((int) transfer.next(buffer.capacity()));
+                int len = in.read(buffer);
+                if (len == -1)
+                    break;
+                buffer.flip();
+                while (buffer.hasRemaining())
+                    out.write(buffer);
+                transfer.advance(len);
+            }
+        } finally {
+            releaseDirect(buffer);
+        }
+    }
+
+    /**
+     * 文件复制
+     * @param source  源文件
+     * @param target  目标文件
+     * @param append  是否追加到目标文件末尾
+     * @param options 复制参数
+     * @return 返回实际复制数据的长度。
+     * @throws IOException 读写出错时抛出异常。
+     */
+    public static long copy(@NotNull File source, @NotNull File target, boolean append,
+                            @NotNull CopyOptions options) throws IOException {
+        try (FileInputStream in = new FileInputStream(source);
+             FileOutputStream out = new FileOutputStream(target, append)) {
+            return copy(in.getChannel(), out.getChannel(), options);
+        }
+    }
 }
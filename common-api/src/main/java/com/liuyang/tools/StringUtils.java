@@ -1,5 +1,6 @@
 package com.liuyang.tools;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
 import java.util.function.Consumer;
@@ -9,9 +10,12 @@ import java.util.function.Consumer;
  * <ul>
  *     <li>2019/1/4 ver1.0.0 LiuYang created.</li>
  *     <li>2019/2/1 ver1.0.1 LiuYang add functions: builder, bytes, count, join{collection, map} and so on.</li>
+ *     <li>2019/4/3 ver1.0.2 split 改为单次扫描，修正多字符分隔符与末尾字段丢失的问题；
+ *     增加写入位置数组、视图与缓冲区的 split/join。</li>
+ *     <li>2019/4/10 ver1.0.3 写入视图的 split 按视图数量记录字段位置，超出的字段并入最后一个视图。</li>
  * </ul>
  * @author liuyang
- * @version 1.0.1
+ * @version 1.0.3
  */
 public class StringUtils {
 
@@ -286,75 +290,27 @@ public class StringUtils {
     }
 
     public static String join(char delimiter, int[] values) {
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0, length = values.length; i < length; i++) {
-            if (i == 0) {
-                builder.append(values[i]);
-            } else {
-                builder.append(delimiter).append(values[i]);
-            }
-        }
-        return builder.toString();
+        return join(new StringBuilder(), delimiter, values).toString();
     }
 
     public static String join(String delimiter, int[] values) {
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0, length = values.length; i < length; i++) {
-            if (i == 0) {
-                builder.append(values[i]);
-            } else {
-                builder.append(delimiter).append(values[i]);
-            }
-        }
-        return builder.toString();
+        return join(new StringBuilder(), delimiter, values).toString();
     }
 
     public static String join(String delimiter, long[] values) {
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0, length = values.length; i < length; i++) {
-            if (i == 0) {
-                builder.append(values[i]);
-            } else {
-                builder.append(delimiter).append(values[i]);
-            }
-        }
-        return builder.toString();
+        return join(new StringBuilder(), delimiter, values).toString();
     }
 
     public static String join(String delimiter, float[] values) {
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0, length = values.length; i < length; i++) {
-            if (i == 0) {
-                builder.append(values[i]);
-            } else {
-                builder.append(delimiter).append(values[i]);
-            }
-        }
-        return builder.toString();
+        return join(new StringBuilder(), delimiter, values).toString();
     }
 
     public static String join(String delimiter, double[] values) {
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0, length = values.length; i < length; i++) {
-            if (i == 0) {
-                builder.append(values[i]);
-            } else {
-                builder.append(delimiter).append(values[i]);
-            }
-        }
-        return builder.toString();
+        return join(new StringBuilder(), delimiter, values).toString();
     }
 
     public static String join(String delimiter, short[] values) {
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0, length = values.length; i < length; i++) {
-            if (i == 0) {
-                builder.append(values[i]);
-            } else {
-                builder.append(delimiter).append(values[i]);
-            }
-        }
-        return builder.toString();
+        return join(new StringBuilder(), delimiter, values).toString();
     }
 
     public static <E> String join(char delimiter, boolean parse, Collection<E> values) {
@@ -417,6 +373,142 @@ public class StringUtils {
         return join(delimiter, false, values);
     }
 
+    //==============================================================================================================
+    // 写入调用方提供的缓冲区。缓冲区可在多次调用之间复用（调用前 setLength(0)），不产生中间字符串。
+
+    /**
+     * 使用分隔符连接数组，写入指定的缓冲区
+     * @param sink 缓冲区
+     * @param delimiter 分隔符
+     * @param values 数组
+     * @return 返回缓冲区。
+     */
+    public static StringBuilder join(StringBuilder sink, char delimiter, int[] values) {
+        for (int i = 0, length = values.length; i < length; i++) {
+            if (i > 0)
+                sink.append(delimiter);
+            sink.append(values[i]);
+        }
+        return sink;
+    }
+
+    public static StringBuilder join(StringBuilder sink, char delimiter, long[] values) {
+        for (int i = 0, length = values.length; i < length; i++) {
+            if (i > 0)
+                sink.append(delimiter);
+            sink.append(values[i]);
+        }
+        return sink;
+    }
+
+    public static StringBuilder join(StringBuilder sink, char delimiter, float[] values) {
+        for (int i = 0, length = values.length; i < length; i++) {
+            if (i > 0)
+                sink.append(delimiter);
+            sink.append(values[i]);
+        }
+        return sink;
+    }
+
+    public static StringBuilder join(StringBuilder sink, char delimiter, double[] values) {
+        for (int i = 0, length = values.length; i < length; i++) {
+            if (i > 0)
+                sink.append(delimiter);
+            sink.append(values[i]);
+        }
+        return sink;
+    }
+
+    public static StringBuilder join(StringBuilder sink, char delimiter, short[] values) {
+        for (int i = 0, length = values.length; i < length; i++) {
+            if (i > 0)
+                sink.append(delimiter);
+            sink.append(values[i]);
+        }
+        return sink;
+    }
+
+    public static StringBuilder join(StringBuilder sink, char delimiter, CharSequence[] values) {
+        for (int i = 0, length = values.length; i < length; i++) {
+            if (i > 0)
+                sink.append(delimiter);
+            sink.append(values[i]);
+        }
+        return sink;
+    }
+
+    public static StringBuilder join(StringBuilder sink, char delimiter, Object[] values) {
+        for (int i = 0, length = values.length; i < length; i++) {
+            if (i > 0)
+                sink.append(delimiter);
+            sink.append(values[i]);
+        }
+        return sink;
+    }
+
+    public static StringBuilder join(StringBuilder sink, CharSequence delimiter, int[] values) {
+        for (int i = 0, length = values.length; i < length; i++) {
+            if (i > 0)
+                sink.append(delimiter);
+            sink.append(values[i]);
+        }
+        return sink;
+    }
+
+    public static StringBuilder join(StringBuilder sink, CharSequence delimiter, long[] values) {
+        for (int i = 0, length = values.length; i < length; i++) {
+            if (i > 0)
+                sink.append(delimiter);
+            sink.append(values[i]);
+        }
+        return sink;
+    }
+
+    public static StringBuilder join(StringBuilder sink, CharSequence delimiter, float[] values) {
+        for (int i = 0, length = values.length; i < length; i++) {
+            if (i > 0)
+                sink.append(delimiter);
+            sink.append(values[i]);
+        }
+        return sink;
+    }
+
+    public static StringBuilder join(StringBuilder sink, CharSequence delimiter, double[] values) {
+        for (int i = 0, length = values.length; i < length; i++) {
+            if (i > 0)
+                sink.append(delimiter);
+            sink.append(values[i]);
+        }
+        return sink;
+    }
+
+    public static StringBuilder join(StringBuilder sink, CharSequence delimiter, short[] values) {
+        for (int i = 0, length = values.length; i < length; i++) {
+            if (i > 0)
+                sink.append(delimiter);
+            sink.append(values[i]);
+        }
+        return sink;
+    }
+
+    public static StringBuilder join(StringBuilder sink, CharSequence delimiter, CharSequence[] values) {
+        for (int i = 0, length = values.length; i < length; i++) {
+            if (i > 0)
+                sink.append(delimiter);
+            sink.append(values[i]);
+        }
+        return sink;
+    }
+
+    public static StringBuilder join(StringBuilder sink, CharSequence delimiter, Object[] values) {
+        for (int i = 0, length = values.length; i < length; i++) {
+            if (i > 0)
+                sink.append(delimiter);
+            sink.append(values[i]);
+        }
+        return sink;
+    }
+
 
     public static String lpad(String str, String pad, int num){
         int pad_length = pad.length() * num;
@@ -554,110 +646,331 @@ public class StringUtils {
 
 
 
+    //==============================================================================================================
+    // 分隔。单次扫描，字段位置写入调用方提供的数组，不产生中间对象。
+
+    /** 记录字段位置的线程缓冲区，只在返回 String[] 的方法中使用 */
+    private final static ThreadLocal<int[]> OFFSETS = ThreadLocal.withInitial(() -> new int[64]);
+    /** 记录视图位置的线程缓冲区，长度恰为视图数量的两倍 */
+    private final static ThreadLocal<int[]> VIEW_OFFSETS = new ThreadLocal<>();
+
+    private static void rangeCheck(CharSequence str, int from, int to) {
+        if (from < 0 || to > str.length() || from > to)
+            throw new IndexOutOfBoundsException("index out of range [from = " + from + ", to = " + to
+                    + ", length: " + str.length() + "]");
+    }
+
+    private static int limitOf(int[] offsets) {
+        int limit = offsets.length >> 1;
+        if (limit == 0)
+            throw new IllegalArgumentException("Illegal parameter [offsets.length = " + offsets.length
+                    + "], must be at least 2.");
+        return limit;
+    }
+
+    // 从第 index 个字段开始扫描，返回字段总数
+    private static int scan(CharSequence str, int from, int to, char delimiter, int[] offsets, int index) {
+        int last = (offsets.length >> 1) - 1, start = from, pos;
+        if (str instanceof String) {
+            String text = (String) str;
+            while (index < last && (pos = text.indexOf(delimiter, start)) != -1 && pos < to) {
+                offsets[index << 1]       = start;
+                offsets[(index << 1) + 1] = pos;
+                index++;
+                start = pos + 1;
+            }
+        } else {
+            for (int i = from; i < to && index < last; i++) {
+                if (str.charAt(i) == delimiter) {
+                    offsets[index << 1]       = start;
+                    offsets[(index << 1) + 1] = i;
+                    index++;
+                    start = i + 1;
+                }
+            }
+        }
+        offsets[index << 1]       = start;
+        offsets[(index << 1) + 1] = to;
+        return index + 1;
+    }
+
+    private static int indexOf(CharSequence str, CharSequence delimiter, int from, int to) {
+        if (str instanceof String && delimiter instanceof String) {
+            int pos = ((String) str).indexOf((String) delimiter, from);
+            return pos != -1 && pos + delimiter.length() <= to ? pos : -1;
+        }
+        char first = delimiter.charAt(0);
+        int  width = delimiter.length();
+        for (int i = from, max = to - width; i <= max; i++) {
+            if (str.charAt(i) != first)
+                continue;
+            int j = 1;
+            while (j < width && str.charAt(i + j) == delimiter.charAt(j))
+                j++;
+            if (j == width)
+                return i;
+        }
+        return -1;
+    }
+
+    // 从第 index 个字段开始扫描，返回字段总数
+    private static int scan(CharSequence str, int from, int to, CharSequence delimiter, int[] offsets, int index) {
+        int last = (offsets.length >> 1) - 1, width = delimiter.length(), start = from, pos;
+        while (index < last && (pos = indexOf(str, delimiter, start, to)) != -1) {
+            offsets[index << 1]       = start;
+            offsets[(index << 1) + 1] = pos;
+            index++;
+            start = pos + width;
+        }
+        offsets[index << 1]       = start;
+        offsets[(index << 1) + 1] = to;
+        return index + 1;
+    }
+
+    /**
+     * 按字符分隔，把各字段的位置写入 offsets
+     * <p>
+     *     <code>offsets[2 * i]</code> 为第 i 个字段的起始位置（包含），<code>offsets[2 * i + 1]</code> 为结束位置（不包含）。
+     *     最多记录 <code>offsets.length / 2</code> 个字段，达到上限时最后一个字段包含剩余的全部内容。
+     * </p>
+     * <pre>
+     *     int[] offsets = new int[2 * fields];  // 可在多行之间复用
+     *     int n = StringUtils.split(line, 0, line.length(), '|', offsets);
+     * </pre>
+     * @param str 字符串
+     * @param from 起始位置（包含）
+     * @param to 结束位置（不包含）
+     * @param delimiter 分隔符
+     * @param offsets 字段位置
+     * @return 返回字段数量，至少为 1（空字符串为一个空字段）。
+     */
+    public static int split(CharSequence str, int from, int to, char delimiter, int[] offsets) {
+        rangeCheck(str, from, to);
+        limitOf(offsets);
+        return scan(str, from, to, delimiter, offsets, 0);
+    }
+
+    /**
+     * 按字符串分隔，把各字段的位置写入 offsets，说明同 {@link #split(CharSequence, int, int, char, int[])}
+     * @param str 字符串
+     * @param from 起始位置（包含）
+     * @param to 结束位置（不包含）
+     * @param delimiter 分隔符，可以是多个字符
+     * @param offsets 字段位置
+     * @return 返回字段数量，至少为 1。
+     */
+    public static int split(CharSequence str, int from, int to, CharSequence delimiter, int[] offsets) {
+        rangeCheck(str, from, to);
+        limitOf(offsets);
+        if (delimiter.length() == 0)
+            throw new IllegalArgumentException("Illegal parameter [delimiter], can not be empty.");
+        if (delimiter.length() == 1)
+            return scan(str, from, to, delimiter.charAt(0), offsets, 0);
+        return scan(str, from, to, delimiter, offsets, 0);
+    }
+
+    /**
+     * 按字节分隔，把各字段的位置（相对于数组开头）写入 offsets，说明同 {@link #split(CharSequence, int, int, char, int[])}
+     * @param bytes 字节数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @param delimiter 分隔符
+     * @param offsets 字段位置
+     * @return 返回字段数量，至少为 1。
+     */
+    public static int split(byte[] bytes, int offset, int length, byte delimiter, int[] offsets) {
+        if (offset < 0 || length < 0 || offset + length > bytes.length)
+            throw new IndexOutOfBoundsException("index out of range [offset = " + offset + ", length = " + length
+                    + ", size: " + bytes.length + "]");
+        int last = limitOf(offsets) - 1, index = 0, start = offset, end = offset + length;
+        for (int i = offset; i < end && index < last; i++) {
+            if (bytes[i] == delimiter) {
+                offsets[index << 1]       = start;
+                offsets[(index << 1) + 1] = i;
+                index++;
+                start = i + 1;
+            }
+        }
+        offsets[index << 1]       = start;
+        offsets[(index << 1) + 1] = end;
+        return index + 1;
+    }
+
+    /**
+     * 按字符分隔，把各字段写入调用方提供的视图，不复制字符
+     * @param str 字符串
+     * @param delimiter 分隔符
+     * @param views 视图，为 null 的成员会被创建；达到数组长度时最后一个字段包含剩余的全部内容
+     * @return 返回字段数量。
+     */
+    public static int split(CharSequence str, char delimiter, CharSlice[] views) {
+        int[] offsets = offsets(views.length);
+        int fields = split(str, 0, str.length(), delimiter, offsets);
+        for (int i = 0; i < fields; i++) {
+            if (views[i] == null)
+                views[i] = new CharSlice();
+            views[i].wrap(str, offsets[i << 1], offsets[(i << 1) + 1]);
+        }
+        return fields;
+    }
+
+    // 字段数量上限由数组长度决定，因此长度必须与视图数量一致；调用方通常复用同一视图数组，缓冲区可以复用
+    private static int[] offsets(int fields) {
+        int[] offsets = VIEW_OFFSETS.get();
+        if (offsets == null || offsets.length != fields << 1) {
+            offsets = new int[fields << 1];
+            VIEW_OFFSETS.set(offsets);
+        }
+        return offsets;
+    }
+
+    // 按位置截取字段
+    private static String[] substrings(String str, int[] offsets, int fields) {
+        String[] retval = new String[fields];
+        for (int i = 0; i < fields; i++)
+            retval[i] = str.substring(offsets[i << 1], offsets[(i << 1) + 1]);
+        return retval;
+    }
+
+    /**
+     * 按字符分隔，最多返回 limit 个字段，超出的字段被忽略，不足的字段为 null
+     * @param str 字符串
+     * @param delimiter 分隔符
+     * @param limit 字段数量
+     * @return 返回长度为 limit 的数组，字符串为空时返回 null。
+     */
     public static String[] split(String str, char delimiter, int limit) {
         if (isEmpty(str))
             return null;
         int next = 0, pos, length = str.length();
         String[] retval = new String[limit];
-        for(int i = 0; i < limit; i++) {
+        for (int i = 0; i < limit && next <= length; i++) {
             if ((pos = str.indexOf(delimiter, next)) != -1) {
                 retval[i] = str.substring(next, pos);
-                next = ++pos;
+                next = pos + 1;
             } else {
-                if (next < length) {
-                    retval[i] = str.substring(next);
-                    next = length;
-                }
+                retval[i] = str.substring(next);
+                next = length + 1;
             }
         }
         return retval;
     }
 
+    /**
+     * 按字符串分隔，最多返回 limit 个字段，超出的字段被忽略，不足的字段为 null
+     * @param str 字符串
+     * @param delimiter 分隔符，可以是多个字符
+     * @param limit 字段数量
+     * @return 返回长度为 limit 的数组，字符串为空时返回 null。
+     */
     public static String[] split(String str, String delimiter, int limit) {
         if (isEmpty(str))
             return null;
-        int next = 0, pos, length = str.length();
+        int next = 0, pos, length = str.length(), width = delimiter.length();
         String[] retval = new String[limit];
-        for(int i = 0; i < limit; i++) {
+        for (int i = 0; i < limit && next <= length; i++) {
             if ((pos = str.indexOf(delimiter, next)) != -1) {
                 retval[i] = str.substring(next, pos);
-                next = ++pos;
+                next = pos + width;
             } else {
-                if (next < length) {
-                    retval[i] = str.substring(next);
-                    next = length;
-                }
+                retval[i] = str.substring(next);
+                next = length + 1;
             }
         }
         return retval;
     }
 
+    /**
+     * 按字符分隔（单次扫描）
+     * @param str 字符串
+     * @param delimiter 分隔符
+     * @return 返回全部字段，包括末尾的空字段；字符串为空时返回 null。
+     */
     public static String[] split(String str, char delimiter) {
         if (isEmpty(str)) return null;
-        int next = 0, pos, fields = count(str, delimiter), length = str.length();
-        String[] retval = new String[fields];
-        for(int i = 0; i < fields; i++) {
-            if ((pos = str.indexOf(delimiter, next)) != -1) {
-                retval[i] = str.substring(next, pos);
-                next = ++pos;
-            } else {
-                if (next < length) {
-                    retval[i] = str.substring(next);
-                    next = length;
-                } else {
-                    retval[i] = "";
-                }
-
-            }
+        int   length  = str.length();
+        int[] offsets = OFFSETS.get();
+        int   fields  = scan(str, 0, length, delimiter, offsets, 0);
+        // 位置数组已满且最后一个字段中还有分隔符时，扩容后从最后一个字段继续扫描
+        while (fields == offsets.length >> 1 && str.indexOf(delimiter, offsets[(fields - 1) << 1]) != -1) {
+            offsets = Arrays.copyOf(offsets, offsets.length << 1);
+            OFFSETS.set(offsets);
+            fields = scan(str, offsets[(fields - 1) << 1], length, delimiter, offsets, fields - 1);
         }
-        return retval;
+        return substrings(str, offsets, fields);
     }
 
+    /**
+     * 按字符串分隔（单次扫描）
+     * @param str 字符串
+     * @param delimiter 分隔符，可以是多个字符
+     * @return 返回全部字段，包括末尾的空字段；字符串为空时返回 null。
+     */
     public static String[] split(String str, String delimiter) {
         if (isEmpty(str)) return null;
-        // 在字有一个字符的情况下，直接使用 char 来分隔，更具有效率。
-        if (str.length() == 1)
-            return split(str, str.charAt(0));
-        int next = 0, pos, fields = count(str, delimiter), length = str.length();
-        String[] retval = new String[++fields];
-        for(int i = 0; i < fields; i++) {
-            if ((pos = str.indexOf(delimiter, next)) != -1) {
-                retval[i] = str.substring(next, pos);
-                next = ++pos;
-            } else {
-                if (next < length) {
-                    retval[i] = str.substring(next);
-                    next = length;
-                } else {
-                    retval[i] = "";
-                }
+        // 在分隔符只有一个字符的情况下，直接使用 char 来分隔，更具有效率。
+        if (delimiter.length() == 1)
+            return split(str, delimiter.charAt(0));
+        if (delimiter.isEmpty())
+            throw new IllegalArgumentException("Illegal parameter [delimiter], can not be empty.");
+        int   length  = str.length();
+        int[] offsets = OFFSETS.get();
+        int   fields  = scan(str, 0, length, delimiter, offsets, 0);
+        while (fields == offsets.length >> 1 && str.indexOf(delimiter, offsets[(fields - 1) << 1]) != -1) {
+            offsets = Arrays.copyOf(offsets, offsets.length << 1);
+            OFFSETS.set(offsets);
+            fields = scan(str, offsets[(fields - 1) << 1], length, delimiter, offsets, fields - 1);
+        }
+        return substrings(str, offsets, fields);
+    }
 
+    /**
+     * 按字符分隔，写入调用方提供的数组（可复用）。超出数组长度的字段被忽略，不足的字段为空字符串。
+     * @param str 字符串
+     * @param delimiter 分隔符
+     * @param buffer 字段数组，为 null 时返回全部字段
+     * @return 返回字段数组，字符串为空时返回 null。
+     */
+    public static String[] split(String str, char delimiter, String[] buffer) {
+        if (isEmpty(str)) return null;
+        if (buffer == null)
+            return split(str, delimiter);
+        int next = 0, pos, length = str.length();
+        for (int i = 0; i < buffer.length; i++) {
+            if (next > length) {
+                buffer[i] = "";
+            } else if ((pos = str.indexOf(delimiter, next)) != -1) {
+                buffer[i] = str.substring(next, pos);
+                next = pos + 1;
+            } else {
+                buffer[i] = str.substring(next);
+                next = length + 1;
             }
         }
-        return retval;
+        return buffer;
     }
 
+    /**
+     * 按字符串分隔，写入调用方提供的数组（可复用）。超出数组长度的字段被忽略，不足的字段为空字符串。
+     * @param str 字符串
+     * @param delimiter 分隔符，可以是多个字符
+     * @param buffer 字段数组，为 null 时返回全部字段
+     * @return 返回字段数组，字符串为空时返回 null。
+     */
     public static String[] split(String str, String delimiter, String[] buffer) {
         if (isEmpty(str)) return null;
-        int next = 0, pos, fields, length = str.length();
-        if (buffer == null) {
-            fields = count(str, delimiter);
-            buffer = new String[fields];
-        } else {
-            fields = buffer.length;
-        }
-        for(int i = 0; i < fields; i++) {
-            if ((pos = str.indexOf(delimiter, next)) != -1) {
-                buffer[i] = str.substring(next, pos++);
-                next = pos;
+        if (buffer == null)
+            return split(str, delimiter);
+        int next = 0, pos, length = str.length(), width = delimiter.length();
+        for (int i = 0; i < buffer.length; i++) {
+            if (next > length) {
+                buffer[i] = "";
+            } else if ((pos = str.indexOf(delimiter, next)) != -1) {
+                buffer[i] = str.substring(next, pos);
+                next = pos + width;
             } else {
-                if (next < length) {
-                    buffer[i] = str.substring(next);
-                    next = length;
-                } else {
-                    buffer[i] = "";
-                }
-
+                buffer[i] = str.substring(next);
+                next = length + 1;
             }
         }
         return buffer;
@@ -190,6 +190,289 @@ public final class TimeUtils {
         return String.format("%s.%03d", format(date), date.getTime() % 1000);
     }
 
+    /** 一天时间微秒数 */
+    public final static long DAY_MICROS = 86400000000L;
+    /** 一秒时间微秒数 */
+    public final static long SECOND_MICROS = 1000000L;
+
+    /**
+     * 将年月日转换为纪元天数（1970-01-01 为第 0 天）
+     * @param year  年
+     * @param month 月，取值范围：1 - 12
+     * @param day   日，取值范围：1 - 31
+     * @return 返回纪元天数。
+     */
+    public static int toEpochDay(int year, int month, int day) {
+        int  y   = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yoe = y - era * 400;
+        long doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return (int) (era * 146097 + doe - 719468);
+    }
+
+    /**
+     * 将纪元天数转换为年月日
+     * @param epochDay 纪元天数
+     * @return 返回打包后的年月日，计算方式：{@code (year << 9) | (month << 5) | day}。
+     */
+    private static int fromEpochDay(long epochDay) {
+        long z   = epochDay + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp  = (5 * doy + 2) / 153;
+        int  d   = (int) (doy - (153 * mp + 2) / 5 + 1);
+        int  m   = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int  y   = (int) (yoe + era * 400 + (m <= 2 ? 1 : 0));
+        return (y << 9) | (m << 5) | d;
+    }
+
+    /**
+     * 将毫秒时间戳转换为纪元天数（按固定时区偏置计算）
+     * @param millis 毫秒时间戳
+     * @return 返回纪元天数。
+     */
+    public static int millisToEpochDay(long millis) {
+        return (int) Math.floorDiv(millis + TIMEZONE_OFFSET_MILLIS, DAY_MILLIS);
+    }
+
+    /**
+     * 将微秒时间戳转换为纪元天数（按固定时区偏置计算）
+     * @param micros 微秒时间戳
+     * @return 返回纪元天数。
+     */
+    public static int microsToEpochDay(long micros) {
+        return (int) Math.floorDiv(micros + TIMEZONE_OFFSET_MILLIS * 1000, DAY_MICROS);
+    }
+
+    /**
+     * 将纪元天数转换为当天零点的微秒时间戳（按固定时区偏置计算）
+     * @param epochDay 纪元天数
+     * @return 返回微秒时间戳。
+     */
+    public static long epochDayToMicros(int epochDay) {
+        return epochDay * DAY_MICROS - TIMEZONE_OFFSET_MILLIS * 1000;
+    }
+
+    /**
+     * 解析日期，不创建 {@code Date} 实例。
+     * <ul>
+     * 支持以下格式
+     * <li> {@code yyyy-MM-dd} </li>
+     * <li> {@code yyyyMMdd} </li>
+     * <li> 所有 {@link #parseEpochMicros(CharSequence)} 支持的时间格式（取当地日期） </li>
+     * </ul>
+     * @param source 指定日期文本
+     * @return 返回纪元天数（1970-01-01 为第 0 天）。
+     * @exception IllegalArgumentException 如果格式不匹配。
+     */
+    public static int parseEpochDay(CharSequence source) {
+        int len = source.length(), month, day;
+        if (len == 10 && source.charAt(4) == '-' && source.charAt(7) == '-') {
+            month = digits(source, 5, 2);
+            day   = digits(source, 8, 2);
+        } else if (len == 8) {
+            month = digits(source, 4, 2);
+            day   = digits(source, 6, 2);
+        } else {
+            return microsToEpochDay(parseEpochMicros(source));
+        }
+        if (month < 1 || month > 12 || day < 1 || day > 31) throw parseException(source);
+        return toEpochDay(digits(source, 0, 4), month, day);
+    }
+
+    /**
+     * 解析时间，不创建 {@code Date} 实例。
+     * <ul>
+     * 支持以下格式
+     * <li> {@code yyyy-MM-dd HH:mm:ss[.SSSSSS]} </li>
+     * <li> {@code yyyy-MM-dd'T'HH:mm:ss[.SSSSSS][Z|+HH:mm|-HH:mm]} (ISO-8601) </li>
+     * <li> {@code yyyyMMddHHmmss} </li>
+     * <li> {@code yyyy-MM-dd} </li>
+     * </ul>
+     * 未带时区的时间按 {@link #TIMEZONE_OFFSET_MILLIS} 处理。
+     * @param source 指定时间文本
+     * @return 返回微秒时间戳。
+     * @exception IllegalArgumentException 如果格式不匹配。
+     */
+    public static long parseEpochMicros(CharSequence source) {
+        int  len = source.length();
+        int  year, month, day, hour = 0, minute = 0, second = 0, pos;
+        long fraction = 0, offset = TIMEZONE_OFFSET_MILLIS * 1000;
+        if (len == 14) {
+            year   = digits(source, 0, 4);
+            month  = digits(source, 4, 2);
+            day    = digits(source, 6, 2);
+            hour   = digits(source, 8, 2);
+            minute = digits(source, 10, 2);
+            second = digits(source, 12, 2);
+            pos    = 14;
+        } else if (len >= 10 && source.charAt(4) == '-' && source.charAt(7) == '-') {
+            year   = digits(source, 0, 4);
+            month  = digits(source, 5, 2);
+            day    = digits(source, 8, 2);
+            pos    = 10;
+            if (len > 10) {
+                char c = source.charAt(10);
+                if ((c != ' ' && c != 'T') || len < 19 || source.charAt(13) != ':' || source.charAt(16) != ':')
+                    throw parseException(source);
+                hour   = digits(source, 11, 2);
+                minute = digits(source, 14, 2);
+                second = digits(source, 17, 2);
+                pos    = 19;
+                if (pos < len && source.charAt(pos) == '.') {
+                    int scale = 0;
+                    pos++;
+                    while (pos < len && scale < 9) {
+                        int d = source.charAt(pos) - '0';
+                        if (d < 0 || d > 9) break;
+                        fraction = fraction * 10 + d;
+                        scale++;
+                        pos++;
+                    }
+                    if (scale == 0) throw parseException(source);
+                    for (; scale < 6; scale++) fraction *= 10;
+                    for (; scale > 6; scale--) fraction /= 10;
+                }
+                if (pos < len) {
+                    char z = source.charAt(pos);
+                    if (z == 'Z' && pos + 1 == len) {
+                        offset = 0;
+                    } else if ((z == '+' || z == '-') && (len - pos == 6 && source.charAt(pos + 3) == ':' || len - pos == 5)) {
+                        int oh = digits(source, pos + 1, 2);
+                        int om = digits(source, len - 2, 2);
+                        offset = (oh * 3600L + om * 60L) * SECOND_MICROS;
+                        if (z == '-') offset = -offset;
+                    } else {
+                        throw parseException(source);
+                    }
+                    pos = len;
+                }
+            }
+        } else {
+            throw parseException(source);
+        }
+        if (pos != len || month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 59)
+            throw parseException(source);
+        long seconds = toEpochDay(year, month, day) * 86400L + hour * 3600L + minute * 60L + second;
+        return seconds * SECOND_MICROS + fraction - offset;
+    }
+
+    /**
+     * 格式化纪元天数为 {@code yyyy-MM-dd}
+     * @param epochDay 纪元天数
+     * @return 返回格式化后的日期。
+     */
+    public static String formatEpochDay(int epochDay) {
+        return appendEpochDay(new StringBuilder(10), epochDay, true).toString();
+    }
+
+    /**
+     * 格式化微秒时间戳为 {@code yyyy-MM-dd HH:mm:ss[.SSSSSS]}，没有小数部分时不输出小数。
+     * @param micros 微秒时间戳
+     * @return 返回格式化后的时间。
+     */
+    public static String formatEpochMicros(long micros) {
+        return appendEpochMicros(new StringBuilder(26), micros, ' ', true).toString();
+    }
+
+    /**
+     * 格式化微秒时间戳为 {@code yyyyMMddHHmmss}
+     * @param micros 微秒时间戳
+     * @return 返回格式化后的时间。
+     */
+    public static String formatEpochMicrosWithoutSymbol(long micros) {
+        return appendEpochMicros(new StringBuilder(14), micros, '\0', false).toString();
+    }
+
+    /**
+     * 格式化微秒时间戳为 ISO-8601，如：{@code 2019-01-01T12:30:59.000001+08:00}
+     * @param micros 微秒时间戳
+     * @return 返回格式化后的时间。
+     */
+    public static String formatEpochMicrosISO(long micros) {
+        StringBuilder builder = appendEpochMicros(new StringBuilder(32), micros, 'T', true);
+        long offset = TIMEZONE_OFFSET_MILLIS / MINUTE_MILLIS;
+        if (offset == 0) return builder.append('Z').toString();
+        builder.append(offset < 0 ? '-' : '+');
+        offset = Math.abs(offset);
+        appendDigits(builder, (int) (offset / 60), 2).append(':');
+        return appendDigits(builder, (int) (offset % 60), 2).toString();
+    }
+
+    /**
+     * 将纪元天数追加到指定的 {@code StringBuilder}
+     * @param builder  指定 StringBuilder
+     * @param epochDay 纪元天数
+     * @param symbol   是否带分隔符，true 表示 {@code yyyy-MM-dd}，false 表示 {@code yyyyMMdd}
+     * @return 返回指定的 StringBuilder。
+     */
+    public static StringBuilder appendEpochDay(StringBuilder builder, long epochDay, boolean symbol) {
+        int ymd = fromEpochDay(epochDay);
+        appendDigits(builder, ymd >> 9, 4);
+        if (symbol) builder.append('-');
+        appendDigits(builder, (ymd >> 5) & 0xF, 2);
+        if (symbol) builder.append('-');
+        return appendDigits(builder, ymd & 0x1F, 2);
+    }
+
+    /**
+     * 将微秒时间戳追加到指定的 {@code StringBuilder}
+     * @param builder   指定 StringBuilder
+     * @param micros    微秒时间戳
+     * @param separator 日期与时间的分隔符，{@code '\0'} 表示不带任何分隔符（同时忽略小数部分）
+     * @param fraction  是否输出小数部分
+     * @return 返回指定的 StringBuilder。
+     */
+    public static StringBuilder appendEpochMicros(StringBuilder builder, long micros, char separator, boolean fraction) {
+        boolean symbol = separator != '\0';
+        long local = micros + TIMEZONE_OFFSET_MILLIS * 1000;
+        long day   = Math.floorDiv(local, DAY_MICROS);
+        long rem   = Math.floorMod(local, DAY_MICROS);
+        int  secs  = (int) (rem / SECOND_MICROS);
+        int  frac  = (int) (rem % SECOND_MICROS);
+        appendEpochDay(builder, day, symbol);
+        if (symbol) builder.append(separator);
+        appendDigits(builder, secs / 3600, 2);
+        if (symbol) builder.append(':');
+        appendDigits(builder, secs / 60 % 60, 2);
+        if (symbol) builder.append(':');
+        appendDigits(builder, secs % 60, 2);
+        if (symbol && fraction && frac != 0) {
+            builder.append('.');
+            if (frac % 1000 == 0) {
+                appendDigits(builder, frac / 1000, 3);
+            } else {
+                appendDigits(builder, frac, 6);
+            }
+        }
+        return builder;
+    }
+
+    private static StringBuilder appendDigits(StringBuilder builder, int value, int width) {
+        for (int div = width == 2 ? 10 : width == 3 ? 100 : width == 4 ? 1000 : 100000; div > 0; div /= 10) {
+            builder.append((char) ('0' + value / div % 10));
+        }
+        return builder;
+    }
+
+    private static int digits(CharSequence source, int offset, int length) {
+        int value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int d = source.charAt(i) - '0';
+            if (d < 0 || d > 9) throw parseException(source);
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException parseException(CharSequence source) {
+        return new IllegalArgumentException("Parse date(" + source + ") as [" + DATE_FORMATTER_0 + ", "
+                + DATE_FORMATTER_2 + ", ISO-8601] failure.");
+    }
+
     // 解析时间。数据中除了带有时间数字外，还带有分隔标识。
     // 如：2019-01-01 12:30:59 （2019年1月1日12点30分59秒）
     public static Date parse(String source) {
@@ -0,0 +1,195 @@
+package com.liuyang.util;
+
+import com.sun.istack.internal.NotNull;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+// 以下几个类只用于字段填充：生产者序号与消费者序号分别位于不同的缓存行，避免伪共享。
+// 子类字段排在父类字段之后，通过继承可以保证填充的顺序。
+
+@SuppressWarnings("unused")
+abstract class ArrayQueuePad0<E> extends AbstractQueue<E> {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p10, p11, p12, p13, p14, p15, p16;
+}
+
+abstract class ArrayQueueProducer<E> extends ArrayQueuePad0<E> {
+    @SuppressWarnings("rawtypes")
+    final static AtomicLongFieldUpdater<ArrayQueueProducer> PRODUCER_INDEX =
+            AtomicLongFieldUpdater.newUpdater(ArrayQueueProducer.class, "producerIndex");
+
+    /** 下一个待写入的序号 */
+    volatile long producerIndex;
+    /** 生产者缓存的可写上限，减少读取消费者序号 */
+    long          producerLimit;
+}
+
+@SuppressWarnings("unused")
+abstract class ArrayQueuePad1<E> extends ArrayQueueProducer<E> {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p10, p11, p12, p13, p14, p15, p16;
+}
+
+abstract class ArrayQueueConsumer<E> extends ArrayQueuePad1<E> {
+    @SuppressWarnings("rawtypes")
+    final static AtomicLongFieldUpdater<ArrayQueueConsumer> CONSUMER_INDEX =
+            AtomicLongFieldUpdater.newUpdater(ArrayQueueConsumer.class, "consumerIndex");
+
+    /** 下一个待读取的序号 */
+    volatile long consumerIndex;
+}
+
+@SuppressWarnings("unused")
+abstract class ArrayQueuePad2<E> extends ArrayQueueConsumer<E> {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p10, p11, p12, p13, p14, p15, p16;
+}
+
+/**
+ * 数组环形队列基类
+ * <p>
+ *     容量为 2 的幂，槽位为 null 表示空闲。迭代器为创建时的快照（弱一致性），可以在任意线程中使用，
+ *     因此 <code>contains</code>、<code>toArray</code> 等只读的集合操作可用；不支持按元素删除。
+ * </p>
+ * <ul>
+ *     <li>2019/4/4 ver 1.0.0 创建。</li>
+ *     <li>2019/4/10 ver 1.0.1 迭代器改为快照，不再抛出 UnsupportedOperationException；按元素删除明确不支持。</li>
+ * </ul>
+ * @param <E> 元素类型
+ * @author liuyang
+ * @version 1.0.1
+ */
+abstract class ConcurrentArrayQueue<E> extends ArrayQueuePad2<E> {
+
+    final AtomicReferenceArray<E> buffer;
+    final int                     mask;
+    final int                     capacity;
+
+    ConcurrentArrayQueue(int capacity) {
+        if (capacity < 2 || capacity > (1 << 30))
+            throw new IllegalArgumentException("Illegal parameter [capacity = " + capacity + "], must be in [2, 2^30].");
+        this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask     = this.capacity - 1;
+        this.buffer   = new AtomicReferenceArray<>(this.capacity);
+        this.producerLimit = this.capacity;
+    }
+
+    static void checkNotNull(Object e) {
+        if (e == null)
+            throw new NullPointerException("Illegal parameter [e], can not be null.");
+    }
+
+    /**
+     * 获取容量
+     * @return 返回容量（2 的幂）。
+     */
+    public final int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 取出多个元素（只能由消费者调用）
+     * @param action 元素处理
+     * @param limit 最多取出的数量
+     * @return 返回取出的数量。
+     */
+    public int drain(@NotNull Consumer<? super E> action, int limit) {
+        int count = 0;
+        E e;
+        while (count < limit && (e = poll()) != null) {
+            action.accept(e);
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public final int size() {
+        // 两次读取消费者序号一致时，结果才可信
+        for (;;) {
+            long before   = consumerIndex;
+            long producer = producerIndex;
+            long after    = consumerIndex;
+            if (before == after) {
+                long size = producer - after;
+                return (int) Math.max(0, Math.min(size, capacity));
+            }
+        }
+    }
+
+    @Override
+    public final boolean isEmpty() {
+        return consumerIndex == producerIndex;
+    }
+
+    /**
+     * 迭代队列中的元素
+     * <p>
+     *     创建时按序号复制当前的元素（最多一圈），之后的入队与出队不影响迭代；复制期间被取出的元素会被跳过。
+     *     迭代器不支持 <code>remove</code>。
+     * </p>
+     * @return 返回快照迭代器。
+     */
+    @Override
+    public final Iterator<E> iterator() {
+        long         consumer = consumerIndex;
+        long         end      = Math.min(producerIndex, consumer + capacity);
+        ArrayList<E> snapshot = new ArrayList<>((int) Math.max(0, end - consumer));
+        for (long index = consumer; index < end; index++) {
+            // 槽位为 null 表示已被取出或尚未写入
+            E e = buffer.get((int) index & mask);
+            if (e != null)
+                snapshot.add(e);
+        }
+        Iterator<E> iterator = snapshot.iterator();
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return iterator.next();
+            }
+        };
+    }
+
+    /**
+     * 不支持按元素删除
+     * @throws UnsupportedOperationException 总是抛出该异常。
+     */
+    @Override
+    public final boolean remove(Object o) {
+        throw new UnsupportedOperationException("remove(Object)");
+    }
+
+    /**
+     * 不支持按元素删除
+     * @throws UnsupportedOperationException 总是抛出该异常。
+     */
+    @Override
+    public final boolean removeAll(Collection<?> c) {
+        throw new UnsupportedOperationException("removeAll");
+    }
+
+    /**
+     * 不支持按元素删除
+     * @throws UnsupportedOperationException 总是抛出该异常。
+     */
+    @Override
+    public final boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException("retainAll");
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[size=" + size() + ", capacity=" + capacity + "]";
+    }
+}
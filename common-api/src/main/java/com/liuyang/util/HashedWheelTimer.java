@@ -0,0 +1,331 @@
+package com.liuyang.util;
+
+import com.liuyang.log.Logger;
+import com.sun.istack.internal.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 时间轮定时器
+ * <p>
+ *     所有超时任务共用一个后台线程。时间轮由若干个槽组成，每个槽是一个双向链表，
+ *     后台线程每个刻度推进一个槽，只检查该槽中的任务，因此注册与取消都是 O(1)，
+ *     同时跟踪数千个超时也只需要一个线程。超时精度为一个刻度。
+ * </p>
+ * <p>
+ *     注册与取消先进入无锁队列，由后台线程在下一个刻度统一放入或移出时间轮，调用线程不加锁。
+ *     任务在后台线程中执行，应尽快返回，耗时操作请交给其他线程。
+ * </p>
+ * <pre>
+ *     HashedWheelTimer timer = new HashedWheelTimer("Monitor", 100, TimeUnit.MILLISECONDS, 512);
+ *     HashedWheelTimer.Timeout timeout = timer.newTimeout(t -> client.close(), 30, TimeUnit.SECONDS);
+ *     ...
+ *     timeout.cancel();
+ * </pre>
+ * <ul>
+ *     <li>2019/4/1 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class HashedWheelTimer {
+    private final static Logger logger = Logger.getLogger(HashedWheelTimer.class);
+
+    /** 每个刻度最多从注册队列转入时间轮的任务数，防止大量注册时长时间占用后台线程 */
+    private final static int MAX_TRANSFERS = 100000;
+
+    private final static int STATE_INIT     = 0;
+    private final static int STATE_STARTED  = 1;
+    private final static int STATE_SHUTDOWN = 2;
+
+    private final static AtomicIntegerFieldUpdater<HashedWheelTimer> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(HashedWheelTimer.class, "state");
+
+    /**
+     * 超时任务
+     */
+    @FunctionalInterface
+    public interface TimerTask {
+        /**
+         * 超时后在定时器线程中执行
+         * @param timeout 超时句柄
+         * @throws Exception 异常会被记录，不影响定时器运行。
+         */
+        void run(Timeout timeout) throws Exception;
+    }
+
+    private final String      name;
+    private final long        tickNanos;
+    private final Bucket[]    wheel;
+    private final int         mask;
+    private final Queue<Timeout> pending   = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong  count        = new AtomicLong();
+
+    private volatile int      state = STATE_INIT;
+    private final long        startTime = System.nanoTime();
+    private Thread            thread;
+    /** 当前刻度，只由后台线程访问 */
+    private long              tick;
+
+    /**
+     * 创建时间轮定时器
+     * @param name 线程名称
+     * @param tick 刻度时长
+     * @param unit 刻度时长的单位
+     * @param wheelSize 槽数量，向上取 2 的幂
+     */
+    public HashedWheelTimer(@NotNull String name, long tick, @NotNull TimeUnit unit, int wheelSize) {
+        if (tick <= 0)
+            throw new IllegalArgumentException("Illegal parameter [tick = " + tick + "], must be positive.");
+        if (wheelSize <= 0 || wheelSize > (1 << 30))
+            throw new IllegalArgumentException("Illegal parameter [wheelSize = " + wheelSize + "], must be in [1, 2^30].");
+        int size = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.name      = name;
+        this.tickNanos = Math.max(unit.toNanos(tick), TimeUnit.MILLISECONDS.toNanos(1));
+        this.wheel     = new Bucket[size];
+        this.mask      = size - 1;
+        for (int i = 0; i < size; i++)
+            wheel[i] = new Bucket();
+    }
+
+    /**
+     * 创建时间轮定时器，刻度 100 毫秒，512 个槽
+     * @param name 线程名称
+     */
+    public HashedWheelTimer(@NotNull String name) {
+        this(name, 100, TimeUnit.MILLISECONDS, 512);
+    }
+
+    /**
+     * 注册超时任务
+     * @param task 任务
+     * @param delay 延迟时间，小于等于 0 时在下一个刻度执行
+     * @param unit 延迟时间的单位
+     * @return 返回超时句柄，可用于取消。
+     * @throws IllegalStateException 定时器已停止时抛出异常。
+     */
+    public Timeout newTimeout(@NotNull TimerTask task, long delay, @NotNull TimeUnit unit) {
+        start();
+        long deadline = System.nanoTime() + Math.max(0, unit.toNanos(delay)) - startTime;
+        // 防止溢出
+        if (delay > 0 && deadline < 0)
+            deadline = Long.MAX_VALUE;
+        Timeout timeout = new Timeout(this, task, deadline);
+        count.incrementAndGet();
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * 获取尚未执行且未取消的任务数量
+     * @return 返回任务数量。
+     */
+    public long pendingTimeouts() {
+        return count.get();
+    }
+
+    private void start() {
+        switch (STATE.get(this)) {
+            case STATE_INIT:
+                if (STATE.compareAndSet(this, STATE_INIT, STATE_STARTED)) {
+                    thread = new Thread(this::run, name);
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+                break;
+            case STATE_STARTED:
+                break;
+            default:
+                throw new IllegalStateException("Timer(" + name + ") has been stopped.");
+        }
+    }
+
+    /**
+     * 停止定时器，未执行的任务不再执行
+     */
+    public void stop() {
+        if (STATE.getAndSet(this, STATE_SHUTDOWN) == STATE_STARTED && thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        while (state == STATE_STARTED) {
+            if (waitForNextTick() < 0)
+                break;
+            removeCancelled();
+            transferPending();
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    // 等待到下一个刻度，返回相对于开始时间的当前时间；停止时返回 -1
+    private long waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long current = System.nanoTime() - startTime;
+            long sleepMillis = (deadline - current + 999999) / 1000000;
+            if (sleepMillis <= 0)
+                return current;
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                if (state == STATE_SHUTDOWN)
+                    return -1;
+            }
+        }
+    }
+
+    private void transferPending() {
+        for (int i = 0; i < MAX_TRANSFERS; i++) {
+            Timeout timeout = pending.poll();
+            if (timeout == null)
+                break;
+            if (timeout.state() == Timeout.ST_CANCELLED)
+                continue;
+            long ticks = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (ticks - tick) / wheel.length;
+            // 已经过期的任务放入当前槽
+            wheel[(int) (Math.max(ticks, tick) & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        while (true) {
+            Timeout timeout = cancelled.poll();
+            if (timeout == null)
+                break;
+            if (timeout.bucket != null)
+                timeout.bucket.remove(timeout);
+        }
+    }
+
+    /**
+     * 超时句柄
+     */
+    public static final class Timeout {
+        private final static int ST_INIT      = 0;
+        private final static int ST_CANCELLED = 1;
+        private final static int ST_EXPIRED   = 2;
+
+        private final static AtomicIntegerFieldUpdater<Timeout> TIMEOUT_STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final HashedWheelTimer timer;
+        private final TimerTask        task;
+        private final long             deadline;
+        private volatile int           state = ST_INIT;
+
+        // 以下字段只由后台线程访问
+        private long    remainingRounds;
+        private Timeout prev;
+        private Timeout next;
+        private Bucket  bucket;
+
+        private Timeout(HashedWheelTimer timer, TimerTask task, long deadline) {
+            this.timer    = timer;
+            this.task     = task;
+            this.deadline = deadline;
+        }
+
+        private int state() {
+            return state;
+        }
+
+        public HashedWheelTimer getTimer() {
+            return timer;
+        }
+
+        public TimerTask getTask() {
+            return task;
+        }
+
+        /**
+         * 取消任务
+         * @return 返回 true 表示取消成功，返回 false 表示任务已执行或已取消。
+         */
+        public boolean cancel() {
+            if (!TIMEOUT_STATE.compareAndSet(this, ST_INIT, ST_CANCELLED))
+                return false;
+            timer.count.decrementAndGet();
+            timer.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == ST_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == ST_EXPIRED;
+        }
+
+        private void expire() {
+            if (!TIMEOUT_STATE.compareAndSet(this, ST_INIT, ST_EXPIRED))
+                return;
+            timer.count.decrementAndGet();
+            try {
+                task.run(this);
+            } catch (Throwable e) {
+                logger.warn("Timer(%s): task %s raised an exception: %s", timer.name, task, e);
+            }
+        }
+    }
+
+    // 时间轮的槽，只由后台线程访问
+    private final static class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next    = timeout;
+                timeout.prev = tail;
+                tail         = timeout;
+            }
+        }
+
+        private Timeout remove(Timeout timeout) {
+            Timeout next = timeout.next;
+            if (timeout.prev != null)
+                timeout.prev.next = next;
+            if (next != null)
+                next.prev = timeout.prev;
+            if (timeout == head)
+                head = next;
+            if (timeout == tail)
+                tail = timeout.prev;
+            // help GC
+            timeout.prev   = null;
+            timeout.next   = null;
+            timeout.bucket = null;
+            return next;
+        }
+
+        private void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                if (timeout.remainingRounds <= 0) {
+                    // 放入槽时已按轮数计算，此时必然已到期
+                    Timeout next = remove(timeout);
+                    timeout.expire();
+                    timeout = next;
+                } else if (timeout.isCancelled()) {
+                    timeout = remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                    timeout = timeout.next;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.liuyang.util;
+
+import com.sun.istack.internal.NotNull;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
+
+/**
+ * 无锁队列
+ * <p>
+ *     Michael-Scott 算法的无界多生产者、多消费者队列。头部为哨兵节点，入队与出队分别只对尾部与头部做 CAS，
+ *     尾指针允许落后并由后续操作推进。不支持 null 元素；<code>size()</code> 需要遍历，为 O(n)；
+ *     迭代器为弱一致性，不会抛出 <code>ConcurrentModificationException</code>。
+ * </p>
+ * <p>
+ *     适合生产者与消费者数量都不确定的场景；单消费者且可以限定容量时，请使用 {@link MpscArrayQueue}。
+ * </p>
+ * <ul>
+ *     <li>2019/4/4 ver 1.0.0 创建。</li>
+ * </ul>
+ * @param <E> 元素类型
+ * @author liuyang
+ * @version 1.0.0
+ * @see MpscArrayQueue
+ * @see SpscArrayQueue
+ */
+public class LockFreeQueue<E> extends AbstractQueue<E> {
+
+    private final static class Node<E> {
+        @SuppressWarnings("rawtypes")
+        private final static AtomicReferenceFieldUpdater<Node, Node> NEXT =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+        private volatile E       item;
+        private volatile Node<E> next;
+
+        private Node(E item) {
+            this.item = item;
+        }
+
+        private boolean casNext(Node<E> expect, Node<E> update) {
+            return NEXT.compareAndSet(this, expect, update);
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private final static AtomicReferenceFieldUpdater<LockFreeQueue, Node> HEAD =
+            AtomicReferenceFieldUpdater.newUpdater(LockFreeQueue.class, Node.class, "head");
+    @SuppressWarnings("rawtypes")
+    private final static AtomicReferenceFieldUpdater<LockFreeQueue, Node> TAIL =
+            AtomicReferenceFieldUpdater.newUpdater(LockFreeQueue.class, Node.class, "tail");
+
+    /** 哨兵节点，其 next 为第一个元素 */
+    private transient volatile Node<E> head;
+    private transient volatile Node<E> tail;
+
+    public LockFreeQueue() {
+        head = tail = new Node<>(null);
+    }
+
+    private static void checkNotNull(Object e) {
+        if (e == null)
+            throw new NullPointerException("Illegal parameter [e], can not be null.");
+    }
+
+    @Override
+    public boolean offer(@NotNull E e) {
+        checkNotNull(e);
+        Node<E> node = new Node<>(e);
+        for (;;) {
+            Node<E> t    = tail;
+            Node<E> next = t.next;
+            if (t != tail)
+                continue;
+            if (next == null) {
+                if (t.casNext(null, node)) {
+                    // 推进尾指针，失败表示其他线程已推进
+                    TAIL.compareAndSet(this, t, node);
+                    return true;
+                }
+            } else {
+                // 尾指针落后，帮助推进
+                TAIL.compareAndSet(this, t, next);
+            }
+        }
+    }
+
+    @Override
+    public E poll() {
+        for (;;) {
+            Node<E> h    = head;
+            Node<E> t    = tail;
+            Node<E> next = h.next;
+            if (h != head)
+                continue;
+            if (next == null)
+                return null;
+            if (h == t) {
+                TAIL.compareAndSet(this, t, next);
+                continue;
+            }
+            E item = next.item;
+            if (HEAD.compareAndSet(this, h, next)) {
+                // next 成为新的哨兵节点，清除元素引用（help GC）
+                next.item = null;
+                // 旧哨兵指向自身，避免跨代的垃圾链
+                h.next = h;
+                return item;
+            }
+        }
+    }
+
+    @Override
+    public E peek() {
+        for (;;) {
+            Node<E> h    = head;
+            Node<E> next = h.next;
+            if (h != head)
+                continue;
+            if (next == null)
+                return null;
+            E item = next.item;
+            // 读取元素期间该节点可能已出队
+            if (h == head && item != null)
+                return item;
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return peek() == null;
+    }
+
+    /**
+     * 取出多个元素
+     * @param action 元素处理
+     * @param limit 最多取出的数量
+     * @return 返回取出的数量。
+     */
+    public int drain(@NotNull Consumer<? super E> action, int limit) {
+        int count = 0;
+        E e;
+        while (count < limit && (e = poll()) != null) {
+            action.accept(e);
+            count++;
+        }
+        return count;
+    }
+
+    // 后继节点；已出队的节点指向自身，此时从头部重新开始
+    private Node<E> successor(Node<E> node) {
+        Node<E> next = node.next;
+        return next == node ? head.next : next;
+    }
+
+    @Override
+    public int size() {
+        int count = 0;
+        for (Node<E> p = successor(head); p != null; p = successor(p)) {
+            if (p.item != null && ++count == Integer.MAX_VALUE)
+                break;
+        }
+        return count;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    private final class Itr implements Iterator<E> {
+        private Node<E> next;
+        private E       nextItem;
+
+        Itr() {
+            advance(head);
+        }
+
+        private void advance(Node<E> from) {
+            // 跳过哨兵与已被取出的节点
+            Node<E> p    = successor(from);
+            E       item = null;
+            while (p != null && (item = p.item) == null)
+                p = successor(p);
+            next     = p;
+            nextItem = item;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public E next() {
+            if (next == null)
+                throw new NoSuchElementException();
+            E item = nextItem;
+            advance(next);
+            return item;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.liuyang.util;
+
+import com.sun.istack.internal.NotNull;
+
+/**
+ * 多生产者、单消费者有界队列
+ * <p>
+ *     基于数组的无锁环形队列：生产者通过 CAS 领取序号后写入槽位，消费者按序号顺序读取，
+ *     入队与出队都不创建对象。队列已满时 <code>offer</code> 返回 false，由调用方决定等待或丢弃。
+ * </p>
+ * <p>
+ *     <i><code>poll</code>、<code>peek</code>、<code>drain</code> 只能由同一个消费者线程调用。</i>
+ *     不支持 null 元素；迭代器为快照，不支持按元素删除。
+ * </p>
+ * <pre>
+ *     MpscArrayQueue&lt;Row&gt; queue = new MpscArrayQueue&lt;&gt;(4096);
+ *     // 多个解析线程
+ *     while (!queue.offer(row)) Thread.yield();
+ *     // 写入线程
+ *     queue.drain(writer::write, 1024);
+ * </pre>
+ * <ul>
+ *     <li>2019/4/4 ver 1.0.0 创建。</li>
+ * </ul>
+ * @param <E> 元素类型
+ * @author liuyang
+ * @version 1.0.0
+ * @see SpscArrayQueue
+ * @see LockFreeQueue
+ */
+public class MpscArrayQueue<E> extends ConcurrentArrayQueue<E> {
+
+    /**
+     * 创建队列
+     * @param capacity 容量，向上取 2 的幂
+     */
+    public MpscArrayQueue(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    public boolean offer(@NotNull E e) {
+        checkNotNull(e);
+        long position;
+        do {
+            position = producerIndex;
+            if (position >= producerLimit) {
+                // 缓存的上限已用完，重新读取消费者序号
+                long limit = consumerIndex + capacity;
+                if (position >= limit)
+                    return false;
+                producerLimit = limit;
+            }
+        } while (!PRODUCER_INDEX.compareAndSet(this, position, position + 1));
+        buffer.lazySet((int) position & mask, e);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        long position = consumerIndex;
+        int  index    = (int) position & mask;
+        E    e        = buffer.get(index);
+        if (e == null) {
+            if (position == producerIndex)
+                return null;
+            // 序号已被领取但元素尚未写入，等待生产者完成写入
+            do {
+                e = buffer.get(index);
+            } while (e == null);
+        }
+        buffer.lazySet(index, null);
+        CONSUMER_INDEX.lazySet(this, position + 1);
+        return e;
+    }
+
+    @Override
+    public E peek() {
+        long position = consumerIndex;
+        int  index    = (int) position & mask;
+        E    e        = buffer.get(index);
+        if (e == null && position != producerIndex) {
+            do {
+                e = buffer.get(index);
+            } while (e == null);
+        }
+        return e;
+    }
+}
@@ -0,0 +1,62 @@
+package com.liuyang.util;
+
+import com.sun.istack.internal.NotNull;
+
+/**
+ * 单生产者、单消费者有界队列
+ * <p>
+ *     基于数组的环形队列，生产者与消费者都不需要 CAS：生产者只判断下一个槽位是否空闲，
+ *     消费者读取后清空槽位，序号只用 <code>lazySet</code> 发布。适合两个固定线程之间的流水线，
+ *     如读取线程与解析线程。
+ * </p>
+ * <p>
+ *     <i><code>offer</code> 只能由同一个生产者线程调用；<code>poll</code>、<code>peek</code>、<code>drain</code>
+ *     只能由同一个消费者线程调用。</i>不支持 null 元素；迭代器为快照，不支持按元素删除。
+ * </p>
+ * <ul>
+ *     <li>2019/4/4 ver 1.0.0 创建。</li>
+ * </ul>
+ * @param <E> 元素类型
+ * @author liuyang
+ * @version 1.0.0
+ * @see MpscArrayQueue
+ */
+public class SpscArrayQueue<E> extends ConcurrentArrayQueue<E> {
+
+    /**
+     * 创建队列
+     * @param capacity 容量，向上取 2 的幂
+     */
+    public SpscArrayQueue(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    public boolean offer(@NotNull E e) {
+        checkNotNull(e);
+        long position = producerIndex;
+        int  index    = (int) position & mask;
+        if (buffer.get(index) != null)
+            return false;
+        buffer.lazySet(index, e);
+        PRODUCER_INDEX.lazySet(this, position + 1);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        long position = consumerIndex;
+        int  index    = (int) position & mask;
+        E    e        = buffer.get(index);
+        if (e == null)
+            return null;
+        buffer.lazySet(index, null);
+        CONSUMER_INDEX.lazySet(this, position + 1);
+        return e;
+    }
+
+    @Override
+    public E peek() {
+        return buffer.get((int) consumerIndex & mask);
+    }
+}
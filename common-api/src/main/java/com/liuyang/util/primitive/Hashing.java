@@ -0,0 +1,48 @@
+package com.liuyang.util.primitive;
+
+/**
+ * 原始类型哈希表的公共计算
+ * <ul>
+ *     <li>2019/4/5 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+final class Hashing {
+
+    /** 2^32 / 黄金分割比 */
+    private final static int  INT_PHI  = 0x9E3779B9;
+    private final static long LONG_PHI = 0x9E3779B97F4A7C15L;
+
+    private final static int  MAX_CAPACITY = 1 << 30;
+
+    private Hashing() {
+    }
+
+    /**
+     * 乘法散列，连续的键（自增主键等）也能均匀分布到低位
+     */
+    static int mix(int key) {
+        int h = key * INT_PHI;
+        return h ^ (h >>> 16);
+    }
+
+    static int mix(long key) {
+        long h = key * LONG_PHI;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * 容纳指定数量的元素所需的表大小（2 的幂，装载因子 3/4）
+     */
+    static int tableSize(int expectedSize) {
+        long capacity = Math.max(4, (long) expectedSize * 4 / 3 + 1);
+        if (capacity > MAX_CAPACITY)
+            throw new IllegalArgumentException("Illegal parameter [expectedSize = " + expectedSize + "], too large.");
+        return Integer.highestOneBit((int) capacity - 1) << 1;
+    }
+
+    static int threshold(int capacity) {
+        return capacity == MAX_CAPACITY ? MAX_CAPACITY - 1 : capacity - (capacity >>> 2);
+    }
+}
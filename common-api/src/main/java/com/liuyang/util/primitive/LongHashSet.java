@@ -0,0 +1,220 @@
+package com.liuyang.util.primitive;
+
+import com.sun.istack.internal.NotNull;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * long 集合
+ * <p>
+ *     开放寻址（线性探测）实现，元素存放在 <code>long[]</code> 中，不装箱，适合去重、存在性判断。
+ *     容量为 2 的幂，元素数量超过 3/4 时扩容一倍；删除采用后移（backward shift）。元素 0 单独记录。非线程安全。
+ * </p>
+ * <ul>
+ *     <li>2019/4/5 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class LongHashSet {
+
+    private final static int DEFAULT_CAPACITY = 16;
+
+    private long[]  keys;
+    private int     mask;
+    private int     size;
+    private int     threshold;
+    private boolean hasZero;
+
+    public LongHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 创建集合
+     * @param expectedSize 预计的元素数量，在此数量内不会扩容
+     */
+    public LongHashSet(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Illegal parameter [expectedSize = " + expectedSize + "], must not be negative.");
+        allocate(Hashing.tableSize(expectedSize));
+    }
+
+    public static LongHashSet of(@NotNull long... values) {
+        LongHashSet set = new LongHashSet(values.length);
+        set.addAll(values);
+        return set;
+    }
+
+    private void allocate(int capacity) {
+        keys      = new long[capacity];
+        mask      = capacity - 1;
+        threshold = Hashing.threshold(capacity);
+    }
+
+    // 返回元素所在的槽，不存在时返回 ~空槽
+    private int slot(long key) {
+        long[] keys = this.keys;
+        int    i    = Hashing.mix(key) & mask;
+        long   k;
+        while ((k = keys[i]) != 0) {
+            if (k == key)
+                return i;
+            i = (i + 1) & mask;
+        }
+        return ~i;
+    }
+
+    public boolean contains(long value) {
+        return value == 0 ? hasZero : slot(value) >= 0;
+    }
+
+    /**
+     * 添加元素
+     * @param value 元素
+     * @return 返回 true 表示元素原来不存在。
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (hasZero)
+                return false;
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int i = slot(value);
+        if (i >= 0)
+            return false;
+        keys[~i] = value;
+        if (++size > threshold)
+            rehash(keys.length << 1);
+        return true;
+    }
+
+    /**
+     * 批量添加
+     * @param values 元素
+     * @return 返回新增的数量。
+     */
+    public int addAll(@NotNull long[] values) {
+        ensureCapacity(size + values.length);
+        int count = 0;
+        for (long value : values) {
+            if (add(value))
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * 删除元素
+     * @param value 元素
+     * @return 返回 true 表示元素原来存在。
+     */
+    public boolean remove(long value) {
+        if (value == 0) {
+            if (!hasZero)
+                return false;
+            hasZero = false;
+            size--;
+            return true;
+        }
+        int i = slot(value);
+        if (i < 0)
+            return false;
+        shiftKeys(i);
+        size--;
+        return true;
+    }
+
+    // 后移删除：把探测链上后面的元素移入空出的槽
+    private void shiftKeys(int gap) {
+        long[] keys = this.keys;
+        int    i    = gap;
+        for (;;) {
+            i = (i + 1) & mask;
+            long k = keys[i];
+            if (k == 0)
+                break;
+            int home = Hashing.mix(k) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = k;
+                gap = i;
+            }
+        }
+        keys[gap] = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        allocate(capacity);
+        for (long k : oldKeys) {
+            if (k != 0) {
+                int i = Hashing.mix(k) & mask;
+                while (keys[i] != 0)
+                    i = (i + 1) & mask;
+                keys[i] = k;
+            }
+        }
+    }
+
+    /**
+     * 确保容量，批量添加前调用可避免多次扩容
+     * @param expectedSize 预计的元素数量
+     */
+    public void ensureCapacity(int expectedSize) {
+        int capacity = Hashing.tableSize(expectedSize);
+        if (capacity > keys.length)
+            rehash(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 清空，保留容量
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        hasZero = false;
+        size    = 0;
+    }
+
+    public void forEach(@NotNull LongConsumer action) {
+        if (hasZero)
+            action.accept(0);
+        for (long k : keys) {
+            if (k != 0)
+                action.accept(k);
+        }
+    }
+
+    /**
+     * 复制为数组
+     * @return 返回新的数组，顺序不确定。
+     */
+    public long[] toArray() {
+        long[] result = new long[size];
+        int    n      = 0;
+        if (hasZero)
+            result[n++] = 0;
+        for (long k : keys) {
+            if (k != 0)
+                result[n++] = k;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        long[] values = toArray();
+        Arrays.sort(values);
+        return Arrays.toString(values);
+    }
+}
@@ -0,0 +1,257 @@
+package com.liuyang.util.primitive;
+
+import com.sun.istack.internal.NotNull;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+/**
+ * long 列表
+ * <p>
+ *     可增长的 <code>long[]</code>，元素不装箱。容量不足时按 1.5 倍扩容，<code>clear()</code> 只重置长度，
+ *     可在批次之间复用。非线程安全。
+ * </p>
+ * <ul>
+ *     <li>2019/4/5 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class LongList {
+
+    private final static long[] EMPTY = {};
+
+    private long[] elements;
+    private int   size;
+
+    public LongList() {
+        this.elements = EMPTY;
+    }
+
+    /**
+     * 创建列表
+     * @param capacity 初始容量
+     */
+    public LongList(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Illegal parameter [capacity = " + capacity + "], must not be negative.");
+        this.elements = capacity == 0 ? EMPTY : new long[capacity];
+    }
+
+    /**
+     * 使用数组的副本创建列表
+     * @param values 数组
+     * @return 返回列表。
+     */
+    public static LongList of(@NotNull long... values) {
+        LongList list = new LongList(values.length);
+        list.addAll(values, 0, values.length);
+        return list;
+    }
+
+    private void rangeCheck(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("index out of range [index = " + index + ", size: " + size + "]");
+    }
+
+    /**
+     * 确保容量
+     * @param capacity 最小容量
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > elements.length) {
+            int grown = elements.length + (elements.length >> 1) + 1;
+            elements = Arrays.copyOf(elements, Math.max(grown, capacity));
+        }
+    }
+
+    public void add(long value) {
+        if (size == elements.length)
+            ensureCapacity(size + 1);
+        elements[size++] = value;
+    }
+
+    public void add(int index, long value) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException("index out of range [index = " + index + ", size: " + size + "]");
+        ensureCapacity(size + 1);
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = value;
+        size++;
+    }
+
+    /**
+     * 批量追加
+     * @param values 数组
+     * @param offset 起始位置
+     * @param length 数量
+     */
+    public void addAll(@NotNull long[] values, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > values.length)
+            throw new IndexOutOfBoundsException("index out of range [offset = " + offset + ", length = " + length
+                    + ", size: " + values.length + "]");
+        ensureCapacity(size + length);
+        System.arraycopy(values, offset, elements, size, length);
+        size += length;
+    }
+
+    public void addAll(@NotNull long[] values) {
+        addAll(values, 0, values.length);
+    }
+
+    public void addAll(@NotNull LongList other) {
+        addAll(other.elements, 0, other.size);
+    }
+
+    public long get(int index) {
+        rangeCheck(index);
+        return elements[index];
+    }
+
+    /**
+     * 设置元素
+     * @param index 下标
+     * @param value 元素
+     * @return 返回原来的元素。
+     */
+    public long set(int index, long value) {
+        rangeCheck(index);
+        long old = elements[index];
+        elements[index] = value;
+        return old;
+    }
+
+    /**
+     * 删除元素，后面的元素前移
+     * @param index 下标
+     * @return 返回被删除的元素。
+     */
+    public long removeAt(int index) {
+        rangeCheck(index);
+        long old = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+        return old;
+    }
+
+    /**
+     * 删除最后一个元素
+     * @return 返回被删除的元素。
+     */
+    public long removeLast() {
+        if (size == 0)
+            throw new IndexOutOfBoundsException("index out of range [index = -1, size: 0]");
+        return elements[--size];
+    }
+
+    public int indexOf(long value) {
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == value)
+                return i;
+        }
+        return -1;
+    }
+
+    public boolean contains(long value) {
+        return indexOf(value) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 清空列表，保留容量
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * 释放多余的容量
+     */
+    public void trimToSize() {
+        if (size < elements.length)
+            elements = size == 0 ? EMPTY : Arrays.copyOf(elements, size);
+    }
+
+    public void sort() {
+        Arrays.sort(elements, 0, size);
+    }
+
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < size; i++)
+            sum += elements[i];
+        return sum;
+    }
+
+    public void forEach(@NotNull LongConsumer action) {
+        for (int i = 0; i < size; i++)
+            action.accept(elements[i]);
+    }
+
+    public LongStream stream() {
+        return Arrays.stream(elements, 0, size);
+    }
+
+    /**
+     * 复制为数组
+     * @return 返回长度为 size 的新数组。
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * 复制到指定数组
+     * @param dest 目标数组，长度不足时创建新的数组
+     * @return 返回目标数组。
+     */
+    public long[] toArray(long[] dest) {
+        if (dest.length < size)
+            return toArray();
+        System.arraycopy(elements, 0, dest, 0, size);
+        return dest;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof LongList))
+            return false;
+        LongList other = (LongList) o;
+        if (other.size != size)
+            return false;
+        for (int i = 0; i < size; i++) {
+            if (elements[i] != other.elements[i])
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++)
+            hash = 31 * hash + Long.hashCode(elements[i]);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(size * 4 + 2).append('[');
+        for (int i = 0; i < size; i++) {
+            if (i > 0)
+                builder.append(", ");
+            builder.append(elements[i]);
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,329 @@
+package com.liuyang.util.primitive;
+
+import com.sun.istack.internal.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Long 到 long 的哈希表
+ * <p>
+ *     开放寻址（线性探测）实现，键与值分别存放在两个原始类型数组中，不装箱、没有节点对象。
+ *     容量为 2 的幂，元素数量超过 3/4 时扩容一倍；删除采用后移（backward shift），不留删除标记，
+ *     探测链不会随删除次数变长。键 0 用作空槽标记，单独存放。
+ * </p>
+ * <p>
+ *     不存在的键返回 {@link #noEntryValue()}（默认 0），需要区分时使用 {@link #containsKey(long)}。非线程安全。
+ * </p>
+ * <ul>
+ *     <li>2019/4/5 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class LongLongMap {
+
+    /**
+     * 键值处理
+     */
+    @FunctionalInterface
+    public interface LongLongConsumer {
+        void accept(long key, long value);
+    }
+
+    private final static int DEFAULT_CAPACITY = 16;
+
+    private final long noEntryValue;
+    private long[]     keys;
+    private long[]     values;
+    private int        mask;
+    private int        size;
+    private int        threshold;
+    private boolean    hasZeroKey;
+    private long       zeroValue;
+
+    public LongLongMap() {
+        this(DEFAULT_CAPACITY, 0);
+    }
+
+    public LongLongMap(int expectedSize) {
+        this(expectedSize, 0);
+    }
+
+    /**
+     * 创建哈希表
+     * @param expectedSize 预计的元素数量，在此数量内不会扩容
+     * @param noEntryValue 键不存在时返回的值
+     */
+    public LongLongMap(int expectedSize, long noEntryValue) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Illegal parameter [expectedSize = " + expectedSize + "], must not be negative.");
+        this.noEntryValue = noEntryValue;
+        allocate(Hashing.tableSize(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys      = new long[capacity];
+        values    = new long[capacity];
+        mask      = capacity - 1;
+        threshold = Hashing.threshold(capacity);
+    }
+
+    public long noEntryValue() {
+        return noEntryValue;
+    }
+
+    // 返回键所在的槽，不存在时返回 ~空槽
+    private int slot(long key) {
+        long[] keys = this.keys;
+        int   i    = Hashing.mix(key) & mask;
+        long   k;
+        while ((k = keys[i]) != 0) {
+            if (k == key)
+                return i;
+            i = (i + 1) & mask;
+        }
+        return ~i;
+    }
+
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZeroKey : slot(key) >= 0;
+    }
+
+    public long get(long key) {
+        return getOrDefault(key, noEntryValue);
+    }
+
+    public long getOrDefault(long key, long defaultValue) {
+        if (key == 0)
+            return hasZeroKey ? zeroValue : defaultValue;
+        int i = slot(key);
+        return i >= 0 ? values[i] : defaultValue;
+    }
+
+    /**
+     * 放入键值
+     * @param key 键
+     * @param value 值
+     * @return 返回原来的值，不存在时返回 noEntryValue。
+     */
+    public long put(long key, long value) {
+        if (key == 0) {
+            long old = hasZeroKey ? zeroValue : noEntryValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return old;
+        }
+        int i = slot(key);
+        if (i >= 0) {
+            long old = values[i];
+            values[i] = value;
+            return old;
+        }
+        insert(~i, key, value);
+        return noEntryValue;
+    }
+
+    /**
+     * 键不存在时放入
+     * @param key 键
+     * @param value 值
+     * @return 返回 true 表示已放入。
+     */
+    public boolean putIfAbsent(long key, long value) {
+        if (containsKey(key))
+            return false;
+        put(key, value);
+        return true;
+    }
+
+    /**
+     * 累加，键不存在时以 0 为初始值（计数、求和时避免一次 get 与一次 put）
+     * @param key 键
+     * @param delta 增量
+     * @return 返回累加后的值。
+     */
+    public long addTo(long key, long delta) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                zeroValue  = 0;
+                size++;
+            }
+            return zeroValue += delta;
+        }
+        int i = slot(key);
+        if (i >= 0)
+            return values[i] += delta;
+        insert(~i, key, delta);
+        return delta;
+    }
+
+    private void insert(int i, long key, long value) {
+        keys[i]   = key;
+        values[i] = value;
+        if (++size > threshold)
+            rehash(keys.length << 1);
+    }
+
+    /**
+     * 删除键
+     * @param key 键
+     * @return 返回被删除的值，不存在时返回 noEntryValue。
+     */
+    public long remove(long key) {
+        if (key == 0) {
+            if (!hasZeroKey)
+                return noEntryValue;
+            hasZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+        int i = slot(key);
+        if (i < 0)
+            return noEntryValue;
+        long old = values[i];
+        shiftKeys(i);
+        size--;
+        return old;
+    }
+
+    // 后移删除：把探测链上后面的元素移入空出的槽
+    private void shiftKeys(int gap) {
+        long[] keys   = this.keys;
+        long[] values = this.values;
+        int   i      = gap;
+        for (;;) {
+            i = (i + 1) & mask;
+            long k = keys[i];
+            if (k == 0)
+                break;
+            int home = Hashing.mix(k) & mask;
+            // home 不在 (gap, i] 之间时，该元素可以移入 gap
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap]   = k;
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys   = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            long k = oldKeys[j];
+            if (k != 0) {
+                int i = Hashing.mix(k) & mask;
+                while (keys[i] != 0)
+                    i = (i + 1) & mask;
+                keys[i]   = k;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * 确保容量，批量放入前调用可避免多次扩容
+     * @param expectedSize 预计的元素数量
+     */
+    public void ensureCapacity(int expectedSize) {
+        int capacity = Hashing.tableSize(expectedSize);
+        if (capacity > keys.length)
+            rehash(capacity);
+    }
+
+    /**
+     * 批量放入
+     * @param keys 键
+     * @param values 值，与键一一对应
+     */
+    public void putAll(@NotNull long[] keys, @NotNull long[] values) {
+        if (keys.length != values.length)
+            throw new IllegalArgumentException("Illegal parameter [keys.length = " + keys.length
+                    + ", values.length = " + values.length + "], must be equal.");
+        ensureCapacity(size + keys.length);
+        for (int i = 0; i < keys.length; i++)
+            put(keys[i], values[i]);
+    }
+
+    public void putAll(@NotNull LongLongMap other) {
+        ensureCapacity(size + other.size);
+        other.forEach(this::put);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 清空，保留容量
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        hasZeroKey = false;
+        size       = 0;
+    }
+
+    public void forEach(@NotNull LongLongConsumer action) {
+        if (hasZeroKey)
+            action.accept(0, zeroValue);
+        long[] keys   = this.keys;
+        long[] values = this.values;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0)
+                action.accept(keys[i], values[i]);
+        }
+    }
+
+    /**
+     * 所有的键
+     * @return 返回新的数组，顺序不确定。
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int   n      = 0;
+        if (hasZeroKey)
+            result[n++] = 0;
+        for (long k : keys) {
+            if (k != 0)
+                result[n++] = k;
+        }
+        return result;
+    }
+
+    /**
+     * 所有的值
+     * @return 返回新的数组，与 {@link #keys()} 顺序一致。
+     */
+    public long[] values() {
+        long[] result = new long[size];
+        int   n      = 0;
+        if (hasZeroKey)
+            result[n++] = zeroValue;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0)
+                result[n++] = values[i];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(size * 8 + 2).append('{');
+        forEach((k, v) -> {
+            if (builder.length() > 1)
+                builder.append(", ");
+            builder.append(k).append('=').append(v);
+        });
+        return builder.append('}').toString();
+    }
+}
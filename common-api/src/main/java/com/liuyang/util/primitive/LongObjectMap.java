@@ -0,0 +1,281 @@
+package com.liuyang.util.primitive;
+
+import com.sun.istack.internal.NotNull;
+
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+/**
+ * long 到对象的哈希表
+ * <p>
+ *     开放寻址（线性探测）实现，键为原始类型数组，不装箱、没有节点对象，适合以数值主键索引对象的缓存。
+ *     容量为 2 的幂，元素数量超过 3/4 时扩容一倍；删除采用后移（backward shift）。键 0 单独存放。
+ *     值不能为 null，<code>get</code> 返回 null 表示键不存在。非线程安全。
+ * </p>
+ * <ul>
+ *     <li>2019/4/5 ver 1.0.0 创建。</li>
+ * </ul>
+ * @param <V> 值类型
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class LongObjectMap<V> {
+
+    /**
+     * 键值处理
+     * @param <V> 值类型
+     */
+    @FunctionalInterface
+    public interface LongObjectConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    private final static int DEFAULT_CAPACITY = 16;
+
+    private long[]   keys;
+    private Object[] values;
+    private int      mask;
+    private int      size;
+    private int      threshold;
+    private V        zeroValue;
+
+    public LongObjectMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 创建哈希表
+     * @param expectedSize 预计的元素数量，在此数量内不会扩容
+     */
+    public LongObjectMap(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Illegal parameter [expectedSize = " + expectedSize + "], must not be negative.");
+        allocate(Hashing.tableSize(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys      = new long[capacity];
+        values    = new Object[capacity];
+        mask      = capacity - 1;
+        threshold = Hashing.threshold(capacity);
+    }
+
+    private static void checkNotNull(Object value) {
+        if (value == null)
+            throw new NullPointerException("Illegal parameter [value], can not be null.");
+    }
+
+    // 返回键所在的槽，不存在时返回 ~空槽
+    private int slot(long key) {
+        long[] keys = this.keys;
+        int    i    = Hashing.mix(key) & mask;
+        long   k;
+        while ((k = keys[i]) != 0) {
+            if (k == key)
+                return i;
+            i = (i + 1) & mask;
+        }
+        return ~i;
+    }
+
+    public boolean containsKey(long key) {
+        return key == 0 ? zeroValue != null : slot(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == 0)
+            return zeroValue;
+        int i = slot(key);
+        return i >= 0 ? (V) values[i] : null;
+    }
+
+    public V getOrDefault(long key, V defaultValue) {
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * 放入键值
+     * @param key 键
+     * @param value 值，不能为 null
+     * @return 返回原来的值，不存在时返回 null。
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, @NotNull V value) {
+        checkNotNull(value);
+        if (key == 0) {
+            V old = zeroValue;
+            if (old == null)
+                size++;
+            zeroValue = value;
+            return old;
+        }
+        int i = slot(key);
+        if (i >= 0) {
+            V old = (V) values[i];
+            values[i] = value;
+            return old;
+        }
+        insert(~i, key, value);
+        return null;
+    }
+
+    /**
+     * 键不存在时计算并放入
+     * @param key 键
+     * @param function 计算函数，返回 null 时不放入
+     * @return 返回已有的或新计算的值。
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(long key, @NotNull LongFunction<? extends V> function) {
+        if (key == 0) {
+            if (zeroValue == null && (zeroValue = function.apply(key)) != null)
+                size++;
+            return zeroValue;
+        }
+        int i = slot(key);
+        if (i >= 0)
+            return (V) values[i];
+        V value = function.apply(key);
+        if (value != null)
+            // 计算函数可能修改了本表，重新定位
+            put(key, value);
+        return value;
+    }
+
+    private void insert(int i, long key, Object value) {
+        keys[i]   = key;
+        values[i] = value;
+        if (++size > threshold)
+            rehash(keys.length << 1);
+    }
+
+    /**
+     * 删除键
+     * @param key 键
+     * @return 返回被删除的值，不存在时返回 null。
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == 0) {
+            V old = zeroValue;
+            if (old != null) {
+                zeroValue = null;
+                size--;
+            }
+            return old;
+        }
+        int i = slot(key);
+        if (i < 0)
+            return null;
+        V old = (V) values[i];
+        shiftKeys(i);
+        size--;
+        return old;
+    }
+
+    // 后移删除：把探测链上后面的元素移入空出的槽
+    private void shiftKeys(int gap) {
+        long[]   keys   = this.keys;
+        Object[] values = this.values;
+        int      i      = gap;
+        for (;;) {
+            i = (i + 1) & mask;
+            long k = keys[i];
+            if (k == 0)
+                break;
+            int home = Hashing.mix(k) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap]   = k;
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap]   = 0;
+        values[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        long[]   oldKeys   = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            long k = oldKeys[j];
+            if (k != 0) {
+                int i = Hashing.mix(k) & mask;
+                while (keys[i] != 0)
+                    i = (i + 1) & mask;
+                keys[i]   = k;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * 确保容量，批量放入前调用可避免多次扩容
+     * @param expectedSize 预计的元素数量
+     */
+    public void ensureCapacity(int expectedSize) {
+        int capacity = Hashing.tableSize(expectedSize);
+        if (capacity > keys.length)
+            rehash(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 清空，保留容量
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(values, null);
+        zeroValue = null;
+        size      = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(@NotNull LongObjectConsumer<? super V> action) {
+        if (zeroValue != null)
+            action.accept(0, zeroValue);
+        long[]   keys   = this.keys;
+        Object[] values = this.values;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0)
+                action.accept(keys[i], (V) values[i]);
+        }
+    }
+
+    /**
+     * 所有的键
+     * @return 返回新的数组，顺序不确定。
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int    n      = 0;
+        if (zeroValue != null)
+            result[n++] = 0;
+        for (long k : keys) {
+            if (k != 0)
+                result[n++] = k;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(size * 16 + 2).append('{');
+        forEach((k, v) -> {
+            if (builder.length() > 1)
+                builder.append(", ");
+            builder.append(k).append('=').append(v);
+        });
+        return builder.append('}').toString();
+    }
+}
@@ -6,6 +6,8 @@ import com.liuyang.ds.Schema;
 import com.liuyang.ds.Type;
 import com.liuyang.ds.attr.Column;
 import com.liuyang.ds.sets.TextRow;
+import com.liuyang.metrics.Counter;
+import com.liuyang.metrics.Metrics;
 import com.liuyang.tools.StringUtils;
 import com.sun.istack.internal.NotNull;
 
@@ -20,12 +22,16 @@ import java.util.stream.Stream;
  * <ul>
  *     <li>2019/1/21 ver 1.0.0 创建。</li>
  *     <li>2019/1/22 ver 1.0.1 将 Row 替换为 CSVRecord 操作。</li>
+ *     <li>2019/3/31 ver 1.0.2 增加度量：解析行数与字符数。</li>
  * </ul>
  * @author liuyang
- * @version 1.0.1
+ * @version 1.0.2
  */
 public final class CSVReader implements DataSet, Closeable {
 
+    private final static Counter PARSE_ROWS  = Metrics.counter("csv.parse.rows");
+    private final static Counter PARSE_CHARS = Metrics.counter("csv.parse.chars");
+
     public static CSVReader open(@NotNull File csvFile, boolean containsHeader) {
         if (!csvFile.exists())
             throw new IllegalArgumentException(csvFile + " has not been found.");
@@ -136,6 +142,10 @@ public final class CSVReader implements DataSet, Closeable {
     }
 
     private CSVRecord createRecord(String text) {
+        if (Metrics.ENABLED) {
+            PARSE_ROWS.increment();
+            PARSE_CHARS.add(text.length());
+        }
         row.parse(StringUtils.split(text, delimiter));
         return new CSVRecordImpl(row.getModifiedCount(), text, row);
     }
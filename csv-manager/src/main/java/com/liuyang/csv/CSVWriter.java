@@ -13,6 +13,7 @@ import java.util.stream.Stream;
  * CSV 写入器
  * <ul>
  *     <li>2019/1/21 ver 1.0.0 创建。</li>
+ *     <li>2019/3/18 ver 1.0.1 新增功能 <code>write(Row)</code> 。</li>
  * </ul>
  * @author liuyang
  * @version 1.0.1
@@ -108,4 +109,32 @@ public class CSVWriter implements Closeable {
             handleException(e);
         }
     }
+
+    /**
+     * 写入数据行
+     * <p>
+     *     各字段通过 <code>Row.getString</code> 输出，日期时间字段按 <code>yyyy-MM-dd</code>、
+     *     <code>yyyy-MM-dd HH:mm:ss[.SSSSSS]</code> 格式化，空值（null）输出为空字段。
+     * </p>
+     * @param row 指定数据行
+     */
+    public void write(Row row) {
+        if (row == null)
+            return;
+        try {
+            open();
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0, size = row.header().length; i < size; i++) {
+                if (i > 0)
+                    builder.append(delimiter);
+                // 空值输出为空字段
+                if (!row.isNull(i))
+                    builder.append(row.getString(i));
+            }
+            builder.append(lineSeparator);
+            writer.write(builder.toString());
+        } catch (IOException e) {
+            handleException(e);
+        }
+    }
 }
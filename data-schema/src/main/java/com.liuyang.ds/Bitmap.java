@@ -0,0 +1,200 @@
+package com.liuyang.ds;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * 位图
+ * <p>
+ *     以 <code>long[]</code> 按位存储，主要用于标识数据行或数据批次中的空值（null），
+ *     判断某一位是否被标识只需要一次位运算，遍历非空数据时可以通过 <code>nextClearBit</code> 跳过空值，不需要装箱。
+ * </p>
+ * <p>
+ *     <i>该类非线程安全，与数据行一样，由单个线程持有。</i>
+ * </p>
+ * <ul>
+ *     <li>2019/3/20  ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public final class Bitmap implements Serializable {
+
+    private final static int ADDRESS_BITS_PER_WORD = 6;
+
+    private long[] words;
+    private int    size;
+
+    /**
+     * 创建位图
+     * @param size 位数，创建后所有位均为 0
+     */
+    public Bitmap(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("Illegal parameter [size = " + size + "].");
+        this.size  = size;
+        this.words = new long[((size - 1) >> ADDRESS_BITS_PER_WORD) + 1];
+    }
+
+    private void rangeCheck(int index) {
+        if (index >= size || index < 0)
+            throw new IndexOutOfBoundsException("index out of range [index = " + index + ", size: " + size + "]");
+    }
+
+    /**
+     * 获取指定位
+     * <p>
+     *     <i>为了保证效率，此处不做范围检查，调用方需要自行保证索引合法。</i>
+     * </p>
+     * @param index 索引
+     * @return 返回 true 表示该位已被标识，返回 false 表示未被标识。
+     */
+    public boolean get(int index) {
+        return (words[index >> ADDRESS_BITS_PER_WORD] & (1L << index)) != 0;
+    }
+
+    /**
+     * 标识指定位
+     * @param index 索引
+     */
+    public void set(int index) {
+        rangeCheck(index);
+        words[index >> ADDRESS_BITS_PER_WORD] |= (1L << index);
+    }
+
+    /**
+     * 设置指定位
+     * @param index 索引
+     * @param value 取值：true 表示标识，false 表示清除。
+     */
+    public void set(int index, boolean value) {
+        if (value) {
+            set(index);
+        } else {
+            clear(index);
+        }
+    }
+
+    /**
+     * 清除指定位
+     * @param index 索引
+     */
+    public void clear(int index) {
+        rangeCheck(index);
+        words[index >> ADDRESS_BITS_PER_WORD] &= ~(1L << index);
+    }
+
+    /**
+     * 清除所有位
+     */
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    /**
+     * 从另一个位图复制指定范围的位
+     * @param src 源位图
+     * @param srcPos 源位图起始位置
+     * @param destPos 当前位图起始位置
+     * @param length 复制的位数
+     */
+    public void copy(Bitmap src, int srcPos, int destPos, int length) {
+        for (int i = 0; i < length; i++) {
+            set(destPos + i, src.get(srcPos + i));
+        }
+    }
+
+    /**
+     * 获取被标识的位数
+     * @return 返回被标识的位数。
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+    /**
+     * 是否没有任何位被标识
+     * @return 返回 true 表示没有任何位被标识。
+     */
+    public boolean isEmpty() {
+        for (long word : words)
+            if (word != 0) return false;
+        return true;
+    }
+
+    /**
+     * 查找下一个被标识的位
+     * @param fromIndex 起始位置（包含）
+     * @return 返回下一个被标识位的索引，没有时返回 -1。
+     */
+    public int nextSetBit(int fromIndex) {
+        if (fromIndex >= size)
+            return -1;
+        int  u    = fromIndex >> ADDRESS_BITS_PER_WORD;
+        long word = words[u] & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                int index = (u << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+                return index < size ? index : -1;
+            }
+            if (++u == words.length)
+                return -1;
+            word = words[u];
+        }
+    }
+
+    /**
+     * 查找下一个未被标识的位
+     * @param fromIndex 起始位置（包含）
+     * @return 返回下一个未被标识位的索引，没有时返回 -1。
+     */
+    public int nextClearBit(int fromIndex) {
+        if (fromIndex >= size)
+            return -1;
+        int  u    = fromIndex >> ADDRESS_BITS_PER_WORD;
+        long word = ~words[u] & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                int index = (u << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+                return index < size ? index : -1;
+            }
+            if (++u == words.length)
+                return -1;
+            word = ~words[u];
+        }
+    }
+
+    /**
+     * 获取位数
+     * @return 返回位数。
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof Bitmap))
+            return false;
+        Bitmap other = (Bitmap) o;
+        return size == other.size && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * size + Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(size);
+        for (int i = 0; i < size; i++)
+            builder.append(get(i) ? '1' : '0');
+        return builder.toString();
+    }
+}
@@ -0,0 +1,402 @@
+package com.liuyang.ds;
+
+import com.liuyang.tools.HashUtils;
+import com.sun.istack.internal.NotNull;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * 行键选取器
+ * <p>
+ *     根据表头与指定字段一次性确定字段下标和类型，之后从每一行数据中选取这些字段组成复合键：
+ *     <ul>
+ *         <li><code>extract</code> 生成保持顺序的紧凑字节键 {@link RowKey}；</li>
+ *         <li><code>hash</code> 直接计算键的 64 位 xxHash，不创建键实例，适用于分区；</li>
+ *         <li><code>longKey</code> 单个整数类字段时直接以 long 作为键；</li>
+ *         <li><code>compare</code> 按字段逐个比较（空值最小），不需要编码。</li>
+ *     </ul>
+ *     编码格式：每个字段先写入 1 个字节的空值标识（0 表示空值，1 表示非空），整数类按大端序写入并翻转符号位，
+ *     浮点数按 IEEE 754 位翻转后写入，字符串（UTF-8）与字节数组中的 0 转义为 <code>0x00 0xFF</code> 并以
+ *     <code>0x00 0x00</code> 结束；DECIMAL 按精确值写入符号、十进制指数与有效数字（去掉末尾的 0，负数取反），
+ *     不经过 double。因此按无符号字节比较的字典序与字段值的排序一致。
+ * </p>
+ * <p>
+ *     编码缓冲区按线程复用，选取器本身可以在多线程间共享。
+ * </p>
+ * <ul>
+ *     <li>2019/3/25  ver 1.0.0 创建。</li>
+ *     <li>2019/4/10  ver 1.0.1 DECIMAL 按精确值比较与编码，超出 double 精度的不同值不再得到相同的键。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.1
+ * @see RowKey
+ */
+public final class KeyExtractor implements Comparator<Row> {
+
+    /**
+     * 按字段名称创建选取器
+     * @param header 表头
+     * @param fieldNames 键字段，为空或 "*" 时选取所有字段
+     * @return 返回选取器。
+     * @exception IllegalArgumentException 如果表头中没有指定的字段。
+     */
+    public static KeyExtractor create(@NotNull Schema[] header, String... fieldNames) {
+        if (fieldNames.length == 0 || "*".equals(fieldNames[0]))
+            return new KeyExtractor(header, IntStream.range(0, header.length).toArray());
+        Map<String, Integer> names = new HashMap<>(header.length * 2);
+        for (int i = 0; i < header.length; i++)
+            names.putIfAbsent(header[i].getName(), i);
+        int[] index = new int[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            Integer found = names.get(fieldNames[i]);
+            if (found == null)
+                throw new IllegalArgumentException(
+                        "header has not contains field as ([" + i + "] " + fieldNames[i] + ").");
+            index[i] = found;
+        }
+        return new KeyExtractor(header, index);
+    }
+
+    /**
+     * 按字段下标创建选取器
+     * @param header 表头
+     * @param index 键字段下标
+     * @return 返回选取器。
+     */
+    public static KeyExtractor create(@NotNull Schema[] header, int... index) {
+        for (int i : index) {
+            if (i >= header.length || i < 0)
+                throw new IndexOutOfBoundsException("index out of range [index = " + i + ", size: " + header.length + "]");
+        }
+        return new KeyExtractor(header, index.clone());
+    }
+
+    /**
+     * 以主键字段创建选取器
+     * @param header 表头
+     * @return 返回选取器。
+     */
+    public static KeyExtractor primary(@NotNull Schema[] header) {
+        return new KeyExtractor(header, IntStream.range(0, header.length).filter(i -> header[i].isPrimary()).toArray());
+    }
+
+    /**
+     * 比较两行数据中指定字段的值
+     * <p>
+     *     空值最小；字符串按码点比较，与 {@link RowKey} 的顺序一致。
+     * </p>
+     * @param a 数据行 a
+     * @param ai 数据行 a 中的字段下标
+     * @param b 数据行 b
+     * @param bi 数据行 b 中的字段下标
+     * @param type 字段类型
+     * @return 返回负数、0、正数分别表示小于、等于、大于。
+     */
+    public static int compare(@NotNull Row a, int ai, @NotNull Row b, int bi, @NotNull Type type) {
+        return compare(a, ai, b, bi, SchemaMapping.family(type));
+    }
+
+    private static int compare(Row a, int ai, Row b, int bi, int family) {
+        boolean an = a.isNull(ai), bn = b.isNull(bi);
+        if (an || bn)
+            return an == bn ? 0 : (an ? -1 : 1);
+        switch (family) {
+            case SchemaMapping.F_BOOLEAN:   return Boolean.compare(a.getBoolean(ai), b.getBoolean(bi));
+            case SchemaMapping.F_SHORT:
+            case SchemaMapping.F_INT:
+            case SchemaMapping.F_LONG:      return Long.compare(a.getLong(ai), b.getLong(bi));
+            case SchemaMapping.F_DATE:      return Integer.compare(a.getDate(ai), b.getDate(bi));
+            case SchemaMapping.F_TIMESTAMP: return Long.compare(a.getTimestamp(ai), b.getTimestamp(bi));
+            case SchemaMapping.F_FLOAT:
+            case SchemaMapping.F_DOUBLE:    return Double.compare(a.getDouble(ai), b.getDouble(bi));
+            case SchemaMapping.F_DECIMAL:   return decimal(a, ai).compareTo(decimal(b, bi));
+            case SchemaMapping.F_BINARY: {
+                byte[] x = a.getBinary(ai), y = b.getBinary(bi);
+                return RowKey.compare(x, 0, x.length, y, 0, y.length);
+            }
+            default:                        return compareCodePoints(a.getString(ai), b.getString(bi));
+        }
+    }
+
+    // 读取 DECIMAL 的精确值：各种数据行都能以文本给出，文本数据行的 get 不支持 DECIMAL
+    private static BigDecimal decimal(Row row, int i) {
+        return new BigDecimal(row.getString(i).trim());
+    }
+
+    // 按码点比较字符串（String.compareTo 按 UTF-16 单元比较，与 UTF-8 字节序在代理区有差异）
+    private static int compareCodePoints(String x, String y) {
+        int length = Math.min(x.length(), y.length());
+        for (int i = 0; i < length; i++) {
+            char c1 = x.charAt(i), c2 = y.charAt(i);
+            if (c1 != c2) {
+                if (Character.isSurrogate(c1) != Character.isSurrogate(c2))
+                    return Character.isSurrogate(c1) ? 1 : -1;
+                return c1 - c2;
+            }
+        }
+        return x.length() - y.length();
+    }
+
+    // 编码缓冲区
+    private final static class Buffer {
+        byte[] data = new byte[256];
+        int    position;
+
+        void ensure(int n) {
+            if (position + n > data.length)
+                data = Arrays.copyOf(data, Math.max(data.length << 1, position + n));
+        }
+
+        void put(int b) {
+            ensure(1);
+            data[position++] = (byte) b;
+        }
+
+        void putInt(int v) {
+            ensure(4);
+            data[position++] = (byte) (v >>> 24);
+            data[position++] = (byte) (v >>> 16);
+            data[position++] = (byte) (v >>> 8);
+            data[position++] = (byte) v;
+        }
+
+        void putLong(long v) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8)
+                data[position++] = (byte) (v >>> shift);
+        }
+
+        // 写入一个可能为 0 的字节，0 需要转义
+        void putEscaped(int b) {
+            if (b == 0) {
+                put(0);
+                put(0xFF);
+            } else {
+                put(b);
+            }
+        }
+
+        void putTerminator() {
+            put(0);
+            put(0);
+        }
+    }
+
+    private final static ThreadLocal<Buffer> BUFFER = ThreadLocal.withInitial(Buffer::new);
+
+    private final Schema[] header;
+    private final int[]    index;
+    private final int[]    families;
+
+    private KeyExtractor(Schema[] header, int[] index) {
+        this.header   = header;
+        this.index    = index;
+        this.families = new int[index.length];
+        for (int i = 0; i < index.length; i++)
+            families[i] = SchemaMapping.family(header[index[i]].getType());
+    }
+
+    /**
+     * 获取键字段
+     * @return 返回键字段表头。
+     */
+    public Schema[] header() {
+        return Arrays.stream(index).mapToObj(i -> header[i]).toArray(Schema[]::new);
+    }
+
+    // 将键编码到当前线程的缓冲区
+    private Buffer encode(Row row) {
+        Buffer buffer = BUFFER.get();
+        buffer.position = 0;
+        for (int k = 0; k < index.length; k++) {
+            int i = index[k];
+            if (row.isNull(i)) {
+                buffer.put(0);
+                continue;
+            }
+            buffer.put(1);
+            switch (families[k]) {
+                case SchemaMapping.F_BOOLEAN: {
+                    buffer.put(row.getBoolean(i) ? 1 : 0);
+                    break;
+                }
+                case SchemaMapping.F_SHORT: {
+                    int v = row.getShort(i) ^ 0x8000;
+                    buffer.put(v >>> 8);
+                    buffer.put(v);
+                    break;
+                }
+                case SchemaMapping.F_INT: {
+                    buffer.putInt(row.getInteger(i) ^ Integer.MIN_VALUE);
+                    break;
+                }
+                case SchemaMapping.F_DATE: {
+                    buffer.putInt(row.getDate(i) ^ Integer.MIN_VALUE);
+                    break;
+                }
+                case SchemaMapping.F_LONG: {
+                    buffer.putLong(row.getLong(i) ^ Long.MIN_VALUE);
+                    break;
+                }
+                case SchemaMapping.F_TIMESTAMP: {
+                    buffer.putLong(row.getTimestamp(i) ^ Long.MIN_VALUE);
+                    break;
+                }
+                case SchemaMapping.F_FLOAT: {
+                    int bits = Float.floatToIntBits(row.getFloat(i));
+                    buffer.putInt(bits < 0 ? ~bits : bits ^ Integer.MIN_VALUE);
+                    break;
+                }
+                case SchemaMapping.F_DOUBLE: {
+                    long bits = Double.doubleToLongBits(row.getDouble(i));
+                    buffer.putLong(bits < 0 ? ~bits : bits ^ Long.MIN_VALUE);
+                    break;
+                }
+                case SchemaMapping.F_DECIMAL: {
+                    putDecimal(buffer, decimal(row, i));
+                    break;
+                }
+                case SchemaMapping.F_BINARY: {
+                    for (byte b : row.getBinary(i))
+                        buffer.putEscaped(b & 0xFF);
+                    buffer.putTerminator();
+                    break;
+                }
+                default: {
+                    putString(buffer, row.getString(i));
+                    buffer.putTerminator();
+                }
+            }
+        }
+        return buffer;
+    }
+
+    /*
+     * 写入 DECIMAL：值 = 0.d1d2...dn × 10^e（d1 不为 0，去掉末尾的 0，数值相等则编码相同）。
+     * 符号字节：负数 0x40、零 0x80、正数 0xC0；之后为翻转符号位的指数与各位数字（1 ~ 10），以 0 结束。
+     * 绝对值越大，负数越小，因此负数的指数与数字按位取反，结束符为 0xFF。
+     */
+    private static void putDecimal(Buffer buffer, BigDecimal value) {
+        int signum = value.signum();
+        if (signum == 0) {
+            buffer.put(0x80);
+            return;
+        }
+        BigDecimal normalized = value.stripTrailingZeros();
+        String     digits     = normalized.unscaledValue().abs().toString();
+        long       exponent   = (long) digits.length() - normalized.scale();
+        int        flip       = signum < 0 ? 0xFF : 0;
+        buffer.put(signum < 0 ? 0x40 : 0xC0);
+        buffer.putLong(signum < 0 ? ~(exponent ^ Long.MIN_VALUE) : exponent ^ Long.MIN_VALUE);
+        for (int k = 0, length = digits.length(); k < length; k++)
+            buffer.put((digits.charAt(k) - '0' + 1) ^ flip);
+        buffer.put(flip);
+    }
+
+    // 以 UTF-8 写入字符串，不创建中间字节数组
+    private static void putString(Buffer buffer, String value) {
+        for (int i = 0, length = value.length(); i < length; i++) {
+            int c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.putEscaped(c);
+            } else if (c < 0x800) {
+                buffer.put(0xC0 | (c >> 6));
+                buffer.put(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate((char) c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint((char) c, value.charAt(++i));
+                buffer.put(0xF0 | (cp >> 18));
+                buffer.put(0x80 | ((cp >> 12) & 0x3F));
+                buffer.put(0x80 | ((cp >> 6) & 0x3F));
+                buffer.put(0x80 | (cp & 0x3F));
+            } else {
+                buffer.put(0xE0 | (c >> 12));
+                buffer.put(0x80 | ((c >> 6) & 0x3F));
+                buffer.put(0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * 选取行键
+     * @param row 数据行，其表头需要与创建时的表头一致
+     * @return 返回行键。
+     */
+    public RowKey extract(@NotNull Row row) {
+        Buffer buffer = encode(row);
+        return new RowKey(Arrays.copyOf(buffer.data, buffer.position));
+    }
+
+    /**
+     * 计算行键的 64 位哈希值，不创建行键实例
+     * @param row 数据行
+     * @return 返回 64 位哈希值，与 <code>extract(row).hash64()</code> 一致。
+     */
+    public long hash(@NotNull Row row) {
+        Buffer buffer = encode(row);
+        return HashUtils.xxHash64(buffer.data, 0, buffer.position);
+    }
+
+    /**
+     * 计算分区
+     * @param row 数据行
+     * @param partitions 分区数量
+     * @return 返回分区编号，取值范围：0 到 partitions - 1。
+     */
+    public int partition(@NotNull Row row, int partitions) {
+        if (partitions <= 0)
+            throw new IllegalArgumentException("Illegal parameter [partitions = " + partitions + "].");
+        return (int) Math.floorMod(hash(row), (long) partitions);
+    }
+
+    /**
+     * 是否可以使用 long 作为键（只有一个整数类或日期时间类字段）
+     * @return 返回 true 表示可以调用 <code>longKey</code>。
+     */
+    public boolean isLongKey() {
+        if (families.length != 1)
+            return false;
+        switch (families[0]) {
+            case SchemaMapping.F_SHORT:
+            case SchemaMapping.F_INT:
+            case SchemaMapping.F_LONG:
+            case SchemaMapping.F_DATE:
+            case SchemaMapping.F_TIMESTAMP: return true;
+            default:                        return false;
+        }
+    }
+
+    /**
+     * 获取 long 键
+     * @param row 数据行
+     * @return 返回键值，空值返回 <code>Long.MIN_VALUE</code>。
+     * @exception UnsupportedOperationException 如果 <code>isLongKey()</code> 为 false。
+     */
+    public long longKey(@NotNull Row row) {
+        if (!isLongKey())
+            throw new UnsupportedOperationException("The key (" + Arrays.toString(header()) + ") is not a long key.");
+        int i = index[0];
+        if (row.isNull(i))
+            return Long.MIN_VALUE;
+        switch (families[0]) {
+            case SchemaMapping.F_DATE:      return row.getDate(i);
+            case SchemaMapping.F_TIMESTAMP: return row.getTimestamp(i);
+            default:                        return row.getLong(i);
+        }
+    }
+
+    @Override
+    public int compare(Row a, Row b) {
+        for (int k = 0; k < index.length; k++) {
+            int c = compare(a, index[k], b, index[k], families[k]);
+            if (c != 0)
+                return c;
+        }
+        return 0;
+    }
+}
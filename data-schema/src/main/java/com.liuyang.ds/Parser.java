@@ -2,6 +2,7 @@ package com.liuyang.ds;
 
 import com.liuyang.ds.types.*;
 import com.liuyang.tools.StringUtils;
+import com.liuyang.tools.TimeUtils;
 import com.sun.istack.internal.NotNull;
 
 /**
@@ -9,9 +10,11 @@ import com.sun.istack.internal.NotNull;
  * <ul>
  *     <li>2019/1/4   ver 1.0.0 created.</li>
  *     <li>2019/1/21  ver 1.0.1 add function. <code>matches</code>.</li>
+ *     <li>2019/3/18  ver 1.0.2 add type <code>DATE</code> and <code>TIMESTAMP</code>.</li>
+ *     <li>2019/3/20  ver 1.0.3 <code>parseValue</code> returns <code>NullValue</code> for null.</li>
  * </ul>
  * @author liuyang
- * @version 1.0.1
+ * @version 1.0.3
  */
 public final class Parser {
 
@@ -63,9 +66,14 @@ public final class Parser {
                 return 0;
             }
             case BIGINT:
-            case LONG: {
+            case LONG:
+            case DATETIME:
+            case TIMESTAMP: {
                 return 0L;
             }
+            case DATE: {
+                return 0;
+            }
             case TINYINT:
             case SMALLINT:
             case SHORT: {
@@ -93,13 +101,15 @@ public final class Parser {
         if (type == null || value == null)
             return false;
         switch(type) {
-            case BINARY: {
+            case BINARY:
+            case BYTEARRAY: {
                 return (value instanceof byte[]);
             }
             case BOOL:
             case BOOLEAN: {
                 return (value instanceof Boolean);
             }
+            case DECIMAL:
             case DOUBLE: {
                 return (value instanceof Number);
             }
@@ -114,11 +124,19 @@ public final class Parser {
             case LONG: {
                 return (value instanceof Number);
             }
+            case DATE:
+            case DATETIME:
+            case TIMESTAMP: {
+                return (value instanceof Number) || (value instanceof java.util.Date);
+            }
+            case BYTE:
             case TINYINT:
             case SMALLINT:
             case SHORT: {
                 return (value instanceof Number);
             }
+            case CHAR:
+            case TEXT:
             case VARCHAR:
             case STRING: {
                 return (value instanceof String);
@@ -157,6 +175,13 @@ public final class Parser {
             case LONG: {
                 return parseLong(value);
             }
+            case DATE: {
+                return parseDate(value);
+            }
+            case DATETIME:
+            case TIMESTAMP: {
+                return parseTimestamp(value);
+            }
             case TINYINT:
             case SMALLINT:
             case SHORT: {
@@ -209,6 +234,13 @@ public final class Parser {
             case LONG: {
                 return LongValue.create(parseLong(value));
             }
+            case DATE: {
+                return DateValue.create(parseDate(value));
+            }
+            case DATETIME:
+            case TIMESTAMP: {
+                return TimestampValue.create(parseTimestamp(value));
+            }
             case TINYINT:
             case SMALLINT:
             case SHORT: {
@@ -239,6 +271,8 @@ public final class Parser {
      * @see Value
      */
     public static Value parseValue(@NotNull Type type, String value) {
+        if (value == null)
+            return NullValue.of(type);
         switch(type) {
             case BINARY: {
                 return BinaryValue.create(parseBinary(value)); // 可以考虑使用StringUtil.asBytes
@@ -261,6 +295,13 @@ public final class Parser {
             case LONG: {
                 return LongValue.create(parseLong(value));
             }
+            case DATE: {
+                return DateValue.create(parseDate(value));
+            }
+            case DATETIME:
+            case TIMESTAMP: {
+                return TimestampValue.create(parseTimestamp(value));
+            }
             case TINYINT:
             case SMALLINT:
             case SHORT: {
@@ -279,7 +320,9 @@ public final class Parser {
         return parseValue(schema.getType(), value);
     }
 
-    public static Value parseValue(@NotNull Type type, @NotNull Object value) {
+    public static Value parseValue(@NotNull Type type, Object value) {
+        if (value == null)
+            return NullValue.of(type);
         switch(type) {
             case BINARY: {
                 return BinaryValue.create(parseBinary(value));
@@ -302,6 +345,13 @@ public final class Parser {
             case LONG: {
                 return LongValue.create(parseLong(value));
             }
+            case DATE: {
+                return DateValue.create(parseDate(value));
+            }
+            case DATETIME:
+            case TIMESTAMP: {
+                return TimestampValue.create(parseTimestamp(value));
+            }
             case TINYINT:
             case SMALLINT:
             case SHORT: {
@@ -316,7 +366,7 @@ public final class Parser {
         }
     }
 
-    public static Value parseValue(@NotNull Schema schema, @NotNull Object value) {
+    public static Value parseValue(@NotNull Schema schema, Object value) {
         return parseValue(schema.getType(), value);
     }
 
@@ -557,5 +607,107 @@ public final class Parser {
         return String.valueOf(value);
     }
 
+    /**
+     * 将数据按指定类型格式化为文本。
+     * <p>
+     *     日期时间类型（纪元天数、纪元微秒数）会被格式化为 <code>yyyy-MM-dd</code>、<code>yyyy-MM-dd HH:mm:ss[.SSSSSS]</code>，
+     *     其他类型同 {@link #parseString(Object)}。
+     * </p>
+     * @param type 指定类型
+     * @param value 指定数据
+     * @return 返回格式化后的文本。
+     */
+    public static String parseString(Type type, Object value) {
+        if (value == null || value instanceof String || type == null)
+            return String.valueOf(value);
+        switch (type) {
+            case DATE: {
+                return TimeUtils.formatEpochDay(parseDate(value));
+            }
+            case DATETIME:
+            case TIMESTAMP: {
+                return TimeUtils.formatEpochMicros(parseTimestamp(value));
+            }
+            default:
+                return String.valueOf(value);
+        }
+    }
+
+    public static int parseDate(@NotNull byte[] value) {
+        return parseInt(value);
+    }
+
+    /**
+     * 解析日期文本为纪元天数。
+     * @param value 日期文本，支持 <code>yyyy-MM-dd</code>、<code>yyyyMMdd</code> 及时间格式。
+     * @return 返回纪元天数，无法解析时返回 0。
+     */
+    public static int parseDate(String value) {
+        if (value == null || value.isEmpty())
+            return 0;
+        try {
+            return TimeUtils.parseEpochDay(value);
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    public static int parseDate(Object value) {
+        if (value instanceof Integer)
+            return (int) value;
+        if (value instanceof Number)
+            return ((Number) value).intValue();
+        if (value instanceof java.sql.Timestamp)
+            return TimeUtils.microsToEpochDay(parseTimestamp(value));
+        if (value instanceof java.util.Date)
+            return TimeUtils.millisToEpochDay(((java.util.Date) value).getTime());
+        if (value instanceof NumberValue)
+            return ((NumberValue) value).intValue();
+        if (value instanceof String)
+            return parseDate((String) value);
+        if (value instanceof byte[])
+            return parseDate((byte[]) value);
+        throw exception(value, "Date");
+    }
+
+    public static long parseTimestamp(@NotNull byte[] value) {
+        return parseLong(value);
+    }
+
+    /**
+     * 解析时间文本为纪元微秒数。
+     * @param value 时间文本，支持 <code>yyyy-MM-dd HH:mm:ss[.SSSSSS]</code>、<code>yyyyMMddHHmmss</code> 及 ISO-8601。
+     * @return 返回纪元微秒数，无法解析时返回 0。
+     */
+    public static long parseTimestamp(String value) {
+        if (value == null || value.isEmpty())
+            return 0L;
+        try {
+            return TimeUtils.parseEpochMicros(value);
+        } catch (IllegalArgumentException e) {
+            return 0L;
+        }
+    }
+
+    public static long parseTimestamp(Object value) {
+        if (value instanceof Long)
+            return (long) value;
+        if (value instanceof Number)
+            return ((Number) value).longValue();
+        if (value instanceof java.sql.Timestamp) {
+            java.sql.Timestamp ts = (java.sql.Timestamp) value;
+            return Math.floorDiv(ts.getTime(), 1000L) * 1000000L + ts.getNanos() / 1000;
+        }
+        if (value instanceof java.util.Date)
+            return ((java.util.Date) value).getTime() * 1000L;
+        if (value instanceof NumberValue)
+            return ((NumberValue) value).longValue();
+        if (value instanceof String)
+            return parseTimestamp((String) value);
+        if (value instanceof byte[])
+            return parseTimestamp((byte[]) value);
+        throw exception(value, "Timestamp");
+    }
+
 
 }
@@ -13,9 +13,11 @@ import java.util.Map;
  *     <li>2019/1/21  ver 1.0.1 添加功能。 <code>setValue</code>.</li>
  *     <li>2019/1/23  ver 1.0.2 添加功能。 <code>collect</code>.</li>
  *     <li>2019/2/19  ver 1.0.3 添加功能。 <code>get, toString, toArray</code>.</li>
+ *     <li>2019/3/18  ver 1.0.4 添加功能。 <code>getDate, getTimestamp</code>.</li>
+ *     <li>2019/3/20  ver 1.0.5 添加功能。 <code>isNull, setNull, nulls</code> 及带空值默认值的取值方法.</li>
  * </ul>
  * @author liuyang
- * @version 1.0.3
+ * @version 1.0.5
  */
 public interface Row {
 
@@ -91,6 +93,115 @@ public interface Row {
 
     long getLong(String field);
 
+    /**
+     * 取回日期
+     * @param index 索引
+     * @return 返回指定索引位置的日期，以纪元天数（1970-01-01 为第 0 天）表示
+     */
+    int getDate(int index);
+
+    /**
+     * 取回日期
+     * @param field 字段
+     * @return 返回指定字段名称的日期，以纪元天数（1970-01-01 为第 0 天）表示
+     */
+    int getDate(String field);
+
+    /**
+     * 取回时间戳
+     * @param index 索引
+     * @return 返回指定索引位置的时间戳，以纪元微秒数表示
+     */
+    long getTimestamp(int index);
+
+    /**
+     * 取回时间戳
+     * @param field 字段
+     * @return 返回指定字段名称的时间戳，以纪元微秒数表示
+     */
+    long getTimestamp(String field);
+
+    /**
+     * 判断是否空值（null）
+     * <p>
+     *     空值以位图标识，判断只需要一次位运算。空值字段的各 get 方法返回对应类型的默认值，
+     *     需要区分空值时，使用带 <code>nullValue</code> 参数的取值方法。
+     * </p>
+     * @param index 索引
+     * @return 返回 true 表示指定索引位置为空值
+     */
+    boolean isNull(int index);
+
+    /**
+     * 判断是否空值（null）
+     * @param field 字段
+     * @return 返回 true 表示指定字段为空值
+     */
+    boolean isNull(String field);
+
+    /**
+     * 获取空值位图
+     * <p>
+     *     可用于聚合、关联等操作跳过空值，如：<code>nulls().nextClearBit(i)</code>。<i>返回的位图为内部实例，不要修改。</i>
+     * </p>
+     * @return 返回空值位图
+     */
+    Bitmap nulls();
+
+    /**
+     * 将指定索引位置设置为空值（null）
+     * @param index 索引
+     */
+    void setNull(int index);
+
+    /**
+     * 将指定字段设置为空值（null）
+     * @param field 字段
+     */
+    void setNull(String field);
+
+    /**
+     * 取回 <code>Boolean</code> 值，空值时返回指定值
+     * @param index 索引
+     * @param nullValue 空值时的返回值
+     * @return 返回指定索引位置的 <code>Boolean</code> 值
+     */
+    default boolean getBoolean(int index, boolean nullValue) {
+        return isNull(index) ? nullValue : getBoolean(index);
+    }
+
+    default double getDouble(int index, double nullValue) {
+        return isNull(index) ? nullValue : getDouble(index);
+    }
+
+    default float getFloat(int index, float nullValue) {
+        return isNull(index) ? nullValue : getFloat(index);
+    }
+
+    default int getInteger(int index, int nullValue) {
+        return isNull(index) ? nullValue : getInteger(index);
+    }
+
+    default long getLong(int index, long nullValue) {
+        return isNull(index) ? nullValue : getLong(index);
+    }
+
+    default short getShort(int index, short nullValue) {
+        return isNull(index) ? nullValue : getShort(index);
+    }
+
+    default String getString(int index, String nullValue) {
+        return isNull(index) ? nullValue : getString(index);
+    }
+
+    default int getDate(int index, int nullValue) {
+        return isNull(index) ? nullValue : getDate(index);
+    }
+
+    default long getTimestamp(int index, long nullValue) {
+        return isNull(index) ? nullValue : getTimestamp(index);
+    }
+
     short getShort(int index);
 
     short getShort(String field);
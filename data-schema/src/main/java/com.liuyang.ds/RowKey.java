@@ -0,0 +1,105 @@
+package com.liuyang.ds;
+
+import com.liuyang.tools.HashUtils;
+import com.sun.istack.internal.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * 行键
+ * <p>
+ *     由 {@link KeyExtractor} 从数据行中选取的字段编码而成的紧凑字节数据。编码保持顺序，
+ *     按无符号字节的字典序比较即可得到与字段值一致的排序；哈希值为编码数据的 64 位 xxHash，创建时计算一次。
+ *     适合作为去重、关联、分组以及分区时的哈希表键。
+ * </p>
+ * <ul>
+ *     <li>2019/3/25  ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ * @see KeyExtractor
+ */
+public final class RowKey implements Comparable<RowKey> {
+
+    /**
+     * 按无符号字节比较两段字节数据的字典序
+     * @param a 数据 a
+     * @param aOffset 数据 a 的起始位置
+     * @param aLength 数据 a 的长度
+     * @param b 数据 b
+     * @param bOffset 数据 b 的起始位置
+     * @param bLength 数据 b 的长度
+     * @return 返回负数、0、正数分别表示小于、等于、大于。
+     */
+    public static int compare(byte[] a, int aOffset, int aLength, byte[] b, int bOffset, int bLength) {
+        int length = Math.min(aLength, bLength);
+        for (int i = 0; i < length; i++) {
+            int x = a[aOffset + i] & 0xFF;
+            int y = b[bOffset + i] & 0xFF;
+            if (x != y)
+                return x - y;
+        }
+        return aLength - bLength;
+    }
+
+    private final byte[] bytes;
+    private final long   hash;
+
+    RowKey(byte[] bytes) {
+        this.bytes = bytes;
+        this.hash  = HashUtils.xxHash64(bytes, 0, bytes.length);
+    }
+
+    /**
+     * 获取编码数据（副本）
+     * @return 返回编码后的字节数据。
+     */
+    public byte[] getBytes() {
+        return bytes.clone();
+    }
+
+    /**
+     * 获取编码数据长度
+     * @return 返回字节长度。
+     */
+    public int length() {
+        return bytes.length;
+    }
+
+    /**
+     * 获取 64 位哈希值
+     * @return 返回 64 位哈希值，与 <code>KeyExtractor.hash(Row)</code> 一致。
+     */
+    public long hash64() {
+        return hash;
+    }
+
+    @Override
+    public int compareTo(@NotNull RowKey other) {
+        return compare(bytes, 0, bytes.length, other.bytes, 0, other.bytes.length);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof RowKey))
+            return false;
+        RowKey other = (RowKey) o;
+        return hash == other.hash && Arrays.equals(bytes, other.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+}
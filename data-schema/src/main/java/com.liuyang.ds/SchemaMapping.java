@@ -0,0 +1,351 @@
+package com.liuyang.ds;
+
+import com.liuyang.ds.sets.DataRow;
+import com.liuyang.tools.TimeUtils;
+import com.sun.istack.internal.NotNull;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * 表头映射
+ * <p>
+ *     根据源表头与目标表头一次性编译出映射计划（移动、转换、默认值、丢弃），之后对每一行数据
+ *     只按下标执行计划，不再做字段名称查找。可以处理字段的新增、删除、重排以及宽化转换
+ *     （如 <code>int -> long -> double</code>、<code>long -> decimal</code>、<code>date -> timestamp</code>、
+ *     任意类型 <code>-> string</code>）。
+ * </p>
+ * <ul>
+ *     <li>2019/3/22  ver 1.0.0 创建。</li>
+ *     <li>2019/4/10  ver 1.0.1 DECIMAL 单独成族，原样复制 BigDecimal，不再经过 double 丢失精度；
+ *     文本数据与转换均按十进制文本精确解析，保留小数部分。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.1
+ */
+public final class SchemaMapping {
+
+    /** 直接移动，类型相同（含别名） */
+    private final static byte MOVE    = 0;
+    /** 宽化转换 */
+    private final static byte CAST    = 1;
+    /** 源表头没有该字段，使用空值或默认值 */
+    private final static byte DEFAULT = 2;
+
+    /**
+     * 按字段名称编译映射计划
+     * @param source 源表头
+     * @param target 目标表头
+     * @return 返回映射计划。
+     * @exception IllegalArgumentException 如果同名字段之间不能宽化转换。
+     */
+    public static SchemaMapping compile(@NotNull Schema[] source, @NotNull Schema[] target) {
+        Map<String, Integer> names = new HashMap<>(source.length * 2);
+        for (int i = 0; i < source.length; i++)
+            names.putIfAbsent(source[i].getName(), i);
+        int[] index = new int[target.length];
+        for (int i = 0; i < target.length; i++) {
+            Integer found = names.get(target[i].getName());
+            index[i] = found == null ? -1 : found;
+        }
+        return new SchemaMapping(source, target, index);
+    }
+
+    /**
+     * 按字段位置编译映射计划
+     * <p>
+     *     目标表头超出源表头长度的字段使用空值或默认值，源表头多出的字段被丢弃。
+     * </p>
+     * @param source 源表头
+     * @param target 目标表头
+     * @return 返回映射计划。
+     * @exception IllegalArgumentException 如果同位置字段之间不能宽化转换。
+     */
+    public static SchemaMapping compileByPosition(@NotNull Schema[] source, @NotNull Schema[] target) {
+        int[] index = new int[target.length];
+        for (int i = 0; i < target.length; i++)
+            index[i] = i < source.length ? i : -1;
+        return new SchemaMapping(source, target, index);
+    }
+
+    /**
+     * 判断是否可以从源类型宽化转换到目标类型
+     * @param from 源类型
+     * @param to 目标类型
+     * @return 返回 true 表示可以转换。
+     */
+    public static boolean isWidening(@NotNull Type from, @NotNull Type to) {
+        int f = family(from), t = family(to);
+        if (f == t || t == F_STRING)
+            return true;
+        switch (f) {
+            case F_SHORT:   return t == F_INT || t == F_LONG || t == F_FLOAT || t == F_DOUBLE || t == F_DECIMAL;
+            case F_INT:     return t == F_LONG || t == F_DOUBLE || t == F_DECIMAL;
+            case F_LONG:    return t == F_DOUBLE || t == F_DECIMAL;
+            case F_FLOAT:   return t == F_DOUBLE;
+            case F_DECIMAL: return t == F_DOUBLE;
+            case F_DATE:  return t == F_TIMESTAMP;
+            default:      return false;
+        }
+    }
+
+    final static int F_BOOLEAN   = 0;
+    final static int F_SHORT     = 1;
+    final static int F_INT       = 2;
+    final static int F_LONG      = 3;
+    final static int F_FLOAT     = 4;
+    final static int F_DOUBLE    = 5;
+    final static int F_DATE      = 6;
+    final static int F_TIMESTAMP = 7;
+    final static int F_STRING    = 8;
+    final static int F_BINARY    = 9;
+    final static int F_DECIMAL   = 10;
+    final static int F_OTHER     = 11;
+
+    // 类型族，同一族的类型之间只是别名
+    static int family(Type type) {
+        switch (type) {
+            case BOOL:
+            case BOOLEAN:   return F_BOOLEAN;
+            case BYTE:
+            case TINYINT:
+            case SMALLINT:
+            case SHORT:     return F_SHORT;
+            case INT:
+            case INTEGER:   return F_INT;
+            case BIGINT:
+            case LONG:      return F_LONG;
+            case FLOAT:     return F_FLOAT;
+            case DOUBLE:    return F_DOUBLE;
+            case DECIMAL:   return F_DECIMAL;
+            case DATE:      return F_DATE;
+            case DATETIME:
+            case TIMESTAMP: return F_TIMESTAMP;
+            case CHAR:
+            case STRING:
+            case TEXT:
+            case VARCHAR:   return F_STRING;
+            case BINARY:
+            case BYTEARRAY: return F_BINARY;
+            default:        return F_OTHER;
+        }
+    }
+
+    private final Schema[] source;
+    private final Schema[] target;
+    /** 目标字段对应的源字段下标，-1 表示源表头没有该字段 */
+    private final int[]    index;
+    /** 目标字段的操作：MOVE, CAST, DEFAULT */
+    private final byte[]   ops;
+    /** 目标字段的类型族，决定读取源数据时使用的方法 */
+    private final int[]    families;
+    /** 源类型族，仅 CAST 时使用 */
+    private final int[]    sourceFamilies;
+    /** 源表头被丢弃的字段下标 */
+    private final int[]    dropped;
+
+    private SchemaMapping(Schema[] source, Schema[] target, int[] index) {
+        int length = target.length;
+        this.source         = source;
+        this.target         = target;
+        this.index          = index;
+        this.ops            = new byte[length];
+        this.families       = new int[length];
+        this.sourceFamilies = new int[length];
+        boolean[] used = new boolean[source.length];
+        for (int i = 0; i < length; i++) {
+            Type to = target[i].getType();
+            families[i] = family(to);
+            if (index[i] < 0) {
+                ops[i] = DEFAULT;
+                continue;
+            }
+            Type from = source[index[i]].getType();
+            if (!isWidening(from, to))
+                throw new IllegalArgumentException("Illegal parameter [" + source[index[i]].getName() + "], can not cast "
+                        + from.getName() + " to " + to.getName() + ".");
+            used[index[i]]    = true;
+            sourceFamilies[i] = family(from);
+            ops[i] = sourceFamilies[i] == families[i] ? MOVE : CAST;
+        }
+        this.dropped = IntStream.range(0, source.length).filter(i -> !used[i]).toArray();
+    }
+
+    /**
+     * 获取源表头
+     * @return 返回源表头。
+     */
+    public Schema[] getSource() {
+        return source;
+    }
+
+    /**
+     * 获取目标表头
+     * @return 返回目标表头。
+     */
+    public Schema[] getTarget() {
+        return target;
+    }
+
+    /**
+     * 获取源表头中被丢弃的字段下标
+     * @return 返回字段下标数组。
+     */
+    public int[] getDropped() {
+        return dropped.clone();
+    }
+
+    /**
+     * 是否为直接映射（字段位置与类型族完全一致，不需要任何转换）
+     * @return 返回 true 表示直接映射。
+     */
+    public boolean isIdentity() {
+        if (source.length != target.length)
+            return false;
+        for (int i = 0; i < index.length; i++)
+            if (index[i] != i || ops[i] != MOVE) return false;
+        return true;
+    }
+
+    /**
+     * 执行映射计划，将源数据行写入目标数据行
+     * <p>
+     *     空值会被保留；源表头中没有的字段，可空时置为空值，否则写入对应类型的默认值。
+     * </p>
+     * @param from 源数据行，其表头需要与编译时的源表头一致
+     * @param to 目标数据行，其表头需要与编译时的目标表头一致
+     * @return 返回目标数据行。
+     */
+    public DataRow apply(@NotNull Row from, @NotNull DataRow to) {
+        for (int i = 0, length = ops.length; i < length; i++) {
+            if (ops[i] == DEFAULT) {
+                defaultValue(to, i);
+                continue;
+            }
+            int s = index[i];
+            if (from.isNull(s)) {
+                to.setNull(i);
+                continue;
+            }
+            to.setValue(i, read(from, s, i));
+        }
+        return to;
+    }
+
+    /**
+     * 执行映射计划，生成新的目标数据行
+     * @param from 源数据行
+     * @return 返回目标数据行。
+     */
+    public DataRow apply(@NotNull Row from) {
+        return apply(from, new DataRow(target));
+    }
+
+    /**
+     * 执行映射计划，将源数据数组写入目标数据数组
+     * <p>
+     *     适用于按批次处理的数据，数组中的数据需要与编译时的表头类型匹配，null 表示空值。
+     * </p>
+     * @param from 源数据数组
+     * @param to 目标数据数组，长度不能小于目标表头长度
+     * @return 返回目标数据数组。
+     */
+    public Object[] apply(@NotNull Object[] from, @NotNull Object[] to) {
+        for (int i = 0, length = ops.length; i < length; i++) {
+            switch (ops[i]) {
+                case MOVE: {
+                    to[i] = from[index[i]];
+                    break;
+                }
+                case CAST: {
+                    Object value = from[index[i]];
+                    to[i] = value == null ? null : cast(value, i);
+                    break;
+                }
+                default: {
+                    to[i] = target[i].isNullable() ? null : Parser.defaultValue(target[i].getType());
+                }
+            }
+        }
+        return to;
+    }
+
+    // 源表头没有的字段
+    private void defaultValue(DataRow to, int i) {
+        Object value = target[i].isNullable() ? null : Parser.defaultValue(target[i].getType());
+        if (value == null) {
+            to.setNull(i);
+        } else {
+            to.setValue(i, value);
+        }
+    }
+
+    // 按目标类型族读取源数据，MOVE 与 CAST 均由 Row 的类型方法完成
+    private Object read(Row from, int s, int i) {
+        switch (families[i]) {
+            case F_BOOLEAN:   return from.getBoolean(s);
+            case F_SHORT:     return from.getShort(s);
+            case F_INT:       return from.getInteger(s);
+            case F_LONG:      return from.getLong(s);
+            case F_FLOAT:     return from.getFloat(s);
+            case F_DOUBLE:    return from.getDouble(s);
+            // 文本数据行的 get 不支持 DECIMAL，按文本精确解析
+            case F_DECIMAL:   return sourceFamilies[i] == F_DECIMAL
+                    ? new BigDecimal(from.getString(s).trim()) : BigDecimal.valueOf(from.getLong(s));
+            case F_DATE:      return from.getDate(s);
+            case F_TIMESTAMP: return sourceFamilies[i] == F_DATE
+                    ? TimeUtils.epochDayToMicros(from.getDate(s)) : from.getTimestamp(s);
+            case F_STRING:    return from.getString(s);
+            case F_BINARY:    return from.getBinary(s);
+            default:          return from.get(s);
+        }
+    }
+
+    // 转换数组中的数据
+    private Object cast(Object value, int i) {
+        switch (families[i]) {
+            case F_INT:       return Parser.parseInt(value);
+            case F_LONG:      return Parser.parseLong(value);
+            case F_FLOAT:     return Parser.parseFloat(value);
+            case F_DOUBLE:    return Parser.parseDouble(value);
+            case F_DECIMAL:   return decimal(value);
+            case F_TIMESTAMP: return TimeUtils.epochDayToMicros(Parser.parseDate(value));
+            case F_STRING:    return Parser.parseString(source[index[i]].getType(), value);
+            default:          return value;
+        }
+    }
+
+    // 转换为 BigDecimal，保留小数部分
+    private static BigDecimal decimal(Object value) {
+        if (value instanceof BigDecimal)
+            return (BigDecimal) value;
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+            return BigDecimal.valueOf(((Number) value).longValue());
+        if (value instanceof Double || value instanceof Float)
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        return new BigDecimal(String.valueOf(value).trim());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < ops.length; i++) {
+            if (i > 0)
+                builder.append(", ");
+            builder.append(target[i].getName()).append('=');
+            switch (ops[i]) {
+                case MOVE:    builder.append("move(").append(index[i]).append(')'); break;
+                case CAST:    builder.append("cast(").append(index[i]).append(", ")
+                        .append(source[index[i]].getType().getName()).append(" -> ")
+                        .append(target[i].getType().getName()).append(')'); break;
+                default:      builder.append("default"); break;
+            }
+        }
+        if (dropped.length > 0)
+            builder.append(", drop").append(Arrays.toString(dropped));
+        return '[' + builder.toString() + ']';
+    }
+}
@@ -8,6 +8,7 @@ import java.sql.Types;
  * Use one of follow
  * <li> {@code BINARY} </li>
  * <li> {@code BOOLEAN} </li>
+ * <li> {@code DATE} </li>
  * <li> {@code DOUBLE} </li>
  * <li> {@code FLOAT} </li>
  * <li> {@code INT} </li>
@@ -15,8 +16,9 @@ import java.sql.Types;
  * <li> {@code SHORT} </li>
  * <li> {@code STRING} </li>
  * <li> {@code STRUCT} </li>
+ * <li> {@code TIMESTAMP} </li>
  * </ul>
- * @version 1.0.2
+ * @version 1.0.3
  * @author liuyang
  *
  */
@@ -28,6 +30,9 @@ public enum Type {
     BOOL(Types.BOOLEAN, "bool", true),
 
     CHAR(Types.CHAR, "char", true),
+    /** 日期，以纪元天数（1970-01-01 为第 0 天）存储 */
+    DATE(Types.DATE, "date", true),
+    DATETIME(Types.TIMESTAMP, "datetime", true),
     DECIMAL(Types.DECIMAL, "decimal", true),
     DOUBLE(Types.DOUBLE, "double", true),
     FLOAT(Types.FLOAT, "float", true),
@@ -49,6 +54,8 @@ public enum Type {
     /**字符串: string, str*/
     STRING(Types.VARCHAR, "string", true),
     TEXT(Types.VARCHAR, "text", true),
+    /** 时间戳，以纪元微秒数存储 */
+    TIMESTAMP(Types.TIMESTAMP, "timestamp", true),
     UNION(Types.OTHER, "union", false),
     VARCHAR(Types.VARCHAR, "varchar", true),
     OBJECT(Types.JAVA_OBJECT, "object", false);
@@ -73,6 +80,7 @@ public enum Type {
             case Types.BOOLEAN     : return Type.BOOLEAN;
             case Types.BINARY      : return Type.BINARY;
             case Types.CHAR        : return Type.CHAR;
+            case Types.DATE        : return Type.DATE;
             case Types.REAL        : return Type.DOUBLE;
             case Types.DOUBLE      : return Type.DOUBLE;
             case Types.FLOAT       : return Type.FLOAT;
@@ -81,6 +89,7 @@ public enum Type {
             case Types.VARCHAR     : return Type.VARCHAR;
             case Types.SMALLINT    : return Type.SMALLINT;
             case Types.LONGVARCHAR : return Type.STRING;
+            case Types.TIMESTAMP   : return Type.TIMESTAMP;
             default:
                 throw new IllegalArgumentException("Illegal parameter [typeId = " + typeId + "], type is undefined.");
         }
@@ -120,6 +129,20 @@ public enum Type {
         }
     }
 
+    /**
+     * 判断是否日期时间类型
+     * @param type 指定类型
+     * @return 返回 true 表示是日期时间类型，返回 false 表示非日期时间类型。
+     */
+    public static boolean isTemporal(Type type) {
+        switch (type) {
+            case DATE:      return true;
+            case DATETIME:  return true;
+            case TIMESTAMP: return true;
+            default:        return false;
+        }
+    }
+
     private int     id;
     private String  name;
     private boolean isPrimitive;
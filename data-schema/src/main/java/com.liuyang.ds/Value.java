@@ -98,4 +98,12 @@ public interface Value {
 
     void setValue(Object value);
 
+    /**
+     * 是否空值（null）
+     * @return 返回 true 表示空值，此时各 get 方法返回对应类型的默认值，<code>getValue</code> 返回 null。
+     */
+    default boolean isNull() {
+        return false;
+    }
+
 }
@@ -15,15 +15,19 @@ import java.util.stream.IntStream;
  *     <li>2019/1/21  ver 1.0.1 新增功能 <code>setValue</code> 。</li>
  *     <li>2019/1/22  ver 1.0.1 新增功能 <code>getModifiedCount</code> （此属于初始版本设计功能）。</li>
  *     <li>2019/2/19  ver 1.0.3 新增功能 <code>get, toString, toArray</code> （此属于初始版本设计功能）。</li>
+ *     <li>2019/3/18  ver 1.0.4 新增功能 <code>getDate, getTimestamp</code> ，日期时间字段按纪元天数/微秒数存储。</li>
+ *     <li>2019/3/20  ver 1.0.5 新增功能 <code>isNull, setNull, nulls</code> ，空值以位图标识，不再丢失。</li>
+ *     <li>2019/3/25  ver 1.0.6 修正 <code>compareTo</code> 为按字段比较，新增 <code>hashCode</code> 。</li>
  * </ul>
  * @author liuyang
- * @version 1.0.3
+ * @version 1.0.6
  * @see com.liuyang.ds.Row
  */
 public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
 
     private volatile Schema[] header;
     private volatile Object[] values;
+    private volatile Bitmap   nulls;
 
     private transient int size;
     private transient int modCount;
@@ -32,15 +36,23 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
         this.header = header;
         this.size   = header.length;
         this.values = new Object[size];
+        this.nulls  = new Bitmap(size);
     }
 
     public DataRow(Schema[] header, Object [] arr) {
         this.header = header;
         this.size = header.length;
         this.values = new Object[size];
+        this.nulls  = new Bitmap(size);
         parse(arr);
     }
 
+    // 复制数据及空值标识
+    private DataRow(Schema[] header, Object[] values, Bitmap nulls, int from) {
+        this(header, values);
+        this.nulls.copy(nulls, from, 0, size);
+    }
+
     /**
      * 查询字符串并返回其索引
      * @param name 字段名称
@@ -75,6 +87,7 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
     public final void close() {
         header   = null;
         values   = null;
+        nulls    = null;
         size     = 0;
         modCount = 0;
     }
@@ -85,7 +98,14 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
             return 1;
         if (other == this)
             return 0;
-        return hashCode() - other.hashCode();
+        // 按字段逐个比较，空值最小；字段数不同时，较短的一方在前
+        int otherSize = other.nulls().size();
+        for (int i = 0, length = Math.min(size, otherSize); i < length; i++) {
+            int c = KeyExtractor.compare(this, i, other, i, header[i].getType());
+            if (c != 0)
+                return c;
+        }
+        return Integer.compare(size, otherSize);
     }
 
     @Override
@@ -96,11 +116,17 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
             return true;
         if (o instanceof DataRow) {
             DataRow other = (DataRow) o;
-            return Arrays.equals(other.header, header) && Arrays.equals(other.values, values);
+            return Arrays.equals(other.header, header) && Arrays.equals(other.values, values)
+                    && other.nulls.equals(nulls);
         }
         return false;
     }
 
+    @Override
+    public final int hashCode() {
+        return 31 * Arrays.hashCode(values) + nulls.hashCode();
+    }
+
     /**
      * 解析字符串数组
      * <p>
@@ -119,11 +145,21 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
         // 复制数组数据， 原始数据指定位置是 start，总共会复制 length - start 个数据。
         // 复制后的数据截止下标不会超过 length。
         System.arraycopy(arr, start, values, 0, length - start);
+        // 标识空值，空值处存放对应类型的默认值
+        for (int i = 0; i < length - start; i++) {
+            if (values[i] == null) {
+                values[i] = Parser.defaultValue(header[i].getType());
+                nulls.set(i);
+            } else {
+                nulls.clear(i);
+            }
+        }
         // 检测是否要清空未覆盖到的数据
         if (truncate)
-            // 如果传入的数组长度未超过 size，则手动清空 values 中下标超过 length 的数据。
-            for (int i = length; i < size; i++) {
-                values[i] = "";
+            // 如果传入的数组长度未超过 size，则将 values 中下标超过 length - start 的数据置为空值。
+            for (int i = length - start; i < size; i++) {
+                values[i] = Parser.defaultValue(header[i].getType());
+                nulls.set(i);
             }
         return this;
     }
@@ -138,14 +174,14 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
 
     @Override
     public final Collection<Object> collect() {
-        return Arrays.stream(values, 0, size).collect(Collectors.toList());
+        return IntStream.range(0, size).mapToObj(this::get).collect(Collectors.toList());
     }
 
     @Override
     public final Collection<Object> collect(int startIndex, int num) {
         rangeCheck(startIndex);
         rangeCheck(startIndex + num);
-        return Arrays.stream(values, startIndex, startIndex + num).collect(Collectors.toList());
+        return IntStream.range(startIndex, startIndex + num).mapToObj(this::get).collect(Collectors.toList());
     }
 
     @Override
@@ -160,19 +196,19 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
                         "header has not contains field as ([" + name + "]).");
         }
         return IntStream.range(0, size).filter(i -> find(fieldNames[i]) != -1)
-                .mapToObj(i -> values[i]).collect(Collectors.toList());
+                .mapToObj(this::get).collect(Collectors.toList());
     }
 
     @Override
     public final Collection<Object> collect(boolean primary) {
         return IntStream.range(0, size).filter(i -> header[i].isPrimary() == primary)
-                .mapToObj(i -> values[i]).collect(Collectors.toList());
+                .mapToObj(this::get).collect(Collectors.toList());
     }
 
     @Override
     public final Object get(int index) {
         rangeCheck(index);
-        return values[index];
+        return nulls.get(index) ? null : values[index];
     }
 
     @Override
@@ -246,6 +282,56 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
         return getLong(find(fieldName));
     }
 
+    @Override
+    public final int getDate(int index) {
+        rangeCheck(index);
+        return Parser.parseDate(values[index]);
+    }
+
+    @Override
+    public final int getDate(String fieldName) {
+        return getDate(find(fieldName));
+    }
+
+    @Override
+    public final long getTimestamp(int index) {
+        rangeCheck(index);
+        return Parser.parseTimestamp(values[index]);
+    }
+
+    @Override
+    public final long getTimestamp(String fieldName) {
+        return getTimestamp(find(fieldName));
+    }
+
+    @Override
+    public final boolean isNull(int index) {
+        rangeCheck(index);
+        return nulls.get(index);
+    }
+
+    @Override
+    public final boolean isNull(String fieldName) {
+        return isNull(find(fieldName));
+    }
+
+    @Override
+    public final Bitmap nulls() {
+        return nulls;
+    }
+
+    @Override
+    public final void setNull(int index) {
+        rangeCheck(index);
+        values[index] = Parser.defaultValue(header[index].getType());
+        nulls.set(index);
+    }
+
+    @Override
+    public final void setNull(String fieldName) {
+        setNull(find(fieldName));
+    }
+
     @Override
     public final short getShort(int index) {
         rangeCheck(index);
@@ -260,7 +346,7 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
     @Override
     public final String getString(int index) {
         rangeCheck(index);
-        return String.valueOf(values[index]);
+        return Parser.parseString(header[index].getType(), values[index]);
     }
 
     @Override
@@ -271,7 +357,7 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
     @Override
     public final Value getValue(int index) {
         rangeCheck(index);
-        return Parser.parseValue(header[index].getType(), values[index]);
+        return Parser.parseValue(header[index].getType(), get(index));
     }
 
     @Override
@@ -304,7 +390,7 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
                 builder.append(delimiter);
             if (containsHeader)
                 builder.append(header[i].getName()).append('=');
-            builder.append(values[i]);
+            builder.append(Parser.parseString(header[i].getType(), get(i)));
 
         }
         return builder.toString();
@@ -323,7 +409,7 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
                 builder.append(delimiter);
             if (containsHeader)
                 builder.append(header[i].getName()).append('=');
-            builder.append(values[i]);
+            builder.append(Parser.parseString(header[i].getType(), get(i)));
 
         }
         return builder.toString();
@@ -332,7 +418,7 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
     @Override
     public Object[] toArray() {
         return IntStream.range(0, size)
-                .mapToObj(i -> Parser.parseValue(header[i], values[i]).getValue()).toArray(Object[]::new);
+                .mapToObj(this::get).toArray(Object[]::new);
     }
 
     @Override
@@ -342,10 +428,12 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
         String[] arr = IntStream.range(0, size).mapToObj(i -> {
             StringBuilder data = new StringBuilder();
             data.append('"').append(header[i].getName()).append('"').append(':');
-            if (Type.isNumeric(header[i].getType())) {
+            if (nulls.get(i)) {
+                data.append("null");
+            } else if (Type.isNumeric(header[i].getType())) {
                 data.append(values[i]);
             } else {
-                data.append('"').append(values[i]).append('"');
+                data.append('"').append(Parser.parseString(header[i].getType(), values[i])).append('"');
             }
             return data.toString();
         }).toArray(String[]::new);
@@ -402,7 +490,7 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
         Map<Schema, Object> map = new HashMap<>();
         for (int i = 0; i < length; i++) {
             int index = find(fieldNames[i]);
-            if (index > 0) {
+            if (index >= 0) {
                 map.put(header[index], getValue(index).getValue());
             } else {
                 throw new IllegalArgumentException(
@@ -425,11 +513,13 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
         Object old =  values[index];
         if (value == null) {
             values[index] = Parser.defaultValue(header[index].getType());
+            nulls.set(index);
         } else {
             if (!Parser.matches(header[index].getType(), value))
                 throw new IllegalArgumentException("The Value (" + value + "[ " + value.getClass().getName() +
                                 "]) can not match the type of ([" + header[index] + "]).");
             values[index] = value;
+            nulls.clear(index);
         }
         return old;
     }
@@ -441,17 +531,16 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
 
     @Override
     public final Row split(int startIndex, int endIndex) {
-        rangeCheck(startIndex);
-        rangeCheck(endIndex);
-        if (startIndex < endIndex)
-            throw new IllegalArgumentException(
-                    "The parameter startIndex must be bigger than endIndex (" + startIndex+ " - " + endIndex + ")");
+        if (startIndex < 0 || endIndex > size || startIndex > endIndex)
+            throw new IndexOutOfBoundsException("index out of range [startIndex = " + startIndex + ", endIndex = "
+                    + endIndex + ", size: " + size + "]");
         if (startIndex == 0 && endIndex == size) {
-            return new DataRow(header.clone(), values.clone());
+            return new DataRow(header.clone(), values.clone(), nulls, 0);
         } else {
             return new DataRow(
                     Arrays.copyOfRange(header, startIndex,  endIndex),
-                    Arrays.copyOfRange(values, startIndex,  endIndex )
+                    Arrays.copyOfRange(values, startIndex,  endIndex ),
+                    nulls, startIndex
             );
         }
     }
@@ -459,18 +548,18 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
     @Override
     public final Row split(String... fieldNames) {
         if (fieldNames.length == 0)
-            return new DataRow(header.clone(), values.clone());
+            return new DataRow(header.clone(), values.clone(), nulls, 0);
         if ("*".equals(fieldNames[0]))
-            return new DataRow(header.clone(), values.clone());
+            return new DataRow(header.clone(), values.clone(), nulls, 0);
         int length = fieldNames.length;
         Schema [] k = new Schema[length];
         Object [] v = new Object[length];
         for (int i = 0; i < length; i++) {
 
             int index = find(fieldNames[i]);
-            if (index > 0) {
+            if (index >= 0) {
                 k[i] = this.header[index];
-                v[i] = this.values[index];
+                v[i] = get(index);
             } else {
                 throw new IllegalArgumentException(
                         "header has not contains field as ([" + i + "] " + fieldNames[i] + ").");
@@ -497,7 +586,7 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
     @Override
     public final Value[] values() {
         return IntStream.range(0, size)
-                .mapToObj(i -> Parser.parseValue(header[i], values[i])).toArray(Value[]::new);
+                .mapToObj(i -> Parser.parseValue(header[i], get(i))).toArray(Value[]::new);
         /*Value[] retval = new Value[size];
         for (int i = 0; i < size; i++) {
             retval[i] = Parser.parseValue(header[i].getType(), values[i]);
@@ -508,7 +597,7 @@ public final class DataRow implements Row, Comparable<Row>, AutoCloseable  {
     @Override
     public final Value[] values(boolean primary) {
         return IntStream.range(0, size).filter(i -> header[i].isPrimary() == primary)
-                .mapToObj(i -> Parser.parseValue(header[i], values[i])).toArray(Value[]::new);
+                .mapToObj(i -> Parser.parseValue(header[i], get(i))).toArray(Value[]::new);
         //Value[] retval = new Value[size];
         //for (int i = 0; i < size; i++) {
         //    if ()
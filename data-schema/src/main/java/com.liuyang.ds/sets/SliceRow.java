@@ -0,0 +1,643 @@
+package com.liuyang.ds.sets;
+
+import com.liuyang.ds.*;
+import com.liuyang.ds.types.SliceValue;
+import com.liuyang.tools.StringUtils;
+import com.liuyang.tools.TimeUtils;
+import com.sun.istack.internal.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 切片数据行
+ * <p>
+ *     数据行视图，各字段以 (offset, length) 指向同一个 <code>ByteBuffer</code> 或 <code>byte[]</code> 中的 UTF-8 文本，
+ *     创建、投影（<code>split</code>）以及在处理阶段之间传递时都不复制数据，只复制字段下标。
+ *     数字、布尔及日期时间字段直接从字节中解析，不创建字符串。
+ * </p>
+ * <p>
+ *     写时复制：<code>setValue</code> 与 <code>setNull</code> 只修改当前视图，修改后的值保存在视图自身，
+ *     原数据及共享同一数据的其他视图不受影响。
+ * </p>
+ * <ul>
+ *     <li>2019/3/27  ver 1.0.0 创建。</li>
+ *     <li>2019/4/10  ver 1.0.1 hashCode 与 equals 一致，按字段文本计算，修改过与未修改的字段结果相同。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.1
+ * @see com.liuyang.ds.Row
+ */
+public final class SliceRow implements Row, Comparable<Row> {
+
+    /**
+     * 创建切片数据行
+     * @param header 表头
+     * @param buffer 数据
+     * @param offsets 各字段起始位置
+     * @param lengths 各字段长度，小于 0 表示空值
+     * @return 返回切片数据行。
+     */
+    public static SliceRow wrap(@NotNull Schema[] header, @NotNull ByteBuffer buffer,
+                                @NotNull int[] offsets, @NotNull int[] lengths) {
+        if (offsets.length < header.length || lengths.length < header.length)
+            throw new IllegalArgumentException("Illegal parameter [offsets = " + offsets.length + ", lengths = "
+                    + lengths.length + "], less than header size " + header.length + ".");
+        SliceRow row = new SliceRow(header);
+        row.reset(buffer, offsets, lengths);
+        return row;
+    }
+
+    public static SliceRow wrap(@NotNull Schema[] header, @NotNull byte[] data,
+                                @NotNull int[] offsets, @NotNull int[] lengths) {
+        return wrap(header, ByteBuffer.wrap(data), offsets, lengths);
+    }
+
+    private volatile Schema[]   header;
+    private volatile ByteBuffer buffer;
+    private volatile int[]      offsets;
+    private volatile int[]      lengths;
+    private volatile Bitmap     nulls;
+    /** 被修改过的字段值，只有修改时才创建 */
+    private volatile Object[]   modified;
+
+    private transient int size;
+    private transient int modCount;
+
+    public SliceRow(@NotNull Schema[] header) {
+        this.header  = header;
+        this.size    = header.length;
+        this.offsets = new int[size];
+        this.lengths = new int[size];
+        this.nulls   = new Bitmap(size);
+        this.buffer  = ByteBuffer.allocate(0);
+    }
+
+    /**
+     * 查询字符串并返回其索引
+     * @param name 字段名称
+     * @return 返回字段名称对应的索引位置
+     * @throws IndexOutOfBoundsException 无法匹配字段名称时抛出异常
+     */
+    private int find(String name) {
+        Objects.requireNonNull(name);
+        for (int i = 0; i < size; i++) {
+            if (name.equals(header[i].getName())) return i;
+        }
+        throw new IndexOutOfBoundsException("can not found the index of [name = " + name + "].");
+    }
+
+    private void rangeCheck(int index) {
+        if (index >= size || index < 0)
+            throw new IndexOutOfBoundsException("index out of range [index = " + index + ", size: " + size + "]");
+    }
+
+    // 是否被修改过
+    private boolean isModified(int index) {
+        return modified != null && modified[index] != null;
+    }
+
+    /**
+     * 重新指向新的数据，用于逐行复用同一个实例
+     * @param buffer 数据
+     * @param offsets 各字段起始位置
+     * @param lengths 各字段长度，小于 0 表示空值
+     * @return 返回实例指向
+     */
+    public final SliceRow reset(@NotNull ByteBuffer buffer, @NotNull int[] offsets, @NotNull int[] lengths) {
+        modCount++;
+        this.buffer   = buffer;
+        this.modified = null;
+        System.arraycopy(offsets, 0, this.offsets, 0, size);
+        System.arraycopy(lengths, 0, this.lengths, 0, size);
+        for (int i = 0; i < size; i++)
+            nulls.set(i, lengths[i] < 0);
+        return this;
+    }
+
+    /**
+     * 按分隔符解析一行数据，只记录各字段的位置，不复制数据
+     * <p>
+     *     超出表头长度的字段被忽略，不足的字段置为空值。
+     * </p>
+     * @param data 数据
+     * @param offset 行起始位置
+     * @param length 行长度
+     * @param delimiter 字段分隔符（单字节）
+     * @return 返回实例指向
+     */
+    public final SliceRow parse(@NotNull byte[] data, int offset, int length, byte delimiter) {
+        return parse(ByteBuffer.wrap(data), offset, length, delimiter);
+    }
+
+    public final SliceRow parse(@NotNull ByteBuffer data, int offset, int length, byte delimiter) {
+        modCount++;
+        this.buffer   = data;
+        this.modified = null;
+        int end   = offset + length;
+        int start = offset;
+        int field = 0;
+        for (int i = offset; i <= end && field < size; i++) {
+            if (i == end || data.get(i) == delimiter) {
+                offsets[field] = start;
+                lengths[field] = i - start;
+                nulls.clear(field);
+                field++;
+                start = i + 1;
+            }
+        }
+        for (; field < size; field++) {
+            offsets[field] = 0;
+            lengths[field] = -1;
+            nulls.set(field);
+        }
+        return this;
+    }
+
+    /**
+     * 获取指定字段的数据视图，不复制数据
+     * @param index 索引
+     * @return 返回字段值视图，空值时返回 <code>NullValue</code>。
+     */
+    public final Value getSlice(int index) {
+        rangeCheck(index);
+        if (nulls.get(index))
+            return Parser.parseValue(header[index].getType(), (Object) null);
+        if (isModified(index))
+            return Parser.parseValue(header[index].getType(), modified[index]);
+        return SliceValue.wrap(header[index].getType(), buffer, offsets[index], lengths[index]);
+    }
+
+    /**
+     * 获取修改次数。
+     * @return 返回被修改次数。
+     */
+    public final long getModifiedCount() {
+        return modCount;
+    }
+
+    @Override
+    public final Collection<Object> collect() {
+        return IntStream.range(0, size).mapToObj(this::get).collect(Collectors.toList());
+    }
+
+    @Override
+    public final Collection<Object> collect(int startIndex, int num) {
+        rangeCheck(startIndex);
+        rangeCheck(startIndex + num - 1);
+        return IntStream.range(startIndex, startIndex + num).mapToObj(this::get).collect(Collectors.toList());
+    }
+
+    @Override
+    public final Collection<Object> collect(String... fieldNames) {
+        if (fieldNames.length == 0 || "*".equals(fieldNames[0]))
+            return collect();
+        return Arrays.stream(fieldNames).map(this::get).collect(Collectors.toList());
+    }
+
+    @Override
+    public final Collection<Object> collect(boolean primary) {
+        return IntStream.range(0, size).filter(i -> header[i].isPrimary() == primary)
+                .mapToObj(this::get).collect(Collectors.toList());
+    }
+
+    @Override
+    public final int compareTo(Row other) {
+        if (other == null)
+            return 1;
+        if (other == this)
+            return 0;
+        int otherSize = other.nulls().size();
+        for (int i = 0, length = Math.min(size, otherSize); i < length; i++) {
+            int c = KeyExtractor.compare(this, i, other, i, header[i].getType());
+            if (c != 0)
+                return c;
+        }
+        return Integer.compare(size, otherSize);
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o == null)
+            return false;
+        if (o == this)
+            return true;
+        if (o instanceof SliceRow) {
+            SliceRow other = (SliceRow) o;
+            if (!Arrays.equals(other.header, header) || !other.nulls.equals(nulls))
+                return false;
+            for (int i = 0; i < size; i++) {
+                if (!nulls.get(i) && !Objects.equals(getString(i), other.getString(i)))
+                    return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        int h = nulls.hashCode();
+        for (int i = 0; i < size; i++) {
+            if (nulls.get(i))
+                continue;
+            // 与 equals 一致，按字段文本计算；未修改的字段直接从 UTF-8 字节计算，不创建字符串
+            h = 31 * h + (isModified(i) ? getString(i).hashCode()
+                    : SliceValue.hashText(buffer, offsets[i], lengths[i]));
+        }
+        return h;
+    }
+
+    @Override
+    public final Object get(int index) {
+        rangeCheck(index);
+        if (nulls.get(index))
+            return null;
+        if (isModified(index))
+            return modified[index];
+        return Parser.parse(header[index].getType(), getString(index));
+    }
+
+    @Override
+    public final Object get(String fieldName) {
+        return get(find(fieldName));
+    }
+
+    @Override
+    public final byte[] getBinary(int index) {
+        rangeCheck(index);
+        if (isModified(index))
+            return Parser.parseBinary(modified[index]);
+        return nulls.get(index) ? new byte[0] : SliceValue.copy(buffer, offsets[index], lengths[index]);
+    }
+
+    @Override
+    public final byte[] getBinary(String fieldName) {
+        return getBinary(find(fieldName));
+    }
+
+    @Override
+    public final boolean getBoolean(int index) {
+        rangeCheck(index);
+        if (isModified(index))
+            return Parser.parseBoolean(modified[index]);
+        return !nulls.get(index) && SliceValue.parseBoolean(buffer, offsets[index], lengths[index]);
+    }
+
+    @Override
+    public final boolean getBoolean(String fieldName) {
+        return getBoolean(find(fieldName));
+    }
+
+    @Override
+    public final double getDouble(int index) {
+        rangeCheck(index);
+        if (isModified(index))
+            return Parser.parseDouble(modified[index]);
+        return nulls.get(index) ? 0 : Parser.parseDouble(getString(index));
+    }
+
+    @Override
+    public final double getDouble(String fieldName) {
+        return getDouble(find(fieldName));
+    }
+
+    @Override
+    public final float getFloat(int index) {
+        rangeCheck(index);
+        if (isModified(index))
+            return Parser.parseFloat(modified[index]);
+        return nulls.get(index) ? 0 : Parser.parseFloat(getString(index));
+    }
+
+    @Override
+    public final float getFloat(String fieldName) {
+        return getFloat(find(fieldName));
+    }
+
+    @Override
+    public final int getInteger(int index) {
+        return (int) getLong(index);
+    }
+
+    @Override
+    public final int getInteger(String fieldName) {
+        return getInteger(find(fieldName));
+    }
+
+    @Override
+    public final long getLong(int index) {
+        rangeCheck(index);
+        if (isModified(index))
+            return Parser.parseLong(modified[index]);
+        return nulls.get(index) ? 0L : SliceValue.parseLong(buffer, offsets[index], lengths[index]);
+    }
+
+    @Override
+    public final long getLong(String fieldName) {
+        return getLong(find(fieldName));
+    }
+
+    @Override
+    public final int getDate(int index) {
+        rangeCheck(index);
+        if (isModified(index))
+            return Parser.parseDate(modified[index]);
+        if (nulls.get(index) || lengths[index] == 0)
+            return 0;
+        try {
+            return TimeUtils.parseEpochDay(SliceValue.ascii(buffer, offsets[index], lengths[index]));
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public final int getDate(String fieldName) {
+        return getDate(find(fieldName));
+    }
+
+    @Override
+    public final long getTimestamp(int index) {
+        rangeCheck(index);
+        if (isModified(index))
+            return Parser.parseTimestamp(modified[index]);
+        if (nulls.get(index) || lengths[index] == 0)
+            return 0L;
+        try {
+            return TimeUtils.parseEpochMicros(SliceValue.ascii(buffer, offsets[index], lengths[index]));
+        } catch (IllegalArgumentException e) {
+            return 0L;
+        }
+    }
+
+    @Override
+    public final long getTimestamp(String fieldName) {
+        return getTimestamp(find(fieldName));
+    }
+
+    @Override
+    public final boolean isNull(int index) {
+        rangeCheck(index);
+        return nulls.get(index);
+    }
+
+    @Override
+    public final boolean isNull(String fieldName) {
+        return isNull(find(fieldName));
+    }
+
+    @Override
+    public final Bitmap nulls() {
+        return nulls;
+    }
+
+    @Override
+    public final void setNull(int index) {
+        rangeCheck(index);
+        if (modified != null)
+            modified[index] = null;
+        nulls.set(index);
+    }
+
+    @Override
+    public final void setNull(String fieldName) {
+        setNull(find(fieldName));
+    }
+
+    @Override
+    public final short getShort(int index) {
+        return (short) getLong(index);
+    }
+
+    @Override
+    public final short getShort(String fieldName) {
+        return getShort(find(fieldName));
+    }
+
+    @Override
+    public final String getString(int index) {
+        rangeCheck(index);
+        if (isModified(index))
+            return Parser.parseString(header[index].getType(), modified[index]);
+        return nulls.get(index) ? "" : SliceValue.decode(buffer, offsets[index], lengths[index]);
+    }
+
+    @Override
+    public final String getString(String fieldName) {
+        return getString(find(fieldName));
+    }
+
+    @Override
+    public final Value getValue(int index) {
+        return getSlice(index);
+    }
+
+    @Override
+    public final Value getValue(String fieldName) {
+        return getValue(find(fieldName));
+    }
+
+    @Override
+    public final Schema[] header() {
+        return Arrays.copyOf(header, header.length);
+    }
+
+    @Override
+    public final Schema[] header(boolean primary) {
+        return Arrays.stream(header).filter(e -> e.isPrimary() == primary).toArray(Schema[]::new);
+    }
+
+    /**
+     * 将数据输出为字符串
+     * @param delimiter 字段分隔符号
+     * @param containsHeader 是否输入标题
+     * @return 返回字符串数据。
+     */
+    public final String join(CharSequence delimiter, boolean containsHeader) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i > 0)
+                builder.append(delimiter);
+            if (containsHeader)
+                builder.append(header[i].getName()).append('=');
+            builder.append(nulls.get(i) ? "null" : getString(i));
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public Object[] toArray() {
+        return IntStream.range(0, size).mapToObj(this::get).toArray(Object[]::new);
+    }
+
+    @Override
+    public String toJSON() {
+        StringBuilder builder = new StringBuilder();
+        builder.append('{');
+        String[] arr = IntStream.range(0, size).mapToObj(i -> {
+            StringBuilder data = new StringBuilder();
+            data.append('"').append(header[i].getName()).append('"').append(':');
+            if (nulls.get(i)) {
+                data.append("null");
+            } else if (Type.isNumeric(header[i].getType())) {
+                data.append(getString(i));
+            } else {
+                data.append('"').append(getString(i)).append('"');
+            }
+            return data.toString();
+        }).toArray(String[]::new);
+        builder.append(StringUtils.join(", ", arr));
+        builder.append('}');
+        return builder.toString();
+    }
+
+    @Override
+    public Map<String, Object> toNamedMap() {
+        Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < size; i++)
+            map.putIfAbsent(header[i].getName(), get(i));
+        return map;
+    }
+
+    @Override
+    public Map<Schema, Object> toMap() {
+        return toMap(0, size);
+    }
+
+    @Override
+    public Map<Schema, Object> toMap(int startIndex, int num) {
+        rangeCheck(startIndex);
+        rangeCheck(startIndex + num - 1);
+        Map<Schema, Object> map = new HashMap<>();
+        for (int i = startIndex; i < startIndex + num; i++)
+            map.put(header[i], get(i));
+        return map;
+    }
+
+    @Override
+    public Map<Schema, Object> toMap(@NotNull String... fieldNames) {
+        if (fieldNames.length == 0 || "*".equals(fieldNames[0]))
+            return toMap();
+        Map<Schema, Object> map = new HashMap<>();
+        for (String name : fieldNames) {
+            int index = find(name);
+            map.put(header[index], get(index));
+        }
+        return map;
+    }
+
+    @Override
+    public Map<Schema, Object> toMap(boolean primary) {
+        Map<Schema, Object> map = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            if (header[i].isPrimary() == primary)
+                map.put(header[i], get(i));
+        }
+        return map;
+    }
+
+    /**
+     * 修改字段值（写时复制，只修改当前视图）
+     * @param index 索引
+     * @param value 字段值，null 表示空值
+     * @return 返回原字段值。
+     */
+    @Override
+    public final Object setValue(int index, Object value) {
+        rangeCheck(index);
+        Object old = get(index);
+        if (value == null) {
+            setNull(index);
+            return old;
+        }
+        if (!Parser.matches(header[index].getType(), value))
+            throw new IllegalArgumentException(
+                    "The Value (" + value + ") can not match the type of " + header[index] + ".");
+        if (modified == null)
+            modified = new Object[size];
+        modified[index] = value;
+        nulls.clear(index);
+        return old;
+    }
+
+    @Override
+    public Object setValue(String fieldName, Object value) {
+        return setValue(find(fieldName), value);
+    }
+
+    @Override
+    public final String toString(char delimiter) {
+        return join(String.valueOf(delimiter), true);
+    }
+
+    @Override
+    public final String toString(String delimiter) {
+        return join(delimiter, true);
+    }
+
+    @Override
+    public final String toString() {
+        return '[' + join(", ", true) + ']';
+    }
+
+    // 按下标投影，共享数据，只复制字段下标
+    private SliceRow project(int[] index) {
+        int length = index.length;
+        Schema[] k = new Schema[length];
+        SliceRow row = new SliceRow(k);
+        row.buffer = buffer;
+        for (int i = 0; i < length; i++) {
+            int j = index[i];
+            k[i] = header[j];
+            row.offsets[i] = offsets[j];
+            row.lengths[i] = lengths[j];
+            row.nulls.set(i, nulls.get(j));
+            if (isModified(j)) {
+                if (row.modified == null)
+                    row.modified = new Object[length];
+                row.modified[i] = modified[j];
+            }
+        }
+        return row;
+    }
+
+    /**
+     * 拆分数据行，新的数据行与当前数据行共享数据，不复制
+     * @param startIndex 开始位置（包含）
+     * @param endIndex 结束位置（不包含）
+     * @return 返回新的数据行。
+     */
+    @Override
+    public final Row split(int startIndex, int endIndex) {
+        if (startIndex < 0 || endIndex > size || startIndex > endIndex)
+            throw new IndexOutOfBoundsException("index out of range [startIndex = " + startIndex + ", endIndex = "
+                    + endIndex + ", size: " + size + "]");
+        return project(IntStream.range(startIndex, endIndex).toArray());
+    }
+
+    /**
+     * 按字段拆分（投影）数据行，新的数据行与当前数据行共享数据，不复制
+     * @param fieldNames 指定字段
+     * @return 返回新的数据行。
+     */
+    @Override
+    public final Row split(String... fieldNames) {
+        if (fieldNames.length == 0 || "*".equals(fieldNames[0]))
+            return split(0, size);
+        return project(Arrays.stream(fieldNames).mapToInt(this::find).toArray());
+    }
+
+    @Override
+    public final Value[] values() {
+        return IntStream.range(0, size).mapToObj(this::getSlice).toArray(Value[]::new);
+    }
+
+    @Override
+    public final Value[] values(boolean primary) {
+        return IntStream.range(0, size).filter(i -> header[i].isPrimary() == primary)
+                .mapToObj(this::getSlice).toArray(Value[]::new);
+    }
+}
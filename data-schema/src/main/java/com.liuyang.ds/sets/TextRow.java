@@ -16,15 +16,19 @@ import java.util.stream.IntStream;
  *     <li>2019/1/21  ver 1.0.1 新增功能 <code>setValue</code> 。</li>
  *     <li>2019/1/22  ver 1.0.1 新增功能 <code>getModifiedCount</code> （此属于初始版本设计功能）。</li>
  *     <li>2019/2/19  ver 1.0.3 新增功能 <code>get, toString, toArray</code> （此属于初始版本设计功能）。</li>
+ *     <li>2019/3/18  ver 1.0.4 新增功能 <code>getDate, getTimestamp</code> 。</li>
+ *     <li>2019/3/20  ver 1.0.5 新增功能 <code>isNull, setNull, nulls</code> ，空值以位图标识。</li>
+ *     <li>2019/3/25  ver 1.0.6 修正 <code>compareTo</code> 为按字段比较，新增 <code>hashCode</code> 。</li>
  * </ul>
  * @author liuyang
- * @version 1.0.3
+ * @version 1.0.6
  * @see com.liuyang.ds.Row
  */
 public final class TextRow implements Row, Serializable, Comparable<Row> {
 
     private volatile Schema[] header;
     private volatile String[] values;
+    private volatile Bitmap   nulls;
 
     private volatile int size;
     private volatile int modCount;
@@ -33,12 +37,14 @@ public final class TextRow implements Row, Serializable, Comparable<Row> {
         this.header = header;
         this.size   = header.length;
         this.values = new String[size];
+        this.nulls  = new Bitmap(size);
     }
 
     public TextRow(Schema[] header, String [] arr) {
         this.header = header;
         this.size = header.length;
         this.values = new String[size];
+        this.nulls  = new Bitmap(size);
         this.parse(arr);
     }
 
@@ -113,7 +119,14 @@ public final class TextRow implements Row, Serializable, Comparable<Row> {
             return 1;
         if (other == this)
             return 0;
-        return hashCode() - other.hashCode();
+        // 按字段逐个比较，空值最小；字段数不同时，较短的一方在前
+        int otherSize = other.nulls().size();
+        for (int i = 0, length = Math.min(size, otherSize); i < length; i++) {
+            int c = KeyExtractor.compare(this, i, other, i, header[i].getType());
+            if (c != 0)
+                return c;
+        }
+        return Integer.compare(size, otherSize);
     }
 
     @Override
@@ -124,11 +137,17 @@ public final class TextRow implements Row, Serializable, Comparable<Row> {
             return true;
         if (o instanceof TextRow) {
             TextRow other = (TextRow) o;
-            return Arrays.equals(other.header, header) && Arrays.equals(other.values, values);
+            return Arrays.equals(other.header, header) && Arrays.equals(other.values, values)
+                    && other.nulls.equals(nulls);
         }
         return false;
     }
 
+    @Override
+    public final int hashCode() {
+        return 31 * Arrays.hashCode(values) + nulls.hashCode();
+    }
+
     /**
      * 解析字符串数组
      * <p>
@@ -147,11 +166,16 @@ public final class TextRow implements Row, Serializable, Comparable<Row> {
         // 复制数组数据， 原始数据指定位置是 start，总共会复制 length - start 个数据。
         // 复制后的数据截止下标不会超过 length。
         System.arraycopy(arr, start, values, 0, length - start);
+        // 标识空值
+        for (int i = 0; i < length - start; i++) {
+            nulls.set(i, values[i] == null);
+        }
         // 检测是否要清空未覆盖到的数据
         if (truncate)
-            // 如果传入的数组长度未超过 size，则手动清空 values 中下标超过 length 的数据。
-            for (int i = length; i < size; i++) {
-                values[i] = "";
+            // 如果传入的数组长度未超过 size，则将 values 中下标超过 length - start 的数据置为空值。
+            for (int i = length - start; i < size; i++) {
+                values[i] = null;
+                nulls.set(i);
             }
         return this;
     }
@@ -240,6 +264,56 @@ public final class TextRow implements Row, Serializable, Comparable<Row> {
         return getLong(find(fieldName));
     }
 
+    @Override
+    public final int getDate(int index) {
+        rangeCheck(index);
+        return Parser.parseDate(values[index]);
+    }
+
+    @Override
+    public final int getDate(String fieldName) {
+        return getDate(find(fieldName));
+    }
+
+    @Override
+    public final long getTimestamp(int index) {
+        rangeCheck(index);
+        return Parser.parseTimestamp(values[index]);
+    }
+
+    @Override
+    public final long getTimestamp(String fieldName) {
+        return getTimestamp(find(fieldName));
+    }
+
+    @Override
+    public final boolean isNull(int index) {
+        rangeCheck(index);
+        return nulls.get(index);
+    }
+
+    @Override
+    public final boolean isNull(String fieldName) {
+        return isNull(find(fieldName));
+    }
+
+    @Override
+    public final Bitmap nulls() {
+        return nulls;
+    }
+
+    @Override
+    public final void setNull(int index) {
+        rangeCheck(index);
+        values[index] = null;
+        nulls.set(index);
+    }
+
+    @Override
+    public final void setNull(String fieldName) {
+        setNull(find(fieldName));
+    }
+
     @Override
     public final short getShort(int index) {
         rangeCheck(index);
@@ -346,7 +420,9 @@ public final class TextRow implements Row, Serializable, Comparable<Row> {
         String[] arr = IntStream.range(0, size).mapToObj(i -> {
             StringBuilder data = new StringBuilder();
             data.append('"').append(header[i].getName()).append('"').append(':');
-            if (Type.isNumeric(header[i].getType())) {
+            if (nulls.get(i)) {
+                data.append("null");
+            } else if (Type.isNumeric(header[i].getType())) {
                 data.append(values[i]);
             } else {
                 data.append('"').append(values[i]).append('"');
@@ -416,7 +492,7 @@ public final class TextRow implements Row, Serializable, Comparable<Row> {
         Map<Schema, Object> map = new HashMap<>();
         for (int i = 0; i < length; i++) {
             int index = find(fieldNames[i]);
-            if (index > 0) {
+            if (index >= 0) {
                 map.put(header[index], getValue(index).getValue());
             } else {
                 throw new IllegalArgumentException(
@@ -450,11 +526,17 @@ public final class TextRow implements Row, Serializable, Comparable<Row> {
 
     public final Object setValue(int index, Object value) {
         rangeCheck(index);
+        if (value == null) {
+            String old = values[index];
+            setNull(index);
+            return Parser.parse(header[index].getType(), old);
+        }
         if (!Parser.matches(header[index].getType(), value))
             throw new IllegalArgumentException(
                     "The Value (" + value + ") can not match the type of " + header[index] + ".");
         String old =  values[index];
         values[index] = String.valueOf(value);
+        nulls.clear(index);
         return Parser.parse(header[index].getType(), old);
     }
 
@@ -463,11 +545,9 @@ public final class TextRow implements Row, Serializable, Comparable<Row> {
     }
 
     public final Row split(int startIndex, int endIndex) {
-        rangeCheck(startIndex);
-        rangeCheck(endIndex);
-        if (startIndex < endIndex)
-            throw new IllegalArgumentException(
-                    "The parameter startIndex must be bigger than endIndex (" + startIndex+ " - " + endIndex + ")");
+        if (startIndex < 0 || endIndex > size || startIndex > endIndex)
+            throw new IndexOutOfBoundsException("index out of range [startIndex = " + startIndex + ", endIndex = "
+                    + endIndex + ", size: " + size + "]");
         if (startIndex == 0 && endIndex == size) {
             return new TextRow(header.clone(), values.clone());
         } else {
@@ -490,7 +570,7 @@ public final class TextRow implements Row, Serializable, Comparable<Row> {
         for (int i = 0; i < length; i++) {
 
             int index = find(fieldNames[i]);
-            if (index > 0) {
+            if (index >= 0) {
                 k[i] = this.header[index];
                 v[i] = this.values[index];
             } else {
@@ -0,0 +1,197 @@
+package com.liuyang.ds.types;
+
+import com.liuyang.ds.NumberValue;
+import com.liuyang.ds.Type;
+import com.sun.istack.internal.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Null Value
+ * <p>
+ *     表示指定类型的空值（null）。该值不可修改，每种类型只有一个实例，因此可以直接比较引用。
+ * </p>
+ * @author liuyang
+ * @version 1.0.0
+ *
+ */
+public final class NullValue extends PrimitiveValue implements NumberValue {
+
+    private final static Map<Type, NullValue> VALUES = new EnumMap<>(Type.class);
+
+    static {
+        for (Type type : Type.values())
+            VALUES.put(type, new NullValue(type));
+    }
+
+    /**
+     * 获取指定类型的空值
+     * @param type 指定类型
+     * @return 返回空值实例。
+     */
+    public static NullValue of(@NotNull Type type) {
+        return VALUES.get(type);
+    }
+
+    private NullValue(Type type) {
+        super(type);
+    }
+
+    private UnsupportedOperationException immutable() {
+        return new UnsupportedOperationException("NullValue (" + type.getName() + ") can not be modified.");
+    }
+
+    @Override
+    public boolean isNull() {
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object anObject) {
+        return anObject == this;
+    }
+
+    @Override
+    public int hashCode() {
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "null";
+    }
+
+    @Override
+    public final byte[] getBinary() {
+        return new byte[0];
+    }
+
+    @Override
+    public final boolean getBoolean() {
+        return false;
+    }
+
+    @Override
+    public final double getDouble() {
+        return 0;
+    }
+
+    @Override
+    public final float getFloat() {
+        return 0;
+    }
+
+    @Override
+    public final int getInteger() {
+        return 0;
+    }
+
+    @Override
+    public final long getLong() {
+        return 0;
+    }
+
+    @Override
+    public final short getShort() {
+        return 0;
+    }
+
+    @Override
+    public final String getString() {
+        return null;
+    }
+
+    @Override
+    public final Object getValue() {
+        return null;
+    }
+
+    @Override
+    public final void setValue(boolean value) {
+        throw immutable();
+    }
+
+    @Override
+    public final void setValue(byte[] value) {
+        throw immutable();
+    }
+
+    @Override
+    public final void setValue(double value) {
+        throw immutable();
+    }
+
+    @Override
+    public final void setValue(float value) {
+        throw immutable();
+    }
+
+    @Override
+    public final void setValue(int value) {
+        throw immutable();
+    }
+
+    @Override
+    public final void setValue(long value) {
+        throw immutable();
+    }
+
+    @Override
+    public final void setValue(short value) {
+        throw immutable();
+    }
+
+    @Override
+    public final void setValue(String value) {
+        throw immutable();
+    }
+
+    @Override
+    public final void setValue(Object value) {
+        throw immutable();
+    }
+
+    @Override
+    public final void setValue(PrimitiveValue value) {
+        throw immutable();
+    }
+
+    @Override
+    public final void writeValue(OutputStream out) throws IOException {
+        throw immutable();
+    }
+
+    @Override
+    public final void readValue(InputStream in) throws IOException {
+        throw immutable();
+    }
+
+    @Override
+    public final double doubleValue() {
+        return 0;
+    }
+
+    @Override
+    public final float floatValue() {
+        return 0;
+    }
+
+    @Override
+    public final int intValue() {
+        return 0;
+    }
+
+    @Override
+    public final long longValue() {
+        return 0;
+    }
+
+    @Override
+    public final short shortValue() {
+        return 0;
+    }
+}
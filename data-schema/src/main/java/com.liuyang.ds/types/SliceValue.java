@@ -0,0 +1,511 @@
+package com.liuyang.ds.types;
+
+import com.liuyang.ds.Parser;
+import com.liuyang.ds.Type;
+import com.liuyang.tools.TimeUtils;
+import com.sun.istack.internal.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Slice Value
+ * <p>
+ *     指向 <code>ByteBuffer</code> 或 <code>byte[]</code> 中一段数据（offset, length）的值视图，创建与读取时不复制数据。
+ *     文本类型（STRING, VARCHAR 等）按 UTF-8 文本解析，数字直接从字节中解析，不创建字符串；
+ *     二进制类型（BINARY）与 <code>BinaryValue</code> 的解析方式一致。
+ * </p>
+ * <p>
+ *     写时复制：只有调用 <code>setValue</code> 或 <code>setByte</code> 修改数据时，才会复制出独立的数据，原数据不会被修改。
+ * </p>
+ * @author liuyang
+ * @version 1.0.0
+ *
+ */
+public final class SliceValue extends PrimitiveValue {
+
+    public static SliceValue wrap(@NotNull Type type, @NotNull ByteBuffer buffer, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > buffer.limit())
+            throw new IndexOutOfBoundsException("index out of range [offset = " + offset + ", length = " + length
+                    + ", limit: " + buffer.limit() + "]");
+        return new SliceValue(type, buffer, offset, length);
+    }
+
+    public static SliceValue wrap(@NotNull Type type, @NotNull byte[] data, int offset, int length) {
+        return wrap(type, ByteBuffer.wrap(data), offset, length);
+    }
+
+    public static SliceValue wrap(@NotNull Type type, @NotNull byte[] data) {
+        return wrap(type, ByteBuffer.wrap(data), 0, data.length);
+    }
+
+    /**
+     * 将一段 UTF-8 文本解码为字符串
+     * @param buffer 数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 返回字符串。
+     */
+    public static String decode(ByteBuffer buffer, int offset, int length) {
+        if (buffer.hasArray())
+            return new String(buffer.array(), buffer.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        return new String(copy(buffer, offset, length), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 计算一段 UTF-8 文本的散列值，与 <code>decode(buffer, offset, length).hashCode()</code> 相同
+     * <p>
+     *     合法的 UTF-8 文本逐字符计算，不创建字符串；遇到不合法的字节序列时退回为解码后计算，保证结果一致。
+     * </p>
+     * @param buffer 数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 返回散列值。
+     */
+    public static int hashText(ByteBuffer buffer, int offset, int length) {
+        int h = 0;
+        for (int i = offset, end = offset + length; i < end; ) {
+            int b = buffer.get(i) & 0xFF;
+            if (b < 0x80) {
+                h = 31 * h + b;
+                i++;
+                continue;
+            }
+            int n, cp;
+            if (b >= 0xC2 && b <= 0xDF) {
+                n  = 1;
+                cp = b & 0x1F;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                n  = 2;
+                cp = b & 0x0F;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                n  = 3;
+                cp = b & 0x07;
+            } else {
+                return decode(buffer, offset, length).hashCode();
+            }
+            if (i + n >= end)
+                return decode(buffer, offset, length).hashCode();
+            for (int k = 1; k <= n; k++) {
+                int c = buffer.get(i + k) & 0xFF;
+                if ((c & 0xC0) != 0x80)
+                    return decode(buffer, offset, length).hashCode();
+                cp = (cp << 6) | (c & 0x3F);
+            }
+            // 过长编码、代理区与超出范围的码点均不合法
+            if (n == 2 && (cp < 0x800 || (cp >= 0xD800 && cp <= 0xDFFF))
+                    || n == 3 && (cp < 0x10000 || cp > 0x10FFFF))
+                return decode(buffer, offset, length).hashCode();
+            if (n == 3) {
+                h = 31 * h + Character.highSurrogate(cp);
+                h = 31 * h + Character.lowSurrogate(cp);
+            } else {
+                h = 31 * h + cp;
+            }
+            i += n + 1;
+        }
+        return h;
+    }
+
+    /**
+     * 复制一段数据
+     * @param buffer 数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 返回复制后的字节数组。
+     */
+    public static byte[] copy(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++)
+            bytes[i] = buffer.get(offset + i);
+        return bytes;
+    }
+
+    /**
+     * 将一段文本解析为整数，不创建字符串
+     * <p>
+     *     与 <code>Parser.parseLong(String)</code> 一致，无法解析时返回 0。
+     * </p>
+     * @param buffer 数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 返回整数。
+     */
+    public static long parseLong(ByteBuffer buffer, int offset, int length) {
+        if (length <= 0)
+            return 0L;
+        int  i        = offset;
+        int  end      = offset + length;
+        byte first    = buffer.get(i);
+        boolean minus = first == '-';
+        if (minus || first == '+')
+            i++;
+        if (i == end)
+            return 0L;
+        long value = 0;
+        for (; i < end; i++) {
+            int d = buffer.get(i) - '0';
+            if (d < 0 || d > 9 || value < -922337203685477580L)
+                return 0L;
+            value = value * 10 - d;
+            if (value > 0)
+                return 0L;
+        }
+        if (minus)
+            return value;
+        return value == Long.MIN_VALUE ? 0L : -value;
+    }
+
+    /**
+     * 将一段文本解析为布尔值，不创建字符串
+     * @param buffer 数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 返回 true 表示文本为 "true"（忽略大小写）。
+     */
+    public static boolean parseBoolean(ByteBuffer buffer, int offset, int length) {
+        if (length != 4)
+            return false;
+        return (buffer.get(offset) | 0x20) == 't' && (buffer.get(offset + 1) | 0x20) == 'r'
+                && (buffer.get(offset + 2) | 0x20) == 'u' && (buffer.get(offset + 3) | 0x20) == 'e';
+    }
+
+    /**
+     * 将一段数据以 ASCII 字符序列的形式呈现，不复制数据
+     * @param buffer 数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 返回字符序列。
+     */
+    public static CharSequence ascii(ByteBuffer buffer, int offset, int length) {
+        return new AsciiSequence(buffer, offset, length);
+    }
+
+    // ASCII 字符序列视图，用于日期时间等只包含 ASCII 字符的解析
+    private final static class AsciiSequence implements CharSequence {
+        private final ByteBuffer buffer;
+        private final int        offset;
+        private final int        length;
+
+        AsciiSequence(ByteBuffer buffer, int offset, int length) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(offset + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new AsciiSequence(buffer, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return decode(buffer, offset, length);
+        }
+    }
+
+    private volatile ByteBuffer buffer;
+    private volatile int        offset;
+    private volatile int        length;
+    /** 是否持有独立的数据，为 false 时表示数据与其他视图共享，修改前需要复制 */
+    private volatile boolean    owned;
+
+    private SliceValue(Type type, ByteBuffer buffer, int offset, int length) {
+        super(type);
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        this.owned  = false;
+    }
+
+    private boolean isBinary() {
+        return type == Type.BINARY || type == Type.BYTEARRAY;
+    }
+
+    // 替换为独立的数据
+    private void own(byte[] bytes) {
+        buffer = ByteBuffer.wrap(bytes);
+        offset = 0;
+        length = bytes.length;
+        owned  = true;
+    }
+
+    // 按大端序读取最后 8 个字节，与 Parser.parseLong(byte[]) 一致
+    private long readBinaryLong(int width) {
+        int  n     = Math.min(length, width);
+        long value = 0;
+        for (int i = offset + length - n; i < offset + length; i++)
+            value = (value << 8) | (buffer.get(i) & 0xFF);
+        return value;
+    }
+
+    @Override
+    protected void finalize() {
+        type   = null;
+        buffer = null;
+    }
+
+    @Override
+    public boolean equals(Object anObject) {
+        if (anObject == this) return true;
+        if (!(anObject instanceof SliceValue)) return false;
+        SliceValue other = (SliceValue) anObject;
+        if (other.length != length)
+            return false;
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(offset + i) != other.buffer.get(other.offset + i))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        for (int i = offset; i < offset + length; i++)
+            h = 31 * h + buffer.get(i);
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return getString();
+    }
+
+    /**
+     * 获取数据长度
+     * @return 返回字节长度。
+     */
+    @Override
+    public int length() {
+        return length;
+    }
+
+    /**
+     * 获取指定位置的字节
+     * @param index 相对于视图起始位置的索引
+     * @return 返回字节。
+     */
+    public byte byteAt(int index) {
+        if (index >= length || index < 0)
+            throw new IndexOutOfBoundsException("index out of range [index = " + index + ", size: " + length + "]");
+        return buffer.get(offset + index);
+    }
+
+    /**
+     * 获取只读的数据视图，不复制数据
+     * @return 返回 position 为 0、limit 为数据长度的只读 ByteBuffer。
+     */
+    public ByteBuffer getBuffer() {
+        ByteBuffer view = buffer.asReadOnlyBuffer();
+        view.limit(offset + length).position(offset);
+        return view.slice();
+    }
+
+    /**
+     * 截取子视图，不复制数据
+     * @param start 起始位置（包含）
+     * @param end 结束位置（不包含）
+     * @return 返回子视图。
+     */
+    public SliceValue slice(int start, int end) {
+        if (start < 0 || end > length || start > end)
+            throw new IndexOutOfBoundsException("index out of range [start = " + start + ", end = " + end
+                    + ", size: " + length + "]");
+        return new SliceValue(type, buffer, offset + start, end - start);
+    }
+
+    /**
+     * 获取字节数组
+     * <p>
+     *     <i>接口要求返回数组，因此该方法会复制数据；不需要复制时请使用 <code>getBuffer</code>。</i>
+     * </p>
+     * @return 返回字节数组副本。
+     */
+    @Override
+    public final byte[] getBinary() {
+        return copy(buffer, offset, length);
+    }
+
+    @Override
+    public final boolean getBoolean() {
+        return isBinary() ? length > 0 && buffer.get(offset) != 0 : parseBoolean(buffer, offset, length);
+    }
+
+    @Override
+    public final double getDouble() {
+        return isBinary() ? Double.longBitsToDouble(readBinaryLong(8)) : Parser.parseDouble(getString());
+    }
+
+    @Override
+    public final float getFloat() {
+        return isBinary() ? Float.intBitsToFloat((int) readBinaryLong(4)) : Parser.parseFloat(getString());
+    }
+
+    @Override
+    public final int getInteger() {
+        return isBinary() ? (int) readBinaryLong(4) : (int) parseLong(buffer, offset, length);
+    }
+
+    @Override
+    public final long getLong() {
+        return isBinary() ? readBinaryLong(8) : parseLong(buffer, offset, length);
+    }
+
+    @Override
+    public final short getShort() {
+        return isBinary() ? (short) readBinaryLong(2) : (short) parseLong(buffer, offset, length);
+    }
+
+    /**
+     * 获取日期
+     * @return 返回纪元天数，无法解析时返回 0。
+     */
+    public final int getDate() {
+        try {
+            return length == 0 ? 0 : TimeUtils.parseEpochDay(ascii(buffer, offset, length));
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 获取时间戳
+     * @return 返回纪元微秒数，无法解析时返回 0。
+     */
+    public final long getTimestamp() {
+        try {
+            return length == 0 ? 0L : TimeUtils.parseEpochMicros(ascii(buffer, offset, length));
+        } catch (IllegalArgumentException e) {
+            return 0L;
+        }
+    }
+
+    @Override
+    public final String getString() {
+        return decode(buffer, offset, length);
+    }
+
+    @Override
+    public final Object getValue() {
+        return isBinary() ? getBinary() : getString();
+    }
+
+    /**
+     * 修改指定位置的字节（写时复制，首次修改时复制数据）
+     * @param index 相对于视图起始位置的索引
+     * @param value 字节
+     */
+    public synchronized final void setByte(int index, byte value) {
+        if (index >= length || index < 0)
+            throw new IndexOutOfBoundsException("index out of range [index = " + index + ", size: " + length + "]");
+        if (!owned)
+            own(copy(buffer, offset, length));
+        buffer.put(offset + index, value);
+    }
+
+    @Override
+    public synchronized final void setValue(boolean value) {
+        own(isBinary() ? Parser.parseBinary(value) : String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public synchronized final void setValue(byte[] value) {
+        own(value == null ? new byte[0] : value.clone());
+    }
+
+    @Override
+    public synchronized final void setValue(double value) {
+        own(isBinary() ? Parser.parseBinary(value) : String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public synchronized final void setValue(float value) {
+        own(isBinary() ? Parser.parseBinary(value) : String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public synchronized final void setValue(int value) {
+        own(isBinary() ? Parser.parseBinary(value) : String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public synchronized final void setValue(long value) {
+        own(isBinary() ? Parser.parseBinary(value) : String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public synchronized final void setValue(short value) {
+        own(isBinary() ? Parser.parseBinary(value) : String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public synchronized final void setValue(String value) {
+        own(value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public synchronized final void setValue(Object value) {
+        if (value instanceof byte[]) {
+            setValue((byte[]) value);
+        } else {
+            setValue(Parser.parseString(value));
+        }
+    }
+
+    @Override
+    public synchronized final void setValue(PrimitiveValue value) {
+        if (value == null) {
+            own(new byte[0]);
+        } else if (value instanceof SliceValue) {
+            // 共享另一视图的数据，不复制
+            SliceValue other = (SliceValue) value;
+            buffer = other.buffer;
+            offset = other.offset;
+            length = other.length;
+            owned  = false;
+        } else {
+            setValue(isBinary() ? value.getBinary() : value.getString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    public final void writeValue(OutputStream out) throws IOException {
+        if (buffer.hasArray()) {
+            out.write(buffer.array(), buffer.arrayOffset() + offset, length);
+        } else {
+            out.write(getBinary());
+        }
+    }
+
+    /**
+     * 从输入流读取与当前视图等长的数据（写时复制）
+     * @param in 输入流
+     * @throws IOException 读取失败时抛出该异常。
+     */
+    @Override
+    public synchronized final void readValue(InputStream in) throws IOException {
+        byte[] bytes = new byte[length];
+        int read = 0;
+        while (read < length) {
+            int n = in.read(bytes, read, length - read);
+            if (n < 0)
+                break;
+            read += n;
+        }
+        own(read == length ? bytes : java.util.Arrays.copyOf(bytes, read));
+    }
+}
@@ -0,0 +1,239 @@
+package com.liuyang.ds.types;
+
+import com.liuyang.ds.NumberValue;
+import com.liuyang.ds.Parser;
+import com.liuyang.ds.Type;
+import com.liuyang.tools.TimeUtils;
+import com.sun.istack.internal.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+
+/**
+ * Timestamp Value
+ * <p>
+ *     以纪元微秒数（1970-01-01 00:00:00 UTC 起）存储，解析与格式化不创建 <code>Date</code> 实例。
+ * </p>
+ * @author liuyang
+ * @version 1.0.0
+ *
+ */
+public final class TimestampValue extends PrimitiveValue implements NumberValue {
+
+    public static TimestampValue create() {
+        return new TimestampValue();
+    }
+
+    public static TimestampValue create(long value) {
+        return new TimestampValue(value);
+    }
+
+    public static TimestampValue parse(String value) {
+        TimestampValue x = new TimestampValue();
+        x.setValue(value);
+        return x;
+    }
+
+    private volatile long element;
+
+    private TimestampValue(long value) {
+        super(Type.TIMESTAMP);
+        this.element = value;
+    }
+
+    private TimestampValue() {
+        super(Type.TIMESTAMP);
+        this.element = 0;
+    }
+
+    @Override
+    protected void finalize() {
+        type    = null;
+        element = 0;
+    }
+
+    @Override
+    public boolean equals(Object anObject) {
+        if (anObject == this) return true;
+        if (anObject == null) return false;
+        if (anObject instanceof TimestampValue) {
+            return element == ((TimestampValue) anObject).element;
+        }
+        if (anObject instanceof Number) {
+            return element == ((Number) anObject).longValue();
+        }
+        if (anObject instanceof NumberValue) {
+            return element == ((NumberValue) anObject).longValue();
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(element);
+    }
+
+    @Override
+    public String toString() {
+        return TimeUtils.formatEpochMicros(element);
+    }
+
+    @Override
+    public final byte[] getBinary() {
+        return Parser.parseBinary(element);
+    }
+
+    @Override
+    public final boolean getBoolean() {
+        return element > 0;
+    }
+
+    @Override
+    public final double getDouble() {
+        return (double) element;
+    }
+
+    @Override
+    public final float getFloat() {
+        return (float) element;
+    }
+
+    @Override
+    public final int getInteger() {
+        return (int) element;
+    }
+
+    @Override
+    public final long getLong() {
+        return element;
+    }
+
+    @Override
+    public final short getShort() {
+        return (short) element;
+    }
+
+    public final String getString() {
+        return TimeUtils.formatEpochMicros(element);
+    }
+
+    @Override
+    public final Long getValue() {
+        return element;
+    }
+
+    @Override
+    public final void setValue(int value) {
+        element = (long) value;
+    }
+
+    @Override
+    public final void setValue(long value) {
+        element = value;
+    }
+
+    @Override
+    public final void setValue(double value) {
+        element = (long) value;
+    }
+
+    @Override
+    public final void setValue(float value) {
+        element = (long) value;
+    }
+
+    @Override
+    public final void setValue(short value) {
+        element = (long) value;
+    }
+
+    @Override
+    public final void setValue(byte[] value) {
+        element = Parser.parseLong(value);
+    }
+
+    @Override
+    public final void setValue(String value) {
+        element = Parser.parseTimestamp(value);
+    }
+
+    @Override
+    public final void setValue(PrimitiveValue value) {
+        element = value == null ? 0 : value.getLong();
+    }
+
+    @Override
+    public final void setValue(Object value) {
+        element = Parser.parseTimestamp(value);
+    }
+
+    @Override
+    public final void setValue(boolean value) {
+        element = value ? 1 : 0;
+    }
+
+    @Override
+    public final void writeValue(OutputStream o) throws IOException {
+        o.write(getBinary());
+    }
+
+    @Override
+    public final void readValue(InputStream in) throws IOException {
+        byte [] buff = new byte[8];
+        in.read(buff, 0, 8);
+        setValue(buff);
+    }
+
+    @Override
+    public final double doubleValue() {
+        return (double) element;
+    }
+
+    @Override
+    public final float floatValue() {
+        return (float) element;
+    }
+
+    @Override
+    public final int intValue() {
+        return (int) element;
+    }
+
+    @Override
+    public final long longValue() {
+        return element;
+    }
+
+    @Override
+    public final short shortValue() {
+        return (short) element;
+    }
+
+    /**
+     * 获取纪元天数
+     * @return 返回当前时间所在日期的纪元天数。
+     */
+    public final int getEpochDay() {
+        return TimeUtils.microsToEpochDay(element);
+    }
+
+    /**
+     * Compute
+     * @param action 运算表达式
+     */
+    public synchronized final void compute(@NotNull LongFunction<Long> action) {
+        element = action.apply(element);
+    }
+
+    /**
+     * Filter
+     * @param action 过滤表达式
+     * @return 返回 true 表示匹配，返回 false 表示不匹配。
+     */
+    public final boolean filter(@NotNull LongPredicate action) {
+        return action.test(element);
+    }
+}
@@ -0,0 +1,115 @@
+package com.liuyang.ds.vectors;
+
+import com.liuyang.ds.Bitmap;
+import com.liuyang.tools.TimeUtils;
+
+/**
+ * 日期向量
+ * <p>
+ *     以纪元天数（1970-01-01 为第 0 天）连续存储，避免每个元素的装箱与 <code>Date</code> 实例。
+ *     空值（null）以位图标识，空值位置存放 0。
+ * </p>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public class DateVector {
+
+    private int[] col;
+    private Bitmap nulls;
+
+    private int mark;
+
+    public DateVector() {
+        this(1024);
+    }
+
+    public DateVector(int intCapacity) {
+        if (intCapacity >= Integer.MAX_VALUE || intCapacity < 0)
+            throw new IllegalArgumentException("Illegal intCapacity parameter [" + intCapacity + "].");
+        col   = new int[intCapacity];
+        nulls = new Bitmap(intCapacity);
+    }
+
+    private void rangeCheck(int index, int range) {
+        if (index >= range || index < 0)
+            throw new IndexOutOfBoundsException("index out of range [index = " + index + ", size: " + range + "].");
+    }
+
+    public void add(int epochDay) {
+        rangeCheck(mark, col.length);
+        nulls.clear(mark);
+        col[mark++] = epochDay;
+    }
+
+    /**
+     * 添加空值
+     */
+    public void addNull() {
+        rangeCheck(mark, col.length);
+        nulls.set(mark);
+        col[mark++] = 0;
+    }
+
+    public boolean isNull(int index) {
+        rangeCheck(index, mark);
+        return nulls.get(index);
+    }
+
+    /**
+     * 获取空值位图，可用于跳过空值，如：<code>nulls().nextClearBit(i)</code>
+     * @return 返回空值位图
+     */
+    public Bitmap nulls() {
+        return nulls;
+    }
+
+    /**
+     * 添加日期文本
+     * @param value 日期文本，null 表示空值，如：<code>2019-01-01</code> 或 <code>20190101</code>
+     */
+    public void add(CharSequence value) {
+        if (value == null) {
+            addNull();
+            return;
+        }
+        add(TimeUtils.parseEpochDay(value));
+    }
+
+    public int get(int index) {
+        rangeCheck(index, mark);
+        return col[index];
+    }
+
+    public String getString(int index) {
+        return isNull(index) ? null : TimeUtils.formatEpochDay(col[index]);
+    }
+
+    public void fill(int epochDay) {
+        for (int i = mark; i < col.length; i++) {
+            col[i] = epochDay;
+            nulls.clear(i);
+        }
+        mark = col.length;
+    }
+
+    public void reset() {
+        mark = 0;
+        nulls.clear();
+    }
+
+    public int set(int index, int epochDay) {
+        rangeCheck(index, mark);
+        int old = col[index];
+        col[index] = epochDay;
+        nulls.clear(index);
+        return old;
+    }
+
+    public int capacity() {
+        return col.length;
+    }
+
+    public int size() {
+        return mark;
+    }
+}
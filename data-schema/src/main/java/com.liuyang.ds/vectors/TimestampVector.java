@@ -0,0 +1,115 @@
+package com.liuyang.ds.vectors;
+
+import com.liuyang.ds.Bitmap;
+import com.liuyang.tools.TimeUtils;
+
+/**
+ * 时间戳向量
+ * <p>
+ *     以纪元微秒数连续存储，避免每个元素的装箱与 <code>Date</code> 实例。
+ *     空值（null）以位图标识，空值位置存放 0。
+ * </p>
+ * @author liuyang
+ * @version 1.0.0
+ */
+public class TimestampVector {
+
+    private long[] col;
+    private Bitmap nulls;
+
+    private int mark;
+
+    public TimestampVector() {
+        this(1024);
+    }
+
+    public TimestampVector(int intCapacity) {
+        if (intCapacity >= Integer.MAX_VALUE || intCapacity < 0)
+            throw new IllegalArgumentException("Illegal intCapacity parameter [" + intCapacity + "].");
+        col   = new long[intCapacity];
+        nulls = new Bitmap(intCapacity);
+    }
+
+    private void rangeCheck(int index, int range) {
+        if (index >= range || index < 0)
+            throw new IndexOutOfBoundsException("index out of range [index = " + index + ", size: " + range + "].");
+    }
+
+    public void add(long epochMicros) {
+        rangeCheck(mark, col.length);
+        nulls.clear(mark);
+        col[mark++] = epochMicros;
+    }
+
+    /**
+     * 添加空值
+     */
+    public void addNull() {
+        rangeCheck(mark, col.length);
+        nulls.set(mark);
+        col[mark++] = 0;
+    }
+
+    public boolean isNull(int index) {
+        rangeCheck(index, mark);
+        return nulls.get(index);
+    }
+
+    /**
+     * 获取空值位图，可用于跳过空值，如：<code>nulls().nextClearBit(i)</code>
+     * @return 返回空值位图
+     */
+    public Bitmap nulls() {
+        return nulls;
+    }
+
+    /**
+     * 添加时间文本
+     * @param value 时间文本，null 表示空值，如：<code>2019-01-01 12:30:59</code>、<code>20190101123059</code> 或 ISO-8601
+     */
+    public void add(CharSequence value) {
+        if (value == null) {
+            addNull();
+            return;
+        }
+        add(TimeUtils.parseEpochMicros(value));
+    }
+
+    public long get(int index) {
+        rangeCheck(index, mark);
+        return col[index];
+    }
+
+    public String getString(int index) {
+        return isNull(index) ? null : TimeUtils.formatEpochMicros(col[index]);
+    }
+
+    public void fill(long epochMicros) {
+        for (int i = mark; i < col.length; i++) {
+            col[i] = epochMicros;
+            nulls.clear(i);
+        }
+        mark = col.length;
+    }
+
+    public void reset() {
+        mark = 0;
+        nulls.clear();
+    }
+
+    public long set(int index, long epochMicros) {
+        rangeCheck(index, mark);
+        long old = col[index];
+        col[index] = epochMicros;
+        nulls.clear(index);
+        return old;
+    }
+
+    public int capacity() {
+        return col.length;
+    }
+
+    public int size() {
+        return mark;
+    }
+}
@@ -4,6 +4,10 @@ import com.liuyang.common.ManagerClient;
 import com.liuyang.common.ManagerClientMonitor;
 import com.liuyang.ftp.*;
 import com.liuyang.log.Logger;
+import com.liuyang.metrics.Counter;
+import com.liuyang.metrics.Histogram;
+import com.liuyang.metrics.Metrics;
+import com.liuyang.tools.IOUtils;
 import com.liuyang.tools.StringUtils;
 import com.liuyang.tools.TimeUtils;
 import com.sun.istack.internal.NotNull;
@@ -29,11 +33,24 @@ import java.util.function.Predicate;
  * RNTO SITE SIZE SMNT STAT STOR STOU STRU SYST TYPE USER XCUP XCWD XMKD
  * XPWD XRMD
  * </p>
- * @version 1.0.0
+ * <ul>
+ *     <li>2019/3/31 ver 1.0.1 增加度量：下载、上传、列表的耗时与数据量。</li>
+ *     <li>2019/4/6 ver 1.0.2 下载、上传改用 IOUtils.copy（64 KB 池化缓冲区），增加传输限速 setBytesPerSecond。</li>
+ *     <li>2019/4/10 ver 1.0.3 按行读取与列表结束时只停止监控，不再关闭客户端；空闲超时仍由监控关闭。</li>
+ * </ul>
+ * @version 1.0.3
  */
 public class FTPClient implements ManagerClient, Closeable {
     private final static Logger logger = Logger.getLogger(FTPClient.class);
 
+    private final static Histogram GET_NANOS  = Metrics.histogram("ftp.get.nanos");
+    private final static Counter   GET_BYTES  = Metrics.counter("ftp.get.bytes");
+    private final static Histogram PUT_NANOS  = Metrics.histogram("ftp.put.nanos");
+    private final static Counter   PUT_BYTES  = Metrics.counter("ftp.put.bytes");
+    private final static Histogram LIST_NANOS = Metrics.histogram("ftp.list.nanos");
+    private final static Counter   LIST_FILES = Metrics.counter("ftp.list.files");
+    private final static Counter   ERRORS     = Metrics.counter("ftp.errors");
+
     // FTP 流模式
     private enum Mode {
         /** 追加追加文件数据：客户端需要能过输出流上传数据。 */
@@ -59,6 +76,8 @@ public class FTPClient implements ManagerClient, Closeable {
 
     private boolean debug = true;
     private volatile long last = 0;
+    /** 下载、上传限速（字节/秒），小于等于 0 表示不限速 */
+    private volatile long bytesPerSecond = 0;
 
 
     FTPClient () {
@@ -444,6 +463,14 @@ public class FTPClient implements ManagerClient, Closeable {
         debug = true;
     }
 
+    /**
+     * 设置下载、上传的限速
+     * @param bytesPerSecond 每秒字节数，小于等于 0 表示不限速
+     */
+    public void setBytesPerSecond(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
     // 判断文件或路径是否存在
     public synchronized boolean exists(String path) throws FTPClientException {
         FTPResponse resp = send("STAT", path);
@@ -461,6 +488,17 @@ public class FTPClient implements ManagerClient, Closeable {
 
     }
 
+    // 复制参数：每复制一块数据更新文件长度与最后连接时间
+    private IOUtils.CopyOptions transferOptions(FileStatus status) {
+        long base = status.getLength();
+        return new IOUtils.CopyOptions()
+                .setBytesPerSecond(bytesPerSecond)
+                .setProgressListener(transferred -> {
+                    recordLastConnectionTime();
+                    status.setLength(base + transferred);
+                });
+    }
+
     /**
      * 从服务器上下载文件到本地
      * @param path 服务器文件路径
@@ -473,22 +511,21 @@ public class FTPClient implements ManagerClient, Closeable {
                     @NotNull final FileStatus status) throws FTPClientException {
         open0(path, Mode.OPEN,  0, (in, out) -> {
             //ManagerClientMonitor monitor = ManagerClientMonitor.monitoring(this, connTimeout);
+            long start = Metrics.ENABLED ? System.nanoTime() : 0;
             try (FileOutputStream fout = new FileOutputStream(local, append)) {
                 status.setStartTime();
                 status.setLocalFile(local);
-                byte[] buffer = new byte[1024];
-                while (true) {
-                    int len = in.read(buffer, 0, 1024);
-                    if (len <= -1) break;
-                    // 记录最后连接时间
-                    recordLastConnectionTime();
-                    fout.write(buffer, 0, len);
-                    status.setLength(x -> x + (long) len);
-                }
+                IOUtils.copy(in, fout, transferOptions(status));
                 fout.flush();
                 status.setStatus(FileStatus.STATUS_RECEIVED);
                 status.setEndTime();
+                if (Metrics.ENABLED) {
+                    GET_NANOS.recordSince(start);
+                    GET_BYTES.add(status.getLength());
+                }
             } catch (IOException e) {
+                if (Metrics.ENABLED)
+                    ERRORS.increment();
                 status.setStatus(FileStatus.STATUS_ABORT);
                 throw new FTPClientException(e.getMessage());
             }
@@ -684,7 +721,7 @@ public class FTPClient implements ManagerClient, Closeable {
             } catch (IOException e) {
                 throw new FTPClientException(e.getMessage());
             } finally {
-                monitor.stop();
+                monitor.cancel();
             }
             return length;
         });
@@ -692,6 +729,7 @@ public class FTPClient implements ManagerClient, Closeable {
 
     // 获取文件列表
     private List<FTPFile> listFile0(String path, Predicate<FTPFile> filter) throws FTPClientException {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
         ArrayList<FTPFile> files = new ArrayList<>();
         Socket conn = channel();
         FTPResponse resp;
@@ -719,6 +757,8 @@ public class FTPClient implements ManagerClient, Closeable {
             }
         } catch (IOException e) {
             //e.printStackTrace();
+            if (Metrics.ENABLED)
+                ERRORS.increment();
             throw new FTPClientException(e.getMessage());
         } finally {
             try {
@@ -728,9 +768,13 @@ public class FTPClient implements ManagerClient, Closeable {
                 //e.printStackTrace();
             } finally {
                 recv(); // 最后再接收一次消息
-                monitor.stop();
+                monitor.cancel();
             }
         }
+        if (Metrics.ENABLED) {
+            LIST_NANOS.recordSince(start);
+            LIST_FILES.add(files.size());
+        }
         return files;
     }
 
@@ -832,20 +876,19 @@ public class FTPClient implements ManagerClient, Closeable {
             status.setStartTime();
             status.setLocalFile(local);
             //ManagerClientMonitor monitor = ManagerClientMonitor.monitoring(this, connTimeout);
+            long start = Metrics.ENABLED ? System.nanoTime() : 0;
             try (FileInputStream fin = new FileInputStream(local)) {
-                byte[] buffer = new byte[1024];
-                while (true) {
-                    int len = fin.read(buffer, 0, 1024);
-                    if (len <= -1) break;
-                    out.write(buffer, 0, len);
-                    status.setLength(x -> x + len);
-                    // 记录最后连接时间
-                    recordLastConnectionTime();
-                }
+                IOUtils.copy(fin, out, transferOptions(status));
                 out.flush();
                 status.setStatus(FileStatus.STATUS_SENT);
                 status.setEndTime();
+                if (Metrics.ENABLED) {
+                    PUT_NANOS.recordSince(start);
+                    PUT_BYTES.add(status.getLength());
+                }
             } catch (IOException e) {
+                if (Metrics.ENABLED)
+                    ERRORS.increment();
                 status.setStatus(FileStatus.STATUS_ABORT);
                 throw new FTPClientException(e.getMessage());
             }
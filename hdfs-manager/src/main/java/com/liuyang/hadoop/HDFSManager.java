@@ -169,7 +169,7 @@ public final class HDFSManager implements ManagerClient, AutoCloseable {
         try(FileSystem fs = getFileSystem();
             FileOutputStream out = new FileOutputStream(local, append);
             FSDataInputStream in = fs.open(remote)) {
-            return IOUtils.copy(in, out, 1024, -1, false);
+            return IOUtils.copy(in, out);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -211,9 +211,10 @@ public final class HDFSManager implements ManagerClient, AutoCloseable {
      */
     public final synchronized long put(@NotNull File local, @NotNull Path remote, boolean append) throws  IOException {
         FileSystem fs = getFileSystem();
-        FileInputStream in = new FileInputStream(local);
-        FSDataOutputStream out = append ? fs.append(remote) : fs.create(remote, true);
-        return IOUtils.copy(in, out, 1024, -1, false);
+        try (FileInputStream in = new FileInputStream(local);
+             FSDataOutputStream out = append ? fs.append(remote) : fs.create(remote, true)) {
+            return IOUtils.copy(in, out);
+        }
     }
 
     private Stream<Row> openStream(@NotNull Path path, @NotNull FileType storeType,
@@ -6,6 +6,9 @@ import com.liuyang.ds.Row;
 import com.liuyang.ds.Schema;
 import com.liuyang.ds.attr.Column;
 import com.liuyang.ds.sets.DataRow;
+import com.liuyang.metrics.Counter;
+import com.liuyang.metrics.Histogram;
+import com.liuyang.metrics.Metrics;
 import com.liuyang.util.LinkedList;
 import com.sun.istack.NotNull;
 import org.apache.hadoop.fs.FileSystem;
@@ -37,6 +40,10 @@ import java.util.stream.StreamSupport;
  * @see com.liuyang.ds.DataRecord
  */
 public final class ORCReader implements DataRecord<Row>, Closeable {
+
+    private final static Histogram READ_NANOS = Metrics.histogram("orc.read.batch.nanos");
+    private final static Counter   READ_ROWS  = Metrics.counter("orc.read.rows");
+
     @SuppressWarnings({"unused"})
     private static Object parse(Object o) {
         if (o == null)
@@ -228,7 +235,12 @@ public final class ORCReader implements DataRecord<Row>, Closeable {
             try {
                 boolean result;
                 if (orc.batch.size == 0) {
+                    long start = Metrics.ENABLED ? System.nanoTime() : 0;
                     result = orc.records.nextBatch(orc.batch);
+                    if (Metrics.ENABLED) {
+                        READ_NANOS.recordSince(start);
+                        READ_ROWS.add(orc.batch.size);
+                    }
                     cursor = 0;
                 } else {
                     result = orc.batch.size > 0;
@@ -257,6 +269,12 @@ public final class ORCReader implements DataRecord<Row>, Closeable {
                 int rowCount = cursor++;
                 for (int i = 0; i < orc.fields; i++) {
                     TypeDescription field = orc.children.get(i);
+                    ColumnVector   vector = orc.batch.cols[i];
+                    // 空值交由 DataRow 以位图标识
+                    if (!vector.noNulls && vector.isNull[vector.isRepeating ? 0 : rowCount]) {
+                        values[i] = null;
+                        continue;
+                    }
                     switch(field.getCategory()) {
                         case FLOAT:
                         case DOUBLE: values[i] = ((DoubleColumnVector) orc.batch.cols[i]).vector[rowCount]; break;
@@ -264,6 +282,13 @@ public final class ORCReader implements DataRecord<Row>, Closeable {
                         case INT:
                         case LONG:
                         case SHORT: values[i] = ((LongColumnVector) orc.batch.cols[i]).vector[rowCount]; break;
+                        case DATE:  values[i] = (int) ((LongColumnVector) orc.batch.cols[i]).vector[rowCount]; break;
+                        case TIMESTAMP: {
+                            // 毫秒与纳秒合并为纪元微秒数
+                            TimestampColumnVector ts = (TimestampColumnVector) vector;
+                            values[i] = Math.floorDiv(ts.time[rowCount], 1000L) * 1000000L + ts.nanos[rowCount] / 1000;
+                            break;
+                        }
                         default: values[i] = ((BytesColumnVector) orc.batch.cols[i]).toString(rowCount); break;
                     }
                 }
@@ -3,6 +3,9 @@ package com.liuyang.hadoop.data;
 import com.liuyang.ds.DataRecord;
 import com.liuyang.ds.Row;
 import com.liuyang.ds.Schema;
+import com.liuyang.metrics.Counter;
+import com.liuyang.metrics.Histogram;
+import com.liuyang.metrics.Metrics;
 import com.sun.istack.NotNull;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -26,6 +29,19 @@ import java.util.stream.Stream;
  */
 public class ORCWriter implements Closeable {
 
+    private final static Histogram WRITE_NANOS = Metrics.histogram("orc.write.batch.nanos");
+    private final static Counter   WRITE_ROWS  = Metrics.counter("orc.write.rows");
+
+    // 写入一个批次并记录度量
+    private static void addRowBatch(Writer writer, VectorizedRowBatch batch) throws IOException {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        writer.addRowBatch(batch);
+        if (Metrics.ENABLED) {
+            WRITE_NANOS.recordSince(start);
+            WRITE_ROWS.add(batch.size);
+        }
+    }
+
     public static ORCWriter create(FileSystem fs, Path path, boolean append) {
         return new ORCWriter(fs, path, append);
     }
@@ -48,6 +64,9 @@ public class ORCWriter implements Closeable {
                 case DOUBLE   : schema = TypeDescription.createDouble(); break;
                 case FLOAT    : schema = TypeDescription.createFloat(); break;
                 case STRING   : schema = TypeDescription.createString(); break;
+                case DATE     : schema = TypeDescription.createDate(); break;
+                case DATETIME : schema = TypeDescription.createTimestamp(); break;
+                case TIMESTAMP: schema = TypeDescription.createTimestamp(); break;
                 default: schema = TypeDescription.createString(); break;
             }
             //schema.withScale(scale).withPrecision(precision);
@@ -178,10 +197,25 @@ public class ORCWriter implements Closeable {
                 int rowCount = batch.size++;
                 for(int i = 0; i < batch.numCols; i++) {
                     ColumnVector vector = batch.cols[i];
+                    // 空值只做标识，不写入数据
+                    if (row.isNull(i)) {
+                        vector.noNulls = false;
+                        vector.isNull[rowCount] = true;
+                        continue;
+                    }
+                    vector.isNull[rowCount] = false;
                     switch(children.get(i).getCategory()) {
                         case SHORT:
                         case INT:
                         case LONG:   ((LongColumnVector) vector).vector[rowCount] = row.getLong(i); break;
+                        case DATE:   ((LongColumnVector) vector).vector[rowCount] = row.getDate(i); break;
+                        case TIMESTAMP: {
+                            // 纪元微秒数拆分为毫秒与纳秒
+                            long micros = row.getTimestamp(i);
+                            ((TimestampColumnVector) vector).time[rowCount]  = Math.floorDiv(micros, 1000L);
+                            ((TimestampColumnVector) vector).nanos[rowCount] = (int) Math.floorMod(micros, 1000000L) * 1000;
+                            break;
+                        }
                         case FLOAT:
                         case DOUBLE: ((DoubleColumnVector) vector).vector[rowCount] = row.getDouble(i); break;
                         case BINARY:
@@ -190,7 +224,7 @@ public class ORCWriter implements Closeable {
                     }
                 }
                 if (batch.size == batch.getMaxSize()) {
-                    writer.addRowBatch(batch);
+                    addRowBatch(writer, batch);
                     batch.reset();
                 }
             } catch (IOException e) {
@@ -205,7 +239,7 @@ public class ORCWriter implements Closeable {
             try {
                 // System.out.println("try close ORC writer.");
                 if (batch != null)
-                    writer.addRowBatch(batch);
+                    addRowBatch(writer, batch);
                 // 将文件写入磁盘
                 if (writer != null)
                     writer.close();
@@ -8,39 +8,220 @@ import com.liuyang.ds.Schema;
 import com.liuyang.ds.Type;
 import com.liuyang.ds.sets.DataRow;
 import com.liuyang.jdbc.mysql.MySQLException;
+import com.liuyang.metrics.Counter;
+import com.liuyang.metrics.Histogram;
+import com.liuyang.metrics.Metrics;
 import com.liuyang.tools.StringUtils;
+import com.liuyang.tools.TimeUtils;
+import com.liuyang.util.primitive.IntList;
+import com.sun.istack.internal.NotNull;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 /**
  * Abstract JDBC Manager
+ * <p>
+ *     每个操作都先租用连接（{@link #lease()}），结束后归还：
+ * </p>
+ * <ul>
+ *     <li>单连接模式（默认）：所有线程共用一个连接，租用时加锁，操作按先后顺序执行；</li>
+ *     <li>并发模式（{@link #setMaxConnections(int)} 大于 1）：每个操作从内部连接池借出一个连接，
+ *     多个线程可以同时查询、批量写入同一个数据库。查询结果 {@link JDBCRecord} 持有其连接，关闭后归还。</li>
+ * </ul>
+ * <p>
+ *     同一线程内嵌套的操作复用同一个租用的连接。{@link #begin()} 把连接绑定到当前线程直至
+ *     {@link #commit()} 或 {@link #rollback()}，其间该线程的所有操作都在同一个事务中；
+ *     也可以使用 {@link #transaction(TransactionCallback)}。
+ * </p>
  * <ul>
  *     <li>2019/1/1 ver 1.0.0 LiuYang Created,</li>
  *     <li>2019/2/1 ver 1.0.1 LiuYang Add function: merge,</li>
+ *     <li>2019/3/31 ver 1.0.2 增加度量：查询、更新、批量执行的耗时、语句数与错误数。</li>
+ *     <li>2019/4/5 ver 1.0.3 批量执行的结果改用 IntList 收集，不再装箱。</li>
+ *     <li>2019/4/7 ver 1.1.0 方法级 synchronized 改为按操作租用连接；增加并发模式（内部连接池）与线程绑定的事务。</li>
+ *     <li>2019/4/8 ver 1.1.1 增加流式批量写入 batchWrite，可在另一个线程中重叠执行批量语句。</li>
+ *     <li>2019/4/8 ver 1.1.2 增加流式查询 queryStream：只进只读游标与可配置的 fetch size。</li>
+ *     <li>2019/4/9 ver 1.1.3 增加分区并行读取 queryPartitioned：按整数主键范围划分，多个连接同时读取。</li>
+ *     <li>2019/4/9 ver 1.1.4 增加按连接的预编译语句缓存（LRU），见 setStatementCacheSize。</li>
+ *     <li>2019/4/9 ver 1.1.5 parameterOf 改为 protected，供子类绑定数据行参数。</li>
+ *     <li>2019/4/10 ver 1.1.6 增加元数据缓存（按有效期过期，经由管理器执行 DDL 时失效），见 setMetadataCacheMillis。</li>
+ *     <li>2019/4/10 ver 1.1.7 增加异步接口 queryAsync、updateAsync、batchAsync：返回 CompletableFuture，支持超时与取消。</li>
+ *     <li>2019/4/10 ver 1.1.8 queryPartitioned 由不超过最大连接数的专用线程从范围队列中读取，数据流不再使用公共 ForkJoinPool。</li>
  * </ul>
  *
  * @author liuyang
- * @version 1.0.1
+ * @version 1.1.8
  */
 public abstract class AbstractManager implements ManagerClient, AutoCloseable {
 
+    /** 单连接模式下的连接，并发模式下为 null */
     protected volatile Connection         conn;
     protected volatile AbstractJDBCConfig conf;
     private   volatile long               last;
     //private   String         name;
+    private   volatile ConnectionPool     pool;
+    private   volatile int                maxConnections = 1;
+    private   volatile long               maxWaitMillis  = 30000;
+    private   volatile int                fetchSize;
+    private   volatile int                statementCacheSize;
+    /** 每个连接的预编译语句缓存 */
+    private   final Map<Connection, StatementCache> statementCaches = new IdentityHashMap<>();
+    private   volatile long               metadataCacheMillis;
+    private   final MetadataCache         metadataCache = new MetadataCache();
+    /** 执行异步调用的线程池与并发数限制，首次异步调用时创建 */
+    private   volatile ExecutorService    asyncExecutor;
+    private   volatile Semaphore          asyncPermits;
+    /** 单连接模式下租用连接的锁 */
+    private   final ReentrantLock                lock   = new ReentrantLock();
+    /** 当前线程租用的连接 */
+    private   final ThreadLocal<ConnectionLease> leases = new ThreadLocal<>();
+
+    private final static Histogram QUERY_NANOS      = Metrics.histogram("jdbc.query.nanos");
+    private final static Histogram UPDATE_NANOS     = Metrics.histogram("jdbc.update.nanos");
+    private final static Histogram BATCH_NANOS      = Metrics.histogram("jdbc.batch.nanos");
+    private final static Histogram BATCH_STATEMENTS = Metrics.histogram("jdbc.batch.statements");
+    private final static Counter   INSERT_ROWS      = Metrics.counter("jdbc.insert.rows");
+    private final static Counter   ERRORS           = Metrics.counter("jdbc.errors");
+
+    /** 使元数据缓存失效的语句 */
+    private final static String[] DDL_KEYWORDS = {"create", "drop", "alter", "rename", "truncate"};
 
     protected AbstractManager() {
 
     }
 
+    /**
+     * 事务
+     * @param <T> 结果类型
+     */
+    @FunctionalInterface
+    public interface TransactionCallback<T> {
+        /**
+         * 在事务中执行，正常返回后提交，抛出异常时回滚
+         * @param manager 管理器，当前线程的所有操作都在同一个事务中
+         * @return 返回结果。
+         * @throws ManagerException 执行过程中出错则抛出异常。
+         */
+        T execute(AbstractManager manager) throws ManagerException;
+    }
+
+    /**
+     * 租用的连接
+     * <p>
+     *     由 {@link #lease()} 获得，关闭时归还。同一线程嵌套租用时返回同一个对象，最外层关闭时才归还。
+     *     只能在租用的线程中使用与关闭。
+     * </p>
+     */
+    protected final class ConnectionLease implements AutoCloseable {
+        private final Connection     connection;
+        private final ConnectionPool owner;
+        private int                  depth = 1;
+        private boolean              transaction;
+        private boolean              detached;
+        private boolean              broken;
+
+        private ConnectionLease(Connection connection, ConnectionPool owner) {
+            this.connection = connection;
+            this.owner      = owner;
+        }
+
+        public Connection get() {
+            return connection;
+        }
+
+        /**
+         * 标记连接不可用，归还时关闭
+         */
+        public void invalidate() {
+            broken = true;
+        }
+
+        // 把连接交给查询结果：仅在并发模式的最外层租用时有效，之后由返回的对象负责归还
+        private AutoCloseable detach() {
+            if (owner == null || depth > 1 || transaction)
+                return null;
+            detached = true;
+            return () -> owner.release(connection, broken);
+        }
+
+        @Override
+        public void close() {
+            if (--depth > 0)
+                return;
+            leases.remove();
+            if (owner == null)
+                lock.unlock();
+            else if (!detached)
+                owner.release(connection, broken);
+        }
+    }
+
+    /**
+     * 租用连接
+     * <p>
+     *     当前线程已租用连接（嵌套操作或事务中）时返回同一个连接；否则单连接模式下加锁取得共用连接，
+     *     并发模式下从连接池借出。必须在同一线程中关闭（建议使用 try-with-resources）。
+     * </p>
+     * @return 返回租用的连接。
+     * @throws ManagerException 未连接、连接池已关闭或等待超时时抛出异常。
+     */
+    protected final ConnectionLease lease() throws ManagerException {
+        ConnectionLease current = leases.get();
+        if (current != null) {
+            current.depth++;
+            return current;
+        }
+        ConnectionPool  pool = this.pool;
+        ConnectionLease lease;
+        if (pool != null) {
+            lease = new ConnectionLease(pool.borrow(), pool);
+        } else {
+            lock.lock();
+            Connection conn = this.conn;
+            boolean    open;
+            try {
+                open = conn != null && !conn.isClosed();
+            } catch (SQLException e) {
+                open = false;
+            }
+            if (!open) {
+                lock.unlock();
+                throw new ManagerException(conn == null ? "need a valid connection." : "not connected.");
+            }
+            lease = new ConnectionLease(conn, null);
+        }
+        leases.set(lease);
+        recordLastConnectionTime();
+        return lease;
+    }
+
     /**
      * 检测连接是否初始化
      * @throws ManagerException 如果未初始化，则抛出异常。
      */
-    protected synchronized final void requireConnection() throws ManagerException {
-        if (conn == null)
+    protected final void requireConnection() throws ManagerException {
+        if (conn == null && pool == null)
             throw new ManagerException("need a valid connection.");
     }
 
@@ -48,13 +229,53 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * 连接数据库是否已连接
      * @throws ManagerException 如果未连接，则抛出异常。
      */
-    protected synchronized final void requireConnected() throws ManagerException {
+    protected final void requireConnected() throws ManagerException {
         if (!isConnected()) {
             throw new ManagerException("not connected.");
         }
         recordLastConnectionTime();
     }
 
+    /**
+     * 设置最大连接数，在下一次连接时生效
+     * @param maxConnections 连接数，1 表示单连接模式（默认），大于 1 表示并发模式
+     */
+    public final void setMaxConnections(int maxConnections) {
+        if (maxConnections <= 0)
+            throw new IllegalArgumentException("Illegal parameter [maxConnections = " + maxConnections
+                    + "], must be positive.");
+        this.maxConnections = maxConnections;
+    }
+
+    public final int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * 设置并发模式下借用连接的最长等待时间，在下一次连接时生效，默认 30 秒
+     * @param maxWaitMillis 毫秒
+     */
+    public final void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * 是否为并发模式
+     * @return 返回 true 表示每个操作从连接池借用连接。
+     */
+    public final boolean isConcurrent() {
+        return pool != null;
+    }
+
+    /**
+     * 获取并发模式下可立即借出的连接数（空闲的与尚可新建的），仅为调用时的快照
+     * @return 返回连接数，单连接模式下返回 0。
+     */
+    public final int getAvailableConnections() {
+        ConnectionPool pool = this.pool;
+        return pool != null ? pool.getAvailableCount() : 0;
+    }
+
     /**
      * 连接到数据库。
      * <p>
@@ -69,8 +290,21 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
         return connect(conf);
     }
 
+    // 建立新的连接
+    private static Connection openConnection(AbstractJDBCConfig conf) throws ManagerException {
+        try {
+            return DriverManager.getConnection(conf.toString(), conf.getUser(), conf.getPass());
+        } catch (SQLException e) {
+            throw new ManagerException("Can not connect to server, URI: " +
+                    conf.toString() + ". " + e.getMessage());
+        }
+    }
+
     /**
-     * 使用指定的配置连接到数据库
+     * 使用指定的配置连接数据库
+     * <p>
+     *     最大连接数大于 1 时创建连接池（并预先建立一个连接以验证配置），否则建立单个连接。
+     * </p>
      * @param conf 指定配置
      * @return 返回 true 表示连接成功， 返回 false 表示连接失败。
      * @throws ManagerException 如果配置或网络有问题，则抛出相应的异常。
@@ -84,9 +318,26 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
         } catch (ClassNotFoundException e) {
             throw new ManagerException("Driver class (" + conf.getDriverName() + ") not found.", e);
         }
+        // 连接到其他服务器时缓存的元数据不再适用
+        AbstractJDBCConfig current = this.conf;
+        if (current != null && !current.toString().equals(conf.toString()))
+            metadataCache.clear();
+        if (maxConnections > 1) {
+            ConnectionPool pool = new ConnectionPool(conf.toString(), () -> openConnection(conf),
+                    this::dropStatementCache, maxConnections, maxWaitMillis);
+            pool.prepare();
+            recordLastConnectionTime();
+            ConnectionPool old = this.pool;
+            this.pool = pool;
+            this.conn = null;
+            this.conf = conf;
+            if (old != null)
+                old.close();
+            return true;
+        }
         Connection conn;
         try {
-            conn = DriverManager.getConnection(conf.toString(), conf.getUser(), conf.getPass());
+            conn = openConnection(conf);
             if (conn == null)
                 return false;
             successful = !conn.isClosed();
@@ -108,8 +359,15 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
 
         }
         }*/
+        ConnectionPool old     = this.pool;
+        Connection     oldConn = this.conn;
+        this.pool = null;
         this.conn = conn;
         this.conf = conf;
+        if (old != null)
+            old.close();
+        if (oldConn != null)
+            dropStatementCache(oldConn);
         return successful;
     }
 
@@ -163,6 +421,154 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
         return result.toString();
     }
 
+    /**
+     * 设置每个连接缓存的预编译语句数量
+     * <p>
+     *     大于 0 时，预编译语句用完后按 SQL 语句缓存在连接上，再次执行同一语句时不再预编译；
+     *     连接关闭时一并关闭。流式查询（{@link #queryStream(String, int, Object...)}）不使用缓存。
+     *     命中、未命中与淘汰次数记录在度量 <code>jdbc.statement.cache.*</code> 中。
+     * </p>
+     * @param statementCacheSize 每个连接缓存的语句数量，0（默认）表示不缓存
+     */
+    public final void setStatementCacheSize(int statementCacheSize) {
+        if (statementCacheSize < 0)
+            throw new IllegalArgumentException("Illegal parameter [statementCacheSize = " + statementCacheSize + "]");
+        this.statementCacheSize = statementCacheSize;
+        if (statementCacheSize == 0)
+            clearStatementCaches();
+    }
+
+    public final int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * 获取缓存中的空闲预编译语句数量（所有连接）
+     * @return 返回数量。
+     */
+    public final int getCachedStatementCount() {
+        synchronized (statementCaches) {
+            int count = 0;
+            for (StatementCache cache : statementCaches.values())
+                count += cache.size();
+            return count;
+        }
+    }
+
+    // 取得预编译语句，开启缓存时优先使用连接上缓存的语句；关闭返回的对象即归还
+    private StatementCache.Handle prepare(ConnectionLease lease, String inSqlStr) throws SQLException {
+        int size = statementCacheSize;
+        if (size <= 0)
+            return new StatementCache.Handle(null, inSqlStr, lease.get().prepareStatement(inSqlStr));
+        StatementCache cache;
+        synchronized (statementCaches) {
+            cache = statementCaches.computeIfAbsent(lease.get(), conn -> new StatementCache(conn, size));
+        }
+        return cache.take(inSqlStr);
+    }
+
+    // 连接关闭前清理其语句缓存
+    private void dropStatementCache(Connection conn) {
+        StatementCache cache;
+        synchronized (statementCaches) {
+            cache = statementCaches.remove(conn);
+        }
+        if (cache != null)
+            cache.close();
+    }
+
+    private void clearStatementCaches() {
+        List<StatementCache> caches;
+        synchronized (statementCaches) {
+            caches = new ArrayList<>(statementCaches.values());
+            statementCaches.clear();
+        }
+        for (StatementCache cache : caches)
+            cache.close();
+    }
+
+    /**
+     * 设置元数据缓存的有效期
+     * <p>
+     *     大于 0 时，是否存在数据库/数据表、数据表列表、表结构与数据库信息等元数据查询的结果在有效期内直接从缓存返回，
+     *     可由多个线程同时读取。经由本管理器执行的 DDL 语句（create、drop、alter、rename、truncate）使缓存全部失效；
+     *     其他客户端修改的表结构在有效期过后才能看到，必要时调用 {@link #invalidateMetadata(String, String)}。
+     *     命中与未命中次数记录在度量 <code>jdbc.metadata.cache.*</code> 中。
+     * </p>
+     * @param metadataCacheMillis 有效期（毫秒），0（默认）表示不缓存
+     */
+    public final void setMetadataCacheMillis(long metadataCacheMillis) {
+        if (metadataCacheMillis < 0)
+            throw new IllegalArgumentException("Illegal parameter [metadataCacheMillis = " + metadataCacheMillis + "]");
+        this.metadataCacheMillis = metadataCacheMillis;
+        if (metadataCacheMillis == 0)
+            metadataCache.clear();
+    }
+
+    public final long getMetadataCacheMillis() {
+        return metadataCacheMillis;
+    }
+
+    /**
+     * 使指定数据表的元数据缓存失效，连同所在数据库的数据表列表
+     * @param database  数据库，为 null 时全部失效
+     * @param tableName 数据表，为 null 时使整个数据库失效
+     */
+    public final void invalidateMetadata(String database, String tableName) {
+        metadataCache.invalidate(database, tableName);
+    }
+
+    /**
+     * 清空元数据缓存
+     */
+    public final void invalidateMetadata() {
+        metadataCache.clear();
+    }
+
+    /**
+     * 读取元数据，开启元数据缓存时优先从缓存返回
+     * <p>
+     *     返回的对象由所有调用者共用，调用者需要修改时应先复制。
+     * </p>
+     * @param kind     类别，如 "table"、"tables"
+     * @param database 数据库，可以为 null
+     * @param table    数据表，数据库级的元数据为 null
+     * @param loader   查询元数据
+     * @param <T>      结果类型
+     * @return 返回元数据。
+     * @throws ManagerException 查询出错时抛出异常。
+     */
+    protected final <T> T cachedMetadata(String kind, String database, String table,
+                                         Supplier<T> loader) throws ManagerException {
+        long ttl = metadataCacheMillis;
+        if (ttl <= 0)
+            return loader.get();
+        return metadataCache.get(kind, database, table, ttl, loader);
+    }
+
+    // 是否为 DDL 语句（按第一个单词判断）
+    static boolean isDdl(String inSqlStr) {
+        if (inSqlStr == null)
+            return false;
+        int start = 0, length = inSqlStr.length();
+        while (start < length && Character.isWhitespace(inSqlStr.charAt(start)))
+            start++;
+        for (String keyword : DDL_KEYWORDS) {
+            int end = start + keyword.length();
+            if (inSqlStr.regionMatches(true, start, keyword, 0, keyword.length())
+                    && (end == length || !Character.isLetterOrDigit(inSqlStr.charAt(end))))
+                return true;
+        }
+        return false;
+    }
+
+    // 执行 DDL 语句后使元数据缓存失效（执行失败时也可能已部分生效）。
+    // 缓存为空时也要清空：clear 会推进失效代数，使执行期间正在查询的元数据不被放入缓存
+    private void invalidateMetadataOnDdl(String inSqlStr) {
+        if (isDdl(inSqlStr))
+            metadataCache.clear();
+    }
+
     // 填补参数
     private void fillParameter(PreparedStatement pstm, Object... parameters) throws SQLException {
         if (parameters != null) {
@@ -180,14 +586,14 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @return 如果执行成功，则返回执行结果数组，如果返回 null，则表示参数组为空。
      * @throws ManagerException 执行 SQL 时遇到错误则抛出异常，一般是由于 SQL 语法问题所致。
      */
-    public synchronized final int[] batchExecute(String inSqlStr, int limits,
-                                                 Object[]... parameters) throws ManagerException {
-        requireConnection();
-        requireConnected();
+    public final int[] batchExecute(String inSqlStr, int limits,
+                                    Object[]... parameters) throws ManagerException {
         if (parameters == null)
             return null;
-        List<Integer> result = new LinkedList<>();
-        try (PreparedStatement pstm = conn.prepareStatement(inSqlStr)) {
+        IntList result = new IntList(parameters.length);
+        try (ConnectionLease lease = lease();
+             StatementCache.Handle handle = prepare(lease, inSqlStr)) {
+            PreparedStatement pstm = handle.get();
             int length = parameters.length, batchs = 0;
             //int limits = 1000;
             while (length > 0) {
@@ -198,8 +604,16 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
                     pstm.addBatch();
                 }
                 // 批量执行SQL
-                for (int x : pstm.executeBatch()) {
-                    result.add(x);
+                long start = Metrics.ENABLED ? System.nanoTime() : 0;
+                AsyncCall.track(pstm);
+                try {
+                    result.addAll(pstm.executeBatch());
+                } finally {
+                    AsyncCall.untrack();
+                }
+                if (Metrics.ENABLED) {
+                    BATCH_NANOS.recordSince(start);
+                    BATCH_STATEMENTS.record(rows);
                 }
                 pstm.clearBatch();
                 // 更新计数
@@ -208,8 +622,10 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
                 // 记录最后连接时间
                 recordLastConnectionTime();
             }
-            return result.stream().mapToInt(e -> e).toArray();//stmt.executeBatch();
+            return result.toArray();
         } catch (SQLException e) {
+            if (Metrics.ENABLED)
+                ERRORS.increment();
             throw new ManagerException(e.getMessage(), e);
         }
     }
@@ -221,14 +637,13 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @return 返回执行结果数组，每一条语句对应数组成员。
      * @throws ManagerException 执行 SQL 时遇到错误则抛出异常，一般是由于 SQL 语法问题所致。
      */
-    public synchronized final int[] batchExecute(int limits, String... sqls) throws ManagerException {
-        requireConnection();
-        requireConnected();
+    public final int[] batchExecute(int limits, String... sqls) throws ManagerException {
         if (sqls == null)
             return null;
-        try (Statement stmt = conn.createStatement()) {
+        try (ConnectionLease lease = lease();
+             Statement stmt = lease.get().createStatement()) {
             int length = sqls.length, batchs = 0;
-            List<Integer> result = new LinkedList<>();
+            IntList result = new IntList(sqls.length);
             while (length > 0) {
                 int rows = length > limits ? limits : length;
                 //System.out.println("executeBatch, start = " + batchs + ", end = " + (batchs + rows) );
@@ -236,8 +651,11 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
                     stmt.addBatch(sqls[i]);
                 }
                 // 批量执行SQL
-                for (int x : stmt.executeBatch()) {
-                    result.add(x);
+                long start = Metrics.ENABLED ? System.nanoTime() : 0;
+                result.addAll(stmt.executeBatch());
+                if (Metrics.ENABLED) {
+                    BATCH_NANOS.recordSince(start);
+                    BATCH_STATEMENTS.record(rows);
                 }
                 stmt.clearBatch();
                 batchs += rows;
@@ -245,9 +663,14 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
                 // 记录最后连接时间
                 recordLastConnectionTime();
             }
-            return result.stream().mapToInt(e -> e).toArray();//stmt.executeBatch();
+            return result.toArray();
         } catch (SQLException e) {
+            if (Metrics.ENABLED)
+                ERRORS.increment();
             throw new ManagerException(e.getMessage(), e);
+        } finally {
+            for (String sql : sqls)
+                invalidateMetadataOnDdl(sql);
         }
     }
 
@@ -257,7 +680,7 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @return 返回执行结果数组，每一条语句对应数组成员。
      * @throws ManagerException 执行 SQL 时遇到错误则抛出异常，一般是由于 SQL 语法问题所致。
      */
-    public synchronized final int[] batchExecute(String... sqls) throws ManagerException {
+    public final int[] batchExecute(String... sqls) throws ManagerException {
         return batchExecute(10000, sqls);
     }
 
@@ -269,12 +692,11 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @return 返回插入的数据量。如果使用了 ignore ，其数值可能不会与 parameters.length  一致。
      * @throws ManagerException 如果出现SQL语法错误，则抛出该异常。
      */
-    public synchronized final int batchInsert(String inSqlStr, int limits,
-                                              Object[]... parameters) throws ManagerException {
-        requireConnection();
-        requireConnected();
+    public final int batchInsert(String inSqlStr, int limits,
+                                 Object[]... parameters) throws ManagerException {
         int retval = 0;
-        try (Statement stmt = conn.createStatement()) {
+        try (ConnectionLease lease = lease();
+             Statement stmt = lease.get().createStatement()) {
             if (parameters != null) {
                 int length = parameters.length, batchs = 0;
                 String execute = inSqlStr.substring(0, inSqlStr.indexOf("values(") + "values".length());
@@ -292,7 +714,14 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
                     //String spilt = executeSQL.length() < 4096 ? executeSQL : executeSQL.substring(0, 4096);
                     //System.out.println("batchInsert: " + spilt +
                     //        "......, start = " + batchs + ", end = " + (batchs + rows) );
-                    retval += stmt.executeUpdate(executeSQL);
+                    long start = Metrics.ENABLED ? System.nanoTime() : 0;
+                    int inserted = stmt.executeUpdate(executeSQL);
+                    if (Metrics.ENABLED) {
+                        BATCH_NANOS.recordSince(start);
+                        BATCH_STATEMENTS.record(1);
+                        INSERT_ROWS.add(inserted);
+                    }
+                    retval += inserted;
                     batchs += rows;
                     length -= rows;
                     // 记录最后连接时间
@@ -301,6 +730,8 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
             }
             return retval;
         } catch (SQLException e) {
+            if (Metrics.ENABLED)
+                ERRORS.increment();
             throw new ManagerException(e.getMessage(), e);
         }
     }
@@ -318,8 +749,8 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @return 返回插入的数据条数。
      * @throws ManagerException 执行 SQL 时遇到错误则抛出异常，一般是由于 SQL 语法问题所致。
      */
-    public synchronized final int batchInsert(String database, String tableName, int limits, boolean ignore,
-                                              String[] fieldNames,Object[]... parameters) throws ManagerException {
+    public final int batchInsert(String database, String tableName, int limits, boolean ignore,
+                                 String[] fieldNames,Object[]... parameters) throws ManagerException {
         //requireConnection();
         //requireConnected();
         //Statement stmt = null;
@@ -350,8 +781,8 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @return 返回插入的数据量。如果使用了 ignore ，其数值可能不会与 parameters.length  一致。
      * @throws ManagerException 执行 SQL 时遇到错误则抛出异常，一般是由于 SQL 语法问题所致。
      */
-    public synchronized final int batchInsert(String tableName, int limits, boolean ignore,
-                                              String[] fieldNames,Object[]... parameters) throws ManagerException {
+    public final int batchInsert(String tableName, int limits, boolean ignore,
+                                 String[] fieldNames,Object[]... parameters) throws ManagerException {
         int pos = tableName.indexOf('.');
         String database = pos > 0 ? tableName.substring(0, pos) : conf.getDatabase();
         String name     = pos > 0 ? tableName.substring(pos + 1) : tableName;
@@ -368,8 +799,8 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @throws ManagerException 执行 SQL 时遇到错误则抛出异常，一般是由于 SQL 语法问题所致。
      * @throws UnsupportedOperationException 该方法需要重写实现，如果没有实现，则抛出该异常。
      */
-    public synchronized int batchMerge(String database, String tableName, String[] primaryKeys,
-                                       Map<String, Object>... parameters) throws ManagerException {
+    public int batchMerge(String database, String tableName, String[] primaryKeys,
+                          Map<String, Object>... parameters) throws ManagerException {
         throw new UnsupportedOperationException();
     }
 
@@ -380,7 +811,7 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @return 返回执行结果数组，每一条语句对应数组成员。
      * @throws ManagerException 执行 SQL 时遇到错误则抛出异常，一般是由于 SQL 语法问题所致。
      */
-    public synchronized final int[] batchUpdate(int limits, String... inSqlStr) throws ManagerException {
+    public final int[] batchUpdate(int limits, String... inSqlStr) throws ManagerException {
         //String lower = inSqlStr != null ? inSqlStr.substring(0, inSqlStr.indexOf(' ')).toLowerCase() : "";
         //if (lower.startsWith("update") || lower.startsWith("insert") || lower.startsWith("delete"))
         //    return batchExecute(limits, inSqlStr);
@@ -398,8 +829,8 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @return 如果执行成功，则返回执行结果数组，如果返回 null，则表示参数组为空。
      * @throws ManagerException 执行 SQL 时遇到错误则抛出异常，一般是由于 SQL 语法问题所致。
      */
-    public synchronized final int[] batchUpdate(String inSqlStr, int limits,
-                                                Object[]... parameters) throws ManagerException {
+    public final int[] batchUpdate(String inSqlStr, int limits,
+                                   Object[]... parameters) throws ManagerException {
         String lower = inSqlStr != null ? inSqlStr.substring(0, inSqlStr.indexOf(' ')).toLowerCase() : "";
         if (lower.startsWith("update") || lower.startsWith("insert") || lower.startsWith("delete"))
             return batchExecute(inSqlStr, limits, parameters);
@@ -416,23 +847,385 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @return 如果执行成功，则返回执行结果数组，如果返回 null，则表示参数组为空。
      * @throws ManagerException 执行 SQL 时遇到错误则抛出异常，一般是由于 SQL 语法问题所致。
      */
-    public synchronized final int[] batchUpdate(String inSqlStr, Object[]... parameters) throws ManagerException {
+    public final int[] batchUpdate(String inSqlStr, Object[]... parameters) throws ManagerException {
         return batchUpdate(inSqlStr, 1000, parameters);
     }
 
+    /**
+     * 取出用于绑定的参数值：日期、时间戳由纪元天数/微秒数转换为 JDBC 类型
+     * @param row   数据行
+     * @param index 字段索引
+     * @param type  字段类型
+     * @return 返回参数值，空值返回 null。
+     */
+    protected static Object parameterOf(Row row, int index, Type type) {
+        if (row.isNull(index))
+            return null;
+        switch (type) {
+            case DATE:
+                return new java.sql.Date(TimeUtils.epochDayToMicros(row.getDate(index)) / 1000);
+            case DATETIME:
+            case TIMESTAMP: {
+                long      micros = row.getTimestamp(index);
+                Timestamp ts     = new Timestamp(Math.floorDiv(micros, 1000L));
+                ts.setNanos((int) Math.floorMod(micros, 1000000L) * 1000);
+                return ts;
+            }
+            default:
+                return row.get(index);
+        }
+    }
+
+    private static Type[] typesOf(Row row) {
+        Schema[] header = row.header();
+        Type[]   types  = new Type[header.length];
+        for (int i = 0; i < header.length; i++)
+            types[i] = header[i].getType();
+        return types;
+    }
+
+    // 累计批量执行的结果：SUCCESS_NO_INFO（如 MySQL 改写后的批量语句）按 1 行计
+    private static long countOf(int[] results) {
+        long count = 0;
+        for (int result : results) {
+            if (result > 0)
+                count += result;
+            else if (result == Statement.SUCCESS_NO_INFO)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * 在第一行前补回已读取的行
+     * @param first 已读取的第一行
+     * @param rest  剩余的行
+     * @return 返回完整的迭代器。
+     */
+    protected static Iterator<Row> prepend(Row first, Iterator<? extends Row> rest) {
+        return new Iterator<Row>() {
+            private Row head = first;
+
+            @Override
+            public boolean hasNext() {
+                return head != null || rest.hasNext();
+            }
+
+            @Override
+            public Row next() {
+                if (head == null)
+                    return rest.next();
+                Row row = head;
+                head = null;
+                return row;
+            }
+        };
+    }
+
+    /**
+     * 流式批量写入
+     * @param inSqlStr 预编译 SQL 语句，? 的个数与数据行的字段数一致
+     * @param limits   每批执行的最大行数
+     * @param rows     数据行，写入完成后关闭
+     * @return 返回累计影响的行数。
+     * @throws ManagerException 执行 SQL 时遇到错误则抛出异常。
+     * @see #batchWrite(String, int, Iterator, boolean, LongConsumer)
+     */
+    public final long batchWrite(@NotNull String inSqlStr, int limits,
+                                 @NotNull Stream<? extends Row> rows) throws ManagerException {
+        try (Stream<? extends Row> source = rows) {
+            return batchWrite(inSqlStr, limits, source.iterator(), false, null);
+        }
+    }
+
+    /**
+     * 流式批量写入指定的数据表
+     * <p>
+     *     字段取自第一行数据的表头，语句为 <code>insert [ignore] into database.tableName (...) values(?, ...)</code>。
+     * </p>
+     * @param database  数据库，为 null 时使用默认数据库
+     * @param tableName 数据表
+     * @param limits    每批执行的最大行数
+     * @param ignore    是否忽略重复数据
+     * @param rows      数据行，写入完成后关闭
+     * @return 返回累计影响的行数。
+     * @throws ManagerException 执行 SQL 时遇到错误则抛出异常。
+     */
+    public final long batchWrite(String database, @NotNull String tableName, int limits, boolean ignore,
+                                 @NotNull Stream<? extends Row> rows) throws ManagerException {
+        try (Stream<? extends Row> source = rows) {
+            Iterator<? extends Row> iterator = source.iterator();
+            if (!iterator.hasNext())
+                return 0;
+            Row      first  = iterator.next();
+            Schema[] header = first.header();
+            StringBuilder builder = new StringBuilder();
+            builder.append("insert ").append(ignore ? "ignore " : "").append("into ");
+            builder.append(database != null ? database + "." : "").append(tableName).append(" (");
+            for (int i = 0; i < header.length; i++)
+                builder.append(i > 0 ? ", `" : "`").append(header[i].getName()).append('`');
+            builder.append(") values(");
+            for (int i = 0; i < header.length; i++)
+                builder.append(i > 0 ? ", ?" : "?");
+            builder.append(')');
+            return batchWrite(builder.toString(), limits, prepend(first, iterator), false, null);
+        }
+    }
+
+    /**
+     * 流式批量写入
+     * <p>
+     *     逐行绑定参数到同一个预编译语句，每 <code>limits</code> 行执行一次 <code>executeBatch</code>，
+     *     只累计影响的行数，不保留每条语句的结果，内存占用与数据量无关。数据行可以是复用的同一个对象。
+     * </p>
+     * <p>
+     *     <code>overlapped</code> 为 true 时，调用线程只负责读取数据行并复制参数，由另一个线程租用连接执行批量语句，
+     *     读取下一批数据与执行上一批同时进行；最多有两批数据等待执行。并发模式下执行线程使用连接池中的另一个连接。
+     *     执行线程出错时调用线程立即停止读取数据行并抛出该错误。
+     *     当前线程已租用连接（如处于事务中）时，为避免等待自身持有的连接，退回为顺序执行。
+     * </p>
+     * @param inSqlStr   预编译 SQL 语句，? 的个数与数据行的字段数一致
+     * @param limits     每批执行的最大行数
+     * @param rows       数据行
+     * @param overlapped 是否在另一个线程中执行批量语句
+     * @param progress   每批执行后收到累计影响的行数，可以为 null；重叠执行时在执行线程中调用
+     * @return 返回累计影响的行数。
+     * @throws ManagerException 执行 SQL 时遇到错误则抛出异常。
+     */
+    public final long batchWrite(@NotNull String inSqlStr, int limits, @NotNull Iterator<? extends Row> rows,
+                                 boolean overlapped, LongConsumer progress) throws ManagerException {
+        if (limits <= 0)
+            throw new IllegalArgumentException("Illegal parameter [limits = " + limits + "], must be positive.");
+        if (!rows.hasNext())
+            return 0;
+        if (overlapped && leases.get() == null)
+            return batchWriteOverlapped(inSqlStr, limits, rows, progress);
+        long count = 0;
+        try (ConnectionLease lease = lease();
+             StatementCache.Handle handle = prepare(lease, inSqlStr)) {
+            PreparedStatement pstm = handle.get();
+            Type[] types   = null;
+            int    pending = 0;
+            while (rows.hasNext()) {
+                Row row = rows.next();
+                if (types == null)
+                    types = typesOf(row);
+                for (int i = 0; i < types.length; i++)
+                    pstm.setObject(i + 1, parameterOf(row, i, types[i]));
+                pstm.addBatch();
+                if (++pending == limits || !rows.hasNext()) {
+                    long start = Metrics.ENABLED ? System.nanoTime() : 0;
+                    count += countOf(pstm.executeBatch());
+                    if (Metrics.ENABLED) {
+                        BATCH_NANOS.recordSince(start);
+                        BATCH_STATEMENTS.record(pending);
+                    }
+                    pstm.clearBatch();
+                    pending = 0;
+                    // 记录最后连接时间
+                    recordLastConnectionTime();
+                    if (progress != null)
+                        progress.accept(count);
+                }
+            }
+            return count;
+        } catch (SQLException e) {
+            if (Metrics.ENABLED)
+                ERRORS.increment();
+            throw new ManagerException(e.getMessage(), e);
+        }
+    }
+
+    /** 重叠执行时数据批次的结束标记 */
+    private final static Object[][] END_OF_BATCHES = new Object[0][];
+
+    private long batchWriteOverlapped(String inSqlStr, int limits, Iterator<? extends Row> rows,
+                                      LongConsumer progress) throws ManagerException {
+        BlockingQueue<Object[][]>  queue   = new ArrayBlockingQueue<>(2);
+        AtomicLong                 count   = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread flusher = new Thread(() -> {
+            try (ConnectionLease lease = lease();
+                 StatementCache.Handle handle = prepare(lease, inSqlStr)) {
+                PreparedStatement pstm = handle.get();
+                Object[][] batch;
+                while ((batch = queue.take()) != END_OF_BATCHES) {
+                    for (Object[] parameters : batch) {
+                        fillParameter(pstm, parameters);
+                        pstm.addBatch();
+                    }
+                    long start = Metrics.ENABLED ? System.nanoTime() : 0;
+                    long total = count.addAndGet(countOf(pstm.executeBatch()));
+                    if (Metrics.ENABLED) {
+                        BATCH_NANOS.recordSince(start);
+                        BATCH_STATEMENTS.record(batch.length);
+                    }
+                    pstm.clearBatch();
+                    // 记录最后连接时间
+                    recordLastConnectionTime();
+                    if (progress != null)
+                        progress.accept(total);
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        }, "BatchWriter-" + Thread.currentThread().getName());
+        flusher.setDaemon(true);
+        flusher.start();
+        try {
+            Type[]     types  = null;
+            Object[][] batch  = new Object[limits][];
+            int        filled = 0;
+            boolean    handed = true;
+            // 执行线程出错后立即停止读取数据行
+            while (handed && rows.hasNext()) {
+                Row row = rows.next();
+                if (types == null)
+                    types = typesOf(row);
+                // 数据行可能被复用，复制参数
+                Object[] parameters = new Object[types.length];
+                for (int i = 0; i < types.length; i++)
+                    parameters[i] = parameterOf(row, i, types[i]);
+                batch[filled++] = parameters;
+                if (filled == limits) {
+                    handed = handOver(queue, batch, flusher, failure);
+                    batch  = new Object[limits][];
+                    filled = 0;
+                }
+            }
+            if (handed && filled > 0)
+                handed = handOver(queue, Arrays.copyOf(batch, filled), flusher, failure);
+            if (handed)
+                handed = handOver(queue, END_OF_BATCHES, flusher, failure);
+            flusher.join();
+            if (!handed && failure.get() == null)
+                throw new ManagerException("Batch writer stopped unexpectedly.");
+        } catch (InterruptedException e) {
+            flusher.interrupt();
+            Thread.currentThread().interrupt();
+            throw new ManagerException("Interrupted while writing batches.", e);
+        } catch (RuntimeException e) {
+            // 读取数据行出错时停止执行线程
+            flusher.interrupt();
+            throw e;
+        }
+        Throwable e = failure.get();
+        if (e != null) {
+            if (Metrics.ENABLED)
+                ERRORS.increment();
+            if (e instanceof ManagerException)
+                throw (ManagerException) e;
+            throw new ManagerException(e.getMessage(), e);
+        }
+        return count.get();
+    }
+
+    // 交给执行线程，队列已满时等待；执行线程已出错或已结束时返回 false，不再交出批次
+    private static boolean handOver(BlockingQueue<Object[][]> queue, Object[][] batch, Thread flusher,
+                                    AtomicReference<Throwable> failure) throws InterruptedException {
+        do {
+            if (failure.get() != null || !flusher.isAlive())
+                return false;
+        } while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS));
+        return true;
+    }
+
+    /**
+     * 开始事务
+     * <p>
+     *     把一个连接绑定到当前线程并关闭自动提交，直至 {@link #commit()} 或 {@link #rollback()}。
+     *     单连接模式下，事务期间其他线程的操作需要等待。
+     * </p>
+     * @throws ManagerException 当前线程已开始事务或执行过程中出错，则抛出该异常。
+     */
+    public final void begin() throws ManagerException {
+        ConnectionLease lease = lease();
+        if (lease.transaction) {
+            lease.close();
+            throw new ManagerException("Transaction has already begun in current thread.");
+        }
+        try {
+            lease.get().setAutoCommit(false);
+        } catch (SQLException e) {
+            lease.close();
+            throw new ManagerException(e.getMessage(), e);
+        }
+        lease.transaction = true;
+    }
+
+    /**
+     * 当前线程是否处于事务中
+     * @return 返回 true 表示已调用 begin 且尚未提交或回滚。
+     */
+    public final boolean inTransaction() {
+        ConnectionLease lease = leases.get();
+        return lease != null && lease.transaction;
+    }
+
+    // 结束当前线程的事务，恢复自动提交并归还连接
+    private void endTransaction(ConnectionLease lease, boolean commit) throws ManagerException {
+        try {
+            if (commit)
+                lease.get().commit();
+            else
+                lease.get().rollback();
+        } catch (SQLException e) {
+            throw new ManagerException(e.getMessage(), e);
+        } finally {
+            try {
+                lease.get().setAutoCommit(true);
+            } catch (SQLException e) {
+                lease.invalidate();
+            }
+            lease.transaction = false;
+            lease.close();
+        }
+    }
+
+    /**
+     * 在事务中执行
+     * <p>
+     *     正常返回后提交；抛出异常时回滚，并重新抛出该异常。
+     * </p>
+     * @param action 事务
+     * @param <T> 结果类型
+     * @return 返回事务的结果。
+     * @throws ManagerException 执行、提交或回滚过程中出错，则抛出该异常。
+     */
+    public final <T> T transaction(@NotNull TransactionCallback<T> action) throws ManagerException {
+        begin();
+        try {
+            T result = action.execute(this);
+            commit();
+            return result;
+        } catch (RuntimeException e) {
+            if (inTransaction()) {
+                try {
+                    rollback();
+                } catch (ManagerException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        }
+    }
+
     /**
      * 提交。
      * <p>
-     *     如果设置了 autocommit，则不需要执行操作。
+     *     当前线程处于事务中时提交该事务并归还连接；否则如果设置了 autocommit，则不需要执行操作。
      * </p>
      * @throws ManagerException 执行过程中出错，则抛出该异常。
      */
-    public synchronized final void commit() throws ManagerException{
-        requireConnection();
-        requireConnected();
-        try {
-            if(!conn.getAutoCommit())
-                conn.commit();
+    public final void commit() throws ManagerException{
+        ConnectionLease current = leases.get();
+        if (current != null && current.transaction) {
+            endTransaction(current, true);
+            return;
+        }
+        try (ConnectionLease lease = lease()) {
+            if(!lease.get().getAutoCommit())
+                lease.get().commit();
         } catch (SQLException e) {
             throw new ManagerException(e.getMessage(), e);
         }
@@ -440,12 +1233,25 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
 
     /**
      * 关闭连接。在 GC 阶段，此功能会自动执行。
+     * <p>
+     *     并发模式下关闭连接池：空闲的连接立即关闭，借出的连接在归还时关闭。
+     * </p>
      */
     @Override
     public synchronized final void close() {
+        ExecutorService executor = this.asyncExecutor;
+        this.asyncExecutor = null;
+        if (executor != null)
+            executor.shutdown();
+        ConnectionPool pool = this.pool;
+        this.pool = null;
+        if (pool != null)
+            pool.close();
         try {
-            if (conn != null)
+            if (conn != null) {
+                dropStatementCache(conn);
                 conn.close();
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         } finally {
@@ -454,10 +1260,10 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
     }
 
     // 执行
-    private synchronized boolean execute0(String inSqlStr, Object... parameters) throws ManagerException {
-        requireConnection();
-        requireConnected();
-        try (PreparedStatement pstm = conn.prepareStatement(inSqlStr)){
+    private boolean execute0(String inSqlStr, Object... parameters) throws ManagerException {
+        try (ConnectionLease lease = lease();
+             StatementCache.Handle handle = prepare(lease, inSqlStr)) {
+            PreparedStatement pstm = handle.get();
             fillParameter(pstm, parameters);
             boolean result = pstm.execute();
             // 记录最后连接时间
@@ -465,6 +1271,8 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
             return result;
         } catch (SQLException e) {
             throw new ManagerException(e.getMessage(), e);
+        } finally {
+            invalidateMetadataOnDdl(inSqlStr);
         }
     }
 
@@ -476,7 +1284,7 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      *         其他语句一般返回 false。
      * @throws ManagerException 执行 SQL 时遇到错误则抛出异常，一般是由于 SQL 语法问题所致。
      */
-    public synchronized final boolean execute(String inSqlStr, Object... parameters) throws ManagerException {
+    public final boolean execute(String inSqlStr, Object... parameters) throws ManagerException {
         return execute0(inSqlStr, parameters);
     }
 
@@ -487,7 +1295,7 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      *         其他语句一般返回 false。
      * @throws ManagerException 执行 SQL 时遇到错误则抛出异常，一般是由于 SQL 语法问题所致。
      */
-    public synchronized final boolean execute(String inSqlStr) throws ManagerException {
+    public final boolean execute(String inSqlStr) throws ManagerException {
         return execute0(inSqlStr);
     }
 
@@ -498,7 +1306,7 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @throws ManagerException 执行时遇到错误则抛出异常。
      * @throws UnsupportedOperationException 该方法需要重写实现，如果没有实现，则抛出该异常。
      */
-    public synchronized boolean existsDatabase(String database) throws ManagerException {
+    public boolean existsDatabase(String database) throws ManagerException {
         throw new UnsupportedOperationException();
     }
 
@@ -510,7 +1318,7 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @throws ManagerException 执行时遇到错误则抛出异常。
      * @throws UnsupportedOperationException 该方法需要重写实现，如果没有实现，则抛出该异常。
      */
-    public synchronized boolean existsTable(String database, String tableName) throws ManagerException {
+    public boolean existsTable(String database, String tableName) throws ManagerException {
         throw new UnsupportedOperationException();
     }
 
@@ -522,12 +1330,12 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @throws ManagerException 执行时遇到错误则抛出异常。
      * @throws UnsupportedOperationException 该方法需要重写实现，如果没有实现，则抛出该异常。
      */
-    public synchronized boolean existsView(String database, String viewName) throws ManagerException {
+    public boolean existsView(String database, String viewName) throws ManagerException {
         throw new UnsupportedOperationException();
     }
 
     @Override
-    public synchronized ManagerConfig getConf() {
+    public ManagerConfig getConf() {
         return conf;
     }
 
@@ -549,11 +1357,10 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @return 返回客户端信息。
      * @throws ManagerException 执行过程中出错则抛出该异常。
      */
-    public synchronized Map<String, String> getClientInfo() throws ManagerException {
-        requireConnection();
-        requireConnected();
+    public Map<String, String> getClientInfo() throws ManagerException {
         Map<String, String> properties = new HashMap<>();
-        try (ResultSet rs = conn.getMetaData().getClientInfoProperties();) {
+        try (ConnectionLease lease = lease();
+             ResultSet rs = lease.get().getMetaData().getClientInfoProperties()) {
             while(rs .next()) {
                 String name = rs.getString("NAME");
                 String value = rs.getString("DEFAULT_VALUE");
@@ -573,7 +1380,7 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @throws ManagerException 执行时遇到错误则抛出异常。
      * @throws UnsupportedOperationException 该方法需要重写实现，如果没有实现，则抛出该异常。
      */
-    public synchronized List<? extends Database> getDatabases() throws ManagerException {
+    public List<? extends Database> getDatabases() throws ManagerException {
         throw new UnsupportedOperationException();
     }
 
@@ -582,13 +1389,15 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @return 返回配置信息，其类型是 <code>Map</code>。
      * @throws ManagerException 执行时遇到错误则抛出异常。
      */
-    public synchronized Map<String, Object> getDatabaseMeta() throws ManagerException {
-        requireConnection();
-        requireConnected();
+    public Map<String, Object> getDatabaseMeta() throws ManagerException {
+        return new HashMap<>(cachedMetadata("meta", null, null, this::loadDatabaseMeta));
+    }
+
+    private Map<String, Object> loadDatabaseMeta() throws ManagerException {
         Map<String, Object> dbMetaData = new HashMap<>();
         DatabaseMetaData dbMeteData;
-        try {
-            dbMeteData = conn.getMetaData();
+        try (ConnectionLease lease = lease()) {
+            dbMeteData = lease.get().getMetaData();
             dbMetaData.put("connection.url", dbMeteData.getURL());
             dbMetaData.put("database.name", dbMeteData.getDatabaseProductName());
             dbMetaData.put("database.version.major", dbMeteData.getDatabaseMajorVersion());
@@ -614,7 +1423,7 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @throws ManagerException 执行时遇到错误则抛出异常。
      * @throws UnsupportedOperationException 该方法需要重写实现，如果没有实现，则抛出该异常。
      */
-    public synchronized Map<String, String> getVariables() throws ManagerException {
+    public Map<String, String> getVariables() throws ManagerException {
         throw new UnsupportedOperationException();
     }
 
@@ -624,7 +1433,7 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @return 返回指定名称所对应的值。
      * @throws ManagerException 执行时遇到错误则抛出异常。
      */
-    public synchronized String getVariable(String name) throws ManagerException {
+    public String getVariable(String name) throws ManagerException {
         throw new UnsupportedOperationException();
     }
 
@@ -633,13 +1442,11 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @return 返回驱动名称
      * @throws ManagerException 执行时遇到错误则抛出异常。
      */
-    public synchronized String getDriverName() throws ManagerException {
-        requireConnection();
-        requireConnected();
+    public String getDriverName() throws ManagerException {
         DatabaseMetaData dbMeteData;
         String driverName;
-        try {
-            dbMeteData = this.conn.getMetaData();
+        try (ConnectionLease lease = lease()) {
+            dbMeteData = lease.get().getMetaData();
             driverName = dbMeteData.getDriverName();
             // 记录最后连接时间
             recordLastConnectionTime();
@@ -655,7 +1462,7 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @throws ManagerException 执行时遇到错误则抛出异常。
      * @throws UnsupportedOperationException 该方法需要重写实现，如果没有实现，则抛出该异常。
      */
-    public synchronized List<? extends Table> getTables() throws ManagerException {
+    public List<? extends Table> getTables() throws ManagerException {
         throw new UnsupportedOperationException();
     }
 
@@ -666,7 +1473,7 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @throws ManagerException 执行时遇到错误则抛出异常。
      * @throws UnsupportedOperationException 该方法需要重写实现，如果没有实现，则抛出该异常。
      */
-    public synchronized List<? extends Table> getTables(String database) throws ManagerException {
+    public List<? extends Table> getTables(String database) throws ManagerException {
         throw new UnsupportedOperationException();
     }
 
@@ -678,7 +1485,7 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @throws ManagerException 执行时遇到错误则抛出异常。
      * @throws UnsupportedOperationException 该方法需要重写实现，如果没有实现，则抛出该异常。
      */
-    public synchronized Table getTable(String database, String tableName) throws ManagerException {
+    public Table getTable(String database, String tableName) throws ManagerException {
         throw new UnsupportedOperationException();
     }
 
@@ -688,7 +1495,7 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @throws ManagerException 执行时遇到错误则抛出异常。
      * @throws UnsupportedOperationException 该方法需要重写实现，如果没有实现，则抛出该异常。
      */
-    public synchronized List<? extends View> getViews() throws ManagerException {
+    public List<? extends View> getViews() throws ManagerException {
         throw new UnsupportedOperationException();
     }
 
@@ -699,12 +1506,12 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @throws ManagerException 执行时遇到错误则抛出异常。
      * @throws UnsupportedOperationException 该方法需要重写实现，如果没有实现，则抛出该异常。
      */
-    public synchronized List<? extends View> getViews(String database) throws ManagerException {
+    public List<? extends View> getViews(String database) throws ManagerException {
         throw new UnsupportedOperationException();
     }
 
     // 整理查询的结果字段
-    private synchronized Schema[] getFields(ResultSetMetaData rsmd) throws SQLException {
+    private Schema[] getFields(ResultSetMetaData rsmd) throws SQLException {
         int length = rsmd.getColumnCount();
         Column[] retval = new Column[length];
         for (int i = 1; i <= length; i++) {
@@ -725,7 +1532,11 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @return 返回 true 表示已连接， 返回 false 表示未连接。
      */
     @Override
-    public synchronized boolean isConnected() {
+    public boolean isConnected() {
+        ConnectionPool pool = this.pool;
+        if (pool != null)
+            return !pool.isClosed();
+        Connection conn = this.conn;
         if (conn == null) return false;
         try {
             return !conn.isClosed();
@@ -746,8 +1557,8 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @throws ManagerException 执行过程中出现异常，则抛出该异常。
      * @throws UnsupportedOperationException 该方法需要重写实现，如果没有实现，则抛出该异常。
      */
-    public synchronized int merge(String database, String tableName,
-                                  String[] primaryKeys, Map<String, Object> values) throws ManagerException {
+    public int merge(String database, String tableName,
+                     String[] primaryKeys, Map<String, Object> values) throws ManagerException {
         throw new UnsupportedOperationException();
     }
 
@@ -760,42 +1571,100 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @throws ManagerException 执行过程中出现异常，则抛出该异常。
      * @throws UnsupportedOperationException 该方法需要重写实现，如果没有实现，则抛出该异常。
      */
-    public synchronized int merge(String database, String tableName, Row values) throws ManagerException {
+    public int merge(String database, String tableName, Row values) throws ManagerException {
         throw new UnsupportedOperationException();
     }
 
-    // 查询
-    private synchronized JDBCRecord query0(String inSqlStr, Object... parameters) throws ManagerException {
-        requireConnection();
-        requireConnected();
+    // 查询：并发模式下查询结果持有连接，关闭后归还；streaming 为 true 时使用只进只读游标并按 fetchSize 分批读取
+    private JDBCRecord query0(String inSqlStr, boolean streaming, int fetchSize,
+                              Object... parameters) throws ManagerException {
         //ResultSet rs;
         //ResultSetMetaData rsmd = null;
         //Schema [] fields = null;
-        PreparedStatement pstmt ;
+        PreparedStatement     pstmt  = null;
+        StatementCache.Handle handle = null;
         JDBCRecord retval;
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        ConnectionLease lease = lease();
         try {
-            pstmt = conn.prepareStatement(inSqlStr);
-            fillParameter(pstmt, parameters);
-            //ResultSet rs = pstm.executeQuery();
-            retval = new JDBCRecord(this, pstmt, null, pstmt.executeQuery());
-            /*while (rs.next()) {
-                // 记录最后连接时间
-                recordLastConnectionTime();
-                if (fields == null) {
-                    fields = getFields(rsmd = rs.getMetaData());
-                }
-                DataRow row = new DataRow(fields);
-                for (int i = 1, length = rsmd.getColumnCount(); i <= length; i++) {
-                    row.setValue(i - 1, rs.getObject(i));
-                }
-                retval.add(row);
-            }*/
+            if (streaming) {
+                pstmt = lease.get().prepareStatement(inSqlStr, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                pstmt.setFetchSize(streamingFetchSize(fetchSize));
+                fillParameter(pstmt, parameters);
+                retval = new JDBCRecord(this, pstmt, null, executeQuery(pstmt), lease.detach());
+            } else {
+                handle = prepare(lease, inSqlStr);
+                pstmt  = handle.get();
+                fillParameter(pstmt, parameters);
+                ResultSet     rs       = executeQuery(pstmt);
+                AutoCloseable detached = lease.detach();
+                StatementCache.Handle statement = handle;
+                // 关闭查询结果时归还语句，再归还连接
+                retval = new JDBCRecord(this, null, null, rs, () -> {
+                    try {
+                        statement.close();
+                    } finally {
+                        if (detached != null)
+                            detached.close();
+                    }
+                });
+            }
+            if (Metrics.ENABLED)
+                QUERY_NANOS.recordSince(start);
             return retval;
         } catch (SQLException e) {
+            if (Metrics.ENABLED)
+                ERRORS.increment();
+            try {
+                if (handle != null)
+                    handle.close();
+                else if (pstmt != null)
+                    pstmt.close();
+            } catch (SQLException suppressed) {
+                e.addSuppressed(suppressed);
+            }
             throw new ManagerException(e.getMessage(), e);
+        } finally {
+            lease.close();
         }
     }
 
+    // 执行查询，异步调用中可被取消
+    private static ResultSet executeQuery(PreparedStatement pstmt) throws SQLException {
+        AsyncCall.track(pstmt);
+        try {
+            return pstmt.executeQuery();
+        } finally {
+            AsyncCall.untrack();
+        }
+    }
+
+    /**
+     * 流式查询时实际使用的 fetch size
+     * <p>
+     *     默认原样返回。驱动对 fetch size 有特殊约定时重写，如 MySQL 以 {@link Integer#MIN_VALUE} 表示逐行读取。
+     * </p>
+     * @param fetchSize 请求的 fetch size，0 表示由驱动决定
+     * @return 返回传给 {@link Statement#setFetchSize(int)} 的值。
+     */
+    protected int streamingFetchSize(int fetchSize) {
+        return fetchSize;
+    }
+
+    /**
+     * 设置流式查询默认的 fetch size
+     * @param fetchSize 每次从服务器读取的行数，0 表示由驱动决定；MySQL 可使用 {@link Integer#MIN_VALUE} 表示逐行读取
+     */
+    public final void setFetchSize(int fetchSize) {
+        if (fetchSize < 0 && fetchSize != Integer.MIN_VALUE)
+            throw new IllegalArgumentException("Illegal parameter [fetchSize = " + fetchSize + "]");
+        this.fetchSize = fetchSize;
+    }
+
+    public final int getFetchSize() {
+        return fetchSize;
+    }
+
     /**
      * 查询数据
      * @param inSqlStr 查询语句
@@ -803,8 +1672,8 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @return 返回查询结呆。数据类型为：List，单条数据使用 Row 进行操作。
      * @throws ManagerException 查询过程中出错，则抛出该异常。
      */
-    public synchronized final JDBCRecord query(String inSqlStr, Object... parameters) throws ManagerException {
-        return query0(inSqlStr, parameters);
+    public final JDBCRecord query(String inSqlStr, Object... parameters) throws ManagerException {
+        return query0(inSqlStr, false, 0, parameters);
     }
 
     /**
@@ -813,40 +1682,399 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @return 返回查询结呆。数据类型为：List，单条数据使用 Row 进行操作。
      * @throws ManagerException 查询过程中出错，则抛出该异常。
      */
-    public synchronized final JDBCRecord query(String inSqlStr) throws ManagerException {
-        return query0(inSqlStr);
+    public final JDBCRecord query(String inSqlStr) throws ManagerException {
+        return query0(inSqlStr, false, 0);
+    }
+
+    /**
+     * 流式查询
+     * <p>
+     *     使用只进只读游标，每次从服务器读取 <code>fetchSize</code> 行，结果不会全部缓存在内存中，
+     *     适合导出大表。{@link JDBCRecord#stream()} 按需读取，下游处理多慢，读取就多慢。
+     * </p>
+     * <p>
+     *     结果读取完毕或关闭前，其连接不能执行其他语句（MySQL 的逐行读取尤其如此）：
+     *     并发模式下查询结果独占一个连接，不受影响；单连接模式下须先读完或关闭结果再执行其他操作。
+     * </p>
+     * @param inSqlStr   查询语句
+     * @param fetchSize  每次读取的行数，0 表示使用 {@link #getFetchSize()}
+     * @param parameters 参数
+     * @return 返回查询结果，使用完毕后必须关闭。
+     * @throws ManagerException 查询过程中出错，则抛出该异常。
+     */
+    public final JDBCRecord queryStream(String inSqlStr, int fetchSize, Object... parameters) throws ManagerException {
+        return query0(inSqlStr, true, fetchSize == 0 ? this.fetchSize : fetchSize, parameters);
+    }
+
+    /**
+     * 流式查询，使用默认的 fetch size
+     * @param inSqlStr 查询语句
+     * @return 返回查询结果，使用完毕后必须关闭。
+     * @throws ManagerException 查询过程中出错，则抛出该异常。
+     * @see #queryStream(String, int, Object...)
+     */
+    public final JDBCRecord queryStream(String inSqlStr) throws ManagerException {
+        return query0(inSqlStr, true, fetchSize);
+    }
+
+    /**
+     * 查找用于分区读取的字段：数据表主键的第一列，且必须是整数类型
+     * @param database  数据库
+     * @param tableName 数据表
+     * @return 返回字段名。
+     * @throws ManagerException 没有整数类型的主键或读取元数据出错时抛出异常。
+     */
+    protected String findSplitColumn(String database, String tableName) throws ManagerException {
+        try (ConnectionLease lease = lease()) {
+            DatabaseMetaData meta = lease.get().getMetaData();
+            String key = null;
+            try (ResultSet rs = meta.getPrimaryKeys(database, null, tableName)) {
+                while (rs.next()) {
+                    if (rs.getShort("KEY_SEQ") == 1)
+                        key = rs.getString("COLUMN_NAME");
+                }
+            }
+            if (key != null) {
+                try (ResultSet rs = meta.getColumns(database, null, tableName, key)) {
+                    if (rs.next()) {
+                        switch (rs.getInt("DATA_TYPE")) {
+                            case Types.TINYINT:
+                            case Types.SMALLINT:
+                            case Types.INTEGER:
+                            case Types.BIGINT:
+                                return key;
+                            default:
+                                break;
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new ManagerException("Can not read primary keys of table(" + tableName + "): " + e.getMessage(), e);
+        }
+        throw new ManagerException("Table(" + tableName + ") has no integral primary key, split column is required.");
+    }
+
+    /**
+     * 把 [min, max] 平均划分为不超过 partitions 个闭区间
+     * @param min        最小值
+     * @param max        最大值
+     * @param partitions 分区数
+     * @return 返回区间列表，每个区间为 {下限, 上限}。
+     */
+    static List<long[]> splitRange(long min, long max, int partitions) {
+        List<long[]> ranges = new ArrayList<>(partitions);
+        // 区间跨度可能超出 long 的范围，按无符号数计算
+        long step  = Long.divideUnsigned(max - min, partitions) + 1;
+        long lower = min;
+        for (int i = 0; ; i++) {
+            if (i == partitions - 1 || Long.compareUnsigned(max - lower, step) < 0) {
+                ranges.add(new long[] { lower, max });
+                return ranges;
+            }
+            ranges.add(new long[] { lower, lower + step - 1 });
+            lower += step;
+        }
+    }
+
+    // 读取分区字段的范围，数据表为空时返回 null
+    private List<long[]> partitionRanges(String table, String splitColumn, int partitions) throws ManagerException {
+        if (partitions <= 0)
+            throw new IllegalArgumentException("Illegal parameter [partitions = " + partitions + "], must be positive.");
+        String sql = "select min(`" + splitColumn + "`), max(`" + splitColumn + "`) from " + table;
+        try (ConnectionLease lease = lease();
+             Statement stmt = lease.get().createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            // 记录最后连接时间
+            recordLastConnectionTime();
+            if (!rs.next())
+                return null;
+            long min = rs.getLong(1);
+            if (rs.wasNull())
+                return null;
+            return splitRange(min, rs.getLong(2), partitions);
+        } catch (SQLException e) {
+            if (Metrics.ENABLED)
+                ERRORS.increment();
+            throw new ManagerException(e.getMessage() + " >> " + sql, e);
+        }
+    }
+
+    private String partitionTable(String database, String tableName) {
+        return database != null ? "`" + database + "`.`" + tableName + "`" : "`" + tableName + "`";
+    }
+
+    private Stream<Row> readPartition(String table, String splitColumn, long[] range, boolean reuse) {
+        String sql = "select * from " + table + " where `" + splitColumn + "` >= ? and `" + splitColumn + "` <= ?";
+        JDBCRecord record = queryStream(sql, 0, range[0], range[1]);
+        return record.stream(reuse);
+    }
+
+    /** 分区读取线程交给数据流的最大在途行数 */
+    private final static int PARTITION_QUEUE_SIZE = 1024;
+
+    private int readerCount(List<long[]> ranges) {
+        return Math.min(ranges.size(), getMaxConnections());
+    }
+
+    /**
+     * 启动分区读取线程：线程数为范围数与最大连接数中的较小者，各线程从范围队列中依次取出范围读取，
+     * 直至范围取完或 failure 不为 null。每个线程同时只占用一个连接，不会因连接不足而等待超时。
+     */
+    private Thread[] startReaders(List<long[]> ranges, AtomicReference<Throwable> failure,
+                                  Consumer<long[]> reader, Runnable onExit) {
+        Queue<long[]> pending = new ConcurrentLinkedQueue<>(ranges);
+        Thread[]      readers = new Thread[readerCount(ranges)];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(() -> {
+                try {
+                    long[] range;
+                    while (failure.get() == null && (range = pending.poll()) != null)
+                        reader.accept(range);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    onExit.run();
+                }
+            }, "PartitionReader-" + i);
+            readers[i].setDaemon(true);
+            readers[i].start();
+        }
+        return readers;
+    }
+
+    /**
+     * 分区并行读取数据表
+     * <p>
+     *     读取分区字段的最小值与最大值，平均划分为 <code>partitions</code> 个范围，每个范围一个流式查询（见
+     *     {@link #queryStream(String, int, Object...)}）。并发模式下由不超过最大连接数的专用线程从范围队列中依次读取，
+     *     读到的数据行经由有界队列交给返回的数据流，读取与处理同时进行，不占用公共 ForkJoinPool；
+     *     单连接模式下在读取数据流的线程中依次读取。
+     * </p>
+     * <p>
+     *     数据流无序；并发模式下每行为新的数据行对象，单连接模式下每个范围内复用同一个数据行对象。
+     *     数据流必须关闭或读取完毕，关闭后读取线程随之停止并归还连接。
+     * </p>
+     * @param database    数据库，为 null 时使用默认数据库
+     * @param tableName   数据表
+     * @param splitColumn 分区字段，必须是整数类型；为 null 时使用整数类型主键的第一列
+     * @param partitions  分区数
+     * @return 返回数据流。
+     * @throws ManagerException 查询过程中出错，则抛出该异常；读取线程的错误在读取数据流时抛出。
+     */
+    public final Stream<Row> queryPartitioned(String database, @NotNull String tableName, String splitColumn,
+                                              int partitions) throws ManagerException {
+        String       column = splitColumn != null ? splitColumn : findSplitColumn(database, tableName);
+        String       table  = partitionTable(database, tableName);
+        List<long[]> ranges = partitionRanges(table, column, partitions);
+        if (ranges == null)
+            return Stream.empty();
+        if (!isConcurrent() || ranges.size() == 1)
+            return ranges.stream().flatMap(range -> readPartition(table, column, range, true));
+        PartitionIterator iterator = new PartitionIterator(tableName, readerCount(ranges));
+        startReaders(ranges, iterator.failure, range -> {
+            try (Stream<Row> rows = readPartition(table, column, range, false)) {
+                Iterator<Row> source = rows.iterator();
+                while (source.hasNext()) {
+                    if (!iterator.put(source.next()))
+                        break;
+                }
+            }
+        }, iterator.running::decrementAndGet);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * 分区读取线程与数据流之间的有界队列
+     */
+    private final static class PartitionIterator implements Iterator<Row> {
+        /** 数据流关闭后放入 failure，使读取线程停止 */
+        private final static Throwable CLOSED = new IllegalStateException("Stream closed.");
+
+        private final BlockingQueue<Row>         queue   = new ArrayBlockingQueue<>(PARTITION_QUEUE_SIZE);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        /** 尚未退出的读取线程数 */
+        private final AtomicInteger              running;
+        private final String                     tableName;
+        private Row                              next;
+
+        PartitionIterator(String tableName, int readers) {
+            this.tableName = tableName;
+            this.running   = new AtomicInteger(readers);
+        }
+
+        // 读取线程放入一行，队列已满时等待；出错或数据流已关闭时返回 false
+        boolean put(Row row) {
+            try {
+                do {
+                    if (failure.get() != null)
+                        return false;
+                } while (!queue.offer(row, 100, TimeUnit.MILLISECONDS));
+                return true;
+            } catch (InterruptedException e) {
+                failure.compareAndSet(null, e);
+                return false;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null)
+                return true;
+            try {
+                while (true) {
+                    check();
+                    // 先读取 running：读取线程放入的行先于其退出，见到全部退出后队列中的行都已可见
+                    boolean finished = running.get() == 0;
+                    if ((next = queue.poll(finished ? 0 : 100, TimeUnit.MILLISECONDS)) != null)
+                        return true;
+                    if (finished) {
+                        check();
+                        return false;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new ManagerException("Interrupted while reading table(" + tableName + ") by partitions.", e);
+            }
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            Row row = next;
+            next = null;
+            return row;
+        }
+
+        private void check() throws ManagerException {
+            Throwable e = failure.get();
+            if (e == null || e == CLOSED)
+                return;
+            if (e instanceof ManagerException)
+                throw (ManagerException) e;
+            throw new ManagerException("Can not read table(" + tableName + ") by partitions: " + e.getMessage(), e);
+        }
+
+        void close() {
+            failure.compareAndSet(null, CLOSED);
+            queue.clear();
+        }
+    }
+
+    /**
+     * 分区并行读取数据表，交给消费者处理
+     * <p>
+     *     与 {@link #queryPartitioned(String, String, String, int)} 相同地划分范围，并发模式下由不超过最大连接数的
+     *     专用线程从范围队列中依次读取，各线程使用各自的连接；单连接模式下在调用线程中依次读取。
+     *     消费者会在多个线程中同时调用，必须是线程安全的；数据行对象在同一范围内复用。
+     * </p>
+     * @param database    数据库，为 null 时使用默认数据库
+     * @param tableName   数据表
+     * @param splitColumn 分区字段，必须是整数类型；为 null 时使用整数类型主键的第一列
+     * @param partitions  分区数
+     * @param consumer    消费者
+     * @return 返回读取的行数。
+     * @throws ManagerException 查询或处理过程中出错，则抛出该异常；任一分区失败时其他分区随之停止。
+     */
+    public final long queryPartitioned(String database, @NotNull String tableName, String splitColumn,
+                                       int partitions, @NotNull Consumer<? super Row> consumer)
+            throws ManagerException {
+        String       column = splitColumn != null ? splitColumn : findSplitColumn(database, tableName);
+        String       table  = partitionTable(database, tableName);
+        List<long[]> ranges = partitionRanges(table, column, partitions);
+        if (ranges == null)
+            return 0;
+        AtomicLong                 count   = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        if (!isConcurrent() || ranges.size() == 1) {
+            for (long[] range : ranges) {
+                try (Stream<Row> rows = readPartition(table, column, range, true)) {
+                    rows.forEach(row -> {
+                        consumer.accept(row);
+                        count.incrementAndGet();
+                    });
+                }
+            }
+            return count.get();
+        }
+        Thread[] readers = startReaders(ranges, failure, range -> {
+            long rows = 0;
+            try (Stream<Row> stream = readPartition(table, column, range, true)) {
+                Iterator<Row> iterator = stream.iterator();
+                while (failure.get() == null && iterator.hasNext()) {
+                    consumer.accept(iterator.next());
+                    rows++;
+                }
+            } finally {
+                count.addAndGet(rows);
+            }
+        }, () -> { });
+        try {
+            for (Thread reader : readers)
+                reader.join();
+        } catch (InterruptedException e) {
+            failure.compareAndSet(null, e);
+            for (Thread reader : readers)
+                reader.interrupt();
+            Thread.currentThread().interrupt();
+        }
+        Throwable e = failure.get();
+        if (e instanceof ManagerException)
+            throw (ManagerException) e;
+        if (e != null)
+            throw new ManagerException("Can not read table(" + tableName + ") by partitions: " + e.getMessage(), e);
+        return count.get();
     }
 
     /**
      * 回滚。
      * <p>
-     *     回退在此之前提交的事务。
+     *     回退在此之前提交的事务。当前线程处于事务中时回滚该事务并归还连接。
      * </p>
      * @throws ManagerException 执行过程中出错，则抛出该异常。
      */
-    public synchronized final void rollback() throws ManagerException {
-        requireConnection();
-        requireConnected();
-        try {
-            if(conn!=null)
-                conn.rollback();
+    public final void rollback() throws ManagerException {
+        ConnectionLease current = leases.get();
+        if (current != null && current.transaction) {
+            endTransaction(current, false);
+            return;
+        }
+        try (ConnectionLease lease = lease()) {
+            lease.get().rollback();
         } catch (SQLException e) {
             throw new MySQLException(e.getMessage(), e);
         }
     }
 
     // 更新
-    private synchronized int update0(String inSqlStr, Object... parameters) throws ManagerException {
-        requireConnection();
-        requireConnected();
-        try (PreparedStatement pstm = conn.prepareStatement(inSqlStr)) {
+    private int update0(String inSqlStr, Object... parameters) throws ManagerException {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        try (ConnectionLease lease = lease();
+             StatementCache.Handle handle = prepare(lease, inSqlStr)) {
+            PreparedStatement pstm = handle.get();
             fillParameter(pstm, parameters);
-            int result = pstm.executeUpdate();
+            int result;
+            AsyncCall.track(pstm);
+            try {
+                result = pstm.executeUpdate();
+            } finally {
+                AsyncCall.untrack();
+            }
+            if (Metrics.ENABLED)
+                UPDATE_NANOS.recordSince(start);
             // 记录最后连接时间
             recordLastConnectionTime();
             return result;
         } catch (SQLException e) {
+            if (Metrics.ENABLED)
+                ERRORS.increment();
             throw new ManagerException(e.getMessage() + " >> " + inSqlStr, e);
+        } finally {
+            invalidateMetadataOnDdl(inSqlStr);
         }
     }
 
@@ -857,7 +2085,7 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @return 返回更新语句影响的结果数量。
      * @throws ManagerException 执行过程中出错，则抛出该异常。
      */
-    public synchronized final int update(String inSqlStr, Object... parameters) throws ManagerException {
+    public final int update(String inSqlStr, Object... parameters) throws ManagerException {
         return update0(inSqlStr, parameters);
     }
 
@@ -867,8 +2095,158 @@ public abstract class AbstractManager implements ManagerClient, AutoCloseable {
      * @return 返回更新语句影响的结果数量。
      * @throws ManagerException 执行过程中出错，则抛出该异常。
      */
-    public synchronized final int update(String inSqlStr) throws ManagerException {
+    public final int update(String inSqlStr) throws ManagerException {
         return update0(inSqlStr);
     }
 
+    // 执行异步调用的线程池，首次使用时按最大连接数创建
+    private synchronized ExecutorService asyncExecutor() {
+        ExecutorService executor = this.asyncExecutor;
+        if (executor == null) {
+            int threads = maxConnections;
+            asyncPermits  = new Semaphore(threads);
+            asyncExecutor = executor = AsyncCall.newExecutor("AsyncManager", threads);
+        }
+        return executor;
+    }
+
+    /**
+     * 异步执行操作
+     * <p>
+     *     操作在管理器的异步线程池中执行：支持虚拟线程的 JDK 上每个操作一个虚拟线程，否则为固定大小的守护线程池；
+     *     同时执行的操作数不超过最大连接数（{@link #setMaxConnections(int)}），其余排队等待，不会因借用连接超时而失败。
+     *     异步操作不在调用线程的事务中执行。
+     * </p>
+     * <p>
+     *     超时或调用 {@link CompletableFuture#cancel(boolean)} 时，以 {@link Statement#cancel()} 中止正在执行的语句，
+     *     排队中的操作不再执行；超时以 {@link TimeoutException} 结束。
+     * </p>
+     * @param timeout 超时时间，0 表示不限
+     * @param unit    时间单位
+     * @param action  操作，在异步线程中调用管理器的同步方法
+     * @param <T>     结果类型
+     * @return 返回操作的结果。
+     */
+    protected final <T> CompletableFuture<T> supplyAsync(long timeout, @NotNull TimeUnit unit, @NotNull Supplier<T> action) {
+        if (timeout < 0)
+            throw new IllegalArgumentException("Illegal parameter [timeout = " + timeout + "]");
+        ExecutorService      executor = asyncExecutor();
+        Semaphore            permits  = asyncPermits;
+        AsyncCall            call     = new AsyncCall();
+        CompletableFuture<T> future   = new CompletableFuture<>();
+        // 超时、取消或失败时中止正在执行的语句
+        future.whenComplete((result, e) -> {
+            if (e != null)
+                call.cancel();
+        });
+        try {
+            executor.execute(() -> {
+                if (future.isDone())
+                    return;
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    future.completeExceptionally(e);
+                    return;
+                }
+                try {
+                    future.complete(call.run(action));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new ManagerException("The manager is closed.", e));
+            return future;
+        }
+        if (timeout > 0) {
+            ScheduledFuture<?> timer = AsyncCall.schedule(() -> future.completeExceptionally(
+                    new TimeoutException("Timed out after " + timeout + " " + unit.name().toLowerCase() + ".")),
+                    timeout, unit);
+            future.whenComplete((result, e) -> timer.cancel(false));
+        }
+        return future;
+    }
+
+    /**
+     * 异步查询数据，结果全部读入列表后返回
+     * @param inSqlStr   查询语句
+     * @param parameters 参数
+     * @return 返回查询结果。
+     * @see #supplyAsync(long, TimeUnit, Supplier)
+     */
+    public final CompletableFuture<List<Row>> queryAsync(String inSqlStr, Object... parameters) {
+        return queryAsync(0, TimeUnit.MILLISECONDS, inSqlStr, parameters);
+    }
+
+    /**
+     * 异步查询数据，结果全部读入列表后返回
+     * @param timeout    超时时间，0 表示不限
+     * @param unit       时间单位
+     * @param inSqlStr   查询语句
+     * @param parameters 参数
+     * @return 返回查询结果。
+     * @see #supplyAsync(long, TimeUnit, Supplier)
+     */
+    public final CompletableFuture<List<Row>> queryAsync(long timeout, TimeUnit unit,
+                                                         String inSqlStr, Object... parameters) {
+        return supplyAsync(timeout, unit, () -> {
+            try (JDBCRecord record = query0(inSqlStr, false, 0, parameters)) {
+                return record.toList();
+            }
+        });
+    }
+
+    /**
+     * 异步更新数据
+     * @param inSqlStr   更新语句。如： DELETE、INSERT、REPLACE、UPDATE 等等。
+     * @param parameters 参数
+     * @return 返回更新语句影响的结果数量。
+     * @see #supplyAsync(long, TimeUnit, Supplier)
+     */
+    public final CompletableFuture<Integer> updateAsync(String inSqlStr, Object... parameters) {
+        return updateAsync(0, TimeUnit.MILLISECONDS, inSqlStr, parameters);
+    }
+
+    /**
+     * 异步更新数据
+     * @param timeout    超时时间，0 表示不限
+     * @param unit       时间单位
+     * @param inSqlStr   更新语句
+     * @param parameters 参数
+     * @return 返回更新语句影响的结果数量。
+     * @see #supplyAsync(long, TimeUnit, Supplier)
+     */
+    public final CompletableFuture<Integer> updateAsync(long timeout, TimeUnit unit,
+                                                        String inSqlStr, Object... parameters) {
+        return supplyAsync(timeout, unit, () -> update0(inSqlStr, parameters));
+    }
+
+    /**
+     * 异步批量执行预编译语句，每次执行 1000 组参数
+     * @param inSqlStr   预编译 SQL 语句（语句中带有 ? ）
+     * @param parameters 预编译参数组
+     * @return 返回执行结果数组。
+     * @see #batchExecute(String, int, Object[]...)
+     */
+    public final CompletableFuture<int[]> batchAsync(String inSqlStr, Object[]... parameters) {
+        return batchAsync(0, TimeUnit.MILLISECONDS, inSqlStr, parameters);
+    }
+
+    /**
+     * 异步批量执行预编译语句，每次执行 1000 组参数
+     * @param timeout    超时时间，0 表示不限；超时时中止正在执行的一批，之前已执行的批次不会回滚
+     * @param unit       时间单位
+     * @param inSqlStr   预编译 SQL 语句（语句中带有 ? ）
+     * @param parameters 预编译参数组
+     * @return 返回执行结果数组。
+     * @see #batchExecute(String, int, Object[]...)
+     */
+    public final CompletableFuture<int[]> batchAsync(long timeout, TimeUnit unit,
+                                                     String inSqlStr, Object[]... parameters) {
+        return supplyAsync(timeout, unit, () -> batchExecute(inSqlStr, 1000, parameters));
+    }
+
 }
@@ -0,0 +1,141 @@
+package com.liuyang.jdbc;
+
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 异步调用
+ * <p>
+ *     记录异步任务当前正在执行的语句：执行语句前后由管理器调用 {@link #track(Statement)} 与 {@link #untrack()}，
+ *     超时或被调用者取消时通过 {@link Statement#cancel()} 中止正在执行的语句，尚未开始的语句不再执行。
+ *     语句在归还缓存前已解除记录，取消不会影响其他任务复用的同一语句。
+ * </p>
+ * <ul>
+ *     <li>2019/4/10 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+final class AsyncCall {
+
+    /** 当前线程执行的异步调用 */
+    private final static ThreadLocal<AsyncCall> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 超时计时器，所有管理器共用一个守护线程
+     */
+    private final static class Timer {
+        private final static ScheduledThreadPoolExecutor INSTANCE = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "AsyncTimeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        static {
+            INSTANCE.setRemoveOnCancelPolicy(true);
+        }
+    }
+
+    private Statement statement;
+    private boolean   cancelled;
+
+    /**
+     * 记录当前线程的异步调用即将执行的语句，不在异步调用中时什么也不做
+     * @param statement 语句
+     * @throws SQLException 异步调用已取消时抛出异常（SQLState 为 HY008）。
+     */
+    static void track(Statement statement) throws SQLException {
+        AsyncCall call = CURRENT.get();
+        if (call != null)
+            call.attach(statement);
+    }
+
+    /**
+     * 语句执行完毕，解除记录
+     */
+    static void untrack() {
+        AsyncCall call = CURRENT.get();
+        if (call != null)
+            call.detach();
+    }
+
+    private synchronized void attach(Statement statement) throws SQLException {
+        if (cancelled)
+            throw new SQLException("Statement cancelled.", "HY008");
+        this.statement = statement;
+    }
+
+    // 与 cancel 互斥：正在取消时等待取消完成后才能归还语句
+    private synchronized void detach() {
+        statement = null;
+    }
+
+    /**
+     * 取消调用：中止正在执行的语句，之后的语句不再执行
+     */
+    synchronized void cancel() {
+        cancelled = true;
+        if (statement == null)
+            return;
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            // do nothing
+        }
+    }
+
+    /**
+     * 在当前线程中执行调用
+     * @param action 操作
+     * @param <T>    结果类型
+     * @return 返回操作的结果。
+     * @throws CancellationException 开始执行前已取消时抛出异常。
+     */
+    <T> T run(Supplier<T> action) {
+        synchronized (this) {
+            if (cancelled)
+                throw new CancellationException("Cancelled before execution.");
+        }
+        CURRENT.set(this);
+        try {
+            return action.get();
+        } finally {
+            CURRENT.remove();
+            detach();
+        }
+    }
+
+    /**
+     * 创建执行异步调用的线程池：支持虚拟线程的 JDK（21+）上每个任务一个虚拟线程，否则为固定大小的守护线程池
+     * @param name    线程名称前缀
+     * @param threads 固定线程池的线程数
+     * @return 返回线程池。
+     */
+    static ExecutorService newExecutor(String name, int threads) {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // 不支持虚拟线程
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, name + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    static ScheduledFuture<?> schedule(Runnable task, long timeout, TimeUnit unit) {
+        return Timer.INSTANCE.schedule(task, timeout, unit);
+    }
+}
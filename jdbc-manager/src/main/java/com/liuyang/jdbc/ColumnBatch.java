@@ -0,0 +1,275 @@
+package com.liuyang.jdbc;
+
+import com.liuyang.ds.Bitmap;
+import com.liuyang.ds.Row;
+import com.liuyang.ds.Schema;
+import com.liuyang.ds.sets.DataRow;
+
+import java.util.Arrays;
+
+/**
+ * 列式数据批次
+ * <p>
+ *     按列存储多行数据：布尔、整数、日期（纪元天数）、时间戳（纪元微秒数）存入 <code>long[]</code>，
+ *     浮点数存入 <code>double[]</code>，其余类型（以及超出 long 范围的无符号 BIGINT）存入 <code>Object[]</code>，
+ *     空值以每列一个 {@link Bitmap} 标识。
+ *     读取数值字段不需要装箱，同一批次可以反复填充。
+ * </p>
+ * <p>
+ *     <i>该类非线程安全，由单个线程填充与读取。</i>
+ * </p>
+ * <ul>
+ *     <li>2019/4/9 ver 1.0.0 创建。</li>
+ *     <li>2019/4/10 ver 1.0.1 可按列指定存储方式，结果集中的无符号 BIGINT 按对象存储。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.1
+ * @see JDBCRecord#batches(int, boolean)
+ */
+public final class ColumnBatch {
+
+    /** 列的存储方式 */
+    final static int LONG   = 0;
+    final static int DOUBLE = 1;
+    final static int OBJECT = 2;
+
+    private final Schema[]   header;
+    private final int        capacity;
+    private final int[]      kinds;
+    final long[][]           longs;
+    final double[][]         doubles;
+    final Object[][]         objects;
+    final Bitmap[]           nulls;
+    private int              size;
+
+    /**
+     * 创建列式数据批次
+     * @param header   字段
+     * @param capacity 最大行数
+     */
+    public ColumnBatch(Schema[] header, int capacity) {
+        this(header, kindsOf(header), capacity);
+    }
+
+    /**
+     * 创建列式数据批次，指定每列的存储方式
+     * @param header   字段
+     * @param kinds    每列的存储方式：{@link #LONG}, {@link #DOUBLE}, {@link #OBJECT}
+     * @param capacity 最大行数
+     */
+    ColumnBatch(Schema[] header, int[] kinds, int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Illegal parameter [capacity = " + capacity + "], must be positive.");
+        this.header   = header;
+        this.capacity = capacity;
+        this.kinds    = kinds;
+        this.longs    = new long[header.length][];
+        this.doubles  = new double[header.length][];
+        this.objects  = new Object[header.length][];
+        this.nulls    = new Bitmap[header.length];
+        for (int i = 0; i < header.length; i++) {
+            switch (kinds[i]) {
+                case LONG:   longs[i]   = new long[capacity];   break;
+                case DOUBLE: doubles[i] = new double[capacity]; break;
+                default:     objects[i] = new Object[capacity]; break;
+            }
+            nulls[i] = new Bitmap(capacity);
+        }
+    }
+
+    private static int[] kindsOf(Schema[] header) {
+        int[] kinds = new int[header.length];
+        for (int i = 0; i < header.length; i++)
+            kinds[i] = kindOf(header[i]);
+        return kinds;
+    }
+
+    static int kindOf(Schema field) {
+        switch (field.getType()) {
+            case BOOL:
+            case BOOLEAN:
+            case BYTE:
+            case TINYINT:
+            case SHORT:
+            case SMALLINT:
+            case INT:
+            case INTEGER:
+            case LONG:
+            case BIGINT:
+            case DATE:
+            case DATETIME:
+            case TIMESTAMP:
+                return LONG;
+            case FLOAT:
+            case DOUBLE:
+                return DOUBLE;
+            default:
+                return OBJECT;
+        }
+    }
+
+    private void rangeCheck(int column, int row) {
+        if (row >= size || row < 0)
+            throw new IndexOutOfBoundsException("index out of range [row = " + row + ", size: " + size + "]");
+        if (column >= header.length || column < 0)
+            throw new IndexOutOfBoundsException("index out of range [column = " + column + ", size: " + header.length + "]");
+    }
+
+    public Schema[] header() {
+        return header;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 获取已填充的行数
+     * @return 返回行数。
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    // 填充完一行
+    void commit() {
+        size++;
+    }
+
+    /**
+     * 清空批次，保留已分配的数组
+     */
+    public void reset() {
+        for (int i = 0; i < header.length; i++) {
+            nulls[i].clear();
+            // 释放对象引用
+            if (objects[i] != null)
+                Arrays.fill(objects[i], 0, size, null);
+        }
+        size = 0;
+    }
+
+    public boolean isNull(int column, int row) {
+        rangeCheck(column, row);
+        return nulls[column].get(row);
+    }
+
+    /**
+     * 获取整数值（布尔值为 0 或 1，日期为纪元天数，时间戳为纪元微秒数）
+     * @param column 列索引
+     * @param row    行索引
+     * @return 返回整数值，空值返回 0；超出 long 范围的无符号 BIGINT 只保留低 64 位，
+     *         需要精确值时请使用 {@link #get(int, int)}。
+     */
+    public long getLong(int column, int row) {
+        rangeCheck(column, row);
+        switch (kinds[column]) {
+            case LONG:   return longs[column][row];
+            case DOUBLE: return (long) doubles[column][row];
+            default: {
+                Object value = objects[column][row];
+                return value == null ? 0 : value instanceof Number ? ((Number) value).longValue()
+                        : Long.parseLong(value.toString());
+            }
+        }
+    }
+
+    public int getInteger(int column, int row) {
+        return (int) getLong(column, row);
+    }
+
+    public boolean getBoolean(int column, int row) {
+        return getLong(column, row) != 0;
+    }
+
+    public int getDate(int column, int row) {
+        return (int) getLong(column, row);
+    }
+
+    public long getTimestamp(int column, int row) {
+        return getLong(column, row);
+    }
+
+    /**
+     * 获取浮点数值
+     * @param column 列索引
+     * @param row    行索引
+     * @return 返回浮点数值，空值返回 0。
+     */
+    public double getDouble(int column, int row) {
+        rangeCheck(column, row);
+        switch (kinds[column]) {
+            case LONG:   return longs[column][row];
+            case DOUBLE: return doubles[column][row];
+            default: {
+                Object value = objects[column][row];
+                return value == null ? 0 : value instanceof Number ? ((Number) value).doubleValue()
+                        : Double.parseDouble(value.toString());
+            }
+        }
+    }
+
+    /**
+     * 获取字段值，数值类型按字段类型装箱
+     * @param column 列索引
+     * @param row    行索引
+     * @return 返回字段值，空值返回 null。
+     */
+    public Object get(int column, int row) {
+        rangeCheck(column, row);
+        if (nulls[column].get(row))
+            return null;
+        // 按对象存储的列（如无符号 BIGINT）原样返回
+        if (kinds[column] == OBJECT)
+            return objects[column][row];
+        switch (header[column].getType()) {
+            case BOOL:
+            case BOOLEAN:   return longs[column][row] != 0;
+            case BYTE:
+            case TINYINT:
+            case SHORT:
+            case SMALLINT:
+            case DATE:      return (int) longs[column][row];
+            case INT:
+            case INTEGER: {
+                // 无符号整数可能超出 int 的范围
+                long value = longs[column][row];
+                return value == (int) value ? (Object) (int) value : (Object) value;
+            }
+            case LONG:
+            case BIGINT:
+            case DATETIME:
+            case TIMESTAMP: return longs[column][row];
+            case FLOAT:
+            case DOUBLE:    return doubles[column][row];
+            default:        return objects[column][row];
+        }
+    }
+
+    public String getString(int column, int row) {
+        Object value = get(column, row);
+        return value == null ? null : value.toString();
+    }
+
+    public byte[] getBinary(int column, int row) {
+        rangeCheck(column, row);
+        Object value = objects[column] == null ? null : objects[column][row];
+        return value instanceof byte[] ? (byte[]) value : null;
+    }
+
+    /**
+     * 复制指定行为数据行
+     * @param row 行索引
+     * @return 返回新的数据行。
+     */
+    public Row toRow(int row) {
+        DataRow result = new DataRow(header);
+        for (int i = 0; i < header.length; i++)
+            result.setValue(i, get(i, row));
+        return result;
+    }
+}
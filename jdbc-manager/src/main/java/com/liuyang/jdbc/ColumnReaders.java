@@ -0,0 +1,256 @@
+package com.liuyang.jdbc;
+
+import com.liuyang.ds.Schema;
+import com.liuyang.tools.TimeUtils;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * 按列读取查询结果
+ * <p>
+ *     根据结果集元数据为每一列选定一次读取方式（<code>getLong</code>、<code>getDouble</code>、<code>getBytes</code>
+ *     等，配合 <code>wasNull</code> 判断空值），逐行读取时不再判断类型，也不经过 <code>getObject</code> 的通用转换。
+ *     日期、时间戳直接转换为纪元天数/微秒数。无符号 BIGINT 可能超出 long 的范围，按 <code>getObject</code> 读取。
+ * </p>
+ * <ul>
+ *     <li>2019/4/9 ver 1.0.0 创建。</li>
+ *     <li>2019/4/10 ver 1.0.1 列式批次中的无符号 BIGINT 按对象存储，不再以 getLong 读取。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.1
+ */
+final class ColumnReaders {
+
+    private ColumnReaders() {
+
+    }
+
+    /**
+     * 读取当前行的字段值
+     */
+    @FunctionalInterface
+    interface ValueReader {
+        /**
+         * @param rs 结果集，已定位到当前行
+         * @return 返回字段值，空值返回 null。
+         */
+        Object read(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * 读取当前行的字段值，写入列式批次
+     */
+    @FunctionalInterface
+    interface BatchReader {
+        /**
+         * @param rs    结果集，已定位到当前行
+         * @param batch 批次
+         * @param row   写入的行索引
+         */
+        void read(ResultSet rs, ColumnBatch batch, int row) throws SQLException;
+    }
+
+    private static int epochDay(java.sql.Date date) {
+        return TimeUtils.millisToEpochDay(date.getTime());
+    }
+
+    private static long epochMicros(Timestamp ts) {
+        return Math.floorDiv(ts.getTime(), 1000L) * 1000000L + ts.getNanos() / 1000;
+    }
+
+    /**
+     * 按 SQL 类型选定读取数据行字段值的方式
+     * @param rsmd 结果集元数据
+     * @return 返回每列的读取方式。
+     * @throws SQLException 读取元数据出错时抛出异常。
+     */
+    static ValueReader[] valueReaders(ResultSetMetaData rsmd) throws SQLException {
+        ValueReader[] readers = new ValueReader[rsmd.getColumnCount()];
+        for (int i = 0; i < readers.length; i++) {
+            final int c = i + 1;
+            switch (rsmd.getColumnType(c)) {
+                case Types.BIT:
+                case Types.BOOLEAN:
+                    readers[i] = rs -> {
+                        boolean value = rs.getBoolean(c);
+                        return rs.wasNull() ? null : value;
+                    };
+                    break;
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                    readers[i] = rs -> {
+                        int value = rs.getInt(c);
+                        return rs.wasNull() ? null : value;
+                    };
+                    break;
+                case Types.INTEGER:
+                    // 无符号整数可能超出 int 的范围
+                    if (rsmd.isSigned(c)) {
+                        readers[i] = rs -> {
+                            int value = rs.getInt(c);
+                            return rs.wasNull() ? null : value;
+                        };
+                        break;
+                    }
+                    readers[i] = rs -> {
+                        long value = rs.getLong(c);
+                        return rs.wasNull() ? null : value;
+                    };
+                    break;
+                case Types.BIGINT:
+                    if (!rsmd.isSigned(c)) {
+                        readers[i] = rs -> rs.getObject(c);
+                        break;
+                    }
+                    readers[i] = rs -> {
+                        long value = rs.getLong(c);
+                        return rs.wasNull() ? null : value;
+                    };
+                    break;
+                case Types.REAL:
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                    readers[i] = rs -> {
+                        double value = rs.getDouble(c);
+                        return rs.wasNull() ? null : value;
+                    };
+                    break;
+                case Types.DATE:
+                    readers[i] = rs -> {
+                        java.sql.Date value = rs.getDate(c);
+                        return value == null ? null : epochDay(value);
+                    };
+                    break;
+                case Types.TIMESTAMP:
+                    readers[i] = rs -> {
+                        Timestamp value = rs.getTimestamp(c);
+                        return value == null ? null : epochMicros(value);
+                    };
+                    break;
+                case Types.CHAR:
+                case Types.VARCHAR:
+                case Types.LONGVARCHAR:
+                    readers[i] = rs -> rs.getString(c);
+                    break;
+                case Types.BINARY:
+                case Types.VARBINARY:
+                case Types.LONGVARBINARY:
+                    readers[i] = rs -> rs.getBytes(c);
+                    break;
+                default:
+                    readers[i] = rs -> rs.getObject(c);
+                    break;
+            }
+        }
+        return readers;
+    }
+
+    /**
+     * 按字段类型与结果集元数据选定列式批次中每列的存储方式
+     * @param header 字段
+     * @param rsmd   结果集元数据
+     * @return 返回每列的存储方式，见 {@link ColumnBatch#kindOf(Schema)}。
+     * @throws SQLException 读取元数据出错时抛出异常。
+     */
+    static int[] batchKinds(Schema[] header, ResultSetMetaData rsmd) throws SQLException {
+        int[] kinds = new int[header.length];
+        for (int i = 0; i < kinds.length; i++) {
+            kinds[i] = ColumnBatch.kindOf(header[i]);
+            // 无符号 BIGINT 可能超出 long 的范围
+            if (kinds[i] == ColumnBatch.LONG && rsmd.getColumnType(i + 1) == Types.BIGINT && !rsmd.isSigned(i + 1))
+                kinds[i] = ColumnBatch.OBJECT;
+        }
+        return kinds;
+    }
+
+    /**
+     * 按字段类型选定读取列式批次的方式，与 {@link ColumnBatch} 的存储方式一致
+     * @param header 字段
+     * @param kinds  每列的存储方式，见 {@link #batchKinds(Schema[], ResultSetMetaData)}
+     * @return 返回每列的读取方式。
+     */
+    static BatchReader[] batchReaders(Schema[] header, int[] kinds) {
+        BatchReader[] readers = new BatchReader[header.length];
+        for (int i = 0; i < readers.length; i++) {
+            final int c = i + 1, j = i;
+            switch (header[i].getType()) {
+                case BOOL:
+                case BOOLEAN:
+                    readers[i] = (rs, batch, row) -> {
+                        batch.longs[j][row] = rs.getBoolean(c) ? 1 : 0;
+                        if (rs.wasNull())
+                            batch.nulls[j].set(row);
+                    };
+                    break;
+                case DATE:
+                    readers[i] = (rs, batch, row) -> {
+                        java.sql.Date value = rs.getDate(c);
+                        if (value == null) {
+                            batch.longs[j][row] = 0;
+                            batch.nulls[j].set(row);
+                        } else {
+                            batch.longs[j][row] = epochDay(value);
+                        }
+                    };
+                    break;
+                case DATETIME:
+                case TIMESTAMP:
+                    readers[i] = (rs, batch, row) -> {
+                        Timestamp value = rs.getTimestamp(c);
+                        if (value == null) {
+                            batch.longs[j][row] = 0;
+                            batch.nulls[j].set(row);
+                        } else {
+                            batch.longs[j][row] = epochMicros(value);
+                        }
+                    };
+                    break;
+                case BINARY:
+                case BYTEARRAY:
+                    readers[i] = (rs, batch, row) -> {
+                        if ((batch.objects[j][row] = rs.getBytes(c)) == null)
+                            batch.nulls[j].set(row);
+                    };
+                    break;
+                case CHAR:
+                case VARCHAR:
+                case TEXT:
+                case STRING:
+                    readers[i] = (rs, batch, row) -> {
+                        if ((batch.objects[j][row] = rs.getString(c)) == null)
+                            batch.nulls[j].set(row);
+                    };
+                    break;
+                default:
+                    switch (kinds[i]) {
+                        case ColumnBatch.LONG:
+                            readers[i] = (rs, batch, row) -> {
+                                batch.longs[j][row] = rs.getLong(c);
+                                if (rs.wasNull())
+                                    batch.nulls[j].set(row);
+                            };
+                            break;
+                        case ColumnBatch.DOUBLE:
+                            readers[i] = (rs, batch, row) -> {
+                                batch.doubles[j][row] = rs.getDouble(c);
+                                if (rs.wasNull())
+                                    batch.nulls[j].set(row);
+                            };
+                            break;
+                        default:
+                            readers[i] = (rs, batch, row) -> {
+                                if ((batch.objects[j][row] = rs.getObject(c)) == null)
+                                    batch.nulls[j].set(row);
+                            };
+                            break;
+                    }
+                    break;
+            }
+        }
+        return readers;
+    }
+}
@@ -0,0 +1,119 @@
+package com.liuyang.jdbc;
+
+import com.liuyang.common.ManagerException;
+import com.liuyang.common.ObjectPool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * JDBC 连接池
+ * <p>
+ *     供 {@link AbstractManager} 的并发模式使用：每次操作（或事务）借出一个连接，结束后归还。
+ *     超过最大连接数时借用方按先后顺序（公平锁）等待，超时抛出异常。最近归还的连接优先借出；
+ *     已关闭的连接在借出与归还时丢弃，未提交的事务在归还时回滚。借出与归还由 {@link ObjectPool} 实现，
+ *     建连与关闭都在锁外进行。
+ * </p>
+ * <ul>
+ *     <li>2019/4/7 ver 1.0.0 创建。</li>
+ *     <li>2019/4/9 ver 1.0.1 增加连接关闭前的回调，用于清理连接相关的缓存。</li>
+ *     <li>2019/4/10 ver 1.0.2 改为继承 ObjectPool，与 ManagerClientPool 共用借出与归还的实现。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.2
+ */
+final class ConnectionPool extends ObjectPool<Connection> {
+
+    /**
+     * 连接工厂
+     */
+    @FunctionalInterface
+    interface ConnectionFactory {
+        Connection open() throws ManagerException;
+    }
+
+    private final ConnectionFactory    factory;
+    private final Consumer<Connection> onDiscard;
+
+    ConnectionPool(String name, ConnectionFactory factory, int maxSize, long maxWaitMillis) {
+        this(name, factory, null, maxSize, maxWaitMillis);
+    }
+
+    /**
+     * 创建连接池
+     * @param name          名称，用于异常信息
+     * @param factory       连接工厂
+     * @param onDiscard     可选，连接关闭前调用
+     * @param maxSize       最大连接数
+     * @param maxWaitMillis 借用连接的最长等待时间
+     */
+    ConnectionPool(String name, ConnectionFactory factory, Consumer<Connection> onDiscard,
+                   int maxSize, long maxWaitMillis) {
+        super(name, "connection", "jdbc.pool", maxSize, maxWaitMillis);
+        this.factory   = factory;
+        this.onDiscard = onDiscard;
+    }
+
+    /**
+     * 预先建立一个连接，用于在连接时验证配置
+     * @throws ManagerException 无法建立连接时抛出异常。
+     */
+    void prepare() throws ManagerException {
+        release(borrow());
+    }
+
+    /**
+     * 归还连接
+     * @param conn 连接
+     * @param broken 连接已不可用时填 true，关闭并丢弃
+     */
+    void release(Connection conn, boolean broken) {
+        if (broken)
+            invalidate(conn);
+        else
+            release(conn);
+    }
+
+    @Override
+    protected Connection create() throws ManagerException {
+        return factory.open();
+    }
+
+    @Override
+    protected void destroy(Connection conn) {
+        try {
+            if (onDiscard != null)
+                onDiscard.accept(conn);
+            conn.close();
+        } catch (SQLException | RuntimeException e) {
+            // do nothing
+        }
+    }
+
+    // 已关闭的空闲连接不再借出
+    @Override
+    protected boolean validate(Connection conn) {
+        try {
+            return !conn.isClosed();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    // 回滚未提交的事务，恢复自动提交；失败表示连接不可用
+    @Override
+    protected boolean reset(Connection conn) {
+        try {
+            if (conn.isClosed())
+                return false;
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+}
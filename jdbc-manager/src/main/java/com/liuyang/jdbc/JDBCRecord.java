@@ -17,19 +17,27 @@ import java.util.stream.StreamSupport;
 
 /**
  * JDBC Record
+ * <ul>
+ *     <li>2019/4/7 ver 1.0.2 关闭时一并关闭查询语句并归还租用的连接（并发模式）；读取结束时自动关闭。</li>
+ *     <li>2019/4/9 ver 1.0.3 按元数据为每列选定读取方式，不再逐个调用 getObject；增加列式批次输出 batches，
+ *     stream 可选择是否复用数据行；toList 不再返回同一个数据行的多个引用。</li>
+ *     <li>2019/4/10 ver 1.0.4 列式批次中的无符号 BIGINT 按对象存储，超出 long 范围的值不再读取失败。</li>
+ * </ul>
  *
  * @author liuyang
- * @version 1.0.1
+ * @version 1.0.4
  * @see com.liuyang.ds.DataRecord
  */
 public class JDBCRecord implements DataRecord<Row> {
 
     private ResultSet         result;
     private AbstractManager   manager;
-    //private PreparedStatement pstmt;
-    //private Statement         stmt;
+    private Statement         statement;
+    private AutoCloseable     resource;
     private ResultSetMetaData rsmd;
     private Schema[]          fields;
+    /** 列式批次中每列的存储方式 */
+    private int[]             kinds;
 
     /**
      * 创建 JDBC 数据记录
@@ -41,11 +49,28 @@ public class JDBCRecord implements DataRecord<Row> {
      */
     public JDBCRecord(@NotNull AbstractManager manager, PreparedStatement pstmt, Statement stmt,
                       @NotNull ResultSet result) {
-        this.manager = manager;
-        this.result  = result;
+        this(manager, pstmt, stmt, result, null);
+    }
+
+    /**
+     * 创建 JDBC 数据记录
+     * @param manager 指定 JDBC 管理接口
+     * @param pstmt 可选，指定预查询接口，关闭记录时一并关闭
+     * @param stmt 可选，指定查询接口，关闭记录时一并关闭
+     * @param result 指定数据集合
+     * @param resource 可选，关闭记录时最后关闭的资源（如租用的连接）
+     * @throws IllegalArgumentException 当无法解析 ResultSet 元数据时抛出该异常。
+     */
+    public JDBCRecord(@NotNull AbstractManager manager, PreparedStatement pstmt, Statement stmt,
+                      @NotNull ResultSet result, AutoCloseable resource) {
+        this.manager   = manager;
+        this.result    = result;
+        this.statement = pstmt != null ? pstmt : stmt;
+        this.resource  = resource;
         try {
             this.rsmd   = result.getMetaData();
             this.fields = getFields(rsmd);
+            this.kinds  = ColumnReaders.batchKinds(fields, rsmd);
         } catch (SQLException e) {
             throw new IllegalArgumentException("Can not read MetaData from ResultSet.", e);
         }
@@ -56,10 +81,26 @@ public class JDBCRecord implements DataRecord<Row> {
         try {
             if (result != null)
                 result.close();
+            if (statement != null)
+                statement.close();
         } catch (SQLException e) {
             e.printStackTrace();
         } finally {
-            result = null;
+            result    = null;
+            statement = null;
+            releaseResource();
+        }
+    }
+
+    // 归还连接等资源，只执行一次
+    private void releaseResource() {
+        AutoCloseable resource = this.resource;
+        this.resource = null;
+        try {
+            if (resource != null)
+                resource.close();
+        } catch (Exception e) {
+            e.printStackTrace();
         }
     }
 
@@ -86,11 +127,26 @@ public class JDBCRecord implements DataRecord<Row> {
     }
 
     /**
-     * 以数据流的形式输出
+     * 以数据流的形式输出，复用同一个数据行对象
      * @return 返回数据流
+     * @see #stream(boolean)
      */
     public Stream<Row> stream(){
-        Iterator<Row> iter = new Itr();
+        return stream(true);
+    }
+
+    /**
+     * 以数据流的形式输出
+     * <p>
+     *     每列的读取方式（<code>getLong</code>、<code>getDouble</code>、<code>getBytes</code> 等）在读取第一行前按元数据选定一次。
+     *     <code>reuse</code> 为 true 时所有行写入同一个数据行对象，下游只能在处理当前行时使用它，需要保留时请复制；
+     *     为 false 时每行创建新的数据行。
+     * </p>
+     * @param reuse 是否复用数据行对象
+     * @return 返回数据流
+     */
+    public Stream<Row> stream(boolean reuse) {
+        Iterator<Row> iter = new Itr(reuse);
         // 生成流
         Stream<Row> stream = StreamSupport.stream(Spliterators.spliteratorUnknownSize(
                 iter, Spliterator.ORDERED | Spliterator.NONNULL), false);
@@ -98,30 +154,48 @@ public class JDBCRecord implements DataRecord<Row> {
         return stream;
     }
 
+    /**
+     * 以列式数据批次的形式输出
+     * <p>
+     *     每批最多 <code>batchSize</code> 行，数值、日期时间字段以基本类型存储，读取时不装箱。
+     *     <code>reuse</code> 为 true 时反复填充同一个批次，下游只能在处理当前批次时使用它。
+     * </p>
+     * @param batchSize 每批的最大行数
+     * @param reuse     是否复用批次对象
+     * @return 返回数据流
+     */
+    public Stream<ColumnBatch> batches(int batchSize, boolean reuse) {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("Illegal parameter [batchSize = " + batchSize + "], must be positive.");
+        Iterator<ColumnBatch> iter = new BatchItr(batchSize, reuse);
+        Stream<ColumnBatch> stream = StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                iter, Spliterator.ORDERED | Spliterator.NONNULL), false);
+        return stream.onClose(this::close);
+    }
+
     public List<Row> toList() {
-        return stream().collect(Collectors.toList());
+        // 列表保留所有行，不能复用数据行
+        return stream(false).collect(Collectors.toList());
     }
 
     // 构造迭代器
     private final class Itr implements Iterator<Row> {
-        DataRow           row;
-        boolean           ready;
-        ResultSetMetaData rsmd;
-
-        Itr() {
+        final boolean                     reuse;
+        DataRow                           row;
+        boolean                           ready;
+        ColumnReaders.ValueReader[]       readers;
 
+        Itr(boolean reuse) {
+            this.reuse = reuse;
         }
 
-        // 处理异常
+        // 处理异常或读取结束：关闭结果集并归还连接
         private void handleException() {
             try {
-                if (result != null)
-                    result.close();
-            } catch (SQLException e) {
-                e.printStackTrace();
+                JDBCRecord.this.close();
             } finally {
                 row = null;
-                rsmd = null;
+                readers = null;
             }
         }
 
@@ -131,7 +205,10 @@ public class JDBCRecord implements DataRecord<Row> {
             if (ready)
                 return true;
             try {
-                return (ready = result.next());
+                // 读取结束时关闭，查询结果持有的连接随之归还
+                if (!(ready = result.next()))
+                    handleException();
+                return ready;
             } catch (SQLException e) {
                 //e.printStackTrace();
                 handleException();
@@ -142,12 +219,12 @@ public class JDBCRecord implements DataRecord<Row> {
         public Row next() {
             if (hasNext()) {
                 try {
-                    if (row == null) {
-                        rsmd = result.getMetaData();
-                        row = new DataRow(getFields(rsmd));
-                    }
-                    for (int i = 1, length = rsmd.getColumnCount(); i <= length; i++) {
-                        row.setValue(i - 1, result.getObject(i));
+                    if (readers == null)
+                        readers = ColumnReaders.valueReaders(rsmd);
+                    if (row == null || !reuse)
+                        row = new DataRow(fields);
+                    for (int i = 0, length = readers.length; i < length; i++) {
+                        row.setValue(i, readers[i].read(result));
                     }
                     // 记录最后连接时间
                     manager.recordLastConnectionTime();
@@ -166,4 +243,54 @@ public class JDBCRecord implements DataRecord<Row> {
 
         }
     }
+
+    // 列式批次迭代器：hasNext 时填充下一批
+    private final class BatchItr implements Iterator<ColumnBatch> {
+        final int                         batchSize;
+        final boolean                     reuse;
+        final ColumnReaders.BatchReader[] readers = ColumnReaders.batchReaders(fields, kinds);
+        ColumnBatch                       batch;
+        boolean                           ready;
+
+        BatchItr(int batchSize, boolean reuse) {
+            this.batchSize = batchSize;
+            this.reuse     = reuse;
+        }
+
+        public boolean hasNext() {
+            if (ready)
+                return true;
+            if (result == null)
+                return false;
+            if (batch == null || !reuse)
+                batch = new ColumnBatch(fields, kinds, batchSize);
+            else
+                batch.reset();
+            try {
+                while (!batch.isFull() && result.next()) {
+                    int row = batch.size();
+                    for (ColumnReaders.BatchReader reader : readers)
+                        reader.read(result, batch, row);
+                    batch.commit();
+                }
+            } catch (SQLException e) {
+                batch = null;
+                JDBCRecord.this.close();
+                throw new UncheckedIOException(new IOException(e));
+            }
+            // 记录最后连接时间
+            manager.recordLastConnectionTime();
+            // 不足一批表示读取结束，关闭结果集并归还连接
+            if (!batch.isFull())
+                JDBCRecord.this.close();
+            return ready = batch.size() > 0;
+        }
+
+        public ColumnBatch next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            ready = false;
+            return batch;
+        }
+    }
 }
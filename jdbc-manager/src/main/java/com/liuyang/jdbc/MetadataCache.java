@@ -0,0 +1,140 @@
+package com.liuyang.jdbc;
+
+import com.liuyang.common.ManagerException;
+import com.liuyang.metrics.Counter;
+import com.liuyang.metrics.Metrics;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 元数据缓存
+ * <p>
+ *     按类别、数据库、数据表缓存元数据查询的结果（是否存在、数据表列表、表结构等），到期后重新查询。
+ *     读取不加锁，可由多个线程同时使用；同一项同时未命中时可能各自查询一次。
+ *     查询期间发生失效的结果不会放入缓存，避免把失效前读到的旧数据重新写回：放入与失效在同一把锁下进行，
+ *     失效要么发生在放入之前（结果被丢弃），要么发生在放入之后（结果被移除）。
+ * </p>
+ * <ul>
+ *     <li>2019/4/10 ver 1.0.0 创建。</li>
+ *     <li>2019/4/10 ver 1.0.1 检查失效与放入缓存改为原子操作。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.1
+ */
+final class MetadataCache {
+
+    private final static Counter HITS   = Metrics.counter("jdbc.metadata.cache.hits");
+    private final static Counter MISSES = Metrics.counter("jdbc.metadata.cache.misses");
+
+    private final static class Key {
+        private final String kind;
+        private final String database;
+        private final String table;
+
+        Key(String kind, String database, String table) {
+            this.kind     = kind;
+            this.database = database;
+            this.table    = table;
+        }
+
+        // 是否属于指定的数据库与数据表：数据库级的项（table 为 null）随其中任一数据表失效
+        boolean matches(String database, String table) {
+            if (this.database == null || database == null)
+                return true;
+            if (!this.database.equalsIgnoreCase(database))
+                return false;
+            return table == null || this.table == null || this.table.equalsIgnoreCase(table);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+            Key key = (Key) o;
+            return kind.equals(key.kind) && Objects.equals(database, key.database) && Objects.equals(table, key.table);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, database, table);
+        }
+    }
+
+    private final static class Entry {
+        private final Object value;
+        private final long   expires;
+
+        Entry(Object value, long expires) {
+            this.value   = value;
+            this.expires = expires;
+        }
+    }
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    /** 放入与失效共用的锁，读取不加锁 */
+    private final Object                        lock    = new Object();
+    /** 每次失效加 1，在锁内修改 */
+    private volatile long                       generation;
+
+    /**
+     * 读取缓存，未命中或已过期时查询并放入缓存
+     * @param kind      类别
+     * @param database  数据库，可以为 null
+     * @param table     数据表，数据库级的项为 null
+     * @param ttlMillis 有效期（毫秒）
+     * @param loader    查询
+     * @param <T>       结果类型
+     * @return 返回缓存或查询的结果。
+     * @throws ManagerException 查询出错时抛出异常，结果不会放入缓存。
+     */
+    @SuppressWarnings("unchecked")
+    <T> T get(String kind, String database, String table, long ttlMillis, Supplier<T> loader) throws ManagerException {
+        Key   key   = new Key(kind, database, table);
+        long  now   = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expires - now > 0) {
+            if (Metrics.ENABLED)
+                HITS.increment();
+            return (T) entry.value;
+        }
+        if (Metrics.ENABLED)
+            MISSES.increment();
+        long current = generation;
+        T    value   = loader.get();
+        synchronized (lock) {
+            if (generation == current)
+                entries.put(key, new Entry(value, now + ttlMillis * 1000000L));
+        }
+        return value;
+    }
+
+    /**
+     * 使指定数据表的缓存失效，连同所在数据库的数据库级项（如数据表列表）与不区分数据库的项
+     * @param database 数据库，为 null 时全部失效
+     * @param table    数据表，为 null 时使整个数据库失效
+     */
+    void invalidate(String database, String table) {
+        synchronized (lock) {
+            generation++;
+            entries.keySet().removeIf(key -> key.matches(database, table));
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    void clear() {
+        synchronized (lock) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
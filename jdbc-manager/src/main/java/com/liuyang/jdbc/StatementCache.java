@@ -0,0 +1,155 @@
+package com.liuyang.jdbc;
+
+import com.liuyang.metrics.Counter;
+import com.liuyang.metrics.Metrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译语句缓存
+ * <p>
+ *     每个连接一个，以 SQL 语句为键缓存空闲的预编译语句，按最近归还的顺序淘汰（LRU），超出容量时关闭最久未用的语句。
+ *     语句取出后从缓存中移除，用完归还，因此同一语句同时被多次使用（如查询结果尚未读完时再次执行）时各自独立，
+ *     归还时缓存中已有同一语句的则关闭多余的一个。连接关闭前须调用 {@link #close()}。
+ * </p>
+ * <ul>
+ *     <li>2019/4/9 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+final class StatementCache {
+
+    private final static Counter HITS      = Metrics.counter("jdbc.statement.cache.hits");
+    private final static Counter MISSES    = Metrics.counter("jdbc.statement.cache.misses");
+    private final static Counter EVICTIONS = Metrics.counter("jdbc.statement.cache.evictions");
+
+    /**
+     * 取出的预编译语句，关闭时归还缓存（未启用缓存时直接关闭语句）
+     */
+    final static class Handle implements AutoCloseable {
+        private final StatementCache    cache;
+        private final String            sql;
+        private final PreparedStatement statement;
+        private boolean                 closed;
+
+        Handle(StatementCache cache, String sql, PreparedStatement statement) {
+            this.cache     = cache;
+            this.sql       = sql;
+            this.statement = statement;
+        }
+
+        PreparedStatement get() {
+            return statement;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (closed)
+                return;
+            closed = true;
+            if (cache == null)
+                statement.close();
+            else
+                cache.release(sql, statement);
+        }
+    }
+
+    private final Connection                               connection;
+    private final int                                      maxSize;
+    private final LinkedHashMap<String, PreparedStatement> idle;
+    private boolean                                        closed;
+
+    StatementCache(Connection connection, int maxSize) {
+        this.connection = connection;
+        this.maxSize    = maxSize;
+        this.idle       = new LinkedHashMap<>();
+    }
+
+    /**
+     * 取出预编译语句，缓存中没有时新建
+     * @param sql SQL 语句
+     * @return 返回语句，使用完毕后关闭以归还。
+     * @throws SQLException 预编译出错时抛出异常。
+     */
+    Handle take(String sql) throws SQLException {
+        PreparedStatement statement;
+        synchronized (this) {
+            statement = idle.remove(sql);
+        }
+        if (statement != null) {
+            if (Metrics.ENABLED)
+                HITS.increment();
+            return new Handle(this, sql, statement);
+        }
+        if (Metrics.ENABLED)
+            MISSES.increment();
+        return new Handle(this, sql, connection.prepareStatement(sql));
+    }
+
+    // 归还语句：清除参数与批量语句后放回，失败（如语句已关闭）时丢弃
+    private void release(String sql, PreparedStatement statement) throws SQLException {
+        try {
+            statement.clearParameters();
+            statement.clearBatch();
+        } catch (SQLException e) {
+            close(statement);
+            return;
+        }
+        PreparedStatement evicted = null;
+        synchronized (this) {
+            if (!closed && !idle.containsKey(sql)) {
+                idle.put(sql, statement);
+                statement = null;
+                if (idle.size() > maxSize) {
+                    Map.Entry<String, PreparedStatement> eldest = idle.entrySet().iterator().next();
+                    evicted = eldest.getValue();
+                    idle.remove(eldest.getKey());
+                }
+            }
+        }
+        if (statement != null)
+            statement.close();
+        if (evicted != null) {
+            if (Metrics.ENABLED)
+                EVICTIONS.increment();
+            close(evicted);
+        }
+    }
+
+    private static void close(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // do nothing
+        }
+    }
+
+    /**
+     * 获取缓存的空闲语句数量
+     * @return 返回数量。
+     */
+    synchronized int size() {
+        return idle.size();
+    }
+
+    /**
+     * 关闭所有缓存的语句，之后归还的语句直接关闭
+     */
+    void close() {
+        List<PreparedStatement> statements;
+        synchronized (this) {
+            closed     = true;
+            statements = new ArrayList<>(idle.values());
+            idle.clear();
+        }
+        for (PreparedStatement statement : statements)
+            close(statement);
+    }
+}
@@ -20,9 +20,13 @@ import java.util.Map;
 
 /**
  * Hive Connection Manager
+ * <ul>
+ *     <li>2019/4/7 ver 1.0.1 去掉方法级 synchronized，元数据查询改为租用连接，支持并发模式。</li>
+ *     <li>2019/4/10 ver 1.0.2 数据库、数据表的存在性检查与表结构查询使用元数据缓存。</li>
+ * </ul>
  *
  * @author liuyang
- * @version 1.0.0
+ * @version 1.0.2
  */
 public class HiveManager extends AbstractManager {
     private final static Map<String, String> STORE_TYPE_MAP = new HashMap<>();
@@ -71,13 +75,16 @@ public class HiveManager extends AbstractManager {
     }
 
     @Override
-    public synchronized boolean existsDatabase(String database) throws HiveException {
+    public boolean existsDatabase(String database) throws HiveException {
         if (StringUtils.isEmpty(database))
             return false;
-        requireConnection();
-        requireConnected();
+        return cachedMetadata("database.exists", database, null, () -> loadExistsDatabase(database));
+    }
+
+    private boolean loadExistsDatabase(String database) throws HiveException {
         // 获取数据库
-        try (ResultSet rs = conn.getMetaData().getCatalogs()) {
+        try (ConnectionLease lease = lease();
+             ResultSet rs = lease.get().getMetaData().getCatalogs()) {
             // 记录最后连接时间
             recordLastConnectionTime();
             while (rs.next()) {
@@ -91,13 +98,16 @@ public class HiveManager extends AbstractManager {
     }
 
     @Override
-    public synchronized boolean existsTable(String database, String tableName) throws HiveException {
+    public boolean existsTable(String database, String tableName) throws HiveException {
         if (StringUtils.isEmpty(tableName))
             return false;
-        requireConnection();
-        requireConnected();
+        return cachedMetadata("table.exists", database, tableName, () -> loadExistsTable(database, tableName));
+    }
+
+    private boolean loadExistsTable(String database, String tableName) throws HiveException {
         // 获取表
-        try (ResultSet rs = conn.getMetaData().getTables(database, null, tableName, new String[]{"TABLE"})){
+        try (ConnectionLease lease = lease();
+             ResultSet rs = lease.get().getMetaData().getTables(database, null, tableName, new String[]{"TABLE"})) {
             // 记录最后连接时间
             recordLastConnectionTime();
             return rs.next();
@@ -106,7 +116,7 @@ public class HiveManager extends AbstractManager {
         }
     }
 
-    public synchronized boolean existsTable(String tableName) throws MySQLException {
+    public boolean existsTable(String tableName) throws MySQLException {
         String database = null;
         String name = tableName;
         int pos = tableName.indexOf('.');
@@ -118,11 +128,14 @@ public class HiveManager extends AbstractManager {
     }
 
     @Override
-    public synchronized List<HiveDataBase> getDatabases() throws HiveException {
-        requireConnection();
-        requireConnected();
+    public List<HiveDataBase> getDatabases() throws HiveException {
+        return new LinkedList<>(cachedMetadata("databases", null, null, this::loadDatabases));
+    }
+
+    private List<HiveDataBase> loadDatabases() throws HiveException {
         List<HiveDataBase> list = new LinkedList<>();
-        try (ResultSet rs = conn.getMetaData().getCatalogs()) {
+        try (ConnectionLease lease = lease();
+             ResultSet rs = lease.get().getMetaData().getCatalogs()) {
             while(rs.next()) {
                 // 记录最后连接时间
                 recordLastConnectionTime();
@@ -135,6 +148,11 @@ public class HiveManager extends AbstractManager {
     }
 
     public HiveTable getTable(String database, String tableName) throws HiveException {
+        HiveTable table = cachedMetadata("table", database, tableName, () -> loadTable(database, tableName));
+        return table == null ? null : table.clone();
+    }
+
+    private HiveTable loadTable(String database, String tableName) throws HiveException {
         List<Row> result = super.query("DESCRIBE FORMATTED " + database + "." + tableName).toList();
         //System.out.println("query succful");
         HiveTable retval = null;
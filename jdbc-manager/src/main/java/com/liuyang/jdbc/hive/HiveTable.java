@@ -97,6 +97,9 @@ public class HiveTable implements Table {
         HiveTable table = new HiveTable(database, name);
         for(String key : fields.keySet())
             table.fields.put(key, fields.get(key).clone());
+        for(String key : partitions.keySet())
+            table.partitions.put(key, partitions.get(key).clone());
+        table.isPartitioned = isPartitioned;
         table.delimiter = delimiter;
         table.location  = location;
         table.owner     = owner;
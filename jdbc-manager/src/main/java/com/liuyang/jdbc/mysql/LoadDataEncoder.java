@@ -0,0 +1,325 @@
+package com.liuyang.jdbc.mysql;
+
+import com.liuyang.ds.Row;
+import com.liuyang.ds.Schema;
+import com.liuyang.ds.Type;
+import com.liuyang.tools.TimeUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * LOAD DATA 编码器
+ * <p>
+ *     把数据行编码为 MySQL <code>LOAD DATA</code> 默认格式的 UTF-8 字节：字段以 <code>\t</code> 分隔，
+ *     行以 <code>\n</code> 结束，<code>\\</code> 为转义符，空值为 <code>\N</code>。
+ *     日期、时间戳按表头类型从纪元天数/微秒直接格式化，整数直接写入数字，不产生中间字符串。
+ * </p>
+ * <ul>
+ *     <li>2019/4/8 ver 1.0.0 创建。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.0
+ */
+final class LoadDataEncoder {
+
+    /** 每块数据的目标大小 */
+    final static int CHUNK_SIZE = 256 * 1024;
+
+    private final Schema[]      header;
+    private final StringBuilder scratch = new StringBuilder(32);
+    private byte[]              buffer  = new byte[CHUNK_SIZE + 4096];
+    private int                 size;
+    private long                rows;
+
+    LoadDataEncoder(Schema[] header) {
+        this.header = header;
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    /**
+     * 取出已编码的数据并清空
+     * @return 返回长度等于数据长度的新数组。
+     */
+    byte[] take() {
+        byte[] chunk = Arrays.copyOf(buffer, size);
+        size = 0;
+        return chunk;
+    }
+
+    /**
+     * 已编码的行数
+     * @return 返回行数。
+     */
+    long rows() {
+        return rows;
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > buffer.length)
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, size + extra));
+    }
+
+    private void write(int b) {
+        if (size == buffer.length)
+            ensure(1);
+        buffer[size++] = (byte) b;
+    }
+
+    /**
+     * 编码一行数据
+     * @param row 数据行，字段与表头一一对应
+     */
+    void encode(Row row) {
+        for (int i = 0; i < header.length; i++) {
+            if (i > 0)
+                write('\t');
+            if (row.isNull(i)) {
+                write('\\');
+                write('N');
+                continue;
+            }
+            encodeValue(row, i, header[i].getType());
+        }
+        write('\n');
+        rows++;
+    }
+
+    private void encodeValue(Row row, int index, Type type) {
+        switch (type) {
+            case BOOL:
+            case BOOLEAN:
+                write(row.getBoolean(index) ? '1' : '0');
+                return;
+            case DATE:
+                scratch.setLength(0);
+                writeAscii(TimeUtils.appendEpochDay(scratch, row.getDate(index), true));
+                return;
+            case DATETIME:
+            case TIMESTAMP:
+                scratch.setLength(0);
+                writeAscii(TimeUtils.appendEpochMicros(scratch, row.getTimestamp(index), ' ', true));
+                return;
+            case BINARY:
+            case BYTEARRAY:
+                writeEscaped(row.getBinary(index));
+                return;
+            default:
+                break;
+        }
+        Object value = row.get(index);
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+            writeLong(((Number) value).longValue());
+        else if (value instanceof BigDecimal)
+            writeAscii(((BigDecimal) value).toPlainString());
+        else if (value instanceof byte[])
+            writeEscaped((byte[]) value);
+        else if (value instanceof Boolean)
+            write((Boolean) value ? '1' : '0');
+        else
+            writeEscaped(String.valueOf(value));
+    }
+
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii("-9223372036854775808");
+            return;
+        }
+        ensure(20);
+        if (value < 0) {
+            buffer[size++] = '-';
+            value = -value;
+        }
+        int start = size;
+        do {
+            buffer[size++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        // 反转数字
+        for (int i = start, j = size - 1; i < j; i++, j--) {
+            byte t = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = t;
+        }
+    }
+
+    private void writeAscii(CharSequence value) {
+        int length = value.length();
+        ensure(length);
+        for (int i = 0; i < length; i++)
+            buffer[size++] = (byte) value.charAt(i);
+    }
+
+    // 转义需要转义的字节，其余原样写入
+    private boolean escape(int c) {
+        switch (c) {
+            case '\\': write('\\'); write('\\'); return true;
+            case '\t': write('\\'); write('t');  return true;
+            case '\n': write('\\'); write('n');  return true;
+            case '\r': write('\\'); write('r');  return true;
+            case 0:    write('\\'); write('0');  return true;
+            default:   return false;
+        }
+    }
+
+    private void writeEscaped(byte[] value) {
+        ensure(value.length);
+        for (byte b : value) {
+            if (!escape(b))
+                write(b);
+        }
+    }
+
+    private void writeEscaped(String value) {
+        int length = value.length();
+        ensure(length);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (!escape(c))
+                    write(c);
+            } else if (c < 0x800) {
+                write(0xC0 | (c >> 6));
+                write(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                write(0xF0 | (cp >> 18));
+                write(0x80 | ((cp >> 12) & 0x3F));
+                write(0x80 | ((cp >> 6) & 0x3F));
+                write(0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // 不成对的代理字符
+                write('?');
+            } else {
+                write(0xE0 | (c >> 12));
+                write(0x80 | ((c >> 6) & 0x3F));
+                write(0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * 按块提供数据的输入流
+     */
+    private static abstract class ChunkInputStream extends InputStream {
+        private byte[] chunk = new byte[0];
+        private int    position;
+        private int    limit;
+        private long   bytes;
+        private boolean eof;
+
+        /**
+         * 准备下一块数据
+         * @return 返回 true 表示已调用 {@link #set(byte[], int)}，false 表示没有更多数据。
+         */
+        abstract boolean refill() throws IOException;
+
+        final void set(byte[] chunk, int limit) {
+            this.chunk    = chunk;
+            this.position = 0;
+            this.limit    = limit;
+            this.bytes   += limit;
+        }
+
+        long bytes() {
+            return bytes;
+        }
+
+        private boolean ensure() throws IOException {
+            while (position >= limit) {
+                if (eof || !refill()) {
+                    eof = true;
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return ensure() ? chunk[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0)
+                return 0;
+            if (!ensure())
+                return -1;
+            int n = Math.min(len, limit - position);
+            System.arraycopy(chunk, position, b, off, n);
+            position += n;
+            return n;
+        }
+    }
+
+    /**
+     * 边读取边编码的输入流，每次编码约 {@link #CHUNK_SIZE} 字节的行
+     */
+    final static class RowInputStream extends ChunkInputStream {
+        private final Iterator<? extends Row> rows;
+        private final LoadDataEncoder         encoder;
+
+        RowInputStream(Iterator<? extends Row> rows, LoadDataEncoder encoder) {
+            this.rows    = rows;
+            this.encoder = encoder;
+        }
+
+        @Override
+        boolean refill() {
+            encoder.reset();
+            while (encoder.size() < CHUNK_SIZE && rows.hasNext())
+                encoder.encode(rows.next());
+            if (encoder.size() == 0)
+                return false;
+            set(encoder.buffer(), encoder.size());
+            return true;
+        }
+    }
+
+    /** 数据块队列的结束标记 */
+    final static byte[] END = new byte[0];
+
+    /**
+     * 从队列读取已编码数据块的输入流，读到 {@link #END} 时结束
+     */
+    final static class QueueInputStream extends ChunkInputStream {
+        private final BlockingQueue<byte[]> queue;
+
+        QueueInputStream(BlockingQueue<byte[]> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        boolean refill() throws IOException {
+            byte[] chunk;
+            try {
+                chunk = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for data.");
+            }
+            if (chunk == END)
+                return false;
+            set(chunk, chunk.length);
+            return true;
+        }
+    }
+}
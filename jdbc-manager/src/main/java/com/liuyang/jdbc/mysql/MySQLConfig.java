@@ -5,9 +5,19 @@ import com.liuyang.jdbc.AbstractJDBCConfig;
 import java.net.URI;
 import java.net.URISyntaxException;
 
+/**
+ * MySQL 配置
+ * <ul>
+ *     <li>2019/4/8 ver 1.0.1 连接参数增加 allowLoadLocalInfile，供 {@link MySQLManager#loadData} 使用。</li>
+ *     <li>2019/4/8 ver 1.0.2 增加 useCursorFetch 选项，流式查询使用服务器端游标。</li>
+ *     <li>2019/4/9 ver 1.0.3 增加 useServerPrepStmts 选项，配合预编译语句缓存使用服务器端预编译。</li>
+ * </ul>
+ * @author liuyang
+ * @version 1.0.3
+ */
 public class MySQLConfig extends AbstractJDBCConfig {
     private final static String MYSQL_URI = "%s://%s:%d/%s?useUnicode=true&characterEncoding=UTF-8"
-            + "&autoReconnect=true&cachePrepStmts=true&rewriteBatchedStatements=true";
+            + "&autoReconnect=true&cachePrepStmts=true&rewriteBatchedStatements=true&allowLoadLocalInfile=true";
 
     public MySQLConfig() {
         super("jdbc:mysql");
@@ -27,6 +37,27 @@ public class MySQLConfig extends AbstractJDBCConfig {
     }
 
     private MySQLManager manager;
+    /** 流式查询是否使用服务器端游标（按 fetch size 分批读取），否则逐行读取 */
+    private boolean      useCursorFetch;
+    /** 是否使用服务器端预编译 */
+    private boolean      useServerPrepStmts;
+
+    public boolean isUseCursorFetch() {
+        return useCursorFetch;
+    }
+
+    /**
+     * 设置流式查询是否使用服务器端游标
+     * <p>
+     *     false（默认）时流式查询以 <code>fetchSize = Integer.MIN_VALUE</code> 逐行读取，结果读取完毕前连接被独占；
+     *     true 时连接参数增加 <code>useCursorFetch=true</code>，按 fetch size 分批读取，服务器需为游标建立临时表。
+     *     连接后修改不生效。
+     * </p>
+     * @param useCursorFetch 是否使用服务器端游标
+     */
+    public void setUseCursorFetch(boolean useCursorFetch) {
+        this.useCursorFetch = useCursorFetch;
+    }
 
     @Override
     protected void finalize() {
@@ -49,13 +80,34 @@ public class MySQLConfig extends AbstractJDBCConfig {
         return "com.mysql.jdbc.Driver";
     }
 
+    public boolean isUseServerPrepStmts() {
+        return useServerPrepStmts;
+    }
+
+    /**
+     * 设置是否使用服务器端预编译
+     * <p>
+     *     true 时连接参数增加 <code>useServerPrepStmts=true</code>，语句在服务器端只解析一次，
+     *     宜与 {@link MySQLManager#setStatementCacheSize(int)} 一同使用；否则每次预编译都会在服务器端建立与释放语句。
+     *     连接后修改不生效。
+     * </p>
+     * @param useServerPrepStmts 是否使用服务器端预编译
+     */
+    public void setUseServerPrepStmts(boolean useServerPrepStmts) {
+        this.useServerPrepStmts = useServerPrepStmts;
+    }
+
     public String toString() {
-        return String.format(MYSQL_URI, schema, host, port, database);
+        StringBuilder builder = new StringBuilder(String.format(MYSQL_URI, schema, host, port, database));
+        if (useCursorFetch)
+            builder.append("&useCursorFetch=true");
+        if (useServerPrepStmts)
+            builder.append("&useServerPrepStmts=true");
+        return builder.toString();
     }
 
     public URI toURI() throws URISyntaxException {
-        String str = String.format(MYSQL_URI, schema, host, port, database);
-        return new URI(str);
+        return new URI(toString());
     }
 
 }
@@ -1,29 +1,60 @@
 package com.liuyang.jdbc.mysql;
 
 import com.liuyang.common.ManagerException;
+import com.liuyang.ds.DataRecord;
 import com.liuyang.ds.Node;
 import com.liuyang.ds.Row;
 import com.liuyang.ds.Schema;
+import com.liuyang.jdbc.AbstractJDBCConfig;
 import com.liuyang.jdbc.AbstractManager;
 import com.liuyang.jdbc.Column;
+import com.liuyang.metrics.Counter;
+import com.liuyang.metrics.Histogram;
+import com.liuyang.metrics.Metrics;
 import com.liuyang.tools.StringUtils;
 import com.sun.istack.internal.NotNull;
 
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 /**
  * MySQL 管理器
+ * <ul>
+ *     <li>2019/4/7 ver 1.0.2 去掉方法级 synchronized，元数据查询改为租用连接，支持并发模式。</li>
+ *     <li>2019/4/8 ver 1.0.3 增加 loadData：以 LOAD DATA LOCAL INFILE 流式批量导入，支持多连接分区并行导入。</li>
+ *     <li>2019/4/8 ver 1.0.4 流式查询默认逐行读取（fetchSize = Integer.MIN_VALUE），开启 useCursorFetch 时按 fetch size 读取。</li>
+ *     <li>2019/4/9 ver 1.0.5 增加按数据行的 batchMerge：按 max_allowed_packet 分批的多行 upsert 语句，支持多连接并行与死锁重试。</li>
+ *     <li>2019/4/10 ver 1.0.6 数据库、数据表的存在性检查与结构查询使用元数据缓存；getTable(String) 改为调用 getTable(String, String)。</li>
+ *     <li>2019/4/10 ver 1.0.7 并行导入的线程数不超过可用的连接数；事务中顺序导入。</li>
+ * </ul>
  *
  * @author liuyang
- * @version 1.0.1
+ * @version 1.0.7
  */
 public class MySQLManager extends AbstractManager {
 
+    private final static Histogram LOAD_NANOS = Metrics.histogram("mysql.load.nanos");
+    private final static Counter   LOAD_ROWS  = Metrics.counter("mysql.load.rows");
+    private final static Counter   LOAD_BYTES = Metrics.counter("mysql.load.bytes");
+
+    /** 支持 setLocalInfileInputStream 的驱动语句接口，依次为 Connector/J 8.x 与 5.1.x */
+    private final static String[] LOCAL_INFILE_STATEMENTS = {
+            "com.mysql.cj.jdbc.JdbcStatement", "com.mysql.jdbc.Statement"
+    };
+
     MySQLManager() { }
 
     public MySQLManager(@NotNull MySQLConfig config) {
@@ -45,8 +76,8 @@ public class MySQLManager extends AbstractManager {
         return builder.toString();
     }
     @Override
-    public synchronized int batchMerge(String database, String tableName, String[] primaryKeys,
-                                       Map<String, Object>... parameters) throws MySQLException {
+    public int batchMerge(String database, String tableName, String[] primaryKeys,
+                          Map<String, Object>... parameters) throws MySQLException {
         if (parameters == null)
             return -1;
         requireConnection();
@@ -61,6 +92,542 @@ public class MySQLManager extends AbstractManager {
         return result;
     }
 
+    /** 预编译语句的参数个数上限 */
+    private final static int  MAX_PLACEHOLDERS      = 65535;
+    /** 取不到 max_allowed_packet 时使用的默认值 */
+    private final static long DEFAULT_PACKET        = 4L << 20;
+    /** 每批遇到死锁或锁等待超时时的最大重试次数 */
+    private final static int  MAX_DEADLOCK_RETRIES  = 3;
+
+    private final static Histogram MERGE_NANOS   = Metrics.histogram("mysql.merge.nanos");
+    private final static Counter   MERGE_ROWS    = Metrics.counter("mysql.merge.rows");
+    private final static Counter   MERGE_RETRIES = Metrics.counter("mysql.merge.retries");
+
+    private volatile long maxAllowedPacket;
+
+    // 读取服务器的 max_allowed_packet，只读取一次
+    private long maxAllowedPacket() {
+        long packet = maxAllowedPacket;
+        if (packet > 0)
+            return packet;
+        try (ConnectionLease lease = lease();
+             Statement stmt = lease.get().createStatement();
+             ResultSet rs = stmt.executeQuery("select @@max_allowed_packet")) {
+            packet = rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            packet = 0;
+        }
+        return maxAllowedPacket = packet > 0 ? packet : DEFAULT_PACKET;
+    }
+
+    // 多行合并语句的前缀：insert into `db`.`t` (`a`, `b`) values
+    private static String createUpsertPrefix(String database, String tableName, Schema[] header) {
+        StringBuilder builder = new StringBuilder("insert into ");
+        if (database != null)
+            builder.append('`').append(database).append("`.");
+        builder.append('`').append(tableName).append("` (");
+        for (int i = 0; i < header.length; i++) {
+            if (i > 0)
+                builder.append(", ");
+            builder.append('`').append(header[i].getName()).append('`');
+        }
+        return builder.append(") values ").toString();
+    }
+
+    // 多行合并语句的后缀：更新除主键外的字段，全部为主键时更新为原值（仅忽略重复）
+    private static String createUpsertSuffix(Schema[] header, String[] primaryKeys) {
+        StringBuilder builder = new StringBuilder(" on duplicate key update ");
+        int updates = 0;
+        for (Schema field : header) {
+            String  name = field.getName();
+            boolean key  = primaryKeys == null ? field.isPrimary() : StringUtils.contains(primaryKeys, name);
+            if (key)
+                continue;
+            if (updates++ > 0)
+                builder.append(", ");
+            builder.append('`').append(name).append("` = values(`").append(name).append("`)");
+        }
+        if (updates == 0)
+            builder.append('`').append(header[0].getName()).append("` = `").append(header[0].getName()).append('`');
+        return builder.toString();
+    }
+
+    // 估算参数在语句中占用的字节数（字符串按 UTF-8 每字符 3 字节并计入转义，二进制按十六进制）
+    private static int estimateSize(Object value) {
+        if (value == null)
+            return 4;
+        if (value instanceof CharSequence)
+            return ((CharSequence) value).length() * 3 + 2;
+        if (value instanceof byte[])
+            return ((byte[]) value).length * 2 + 3;
+        return 24;
+    }
+
+    private static boolean isDeadlock(SQLException e) {
+        // 1213：死锁，1205：锁等待超时
+        return e.getErrorCode() == 1213 || e.getErrorCode() == 1205 || "40001".equals(e.getSQLState());
+    }
+
+    // 执行一批合并，未处于事务中时遇到死锁整批重试
+    private int mergeChunk(String prefix, String suffix, String group, List<Object[]> chunk, String tableName)
+            throws MySQLException {
+        StringBuilder builder = new StringBuilder(prefix.length() + suffix.length() + chunk.size() * (group.length() + 2));
+        builder.append(prefix);
+        for (int i = 0; i < chunk.size(); i++) {
+            if (i > 0)
+                builder.append(", ");
+            builder.append(group);
+        }
+        String  sql   = builder.append(suffix).toString();
+        boolean retry = !inTransaction();
+        for (int attempt = 0; ; attempt++) {
+            long start = Metrics.ENABLED ? System.nanoTime() : 0;
+            try (ConnectionLease lease = lease();
+                 PreparedStatement pstm = lease.get().prepareStatement(sql)) {
+                int index = 1;
+                for (Object[] values : chunk) {
+                    for (Object value : values)
+                        pstm.setObject(index++, value);
+                }
+                int rows = pstm.executeUpdate();
+                // 记录最后连接时间
+                recordLastConnectionTime();
+                if (Metrics.ENABLED) {
+                    MERGE_NANOS.recordSince(start);
+                    MERGE_ROWS.add(chunk.size());
+                }
+                return rows;
+            } catch (SQLException e) {
+                if (!retry || attempt >= MAX_DEADLOCK_RETRIES || !isDeadlock(e))
+                    throw new MySQLException("Can not merge into table(" + tableName + "): " + e.getMessage(), e);
+                if (Metrics.ENABLED)
+                    MERGE_RETRIES.increment();
+            }
+            // 随机退避，避免冲突的批次再次同时执行
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextLong(10, 50) * (attempt + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MySQLException("Interrupted while merging into table(" + tableName + ").", e);
+            }
+        }
+    }
+
+    /**
+     * 批量合并数据行
+     * @param database    数据库，为 null 时使用默认数据库
+     * @param tableName   数据表
+     * @param primaryKeys 主键，为 null 时使用表头中标记为主键的字段
+     * @param rows        数据行，合并完成后关闭
+     * @return 返回服务器报告的影响行数（按 MySQL 的规则，插入计 1，更新计 2）。
+     * @throws MySQLException 合并过程中出错则抛出该异常。
+     * @see #batchMerge(String, String, String[], Stream, int)
+     */
+    public long batchMerge(String database, @NotNull String tableName, String[] primaryKeys,
+                           @NotNull Stream<? extends Row> rows) throws MySQLException {
+        return batchMerge(database, tableName, primaryKeys, rows, 1);
+    }
+
+    /**
+     * 分区并行批量合并数据行
+     * <p>
+     *     每批数据行合并为一条带参数的多行语句
+     *     <code>insert into ... values (?, ?), (?, ?) ... on duplicate key update c = values(c)</code>，
+     *     一次往返写入整批。每批的大小按服务器的 <code>max_allowed_packet</code> 估算（约占 3/4），
+     *     且参数个数不超过 65535；表头取第一行数据的表头，之后各行须与之一致。
+     * </p>
+     * <p>
+     *     并发模式下 <code>partitions</code> 大于 1 时，调用线程分批，多个连接同时执行，
+     *     在途批次数有限，内存占用与数据量无关。每批各自提交，任一批失败时停止并抛出异常，已合并的数据不会回滚。
+     *     未处于事务中时，遇到死锁或锁等待超时的批次会重试数次。当前线程处于事务中时在事务连接上顺序执行。
+     * </p>
+     * @param database    数据库，为 null 时使用默认数据库
+     * @param tableName   数据表
+     * @param primaryKeys 主键，为 null 时使用表头中标记为主键的字段
+     * @param rows        数据行，合并完成后关闭
+     * @param partitions  并行执行的连接数
+     * @return 返回服务器报告的影响行数。
+     * @throws MySQLException 合并过程中出错则抛出该异常。
+     */
+    public long batchMerge(String database, @NotNull String tableName, String[] primaryKeys,
+                           @NotNull Stream<? extends Row> rows, int partitions) throws MySQLException {
+        try (Stream<? extends Row> source = rows) {
+            return batchMerge(database, tableName, primaryKeys, source.iterator(), partitions);
+        }
+    }
+
+    private long batchMerge(String database, String tableName, String[] primaryKeys,
+                            Iterator<? extends Row> rows, int partitions) throws MySQLException {
+        if (!rows.hasNext())
+            return 0;
+        requireConnection();
+        requireConnected();
+        Row      first  = rows.next();
+        Schema[] header = first.header();
+        Iterator<Row> iterator = prepend(first, rows);
+        String prefix = createUpsertPrefix(database, tableName, header);
+        String suffix = createUpsertSuffix(header, primaryKeys);
+        StringBuilder group = new StringBuilder("(");
+        for (int i = 0; i < header.length; i++)
+            group.append(i > 0 ? ", ?" : "?");
+        String rowGroup = group.append(')').toString();
+        long   budget   = maxAllowedPacket() * 3 / 4 - prefix.length() - suffix.length();
+        int    maxRows  = Math.max(1, MAX_PLACEHOLDERS / header.length);
+
+        boolean parallel = partitions > 1 && isConcurrent() && !inTransaction();
+        Merger  merger   = parallel ? new Merger(partitions, tableName) : null;
+        long    result   = 0;
+        try {
+            List<Object[]> chunk = new ArrayList<>();
+            long           bytes = 0;
+            while (iterator.hasNext()) {
+                Row      row    = iterator.next();
+                Object[] values = new Object[header.length];
+                int      size   = rowGroup.length() + 2;
+                for (int i = 0; i < header.length; i++) {
+                    values[i] = parameterOf(row, i, header[i].getType());
+                    size += estimateSize(values[i]);
+                }
+                // 超出估算的语句大小或参数个数时先执行已有的行
+                if (!chunk.isEmpty() && (bytes + size > budget || chunk.size() >= maxRows)) {
+                    if (parallel)
+                        merger.submit(prefix, suffix, rowGroup, chunk);
+                    else
+                        result += mergeChunk(prefix, suffix, rowGroup, chunk, tableName);
+                    chunk = new ArrayList<>();
+                    bytes = 0;
+                }
+                chunk.add(values);
+                bytes += size;
+            }
+            if (parallel) {
+                if (!chunk.isEmpty())
+                    merger.submit(prefix, suffix, rowGroup, chunk);
+                result = merger.await();
+            } else if (!chunk.isEmpty()) {
+                result += mergeChunk(prefix, suffix, rowGroup, chunk, tableName);
+            }
+            return result;
+        } finally {
+            if (merger != null)
+                merger.shutdown();
+        }
+    }
+
+    /**
+     * 并行执行合并批次，以信号量限制在途批次数
+     */
+    private final class Merger {
+        private final ExecutorService            executor;
+        private final Semaphore                  permits;
+        private final int                        capacity;
+        private final String                     tableName;
+        private final AtomicLong                 result  = new AtomicLong();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Merger(int partitions, String tableName) {
+            AtomicInteger sequence = new AtomicInteger();
+            this.executor  = Executors.newFixedThreadPool(partitions, task -> {
+                Thread thread = new Thread(task, "MySQLMerger-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.capacity  = partitions << 1;
+            this.permits   = new Semaphore(capacity);
+            this.tableName = tableName;
+        }
+
+        // 取得许可，等待期间检查是否已有批次失败
+        private void acquire(int count) throws MySQLException {
+            try {
+                while (!permits.tryAcquire(count, 100, TimeUnit.MILLISECONDS))
+                    check();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MySQLException("Interrupted while merging into table(" + tableName + ").", e);
+            }
+            check();
+        }
+
+        private void check() throws MySQLException {
+            Throwable cause = failure.get();
+            if (cause == null)
+                return;
+            if (cause instanceof ManagerException)
+                throw (ManagerException) cause;
+            throw new MySQLException("Can not merge into table(" + tableName + "): " + cause.getMessage(), cause);
+        }
+
+        void submit(String prefix, String suffix, String group, List<Object[]> chunk) throws MySQLException {
+            acquire(1);
+            executor.execute(() -> {
+                try {
+                    if (failure.get() == null)
+                        result.addAndGet(mergeChunk(prefix, suffix, group, chunk, tableName));
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        // 等待所有批次完成
+        long await() throws MySQLException {
+            acquire(capacity);
+            permits.release(capacity);
+            return result.get();
+        }
+
+        void shutdown() {
+            executor.shutdownNow();
+        }
+    }
+
+    // 为语句指定 LOAD DATA LOCAL INFILE 的数据来源，驱动为可选依赖，通过反射调用
+    private static void setLocalInfileInputStream(Statement stmt, InputStream in) throws SQLException {
+        for (String name : LOCAL_INFILE_STATEMENTS) {
+            Class<?> type;
+            try {
+                type = Class.forName(name);
+            } catch (ClassNotFoundException e) {
+                continue;
+            }
+            Object target = type.isInstance(stmt) ? stmt : stmt.isWrapperFor(type) ? stmt.unwrap(type) : null;
+            if (target == null)
+                continue;
+            try {
+                type.getMethod("setLocalInfileInputStream", InputStream.class).invoke(target, in);
+                return;
+            } catch (ReflectiveOperationException e) {
+                throw new SQLException("Can not set local infile stream on " + type.getName() + ".", e);
+            }
+        }
+        throw new SQLFeatureNotSupportedException("LOAD DATA LOCAL INFILE from stream requires MySQL Connector/J 5.1.3+.");
+    }
+
+    private static String createLoadStatement(String database, String tableName, boolean replace, Schema[] header) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("load data local infile 'stream' ").append(replace ? "replace" : "ignore").append(" into table ");
+        if (database != null)
+            builder.append('`').append(database).append("`.");
+        builder.append('`').append(tableName).append('`');
+        builder.append(" character set utf8mb4 fields terminated by '\\t' escaped by '\\\\' lines terminated by '\\n' (");
+        for (int i = 0; i < header.length; i++) {
+            if (i > 0)
+                builder.append(", ");
+            builder.append('`').append(header[i].getName()).append('`');
+        }
+        return builder.append(')').toString();
+    }
+
+    // 执行一次导入，数据来自 in
+    private int load(String sql, InputStream in) throws SQLException {
+        try (ConnectionLease lease = lease();
+             Statement stmt = lease.get().createStatement()) {
+            setLocalInfileInputStream(stmt, in);
+            try {
+                int rows = stmt.executeUpdate(sql);
+                // 记录最后连接时间
+                recordLastConnectionTime();
+                return rows;
+            } catch (SQLException | RuntimeException e) {
+                // 中途失败时连接上可能还有未读完的数据
+                lease.invalidate();
+                throw e;
+            } finally {
+                setLocalInfileInputStream(stmt, null);
+            }
+        }
+    }
+
+    /**
+     * 批量导入
+     * <p>
+     *     使用 <code>LOAD DATA LOCAL INFILE</code>：边读取数据行边编码为制表符分隔的 UTF-8 数据流交给驱动，
+     *     不拼装 SQL，也不需要把数据全部放入内存。需要 MySQL Connector/J 5.1.3 以上版本，
+     *     服务器需开启 <code>local_infile</code>。
+     * </p>
+     * @param database  数据库，为 null 时使用默认数据库
+     * @param tableName 数据表
+     * @param replace   遇到重复主键时：true 表示替换原有数据，false 表示忽略新数据
+     * @param header    字段，字段名对应数据表的列，类型决定编码方式；为 null 时使用第一行数据的表头
+     * @param rows      数据行，按表头顺序取值
+     * @return 返回导入的行数（由服务器返回，忽略与替换的行按 MySQL 的规则计数）。
+     * @throws MySQLException 导入过程中出错则抛出该异常。
+     */
+    public long loadData(String database, @NotNull String tableName, boolean replace,
+                         Schema[] header, @NotNull Stream<Row> rows) throws MySQLException {
+        return loadData(database, tableName, replace, header, rows, 1);
+    }
+
+    /**
+     * 批量导入数据记录
+     * @param database  数据库，为 null 时使用默认数据库
+     * @param tableName 数据表
+     * @param replace   遇到重复主键时：true 表示替换原有数据，false 表示忽略新数据
+     * @param record    数据记录，导入完成后关闭
+     * @return 返回导入的行数。
+     * @throws MySQLException 导入过程中出错则抛出该异常。
+     */
+    public long loadData(String database, @NotNull String tableName, boolean replace,
+                         @NotNull DataRecord<Row> record) throws MySQLException {
+        return loadData(database, tableName, replace, record, 1);
+    }
+
+    /**
+     * 分区并行批量导入数据记录
+     * @param database  数据库，为 null 时使用默认数据库
+     * @param tableName 数据表
+     * @param replace   遇到重复主键时：true 表示替换原有数据，false 表示忽略新数据
+     * @param record    数据记录，导入完成后关闭
+     * @param partitions 并行导入的连接数，仅在并发模式下有效
+     * @return 返回导入的行数。
+     * @throws MySQLException 导入过程中出错则抛出该异常。
+     * @see #loadData(String, String, boolean, Schema[], Stream, int)
+     */
+    public long loadData(String database, @NotNull String tableName, boolean replace,
+                         @NotNull DataRecord<Row> record, int partitions) throws MySQLException {
+        try (DataRecord<Row> source = record;
+             Stream<Row> rows = source.stream()) {
+            return loadData(database, tableName, replace, source.header(), rows, partitions);
+        } catch (ManagerException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new MySQLException("Can not read data record: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 分区并行批量导入
+     * <p>
+     *     调用线程读取并编码数据行，每约 256 KB 为一块放入队列；导入线程各自租用一个连接，
+     *     执行各自的 <code>LOAD DATA LOCAL INFILE</code> 并从队列中取数据块，服务器端的解析与写入并行进行。
+     *     导入线程数为 <code>partitions</code> 与开始时可用的连接数（{@link #getAvailableConnections()}）中的较小者，
+     *     每个线程在整个导入期间占用一个连接；其他线程同时借用连接时，导入线程仍可能等待。
+     *     队列长度有限，内存占用与数据量无关。
+     *     单连接模式下（{@link #setMaxConnections(int)} 未大于 1）只能顺序导入；当前线程处于事务中时在事务连接上顺序导入。
+     * </p>
+     * <p>
+     *     每个连接的导入各自提交，任一连接失败时停止其他连接并抛出异常，已导入的数据不会回滚。
+     * </p>
+     * @param database   数据库，为 null 时使用默认数据库
+     * @param tableName  数据表
+     * @param replace    遇到重复主键时：true 表示替换原有数据，false 表示忽略新数据
+     * @param header     字段，为 null 时使用第一行数据的表头
+     * @param rows       数据行
+     * @param partitions 并行导入的连接数，不超过可用的连接数
+     * @return 返回导入的行数。
+     * @throws MySQLException 导入过程中出错则抛出该异常。
+     */
+    public long loadData(String database, @NotNull String tableName, boolean replace,
+                         Schema[] header, @NotNull Stream<Row> rows, int partitions) throws MySQLException {
+        Iterator<Row> iterator = rows.iterator();
+        if (header == null) {
+            if (!iterator.hasNext())
+                return 0;
+            Row first = iterator.next();
+            header   = first.header();
+            iterator = prepend(first, iterator);
+        }
+        String sql   = createLoadStatement(database, tableName, replace, header);
+        long   start = Metrics.ENABLED ? System.nanoTime() : 0;
+        long   result;
+        // 事务中的导入须在事务连接上执行；每个导入线程持有一个连接直到导入结束，线程数不超过可用的连接数
+        int loaders = inTransaction() ? 1 : Math.min(partitions, getAvailableConnections());
+        if (loaders > 1 && isConcurrent()) {
+            result = loadParallel(sql, tableName, header, iterator, loaders);
+        } else {
+            LoadDataEncoder                 encoder = new LoadDataEncoder(header);
+            LoadDataEncoder.RowInputStream  in      = new LoadDataEncoder.RowInputStream(iterator, encoder);
+            try {
+                result = load(sql, in);
+            } catch (SQLException e) {
+                throw new MySQLException("Can not load data into table(" + tableName + "): " + e.getMessage(), e);
+            }
+            if (Metrics.ENABLED) {
+                LOAD_ROWS.add(encoder.rows());
+                LOAD_BYTES.add(in.bytes());
+            }
+        }
+        if (Metrics.ENABLED)
+            LOAD_NANOS.recordSince(start);
+        return result;
+    }
+
+    private long loadParallel(String sql, String tableName, Schema[] header, Iterator<Row> rows, int loaders)
+            throws MySQLException {
+        BlockingQueue<byte[]> queue    = new ArrayBlockingQueue<>(loaders << 1);
+        AtomicInteger         sequence = new AtomicInteger();
+        ExecutorService       executor = Executors.newFixedThreadPool(loaders, task -> {
+            Thread thread = new Thread(task, "MySQLLoader-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<Integer>> futures = new ArrayList<>(loaders);
+        try {
+            for (int i = 0; i < loaders; i++)
+                futures.add(executor.submit(() -> load(sql, new LoadDataEncoder.QueueInputStream(queue))));
+            LoadDataEncoder encoder = new LoadDataEncoder(header);
+            long            bytes   = 0;
+            while (rows.hasNext()) {
+                encoder.encode(rows.next());
+                if (encoder.size() >= LoadDataEncoder.CHUNK_SIZE) {
+                    bytes += encoder.size();
+                    offer(queue, encoder.take(), futures);
+                }
+            }
+            if (encoder.size() > 0) {
+                bytes += encoder.size();
+                offer(queue, encoder.take(), futures);
+            }
+            // 每个导入线程读到一个结束标记
+            for (int i = 0; i < loaders; i++)
+                offer(queue, LoadDataEncoder.END, futures);
+            long result = 0;
+            for (Future<Integer> future : futures)
+                result += future.get();
+            if (Metrics.ENABLED) {
+                LOAD_ROWS.add(encoder.rows());
+                LOAD_BYTES.add(bytes);
+            }
+            return result;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ManagerException)
+                throw (ManagerException) cause;
+            throw new MySQLException("Can not load data into table(" + tableName + "): " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MySQLException("Interrupted while loading data into table(" + tableName + ").", e);
+        } finally {
+            // 失败时中断仍在等待数据的导入线程
+            executor.shutdownNow();
+        }
+    }
+
+    // 放入数据块，队列已满时等待，等待期间检查导入线程是否已失败
+    private static void offer(BlockingQueue<byte[]> queue, byte[] chunk, List<Future<Integer>> futures)
+            throws InterruptedException, ExecutionException {
+        while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+            for (Future<Integer> future : futures) {
+                if (future.isDone())
+                    future.get();
+            }
+        }
+    }
+
+    /**
+     * MySQL 驱动默认把结果全部读入内存：未开启服务器端游标时只能以 {@link Integer#MIN_VALUE} 逐行读取，
+     * 开启 {@link MySQLConfig#setUseCursorFetch(boolean)} 时按请求的 fetch size 分批读取。
+     */
+    @Override
+    protected int streamingFetchSize(int fetchSize) {
+        AbstractJDBCConfig conf = this.conf;
+        boolean cursor = conf instanceof MySQLConfig && ((MySQLConfig) conf).isUseCursorFetch();
+        return cursor && fetchSize > 0 ? fetchSize : Integer.MIN_VALUE;
+    }
+
     /**
      * 连接。
      * @param conf 指定 MySQL 配置。
@@ -109,13 +676,16 @@ public class MySQLManager extends AbstractManager {
     }
 
     @Override
-    public synchronized boolean existsDatabase(String database) throws MySQLException {
+    public boolean existsDatabase(String database) throws MySQLException {
         if (StringUtils.isEmpty(database))
             return false;
-        requireConnection();
-        requireConnected();
+        return cachedMetadata("database.exists", database, null, () -> loadExistsDatabase(database));
+    }
+
+    private boolean loadExistsDatabase(String database) throws MySQLException {
         // 获取数据库
-        try (ResultSet rs = conn.getMetaData().getCatalogs()){
+        try (ConnectionLease lease = lease();
+             ResultSet rs = lease.get().getMetaData().getCatalogs()) {
             // 记录最后连接时间
             recordLastConnectionTime();
             while (rs.next()) {
@@ -129,13 +699,16 @@ public class MySQLManager extends AbstractManager {
     }
 
     @Override
-    public synchronized boolean existsTable(String database, String tableName) throws MySQLException {
+    public boolean existsTable(String database, String tableName) throws MySQLException {
         if (StringUtils.isEmpty(tableName))
             return false;
-        requireConnection();
-        requireConnected();
+        return cachedMetadata("table.exists", database, tableName, () -> loadExistsTable(database, tableName));
+    }
+
+    private boolean loadExistsTable(String database, String tableName) throws MySQLException {
         // 获取表
-        try (ResultSet rs = conn.getMetaData().getTables(database, null, tableName, new String[]{"TABLE"})) {
+        try (ConnectionLease lease = lease();
+             ResultSet rs = lease.get().getMetaData().getTables(database, null, tableName, new String[]{"TABLE"})) {
             // 记录最后连接时间
             recordLastConnectionTime();
             return rs.next();
@@ -150,7 +723,7 @@ public class MySQLManager extends AbstractManager {
      * @return 返回 true 表示存在，返回 false 表示不存在。
      * @throws MySQLException 执行过程中出错，则抛出该异常。
      */
-    public synchronized boolean existsTable(String tableName) throws MySQLException {
+    public boolean existsTable(String tableName) throws MySQLException {
         String database = null;
         String name = tableName;
         int pos = tableName.indexOf('.');
@@ -162,12 +735,15 @@ public class MySQLManager extends AbstractManager {
     }
 
     @Override
-    public synchronized List<MySQLDataBase> getDatabases() throws MySQLException {
-        requireConnection();
-        requireConnected();
+    public List<MySQLDataBase> getDatabases() throws MySQLException {
+        return new LinkedList<>(cachedMetadata("databases", null, null, this::loadDatabases));
+    }
+
+    private List<MySQLDataBase> loadDatabases() throws MySQLException {
         List<MySQLDataBase> list = new LinkedList<>();
         // 获取数据库
-        try (ResultSet rs = conn.getMetaData().getCatalogs()){
+        try (ConnectionLease lease = lease();
+             ResultSet rs = lease.get().getMetaData().getCatalogs()) {
             while(rs.next()) {
                 // 记录最后连接时间
                 recordLastConnectionTime();
@@ -180,17 +756,21 @@ public class MySQLManager extends AbstractManager {
     }
 
     @Override
-    public synchronized MySQLTable getTable(String database, String tableName) throws MySQLException {
-        requireConnection();
-        requireConnected();
+    public MySQLTable getTable(String database, String tableName) throws MySQLException {
+        MySQLTable table = cachedMetadata("table", database, tableName, () -> loadTable(database, tableName));
+        return table == null ? null : table.clone();
+    }
+
+    private MySQLTable loadTable(String database, String tableName) throws MySQLException {
         MySQLTable table = null;
         // 获取字段
-        try (ResultSet rs = conn.getMetaData().getColumns(database, null, tableName, null)){
+        try (ConnectionLease lease = lease();
+             ResultSet rs = lease.get().getMetaData().getColumns(database, null, tableName, null)) {
             while (rs.next()) {
                 // 记录最后连接时间
                 recordLastConnectionTime();
                 if (table == null) {
-                    String user = conn.getMetaData().getUserName();
+                    String user = lease.get().getMetaData().getUserName();
                     table = new MySQLTable(new MySQLDataBase(database, user), tableName);
                 }
                 Column column = new Column(rs.getString("COLUMN_NAME"),
@@ -206,44 +786,29 @@ public class MySQLManager extends AbstractManager {
         return table;
     }
 
-    public synchronized MySQLTable getTable(String tableName) throws MySQLException {
-        requireConnection();
-        requireConnected();
-        MySQLTable table = null;
+    public MySQLTable getTable(String tableName) throws MySQLException {
         // 解析表名
         int pos = tableName.indexOf('.');
         String database = pos > 0 ? tableName.substring(0, pos) : conf.getDatabase();
         String name = pos > 0 ? tableName.substring(pos + 1) : tableName;
-        try (ResultSet rs = conn.getMetaData().getColumns(database, null, name, null)) {
-            String user = conn.getMetaData().getUserName();
-            // 获取字段
-            while (rs.next()) {
-                // 记录最后连接时间
-                recordLastConnectionTime();
-                if (table == null) {
-                    table = new MySQLTable(new MySQLDataBase(database, user), name);
-                }
-                Column column = new Column(rs.getString("COLUMN_NAME"),
-                        rs.getString("COLUMN_NAME"),
-                        rs.getInt("COLUMN_NAME"),
-                        rs.getInt("COLUMN_NAME"));
-                column.setNullable(rs.getInt("NULLABLE") == 0);
-                table.addField(column);
-            }
-        } catch (SQLException e) {
-            throw new MySQLException(e.getMessage(), e);
-        }
-        return table;
+        return getTable(database, name);
     }
 
     @Override
-    public synchronized List<MySQLTable> getTables(String database) throws MySQLException {
-        requireConnection();
-        requireConnected();
+    public List<MySQLTable> getTables(String database) throws MySQLException {
+        List<MySQLTable> tables = cachedMetadata("tables", database, null, () -> loadTables(database));
+        List<MySQLTable> copy   = new ArrayList<>(tables.size());
+        for (MySQLTable table : tables)
+            copy.add(table.clone());
+        return copy;
+    }
+
+    private List<MySQLTable> loadTables(String database) throws MySQLException {
         List<MySQLTable> tables = new ArrayList<>();
-        try (ResultSet rs = conn.getMetaData().getTables(database, null, "%", new String[]{"TABLE"})) {
+        try (ConnectionLease lease = lease();
+             ResultSet rs = lease.get().getMetaData().getTables(database, null, "%", new String[]{"TABLE"})) {
             while (rs.next()) {
-                String user = conn.getMetaData().getUserName();
+                String user = lease.get().getMetaData().getUserName();
                 String dbName = rs.getString("TABLE_CAT");
                 tables.add(new MySQLTable(new MySQLDataBase(dbName, user), rs.getString("TABLE_NAME")));
             }
@@ -254,8 +819,8 @@ public class MySQLManager extends AbstractManager {
     }
 
     @Override
-    public synchronized final int merge(String database, String tableName,
-                                        String[] primaryKeys, Map<String, Object> values) throws MySQLException {
+    public final int merge(String database, String tableName,
+                           String[] primaryKeys, Map<String, Object> values) throws MySQLException {
         if (values == null)
             return -1;
         if (values.size() <= 0)
@@ -283,7 +848,7 @@ public class MySQLManager extends AbstractManager {
     }
 
     @Override
-    public synchronized int merge(String database, String tableName, Row values) throws ManagerException {
+    public int merge(String database, String tableName, Row values) throws ManagerException {
         if (values == null)
             return -1;
         // 取主键
@@ -296,11 +861,10 @@ public class MySQLManager extends AbstractManager {
 
     // 测试期间的功能，建议发布时删除
     @Deprecated
-    public synchronized void printTable(String database, String tableName) throws MySQLException {
-        requireConnection();
-        requireConnected();
+    public void printTable(String database, String tableName) throws MySQLException {
         // 获取字段
-        try (ResultSet rs = conn.getMetaData().getColumns(database, null, tableName, null)) {
+        try (ConnectionLease lease = lease();
+             ResultSet rs = lease.get().getMetaData().getColumns(database, null, tableName, null)) {
             int lines = 0;
             while (rs.next()) {
                 // 记录最后连接时间
@@ -327,7 +891,7 @@ public class MySQLManager extends AbstractManager {
         }
     }
 
-    public synchronized Map<String, String> getVariables() throws MySQLException {
+    public Map<String, String> getVariables() throws MySQLException {
         List<Row> list = super.query("show global variables").toList();
         Map<String, String> retval = new HashMap<>();
         list.stream()